@@ -0,0 +1,100 @@
+package org.springframework.data.simpledb.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonMethod;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.simpledb.core.entity.json.JsonMarshaller;
+
+/**
+ * Compares {@link JsonMarshaller} with the former behaviour of building and configuring a new {@link ObjectMapper}
+ * for every marshalled field value. <br/>
+ * Run with <tt>mvn -P benchmark package exec:exec</tt> from the implementation module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonMarshallerBenchmark {
+
+	private List<String> list;
+	private Map<String, Object> map;
+	private SampleValue object;
+
+	public static class SampleValue {
+
+		private String name;
+		private long[] values;
+		private List<String> tags;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		list = new ArrayList<String>(Arrays.asList("one", "two", "three", "four", "five"));
+
+		map = new LinkedHashMap<String, Object>();
+		map.put("first", "value");
+		map.put("second", Integer.valueOf(42));
+
+		object = new SampleValue();
+		object.name = "sample";
+		object.values = new long[] { 1, 2, 3 };
+		object.tags = list;
+	}
+
+	@Benchmark
+	public String marshallListWithNewMapper() throws Exception {
+		return newMapper().writeValueAsString(list);
+	}
+
+	@Benchmark
+	public String marshallListWithSharedMapper() {
+		return JsonMarshaller.getInstance().marshall(list);
+	}
+
+	@Benchmark
+	public String marshallMapWithNewMapper() throws Exception {
+		return newMapper().writeValueAsString(map);
+	}
+
+	@Benchmark
+	public String marshallMapWithSharedMapper() {
+		return JsonMarshaller.getInstance().marshall(map);
+	}
+
+	@Benchmark
+	public String marshallObjectWithNewMapper() throws Exception {
+		return newMapper().writeValueAsString(object);
+	}
+
+	@Benchmark
+	public String marshallObjectWithSharedMapper() {
+		return JsonMarshaller.getInstance().marshall(object);
+	}
+
+	private static ObjectMapper newMapper() {
+		final ObjectMapper mapper = new ObjectMapper().setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
+		mapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
+		return mapper;
+	}
+}
@@ -0,0 +1,80 @@
+package org.springframework.data.simpledb.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.simpledb.attributeutil.AmazonSimpleDBUtil;
+
+/**
+ * Encoding and decoding of numeric attribute values: the {@link BigDecimal} based range encoding against the long
+ * arithmetic paths of {@link AmazonSimpleDBUtil}. <br/>
+ * Run with <tt>mvn -P benchmark package exec:exec</tt> from the implementation module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumberEncodingBenchmark {
+
+	private static final BigDecimal OFFSET = new BigDecimal(Long.MIN_VALUE).negate();
+	private static final int DIGITS = 20;
+
+	private Long longValue;
+	private Double doubleValue;
+	private String encodedLong;
+	private String encodedDouble;
+
+	@Setup
+	public void setUp() {
+		longValue = Long.valueOf(-1234567890123L);
+		doubleValue = Double.valueOf(-12345.6789);
+		encodedLong = AmazonSimpleDBUtil.encodeAsIntegerNumber(longValue);
+		encodedDouble = AmazonSimpleDBUtil.encodeAsRealNumber(doubleValue);
+	}
+
+	@Benchmark
+	public String encodeLongWithBigDecimal() {
+		return AmazonSimpleDBUtil.encodeRealNumberRange(new BigDecimal(longValue.toString()), DIGITS, OFFSET);
+	}
+
+	@Benchmark
+	public String encodeLong() {
+		return AmazonSimpleDBUtil.encodeAsIntegerNumber(longValue);
+	}
+
+	@Benchmark
+	public long decodeLongWithBigDecimal() {
+		return AmazonSimpleDBUtil.decodeIntegerNumber(encodedLong).longValue();
+	}
+
+	@Benchmark
+	public long decodeLong() {
+		return AmazonSimpleDBUtil.decodeLong(encodedLong);
+	}
+
+	@Benchmark
+	public String encodeDoubleWithBigDecimal() {
+		return AmazonSimpleDBUtil.encodeRealNumberRange(new BigDecimal(doubleValue.toString()), DIGITS, DIGITS, OFFSET);
+	}
+
+	@Benchmark
+	public String encodeDouble() {
+		return AmazonSimpleDBUtil.encodeAsRealNumber(doubleValue);
+	}
+
+	@Benchmark
+	public double decodeDoubleWithBigDecimal() {
+		return AmazonSimpleDBUtil.decodeRealNumber(encodedDouble).doubleValue();
+	}
+
+	@Benchmark
+	public double decodeDouble() {
+		return AmazonSimpleDBUtil.decodeDouble(encodedDouble);
+	}
+}
@@ -0,0 +1,99 @@
+package org.springframework.data.simpledb.benchmark;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.annotation.Persistent;
+import org.springframework.data.simpledb.reflection.PropertyAccessor;
+import org.springframework.data.simpledb.reflection.ReflectionUtils;
+
+/**
+ * Per property cost of reading and writing entity properties: the former lookup on every access (field resolution,
+ * {@link PropertyDescriptor} introspection, accessible flag toggling) against the cached {@link PropertyAccessor}. <br/>
+ * Run with <tt>mvn -P benchmark package exec:exec</tt> from the implementation module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropertyAccessorBenchmark {
+
+	private SampleEntity entity;
+	private PropertyAccessor nameAccessor;
+	private PropertyAccessor counterAccessor;
+
+	public static class SampleEntity {
+
+		private String name;
+
+		@Persistent
+		private long counter;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	@Setup
+	public void setUp() {
+		entity = new SampleEntity();
+		entity.setName("sample");
+		nameAccessor = PropertyAccessor.forProperty(SampleEntity.class, "name");
+		counterAccessor = PropertyAccessor.forProperty(SampleEntity.class, "counter");
+	}
+
+	@Benchmark
+	public Object getterWithLookup() throws Exception {
+		ReflectionUtils.getDeclaredFieldInHierarchy(entity.getClass(), "name");
+		return new PropertyDescriptor("name", entity.getClass()).getReadMethod().invoke(entity);
+	}
+
+	@Benchmark
+	public Object getterWithCachedAccessor() {
+		return nameAccessor.getValue(entity);
+	}
+
+	@Benchmark
+	public Object getterThroughReflectionUtils() {
+		return ReflectionUtils.callGetter(entity, "name");
+	}
+
+	@Benchmark
+	public void setterWithLookup() throws Exception {
+		ReflectionUtils.getDeclaredFieldInHierarchy(entity.getClass(), "name");
+		new PropertyDescriptor("name", entity.getClass()).getWriteMethod().invoke(entity, "value");
+	}
+
+	@Benchmark
+	public void setterWithCachedAccessor() {
+		nameAccessor.setValue(entity, "value");
+	}
+
+	@Benchmark
+	public Object persistentFieldWithLookup() throws Exception {
+		Field field = ReflectionUtils.getDeclaredFieldInHierarchy(entity.getClass(), "counter");
+		boolean accessible = field.isAccessible();
+		try {
+			field.setAccessible(true);
+			return field.get(entity);
+		} finally {
+			field.setAccessible(accessible);
+		}
+	}
+
+	@Benchmark
+	public Object persistentFieldWithCachedAccessor() {
+		return counterAccessor.getValue(entity);
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.simpledb.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the items of an entity read by id or as references in the entity cache of the template, see
+ * {@link org.springframework.data.simpledb.core.SimpleDb#setEntityCacheSize(int)}. <br/>
+ * Items are evicted after the time to live, when the cache is full or when the template writes or deletes them.
+ * Writes of other applications are seen once the cached item expires; consistent reads always bypass the cache.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Cached {
+
+	/**
+	 * @return seconds an item stays in the cache, 0 keeps it until it is evicted or written
+	 */
+	long timeToLive() default 300;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2008-2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.simpledb.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Spreads the items of an entity over several domains to grow beyond the 10 GB limit of a single SimpleDB domain. <br/>
+ * Items are assigned by a stable hash of their item name to the domains <tt>user_job.0</tt> ...
+ * <tt>user_job.N-1</tt>; reads by id go to the owning domain, queries and counts are sent to all of them and merged.
+ * Changing the number of shards of an existing entity requires the items to be redistributed. <br/>
+ * Queries ordering by an attribute have to select that attribute to be merged in order.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface Sharded {
+
+	int shards();
+}
@@ -40,6 +40,36 @@ public final class AmazonSimpleDBUtil {
 	private static final int BASE = 10;
 	private static final int ENCODE_DATE_COLONS_INDEX = 2;
 	private static final int DECODE_DATE_COLONS_INDEX = 3;
+	private static final int REAL_DIGITS = 2 * LONG_DIGITS;
+	private static final String MAX_UNSIGNED_LONG = "18446744073709551615";
+	private static final int MAX_LONG_POWER_OF_TEN = 18;
+	private static final long[] POWERS_OF_TEN = new long[MAX_LONG_POWER_OF_TEN + 1];
+
+	/* dates of these years are encoded without SimpleDateFormat, others are left to its calendar */
+	private static final int MIN_ENCODED_YEAR = 1583;
+	private static final int MAX_ENCODED_YEAR = 9999;
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+	private static final long MIN_ENCODED_MILLIS = daysFromCivil(MIN_ENCODED_YEAR, 1, 1) * MILLIS_PER_DAY;
+	private static final long MAX_ENCODED_MILLIS = daysFromCivil(MAX_ENCODED_YEAR + 1, 1, 1) * MILLIS_PER_DAY - 1;
+	/* yyyy-MM-ddTHH:mm:ss.SS:SZ */
+	private static final int ENCODED_DATE_LENGTH = 25;
+
+	private static final ThreadLocal<SimpleDateFormat> DATE_FORMATTER = new ThreadLocal<SimpleDateFormat>() {
+
+		@Override
+		protected SimpleDateFormat initialValue() {
+			final SimpleDateFormat dateFormatter = new SimpleDateFormat(dateFormat);
+			dateFormatter.setTimeZone(TimeZone.getTimeZone(UTC_TZ_ID));
+			return dateFormatter;
+		}
+	};
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for(int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * BASE;
+		}
+	}
 
 	private AmazonSimpleDBUtil() {
 		/* utility class */
@@ -49,6 +79,10 @@ public final class AmazonSimpleDBUtil {
 	 * Unsed to encode an Integer {@link Number}.
 	 */
 	public static String encodeAsIntegerNumber(Object ob) {
+		if(ob instanceof Long || ob instanceof Integer || ob instanceof Short || ob instanceof Byte) {
+			return encodeLong(((Number) ob).longValue());
+		}
+
 		BigDecimal integerBigDecimal = AmazonSimpleDBUtil.tryToStoreAsIntegerBigDecimal(ob);
 		if(integerBigDecimal != null) {
 			return AmazonSimpleDBUtil.encodeRealNumberRange(integerBigDecimal, AmazonSimpleDBUtil.LONG_DIGITS,
@@ -62,6 +96,28 @@ public final class AmazonSimpleDBUtil {
 		return AmazonSimpleDBUtil.decodeRealNumberRange(value, OFFSET_VALUE);
 	}
 
+	/**
+	 * Encodes a long exactly as {@link #encodeAsIntegerNumber(Object)}: the value offset by 2^63, zero padded to 20
+	 * digits.
+	 */
+	public static String encodeLong(long value) {
+		final char[] digits = new char[LONG_DIGITS];
+		writeUnsignedLong(value ^ Long.MIN_VALUE, digits, 0);
+		return new String(digits);
+	}
+
+	/**
+	 * Decodes an integer number encoded by {@link #encodeAsIntegerNumber(Object)}, integral types narrow the result
+	 * the same way as {@link BigDecimal#intValue()} and the like.
+	 */
+	public static long decodeLong(String value) {
+		if(value.length() == LONG_DIGITS && isUnsignedLong(value, 0)) {
+			return parseUnsignedLong(value, 0) ^ Long.MIN_VALUE;
+		}
+
+		return decodeIntegerNumber(value).longValue();
+	}
+
 	/**
 	 * Unsed to encode a Not Integer {@link Number}.
 	 */
@@ -70,6 +126,13 @@ public final class AmazonSimpleDBUtil {
 			throw new MappingException("Could not serialize NaN or Infinity values");
 		}
 
+		if(ob instanceof Double || ob instanceof Float) {
+			final String encoded = encodeDecimal(ob.toString());
+			if(encoded != null) {
+				return encoded;
+			}
+		}
+
 		BigDecimal realBigDecimal = AmazonSimpleDBUtil.tryToStoreAsRealBigDecimal(ob);
 		if(realBigDecimal != null) {
 			return AmazonSimpleDBUtil.encodeRealNumberRange(realBigDecimal, AmazonSimpleDBUtil.LONG_DIGITS,
@@ -87,6 +150,22 @@ public final class AmazonSimpleDBUtil {
 		return AmazonSimpleDBUtil.decodeRealNumberRange(value, AmazonSimpleDBUtil.LONG_DIGITS, OFFSET_VALUE);
 	}
 
+	/**
+	 * Same as <tt>decodeRealNumber(value).doubleValue()</tt>
+	 */
+	public static double decodeDouble(String value) {
+		final String decimal = toDecimal(value);
+		return decimal != null ? Double.parseDouble(decimal) : decodeRealNumber(value).doubleValue();
+	}
+
+	/**
+	 * Same as <tt>decodeRealNumber(value).floatValue()</tt>
+	 */
+	public static float decodeFloat(String value) {
+		final String decimal = toDecimal(value);
+		return decimal != null ? Float.parseFloat(decimal) : decodeRealNumber(value).floatValue();
+	}
+
 	public static String encodeRealNumberRange(BigDecimal number, int maxNumDigits, BigDecimal offsetValue) {
 		final BigDecimal offsetNumber = number.add(offsetValue);
 		final String longString = offsetNumber.toString();
@@ -141,10 +220,13 @@ public final class AmazonSimpleDBUtil {
 	 * @return string representation of the date value
 	 */
 	public static String encodeDate(Date date) {
-		SimpleDateFormat dateFormatter = new SimpleDateFormat(dateFormat);
-		dateFormatter.setTimeZone(TimeZone.getTimeZone(UTC_TZ_ID));
+		final long millis = date.getTime();
+		if(millis >= MIN_ENCODED_MILLIS && millis <= MAX_ENCODED_MILLIS) {
+			return encodeDateMillis(millis);
+		}
+
 		/* Java doesn't handle ISO8601 nicely: need to add ':' manually */
-		String result = dateFormatter.format(date);
+		String result = DATE_FORMATTER.get().format(date);
 		return result.substring(0, result.length() - ENCODE_DATE_COLONS_INDEX) + ":"
 				+ result.substring(result.length() - ENCODE_DATE_COLONS_INDEX);
 	}
@@ -157,11 +239,119 @@ public final class AmazonSimpleDBUtil {
 	 * @return original date value
 	 */
 	public static Date decodeDate(String value) throws ParseException {
+		final Date date = decodeDateMillis(value);
+		if(date != null) {
+			return date;
+		}
+
 		String javaValue = value.substring(0, value.length() - DECODE_DATE_COLONS_INDEX)
 				+ value.substring(value.length() - ENCODE_DATE_COLONS_INDEX);
-		SimpleDateFormat dateFormatter = new SimpleDateFormat(dateFormat);
-		dateFormatter.setTimeZone(TimeZone.getTimeZone(UTC_TZ_ID));
-		return dateFormatter.parse(javaValue);
+		return DATE_FORMATTER.get().parse(javaValue);
+	}
+
+	/*
+	 * Same output as the UTC SimpleDateFormat of the date format with the ':' added, for Gregorian calendar years
+	 */
+	private static String encodeDateMillis(long millis) {
+		long days = millis / MILLIS_PER_DAY;
+		long millisOfDay = millis % MILLIS_PER_DAY;
+		if(millisOfDay < 0) {
+			days--;
+			millisOfDay += MILLIS_PER_DAY;
+		}
+
+		/* civil from days, see http://howardhinnant.github.io/date_algorithms.html */
+		final long shiftedDays = days + 719468;
+		final long era = (shiftedDays >= 0 ? shiftedDays : shiftedDays - 146096) / 146097;
+		final long dayOfEra = shiftedDays - era * 146097;
+		final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+		final int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+		final int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+		final int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+
+		final char[] chars = new char[ENCODED_DATE_LENGTH];
+		writeDigits(year, 4, chars, 0);
+		chars[4] = '-';
+		writeDigits(month, 2, chars, 5);
+		chars[7] = '-';
+		writeDigits(day, 2, chars, 8);
+		chars[10] = 'T';
+		writeDigits(millisOfDay / (60 * 60 * 1000), 2, chars, 11);
+		chars[13] = ':';
+		writeDigits(millisOfDay / (60 * 1000) % 60, 2, chars, 14);
+		chars[16] = ':';
+		writeDigits(millisOfDay / 1000 % 60, 2, chars, 17);
+		chars[19] = '.';
+		writeDigits(millisOfDay % 1000 / 10, 2, chars, 20);
+		chars[22] = ':';
+		writeDigits(millisOfDay % 10, 1, chars, 23);
+		chars[24] = 'Z';
+		return new String(chars);
+	}
+
+	/*
+	 * Parses dates encoded by encodeDateMillis, null for any other value
+	 */
+	private static Date decodeDateMillis(String value) {
+		if(value.length() != ENCODED_DATE_LENGTH || value.charAt(4) != '-' || value.charAt(7) != '-'
+				|| value.charAt(10) != 'T' || value.charAt(13) != ':' || value.charAt(16) != ':'
+				|| value.charAt(19) != '.' || value.charAt(22) != ':' || value.charAt(24) != 'Z') {
+			return null;
+		}
+
+		final int year = parseDigits(value, 0, 4);
+		final int month = parseDigits(value, 5, 2);
+		final int day = parseDigits(value, 8, 2);
+		final int hours = parseDigits(value, 11, 2);
+		final int minutes = parseDigits(value, 14, 2);
+		final int seconds = parseDigits(value, 17, 2);
+		final int centis = parseDigits(value, 20, 2);
+		final int lastMilliDigit = parseDigits(value, 23, 1);
+		if(year < MIN_ENCODED_YEAR || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+				|| hours < 0 || hours > 23 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59 || centis < 0
+				|| lastMilliDigit < 0) {
+			/* left to the lenient SimpleDateFormat parsing */
+			return null;
+		}
+
+		return new Date(daysFromCivil(year, month, day) * MILLIS_PER_DAY + ((hours * 60L + minutes) * 60 + seconds)
+				* 1000 + centis * 10 + lastMilliDigit);
+	}
+
+	/*
+	 * Days since the epoch of a proleptic Gregorian date, see http://howardhinnant.github.io/date_algorithms.html
+	 */
+	private static long daysFromCivil(int year, int month, int day) {
+		final long shiftedYear = month <= 2 ? year - 1 : year;
+		final long era = (shiftedYear >= 0 ? shiftedYear : shiftedYear - 399) / 400;
+		final long yearOfEra = shiftedYear - era * 400;
+		final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	private static int daysInMonth(int year, int month) {
+		if(month == 2) {
+			return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+		}
+		return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+	}
+
+	/*
+	 * Value of the digits at offset or -1 if any of them is not a digit
+	 */
+	private static int parseDigits(String value, int offset, int count) {
+		int result = 0;
+		for(int i = offset; i < offset + count; i++) {
+			final char c = value.charAt(i);
+			if(c < '0' || c > '9') {
+				return -1;
+			}
+			result = result * BASE + (c - '0');
+		}
+		return result;
 	}
 
 	/**
@@ -193,6 +383,175 @@ public final class AmazonSimpleDBUtil {
 
 	}
 
+	/*
+	 * Computes encodeRealNumberRange(new BigDecimal(decimal), LONG_DIGITS, LONG_DIGITS, OFFSET_VALUE) with long
+	 * arithmetic for the output of Double.toString and Float.toString. The value shifted by 20 decimal digits is
+	 * written as its integral part offset by 2^63 followed by its 20 digit remainder. Returns null when the value does
+	 * not fit, the BigDecimal encoding is used then.
+	 */
+	private static String encodeDecimal(String decimal) {
+		final boolean negative = decimal.charAt(0) == '-';
+
+		long mantissa = 0;
+		int mantissaDigits = 0;
+		int exponent = 0;
+		boolean fraction = false;
+		for(int i = negative ? 1 : 0; i < decimal.length(); i++) {
+			final char c = decimal.charAt(i);
+			if(c == '.') {
+				fraction = true;
+			} else if(c == 'E') {
+				exponent += Integer.parseInt(decimal.substring(i + 1));
+				break;
+			} else {
+				if((mantissa != 0 || c != '0') && ++mantissaDigits > MAX_LONG_POWER_OF_TEN) {
+					return null;
+				}
+				mantissa = mantissa * BASE + (c - '0');
+				if(fraction) {
+					exponent--;
+				}
+			}
+		}
+
+		final char[] digits = new char[REAL_DIGITS];
+		long integral = 0;
+		if(mantissa == 0) {
+			writeDigits(0, LONG_DIGITS, digits, LONG_DIGITS);
+		} else if(exponent >= 0) {
+			if(exponent > MAX_LONG_POWER_OF_TEN || mantissa > Long.MAX_VALUE / POWERS_OF_TEN[exponent]) {
+				return null;
+			}
+			integral = mantissa * POWERS_OF_TEN[exponent];
+			writeDigits(0, LONG_DIGITS, digits, LONG_DIGITS);
+		} else if(exponent >= -LONG_DIGITS) {
+			final int fractionDigits = -exponent;
+			long remainder = mantissa;
+			if(fractionDigits <= MAX_LONG_POWER_OF_TEN) {
+				integral = mantissa / POWERS_OF_TEN[fractionDigits];
+				remainder = mantissa % POWERS_OF_TEN[fractionDigits];
+			}
+			writeDigits(remainder, fractionDigits, digits, LONG_DIGITS);
+			writeDigits(0, LONG_DIGITS - fractionDigits, digits, LONG_DIGITS + fractionDigits);
+		} else {
+			/* more than 20 fraction digits, round half up */
+			final int droppedDigits = -exponent - LONG_DIGITS;
+			long rounded = 0;
+			if(droppedDigits <= MAX_LONG_POWER_OF_TEN) {
+				final long divisor = POWERS_OF_TEN[droppedDigits];
+				rounded = mantissa / divisor;
+				final long remainder = mantissa % divisor;
+				if(remainder >= divisor - remainder) {
+					rounded++;
+				}
+			}
+			writeDigits(rounded, LONG_DIGITS, digits, LONG_DIGITS);
+		}
+
+		if(negative) {
+			/* floor division: -(integral + remainder) = -(integral + 1) + (1 - remainder) */
+			if(tensComplement(digits, LONG_DIGITS)) {
+				integral = -integral - 1;
+			} else {
+				integral = -integral;
+			}
+		}
+
+		writeUnsignedLong(integral ^ Long.MIN_VALUE, digits, 0);
+		return new String(digits);
+	}
+
+	/*
+	 * Exact decimal representation of a 40 digit real number encoding, null if the value is not of that form
+	 */
+	private static String toDecimal(String value) {
+		if(value.length() != REAL_DIGITS || !isUnsignedLong(value, 0) || !isDigits(value, LONG_DIGITS, REAL_DIGITS)) {
+			return null;
+		}
+
+		final long integral = parseUnsignedLong(value, 0) ^ Long.MIN_VALUE;
+		final char[] fraction = value.substring(LONG_DIGITS).toCharArray();
+		if(integral < 0 && tensComplement(fraction, 0)) {
+			/* integral + fraction = -((-integral - 1) + (1 - fraction)) */
+			return "-" + (-(integral + 1)) + "." + new String(fraction);
+		}
+		return integral + "." + new String(fraction);
+	}
+
+	/*
+	 * Replaces the 20 digits at offset by 10^20 minus their value, returns false if they are all zeroes
+	 */
+	private static boolean tensComplement(char[] digits, int offset) {
+		int position = offset + LONG_DIGITS - 1;
+		while(position >= offset && digits[position] == '0') {
+			position--;
+		}
+		if(position < offset) {
+			return false;
+		}
+
+		digits[position] = (char) ('0' + BASE - (digits[position] - '0'));
+		for(position--; position >= offset; position--) {
+			digits[position] = (char) ('0' + BASE - 1 - (digits[position] - '0'));
+		}
+		return true;
+	}
+
+	private static void writeUnsignedLong(long unsignedValue, char[] digits, int offset) {
+		long remaining = unsignedValue;
+		int position = offset + LONG_DIGITS;
+		if(remaining < 0) {
+			final long quotient = (remaining >>> 1) / (BASE / 2);
+			digits[--position] = (char) ('0' + (remaining - quotient * BASE));
+			remaining = quotient;
+		}
+		while(position > offset) {
+			digits[--position] = (char) ('0' + remaining % BASE);
+			remaining /= BASE;
+		}
+	}
+
+	private static void writeDigits(long value, int count, char[] digits, int offset) {
+		long remaining = value;
+		for(int position = offset + count - 1; position >= offset; position--) {
+			digits[position] = (char) ('0' + remaining % BASE);
+			remaining /= BASE;
+		}
+	}
+
+	private static boolean isUnsignedLong(String value, int offset) {
+		if(value.length() < offset + LONG_DIGITS || !isDigits(value, offset, offset + LONG_DIGITS)) {
+			return false;
+		}
+
+		/* equally long digit strings compare as their values */
+		for(int i = 0; i < LONG_DIGITS; i++) {
+			final int difference = value.charAt(offset + i) - MAX_UNSIGNED_LONG.charAt(i);
+			if(difference != 0) {
+				return difference < 0;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigits(String value, int from, int to) {
+		for(int i = from; i < to; i++) {
+			final char c = value.charAt(i);
+			if(c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static long parseUnsignedLong(String value, int offset) {
+		long unsignedValue = 0;
+		for(int i = offset; i < offset + LONG_DIGITS; i++) {
+			unsignedValue = unsignedValue * BASE + (value.charAt(i) - '0');
+		}
+		return unsignedValue;
+	}
+
 	private static BigDecimal tryToStoreAsRealBigDecimal(Object ob) {
 		BigDecimal bigDecimal = null;
 		if(canBeStoredAsRealBigDecimal(ob)) {
@@ -74,17 +74,17 @@ public final class SimpleDBAttributeConverter {
 		Object val = null;
 
 		if(Integer.class.isAssignableFrom(retType) || retType == int.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).intValue();
+			val = (int) AmazonSimpleDBUtil.decodeLong(value);
 		} else if(Long.class.isAssignableFrom(retType) || retType == long.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).longValue();
+			val = AmazonSimpleDBUtil.decodeLong(value);
 		} else if(Short.class.isAssignableFrom(retType) || retType == short.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).shortValue();
+			val = (short) AmazonSimpleDBUtil.decodeLong(value);
 		} else if(Byte.class.isAssignableFrom(retType) || retType == byte.class) {
-			val = AmazonSimpleDBUtil.decodeIntegerNumber(value).byteValue();
+			val = (byte) AmazonSimpleDBUtil.decodeLong(value);
 		} else if(Float.class.isAssignableFrom(retType) || retType == float.class) {
-			val = AmazonSimpleDBUtil.decodeRealNumber(value).floatValue();
+			val = AmazonSimpleDBUtil.decodeFloat(value);
 		} else if(Double.class.isAssignableFrom(retType) || retType == double.class) {
-			val = AmazonSimpleDBUtil.decodeRealNumber(value).doubleValue();
+			val = AmazonSimpleDBUtil.decodeDouble(value);
 		}
 
 		return val;
@@ -6,22 +6,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.simpledb.exception.SimpleDbExceptionTranslator;
+import org.springframework.util.Assert;
 
 /**
  * Enables callbacks on execute()
  */
 public abstract class AbstractServiceUnavailableOperationRetrier {
 
-    private int serviceUnavailableRetries;
+    private final RetryPolicy retryPolicy;
 
+    /**
+     * @param serviceUnavailableRetries
+     *            attempts of the operation at most, see {@link SimpleDb#setUnavailableServiceRetries(int)}
+     */
     public AbstractServiceUnavailableOperationRetrier(int serviceUnavailableRetries) {
-        this.serviceUnavailableRetries = serviceUnavailableRetries;
+        this(ExponentialBackoffRetryPolicy.withMaxAttempts(serviceUnavailableRetries));
+    }
+
+    public AbstractServiceUnavailableOperationRetrier(RetryPolicy retryPolicy) {
+        Assert.notNull(retryPolicy);
+        this.retryPolicy = retryPolicy;
     }
 
-    private static final int RETRY_TIME = 400;
     private int currentRetry = 0;
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSimpleDbTemplate.class);
     public static final int SERVICE_UNAVAILABLE_STATUS_CODE = 503;
+    public static final String REQUEST_TIMEOUT_ERROR_CODE = "RequestTimeout";
 
     /**
      * Override this method for specific operations that need retry for Amazon ServiceUnavailableException
@@ -30,25 +40,23 @@ public abstract class AbstractServiceUnavailableOperationRetrier {
 
     public final void executeWithRetries() {
         try {
-            AmazonClientException serviceUnavailableException = null;
-            serviceUnavailableException = tryExecute();
-
-            while ((serviceUnavailableException != null) && currentRetry < serviceUnavailableRetries) {
-                try {
-                    Thread.sleep(RETRY_TIME);
-                } catch (InterruptedException e) {
-                    LOGGER.debug(e.getLocalizedMessage());
+            long totalDelay = 0;
+            AmazonClientException serviceUnavailableException = tryExecute();
+
+            while (serviceUnavailableException != null) {
+                final long delay = retryPolicy.getRetryDelay(currentRetry + 1, totalDelay);
+                if (delay < 0) {
+                    throw new DataAccessResourceFailureException("SimpleDB operation failed for "
+                            + (currentRetry + 1) + " times", serviceUnavailableException);
                 }
 
+                sleep(delay, serviceUnavailableException);
+                totalDelay += delay;
+
                 LOGGER.debug("Retrying operation");
                 currentRetry++;
                 serviceUnavailableException = tryExecute();
             }
-
-            if (currentRetry == serviceUnavailableRetries) {
-                throw new DataAccessResourceFailureException(
-                        "SimpleDB operation failed for " + currentRetry + " times", serviceUnavailableException);
-            }
         } catch (AmazonClientException exception) {
             throw SimpleDbExceptionTranslator.getTranslatorInstance().translateAmazonClientException(exception);
         }
@@ -72,10 +80,28 @@ public abstract class AbstractServiceUnavailableOperationRetrier {
         return null;
     }
 
-    private boolean isServiceUnavailableException(AmazonClientException e) {
-        return (((AmazonServiceException) e).getErrorType() == AmazonServiceException.ErrorType.Service
-                && ((AmazonServiceException) e).getStatusCode() == AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE);
+    private void sleep(long delay, AmazonClientException serviceUnavailableException) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while waiting to retry SimpleDB operation",
+                    serviceUnavailableException);
+        }
+    }
+
+    /**
+     * @return true if the request failed with service unavailable or request timeout, such failures are retried
+     */
+    public static boolean isServiceUnavailableException(AmazonClientException e) {
+        if (!(e instanceof AmazonServiceException)) {
+            return false;
+        }
 
+        final AmazonServiceException serviceException = (AmazonServiceException) e;
+        return (serviceException.getErrorType() == AmazonServiceException.ErrorType.Service
+                && serviceException.getStatusCode() == AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE)
+                || REQUEST_TIMEOUT_ERROR_CODE.equals(serviceException.getErrorCode());
     }
 
     public int getCurrentRetry() {
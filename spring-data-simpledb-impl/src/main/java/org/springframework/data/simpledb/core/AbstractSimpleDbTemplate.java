@@ -3,14 +3,19 @@ package org.springframework.data.simpledb.core;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.simpledb.core.domain.DomainManager;
 import org.springframework.data.simpledb.core.entity.EntityWrapper;
-import org.springframework.data.simpledb.query.QueryUtils;
+import org.springframework.data.simpledb.core.metrics.InstrumentedAmazonSimpleDB;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetricsListener;
+import org.springframework.data.simpledb.query.QueryTemplate;
 import org.springframework.data.simpledb.query.SdbItemQuery;
 import org.springframework.data.simpledb.reflection.ReflectionUtils;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
@@ -25,7 +30,7 @@ import com.amazonaws.services.simpledb.model.SelectResult;
  */
 public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
-    private final int serviceUnavailableMaxRetries;
+    private final RetryPolicy retryPolicy;
     private final SimpleDb simpleDb;
     private final AmazonSimpleDB simpleDbClient;
     private final DomainManager domainManager;
@@ -33,16 +38,65 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public AbstractSimpleDbTemplate(SimpleDb simpleDb) {
         Assert.notNull(simpleDb);
         this.simpleDb = simpleDb;
-        this.simpleDbClient = simpleDb.getSimpleDbClient();
-        this.serviceUnavailableMaxRetries = simpleDb.getUnavailableServiceRetries();
+        final AmazonSimpleDB instrumentedClient = instrument(simpleDb.getSimpleDbClient(), simpleDb.getMetricsListener());
+        this.simpleDbClient = limit(instrumentedClient, simpleDb);
+        this.retryPolicy = reportRetries(simpleDb.getRetryPolicy(), instrumentedClient);
         this.domainManager = new DomainManager();
     }
 
+    /*
+     * Permits of the domain concurrency limiters are taken per request, nested requests of an operation do not wait for
+     * a permit held by their own thread.
+     */
+    private static AmazonSimpleDB limit(AmazonSimpleDB client, SimpleDb simpleDb) {
+        if (client == null) {
+            return null;
+        }
+        return new ConcurrencyLimitedAmazonSimpleDB(client, simpleDb);
+    }
+
+    private static AmazonSimpleDB instrument(AmazonSimpleDB client, SimpleDbMetricsListener metricsListener) {
+        if (client == null || metricsListener == null) {
+            return client;
+        }
+        return new InstrumentedAmazonSimpleDB(client, metricsListener);
+    }
+
+    /*
+     * The policy is asked only after a failure the retrier recognized, a delay means another attempt is scheduled.
+     */
+    private static RetryPolicy reportRetries(final RetryPolicy retryPolicy, AmazonSimpleDB client) {
+        if (!(client instanceof InstrumentedAmazonSimpleDB)) {
+            return retryPolicy;
+        }
+
+        final InstrumentedAmazonSimpleDB instrumentedClient = (InstrumentedAmazonSimpleDB) client;
+        return new RetryPolicy() {
+
+            @Override
+            public long getRetryDelay(int retry, long totalDelay) {
+                final long delay = retryPolicy.getRetryDelay(retry, totalDelay);
+                if (delay >= 0) {
+                    instrumentedClient.retryScheduled();
+                }
+                return delay;
+            }
+        };
+    }
+
     public abstract <T> Page<T> executePagedQueryImpl(Class<T> entityClass, String query, Pageable pageable,
                                                       boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T> SimpleDbSlice<T> findSliceImpl(Class<T> entityClass, String query, int size, String cursor,
+                                                      boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation);
+
+    public abstract <T> long scanImpl(Class<T> entityClass, String query, int segments, boolean consistentRead,
+                                      ScanCallback<T> callback, SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> T createOrUpdateImpl(T domainItem, EntityWrapper<T, ?> entity);
 
+    public abstract <T> List<T> createOrUpdateAllImpl(List<EntityWrapper<T, ?>> entities);
+
     public abstract void deleteAttributesImpl(String domainName, String itemName);
 
     public abstract <T> void deleteImpl(T domainItem, SimpleDbEntityInformation<T, ?> entityInformation, EntityWrapper<T, ?> entity);
@@ -52,6 +106,9 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public abstract <T> List<T> recursiveFindImpl(Class<T> entityClass, String query, boolean consistentRead,
                                                   SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T> List<Map<String, Object>> findProjectionsImpl(String query, boolean consistentRead,
+                                                                      SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> long countImpl(boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation);
 
     public abstract SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery);
@@ -60,16 +117,31 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
                                        SimpleDbEntityInformation<T, ?> entityInformation);
 
     public abstract <T, ID extends Serializable> T readImpl(ID id, Class<T> entityClass, boolean consistentRead,
+                                                            List<String> attributeNames,
                                                             SimpleDbEntityInformation<T, ?> entityInformation);
 
+    public abstract <T, ID extends Serializable> boolean existsImpl(ID id, Class<T> entityClass,
+                                                                    boolean consistentRead);
+
+    public abstract <T, ID extends Serializable> List<T> readAllImpl(Iterable<ID> ids, Class<T> entityClass,
+                                                                     boolean consistentRead,
+                                                                     SimpleDbEntityInformation<T, ?> entityInformation);
+
     public abstract <T> List<T> findImpl(SimpleDbEntityInformation<T, ?> entityInformation, String query,
                                          String nextToken, boolean consistentRead);
 
+    public abstract <T> Iterator<T> iterateImpl(Class<T> entityClass, String query, boolean consistentRead,
+                                                SimpleDbEntityInformation<T, ?> entityInformation);
+
     protected abstract <T, ID> void updateImpl(ID id, Class<T> entityClass, Map<String, ? extends Object> propertyMap);
-    
+
+    protected final RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     @Override
     public final AmazonSimpleDB getDB() {
-        return simpleDb.getSimpleDbClient();
+        return simpleDbClient;
     }
 
     @Override
@@ -82,6 +154,21 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return simpleDb.getDomain(entityClass);
     }
 
+    /**
+     * @return the domain owning the item, one of the shard domains of a
+     *         {@link org.springframework.data.simpledb.annotation.Sharded} entity
+     */
+    protected final String getDomainName(Class<?> entityClass, String itemName) {
+        return simpleDb.getDomain(entityClass, itemName);
+    }
+
+    /**
+     * @return all domains holding items of the entity
+     */
+    protected final List<String> getDomainNames(Class<?> entityClass) {
+        return simpleDb.getDomains(entityClass);
+    }
+
     @Override
     public final <T> T createOrUpdate(final T domainItem) {
         final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
@@ -91,7 +178,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -102,12 +189,33 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return items.size() > 0 ? items.get(0) : null;
     }
 
+    /**
+     * Each batch request is retried on its own in case of service unavailability.
+     */
+    @Override
+    public final <T> List<T> createOrUpdateAll(final Iterable<T> domainItems) {
+        final List<EntityWrapper<T, ?>> entities = new ArrayList<EntityWrapper<T, ?>>();
+
+        for (T domainItem : domainItems) {
+            final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
+            manageSimpleDbDomains(entityInformation);
+
+            entities.add(getEntityWrapper(domainItem, entityInformation));
+        }
+
+        if (entities.isEmpty()) {
+            return new ArrayList<T>();
+        }
+
+        return createOrUpdateAllImpl(entities);
+    }
+
 	@Override
     public final void delete(final String domainName, final String itemName) {
 		
 		manageSimpleDbDomain(domainName);
         
-		new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+		new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -121,9 +229,9 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(domainItem.getClass());
         final EntityWrapper<T, ?> entity = getEntityWrapper(domainItem, entityInformation);
 
-        manageSimpleDbDomain(entityInformation.getDomain());
+        manageEntityDomains(entityInformation.getJavaType());
         
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -134,7 +242,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 
     @Override
 	public <T, ID> void delete(Class<T> entityClass, ID id) {
-    	delete(getDomainName(entityClass), (String) id);
+    	delete(getDomainName(entityClass, (String) id), (String) id);
 	}
 
 	@Override
@@ -156,25 +264,71 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return read(id, entityClass, simpleDb.isConsistentRead());
     }
 
+    @Override
+    public final <T, ID extends Serializable> T read(ID id, Class<T> entityClass, boolean consistentRead) {
+        return read(id, entityClass, consistentRead, new String[0]);
+    }
+
     @Override
     public final <T, ID extends Serializable> T read(final ID id, final Class<T> entityClass,
-                                                     final boolean consistentRead) {
+                                                     final boolean consistentRead, final String... attributeNames) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-        manageSimpleDbDomain(entityInformation.getDomain());
+        manageEntityDomains(entityInformation.getJavaType());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
-                items.add(readImpl(id, entityClass, consistentRead, entityInformation));
+                items.add(readImpl(id, entityClass, consistentRead, Arrays.asList(attributeNames), entityInformation));
             }
         }.executeWithRetries();
 
         return items.size() > 0 ? items.get(0) : null;
     }
 
+    @Override
+    public final <T, ID extends Serializable> List<T> readAll(Iterable<ID> ids, Class<T> entityClass) {
+        return readAll(ids, entityClass, simpleDb.isConsistentRead());
+    }
+
+    /**
+     * Each select is retried on its own in case of service unavailability.
+     */
+    @Override
+    public final <T, ID extends Serializable> List<T> readAll(Iterable<ID> ids, Class<T> entityClass,
+                                                              boolean consistentRead) {
+        Assert.notNull(ids);
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageEntityDomains(entityClass);
+
+        return readAllImpl(ids, entityClass, consistentRead, entityInformation);
+    }
+
+    @Override
+    public final <T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass) {
+        return exists(id, entityClass, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T, ID extends Serializable> boolean exists(final ID id, final Class<T> entityClass,
+                                                             final boolean consistentRead) {
+        manageEntityDomains(entityClass);
+        final List<Boolean> items = new ArrayList<Boolean>();
+
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
+
+            @Override
+            public void execute() {
+                items.add(existsImpl(id, entityClass, consistentRead));
+            }
+        }.executeWithRetries();
+
+        return items.size() > 0 && items.get(0);
+    }
+
     @Override
     public final <T> long count(Class<T> entityClass) {
         return count(entityClass, simpleDb.isConsistentRead());
@@ -189,10 +343,10 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public final <T> long count(final String query, final Class<T> entityClass, final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-        manageSimpleDbDomain(entityInformation.getDomain());
+        manageEntityDomains(entityInformation.getJavaType());
         final List<Long> items = new ArrayList<Long>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -207,10 +361,10 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public final <T> long count(final Class<T> entityClass, final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-    	manageSimpleDbDomain(entityInformation.getDomain());
+    	manageEntityDomains(entityInformation.getJavaType());
         final List<Long> items = new ArrayList<Long>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -230,10 +384,10 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public <T> List<T> find(final Class<T> entityClass, final String query, final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-    	manageSimpleDbDomain(entityInformation.getDomain());
+    	manageEntityDomains(entityInformation.getJavaType());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -244,13 +398,36 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return items;
     }
 
+    @Override
+    public final <T> List<Map<String, Object>> findProjections(Class<T> entityClass, String query) {
+        return findProjections(entityClass, query, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> List<Map<String, Object>> findProjections(Class<T> entityClass, final String query,
+                                                               final boolean consistentRead) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageEntityDomains(entityInformation.getJavaType());
+        final List<Map<String, Object>> projections = new ArrayList<Map<String, Object>>();
+
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
+
+            @Override
+            public void execute() {
+                projections.addAll(findProjectionsImpl(query, consistentRead, entityInformation));
+            }
+        }.executeWithRetries();
+
+        return projections;
+    }
+
     protected <T> List<T> find(final SimpleDbEntityInformation<T, ?> entityInformation, final String query,
                                final String nextToken, final boolean consistentRead) {
 
-    	manageSimpleDbDomain(entityInformation.getDomain());
+    	manageEntityDomains(entityInformation.getJavaType());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -270,10 +447,10 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     public final <T> List<T> findAll(final Class<T> entityClass, final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-    	manageSimpleDbDomain(entityInformation.getDomain());
+    	manageEntityDomains(entityInformation.getJavaType());
         final List<T> items = new ArrayList<T>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -284,6 +461,33 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return items;
     }
 
+    @Override
+    public final <T> Iterator<T> iterateAll(Class<T> entityClass) {
+        return iterateAll(entityClass, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> Iterator<T> iterateAll(Class<T> entityClass, boolean consistentRead) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        return iterate(entityClass, new QueryBuilder(entityInformation).toString(), consistentRead);
+    }
+
+    @Override
+    public final <T> Iterator<T> iterate(Class<T> entityClass, String query) {
+        return iterate(entityClass, query, simpleDb.isConsistentRead());
+    }
+
+    /**
+     * Pages are fetched while iterating, each of them is retried on its own in case of service unavailability.
+     */
+    @Override
+    public final <T> Iterator<T> iterate(Class<T> entityClass, String query, boolean consistentRead) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageEntityDomains(entityInformation.getJavaType());
+
+        return iterateImpl(entityClass, query, consistentRead, entityInformation);
+    }
+
     @Override
     public final <T> Page<T> executePagedQuery(Class<T> entityClass, String query, Pageable pageable) {
         return executePagedQuery(entityClass, query, pageable, simpleDb.isConsistentRead());
@@ -294,10 +498,10 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
                                                final boolean consistentRead) {
         
     	final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
-    	manageSimpleDbDomain(entityInformation.getDomain());
+    	manageEntityDomains(entityInformation.getJavaType());
         final List<Page<T>> pages = new ArrayList<Page<T>>();
 
-        new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 
             @Override
             public void execute() {
@@ -308,12 +512,61 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         return pages.isEmpty() ? null : pages.get(0);
     }
 
+    @Override
+    public final <T> SimpleDbSlice<T> findSlice(Class<T> entityClass, String query, int size, String cursor) {
+        return findSlice(entityClass, query, size, cursor, simpleDb.isConsistentRead());
+    }
+
+    @Override
+    public final <T> SimpleDbSlice<T> findSlice(final Class<T> entityClass, final String query, final int size,
+                                                final String cursor, final boolean consistentRead) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageEntityDomains(entityInformation.getJavaType());
+        final List<SimpleDbSlice<T>> slices = new ArrayList<SimpleDbSlice<T>>(1);
+
+        new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
+
+            @Override
+            public void execute() {
+                slices.add(findSliceImpl(entityClass, query, size, cursor, consistentRead, entityInformation));
+            }
+        }.executeWithRetries();
+
+        return slices.get(0);
+    }
+
+    @Override
+    public final <T> long scanAll(Class<T> entityClass, int segments, ScanCallback<T> callback) {
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        return scan(entityClass, new QueryBuilder(entityInformation).toString(), segments, callback);
+    }
+
+    @Override
+    public final <T> long scan(Class<T> entityClass, String query, int segments, ScanCallback<T> callback) {
+        return scan(entityClass, query, segments, simpleDb.isConsistentRead(), callback);
+    }
+
+    /**
+     * Pages of the segments are retried on their own in case of service unavailability, a whole scan is not.
+     */
+    @Override
+    public final <T> long scan(Class<T> entityClass, String query, int segments, boolean consistentRead,
+                               ScanCallback<T> callback) {
+        Assert.notNull(callback);
+        Assert.isTrue(segments > 0, "Segments should be positive");
+
+        final SimpleDbEntityInformation<T, ?> entityInformation = getEntityInformation(entityClass);
+        manageEntityDomains(entityInformation.getJavaType());
+
+        return scanImpl(entityClass, query, segments, consistentRead, callback, entityInformation);
+    }
+
     @Override
 	public <T, ID> void update(final ID id, final Class<T> entityClass, 
 			final Map<String, ? extends Object> propertyMap) {
 
-    	manageSimpleDbDomain(getDomainName(entityClass));
-		new AbstractServiceUnavailableOperationRetrier(serviceUnavailableMaxRetries) {
+    	manageEntityDomains(entityClass);
+		new AbstractServiceUnavailableOperationRetrier(retryPolicy) {
 			
 			@Override
 			public void execute() {
@@ -322,23 +575,41 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
 		}.executeWithRetries();
     }
 
+    /**
+     * The read and the save of each attempt are retried on their own in case of service unavailability.
+     */
+    @Override
+    public final <T, ID extends Serializable> T update(ID id, Class<T> entityClass, UpdateCallback<T> callback) {
+        Assert.notNull(callback);
+
+        OptimisticLockingFailureException conflict = null;
+        for (int attempt = 0; attempt < simpleDb.getVersionConflictAttempts(); attempt++) {
+            final T entity = read(id, entityClass, true);
+            if (entity == null) {
+                return null;
+            }
+
+            callback.doWith(entity);
+            try {
+                return createOrUpdate(entity);
+            } catch (OptimisticLockingFailureException e) {
+                conflict = e;
+            }
+        }
+
+        throw conflict;
+    }
+
 	@Override
 	public <T> SdbItemQuery<T> createQuery(Class<T> entityClass, String rawWhereClause, Object...queryParams) {
 		
-		String whereClause = rawWhereClause;
-		
-		// replace positional parameters
-		final String paramPlaceholder = "\\?";
-		for (int i = 0; QueryUtils.hasBindParameter(whereClause); i++) {
-			whereClause = QueryUtils.replaceOneParameterInQuery(
-					whereClause, paramPlaceholder, queryParams[i]);
-		}
-		
 		// add select * from `domainName`
 		String query = String.format("select * from `%s` where %s", 
-				getDomainName(entityClass), whereClause);
+				getDomainName(entityClass), rawWhereClause);
 		
-		return new SdbItemQuery<T>(entityClass, query, this);
+		// bind positional parameters
+		return new SdbItemQuery<T>(entityClass, QueryTemplate.compile(query, queryParams.length).bind(queryParams),
+				this);
 	}
 
 	protected final <T> EntityWrapper<T, ?> getEntityWrapper(T domainItem,
@@ -349,7 +620,7 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> SimpleDbEntityInformation<T, ?> getEntityInformation(Class<?> domainClass) {
+    protected final <T> SimpleDbEntityInformation<T, ?> getEntityInformation(Class<?> domainClass) {
         String simpleDbDomain = simpleDb.getSimpleDbDomain().getDomain(domainClass);
         return (SimpleDbEntityInformation<T, ?>) SimpleDbEntityInformationSupport.getMetadata(domainClass,
                 simpleDbDomain);
@@ -365,10 +636,16 @@ public abstract class AbstractSimpleDbTemplate implements SimpleDbOperations {
         entityInformation.validateReferenceFields(nestedReferences);
 
         for (Field eachNestedReference : nestedReferences) {
-            manageSimpleDbDomain(getDomainName(eachNestedReference.getType()));
+            manageEntityDomains(eachNestedReference.getType());
         }
 
-        manageSimpleDbDomain(entityInformation.getDomain());
+        manageEntityDomains(entityInformation.getJavaType());
+    }
+
+    private void manageEntityDomains(final Class<?> entityClass) {
+        for (String domainName : getDomainNames(entityClass)) {
+            manageSimpleDbDomain(domainName);
+        }
     }
     
     
@@ -0,0 +1,79 @@
+package org.springframework.data.simpledb.core;
+
+import org.springframework.util.Assert;
+
+/**
+ * Limits the requests running concurrently against a domain with additive increase, multiplicative decrease: the limit
+ * is halved whenever SimpleDB throttles a request and grows by about one request per limit successful requests, up to
+ * the configured maximum. <br/>
+ * Throttling signals of requests started before the last decrease are ignored, so a burst of rejections sent with the
+ * old limit halves it only once.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private int inFlight;
+    private long generation;
+
+    public AdaptiveConcurrencyLimiter(int maxLimit) {
+        this(1, maxLimit);
+    }
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit) {
+        Assert.isTrue(minLimit > 0 && maxLimit >= minLimit, "limits must be positive, maxLimit at least minLimit");
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Waits until a request may start
+     *
+     * @return a permit to hand back to {@link #release(long, boolean)}
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+        return generation;
+    }
+
+    /**
+     * @param permit
+     *            as returned by {@link #acquire()}
+     * @param throttled
+     *            true if the request was rejected with service unavailable or timed out
+     */
+    public synchronized void release(long permit, boolean throttled) {
+        inFlight--;
+
+        if (throttled) {
+            if (permit == generation) {
+                limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+                generation++;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * @return number of requests currently allowed to run concurrently
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,75 @@
+package org.springframework.data.simpledb.core;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Non blocking counterpart of {@link SimpleDbOperations}: operations are started right away and their outcome is
+ * returned as a {@link Future}, so requests to several domains can be in flight at the same time. <br/>
+ * Exceptions of an operation are rethrown by {@link Future#get()} wrapped in an
+ * {@link java.util.concurrent.ExecutionException}.
+ */
+public interface AsyncSimpleDbOperations {
+
+	/**
+	 * @return the blocking operations the asynchronous ones are executed with
+	 */
+	SimpleDbOperations getOperations();
+
+	/**
+	 * @see SimpleDbOperations#createOrUpdate(Object)
+	 */
+	<T> Future<T> createOrUpdate(T entity);
+
+	/**
+	 * @see SimpleDbOperations#read(Serializable, Class)
+	 */
+	<T, ID extends Serializable> Future<T> read(ID id, Class<T> entityClass);
+
+	/**
+	 * @see SimpleDbOperations#read(Serializable, Class, boolean)
+	 */
+	<T, ID extends Serializable> Future<T> read(ID id, Class<T> entityClass, boolean consistentRead);
+
+	/**
+	 * @see SimpleDbOperations#find(Class, String)
+	 */
+	<T> Future<List<T>> find(Class<T> entityClass, String query);
+
+	/**
+	 * @see SimpleDbOperations#find(Class, String, boolean)
+	 */
+	<T> Future<List<T>> find(Class<T> entityClass, String query, boolean consistentRead);
+
+	/**
+	 * @see SimpleDbOperations#count(Class)
+	 */
+	<T> Future<Long> count(Class<T> entityClass);
+
+	/**
+	 * @see SimpleDbOperations#count(String, Class)
+	 */
+	<T> Future<Long> count(String query, Class<T> entityClass);
+
+	/**
+	 * @see SimpleDbOperations#count(String, Class, boolean)
+	 */
+	<T> Future<Long> count(String query, Class<T> entityClass, boolean consistentRead);
+
+	/**
+	 * @see SimpleDbOperations#delete(Object)
+	 */
+	<T> Future<Void> delete(T entity);
+
+	/**
+	 * @see SimpleDbOperations#delete(Class, Object)
+	 */
+	<T, ID> Future<Void> delete(Class<T> entityClass, ID id);
+
+	/**
+	 * @see SimpleDbOperations#update(Object, Class, Map)
+	 */
+	<T, ID> Future<Void> update(ID id, Class<T> entityClass, Map<String, ? extends Object> propertyMap);
+}
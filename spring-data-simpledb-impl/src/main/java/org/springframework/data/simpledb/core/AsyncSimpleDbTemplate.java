@@ -0,0 +1,169 @@
+package org.springframework.data.simpledb.core;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.util.Assert;
+
+/**
+ * Runs {@link SimpleDbOperations} on an {@link Executor}. Entity mapping, retries, throttling and domain management
+ * are those of the wrapped operations, the executor bounds how many operations run at the same time.
+ */
+public class AsyncSimpleDbTemplate implements AsyncSimpleDbOperations {
+
+    private final SimpleDbOperations operations;
+    private final Executor executor;
+
+    public AsyncSimpleDbTemplate(SimpleDb simpleDb, Executor executor) {
+        this(new SimpleDbTemplate(simpleDb), executor);
+    }
+
+    public AsyncSimpleDbTemplate(SimpleDbOperations operations, Executor executor) {
+        Assert.notNull(operations);
+        Assert.notNull(executor);
+        this.operations = operations;
+        this.executor = executor;
+    }
+
+    @Override
+    public SimpleDbOperations getOperations() {
+        return operations;
+    }
+
+    @Override
+    public <T> Future<T> createOrUpdate(final T entity) {
+        return submit(new Callable<T>() {
+
+            @Override
+            public T call() {
+                return operations.createOrUpdate(entity);
+            }
+        });
+    }
+
+    @Override
+    public <T, ID extends Serializable> Future<T> read(final ID id, final Class<T> entityClass) {
+        return submit(new Callable<T>() {
+
+            @Override
+            public T call() {
+                return operations.read(id, entityClass);
+            }
+        });
+    }
+
+    @Override
+    public <T, ID extends Serializable> Future<T> read(final ID id, final Class<T> entityClass,
+                                                      final boolean consistentRead) {
+        return submit(new Callable<T>() {
+
+            @Override
+            public T call() {
+                return operations.read(id, entityClass, consistentRead);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> find(final Class<T> entityClass, final String query) {
+        return submit(new Callable<List<T>>() {
+
+            @Override
+            public List<T> call() {
+                return operations.find(entityClass, query);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<List<T>> find(final Class<T> entityClass, final String query, final boolean consistentRead) {
+        return submit(new Callable<List<T>>() {
+
+            @Override
+            public List<T> call() {
+                return operations.find(entityClass, query, consistentRead);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<Long> count(final Class<T> entityClass) {
+        return submit(new Callable<Long>() {
+
+            @Override
+            public Long call() {
+                return operations.count(entityClass);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<Long> count(final String query, final Class<T> entityClass) {
+        return submit(new Callable<Long>() {
+
+            @Override
+            public Long call() {
+                return operations.count(query, entityClass);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<Long> count(final String query, final Class<T> entityClass, final boolean consistentRead) {
+        return submit(new Callable<Long>() {
+
+            @Override
+            public Long call() {
+                return operations.count(query, entityClass, consistentRead);
+            }
+        });
+    }
+
+    @Override
+    public <T> Future<Void> delete(final T entity) {
+        return submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                operations.delete(entity);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public <T, ID> Future<Void> delete(final Class<T> entityClass, final ID id) {
+        return submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                operations.delete(entityClass, id);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public <T, ID> Future<Void> update(final ID id, final Class<T> entityClass,
+                                       final Map<String, ? extends Object> propertyMap) {
+        return submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                operations.update(id, entityClass, propertyMap);
+                return null;
+            }
+        });
+    }
+
+    private <V> Future<V> submit(Callable<V> operation) {
+        final FutureTask<V> task = new FutureTask<V>(operation);
+        executor.execute(task);
+        return task;
+    }
+}
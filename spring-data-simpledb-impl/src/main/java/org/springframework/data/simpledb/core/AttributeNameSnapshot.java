@@ -0,0 +1,60 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Bounded, least recently used record of the attribute names items had when they were last written or read
+ * consistently, used to find the attributes to delete on {@link UpdateMode#REPLACE} updates.
+ */
+class AttributeNameSnapshot {
+
+	private final Map<String, Set<String>> snapshots;
+
+	AttributeNameSnapshot(final int maxSize) {
+		snapshots = Collections.synchronizedMap(new LinkedHashMap<String, Set<String>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	void record(String domain, Item item) {
+		final Set<String> attributeNames = new HashSet<String>();
+		for(Attribute attribute : item.getAttributes()) {
+			attributeNames.add(attribute.getName());
+		}
+		snapshots.put(key(domain, item.getName()), Collections.unmodifiableSet(attributeNames));
+	}
+
+	void record(String domain, String itemName, Collection<String> attributeNames) {
+		snapshots.put(key(domain, itemName), Collections.unmodifiableSet(new HashSet<String>(attributeNames)));
+	}
+
+	/**
+	 * @return the recorded attribute names or null if the item is unknown
+	 */
+	Set<String> get(String domain, String itemName) {
+		return snapshots.get(key(domain, itemName));
+	}
+
+	void remove(String domain, String itemName) {
+		snapshots.remove(key(domain, itemName));
+	}
+
+	private static String key(String domain, String itemName) {
+		/* domain names cannot contain a slash */
+		return domain + "/" + itemName;
+	}
+}
@@ -0,0 +1,104 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
+import org.springframework.data.simpledb.parser.SimpleDBParser;
+import org.springframework.data.simpledb.query.QueryTemplate;
+import org.springframework.data.simpledb.query.QueryUtils;
+
+/**
+ * Bounded cache of the select queries sent by the template, keyed by the query before binding: the values of its
+ * quoted literals are left out, see {@link QueryTemplate#unbind(String, java.util.List)}. A query is parsed by the
+ * {@link SimpleDBParser} once and its id field is escaped once, further queries bound from it skip both. <br/>
+ * Only valid queries are cached. Lookups do not lock, once full the cache evicts arbitrary queries.
+ */
+class CompiledQueryCache {
+
+	private final int maxSize;
+	private final ConcurrentMap<String, CompiledQuery> queries = new ConcurrentHashMap<String, CompiledQuery>();
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	CompiledQueryCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return the query with the id field replaced by <tt>itemName()</tt> outside of its literals, see
+	 *         {@link QueryUtils#escapeQueryAttributes(String, String)}, once the query has been validated
+	 * @throws InvalidSimpleDBQueryException
+	 *             if the query is not a valid SimpleDB select
+	 */
+	String getValidatedQuery(String query, String idFieldName) {
+		final List<String> literals = new ArrayList<String>();
+		final String unboundQuery = QueryTemplate.unbind(query, literals);
+
+		final CompiledQuery cached = queries.get(unboundQuery);
+		if(cached != null && cached.idFieldName.equals(idFieldName)) {
+			hits.incrementAndGet();
+			return QueryTemplate.rebind(cached.escapedQuery, literals);
+		}
+
+		misses.incrementAndGet();
+		validate(query);
+		final CompiledQuery compiledQuery = new CompiledQuery(idFieldName, QueryUtils.escapeQueryAttributes(
+				unboundQuery, idFieldName));
+		put(unboundQuery, compiledQuery);
+		return QueryTemplate.rebind(compiledQuery.escapedQuery, literals);
+	}
+
+	long getHits() {
+		return hits.get();
+	}
+
+	long getMisses() {
+		return misses.get();
+	}
+
+	int getSize() {
+		return size.get();
+	}
+
+	private void put(String unboundQuery, CompiledQuery compiledQuery) {
+		if(queries.put(unboundQuery, compiledQuery) != null || size.incrementAndGet() <= maxSize) {
+			return;
+		}
+
+		final Iterator<String> cachedQueries = queries.keySet().iterator();
+		while(size.get() > maxSize && cachedQueries.hasNext()) {
+			final String cachedQuery = cachedQueries.next();
+			if(!cachedQuery.equals(unboundQuery) && queries.remove(cachedQuery) != null) {
+				size.decrementAndGet();
+			}
+		}
+	}
+
+	private static void validate(String query) {
+		final SimpleDBParser parser = new SimpleDBParser(query);
+		try {
+			parser.selectQuery();
+		} catch(Exception e) {
+			throw new InvalidSimpleDBQueryException("The following query is an invalid SimpleDB query: " + query, e);
+		}
+	}
+
+	private static final class CompiledQuery {
+
+		private final String idFieldName;
+		private final String escapedQuery;
+
+		private CompiledQuery(String idFieldName, String escapedQuery) {
+			this.idFieldName = idFieldName;
+			this.escapedQuery = escapedQuery;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package org.springframework.data.simpledb.core;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.simpledb.query.QueryUtils;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ResponseMetadata;
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeleteDomainRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataResult;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.ListDomainsRequest;
+import com.amazonaws.services.simpledb.model.ListDomainsResult;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * {@link AmazonSimpleDB} decorator taking a permit of the {@link AdaptiveConcurrencyLimiter} of the domain for each
+ * single item request, see {@link SimpleDb#getConcurrencyLimiter(String)}. <br/>
+ * Permits are held only while the request runs, so template operations issuing nested requests against the same
+ * domain never wait for a permit held by their own thread. Domain management requests are not limited.
+ */
+class ConcurrencyLimitedAmazonSimpleDB implements AmazonSimpleDB {
+
+	private final AmazonSimpleDB delegate;
+	private final SimpleDb simpleDb;
+
+	ConcurrencyLimitedAmazonSimpleDB(AmazonSimpleDB delegate, SimpleDb simpleDb) {
+		Assert.notNull(delegate);
+		Assert.notNull(simpleDb);
+		this.delegate = delegate;
+		this.simpleDb = simpleDb;
+	}
+
+	@Override
+	public void setEndpoint(String endpoint) {
+		delegate.setEndpoint(endpoint);
+	}
+
+	@Override
+	public void setRegion(Region region) {
+		delegate.setRegion(region);
+	}
+
+	@Override
+	public SelectResult select(SelectRequest selectRequest) {
+		final String expression = selectRequest.getSelectExpression();
+		final Permit permit = acquire(expression == null ? null : QueryUtils.getQueryDomain(expression));
+		boolean throttled = false;
+		try {
+			return delegate.select(selectRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public void putAttributes(PutAttributesRequest putAttributesRequest) {
+		final Permit permit = acquire(putAttributesRequest.getDomainName());
+		boolean throttled = false;
+		try {
+			delegate.putAttributes(putAttributesRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public void batchPutAttributes(BatchPutAttributesRequest batchPutAttributesRequest) {
+		final Permit permit = acquire(batchPutAttributesRequest.getDomainName());
+		boolean throttled = false;
+		try {
+			delegate.batchPutAttributes(batchPutAttributesRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public void deleteAttributes(DeleteAttributesRequest deleteAttributesRequest) {
+		final Permit permit = acquire(deleteAttributesRequest.getDomainName());
+		boolean throttled = false;
+		try {
+			delegate.deleteAttributes(deleteAttributesRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public void batchDeleteAttributes(BatchDeleteAttributesRequest batchDeleteAttributesRequest) {
+		final Permit permit = acquire(batchDeleteAttributesRequest.getDomainName());
+		boolean throttled = false;
+		try {
+			delegate.batchDeleteAttributes(batchDeleteAttributesRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+		final Permit permit = acquire(getAttributesRequest.getDomainName());
+		boolean throttled = false;
+		try {
+			return delegate.getAttributes(getAttributesRequest);
+		} catch(AmazonClientException e) {
+			throttled = AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(e);
+			throw e;
+		} finally {
+			permit.release(throttled);
+		}
+	}
+
+	@Override
+	public void createDomain(CreateDomainRequest createDomainRequest) {
+		delegate.createDomain(createDomainRequest);
+	}
+
+	@Override
+	public void deleteDomain(DeleteDomainRequest deleteDomainRequest) {
+		delegate.deleteDomain(deleteDomainRequest);
+	}
+
+	@Override
+	public ListDomainsResult listDomains() {
+		return delegate.listDomains();
+	}
+
+	@Override
+	public ListDomainsResult listDomains(ListDomainsRequest listDomainsRequest) {
+		return delegate.listDomains(listDomainsRequest);
+	}
+
+	@Override
+	public DomainMetadataResult domainMetadata(DomainMetadataRequest domainMetadataRequest) {
+		return delegate.domainMetadata(domainMetadataRequest);
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public ResponseMetadata getCachedResponseMetadata(AmazonWebServiceRequest request) {
+		return delegate.getCachedResponseMetadata(request);
+	}
+
+	private Permit acquire(String domainName) {
+		final AdaptiveConcurrencyLimiter limiter = domainName == null ? null : simpleDb
+				.getConcurrencyLimiter(domainName);
+		if(limiter == null) {
+			return Permit.UNLIMITED;
+		}
+
+		try {
+			return new Permit(limiter, limiter.acquire());
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessResourceFailureException("Interrupted while waiting to send SimpleDB request", e);
+		}
+	}
+
+	private static final class Permit {
+
+		private static final Permit UNLIMITED = new Permit(null, 0);
+
+		private final AdaptiveConcurrencyLimiter limiter;
+		private final long generation;
+
+		private Permit(AdaptiveConcurrencyLimiter limiter, long generation) {
+			this.limiter = limiter;
+			this.generation = generation;
+		}
+
+		private void release(boolean throttled) {
+			if(limiter != null) {
+				limiter.release(generation, throttled);
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.simpledb.annotation.Cached;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Bounded, least recently used cache of the items of {@link Cached} entities, keyed by domain and item name. <br/>
+ * Items are kept rather than entities, every read builds a new entity which callers may modify.
+ */
+class EntityCache {
+
+	private volatile int maxSize;
+	private final Map<String, CachedItem> items;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	EntityCache(final int maxSize) {
+		this.maxSize = maxSize;
+		items = Collections.synchronizedMap(new LinkedHashMap<String, CachedItem>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedItem> eldest) {
+				if(size() > EntityCache.this.maxSize) {
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * @return true if the items of the entity class are cached
+	 */
+	boolean isEnabled(Class<?> entityClass) {
+		return maxSize > 0 && entityClass.getAnnotation(Cached.class) != null;
+	}
+
+	/**
+	 * @return the cached item or null if it is unknown or expired
+	 */
+	Item get(String domain, String itemName) {
+		final String key = key(domain, itemName);
+		final CachedItem cachedItem = items.get(key);
+
+		if(cachedItem == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		if(cachedItem.isExpired()) {
+			items.remove(key);
+			evictions.incrementAndGet();
+			misses.incrementAndGet();
+			return null;
+		}
+
+		hits.incrementAndGet();
+		return cachedItem.item;
+	}
+
+	void put(Class<?> entityClass, String domain, Item item) {
+		final long timeToLive = TimeUnit.SECONDS.toNanos(entityClass.getAnnotation(Cached.class).timeToLive());
+		put(domain, item, timeToLive);
+	}
+
+	void put(String domain, Item item, long timeToLiveNanos) {
+		final Item copy = new Item(item.getName(), Collections.unmodifiableList(new ArrayList<Attribute>(
+				item.getAttributes())));
+		final long expiresAt = timeToLiveNanos > 0 ? System.nanoTime() + timeToLiveNanos : 0;
+
+		items.put(key(domain, item.getName()), new CachedItem(copy, expiresAt));
+	}
+
+	void invalidate(String domain, String itemName) {
+		items.remove(key(domain, itemName));
+	}
+
+	void clear() {
+		items.clear();
+	}
+
+	/**
+	 * Changes the maximum number of items, the least recently used items beyond it are evicted; 0 disables the cache
+	 */
+	void resize(int maxSize) {
+		this.maxSize = maxSize;
+
+		synchronized(items) {
+			final Iterator<String> keys = items.keySet().iterator();
+			while(items.size() > maxSize && keys.hasNext()) {
+				keys.next();
+				keys.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	int size() {
+		return items.size();
+	}
+
+	long getHits() {
+		return hits.get();
+	}
+
+	long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of items removed because the cache was full or they expired
+	 */
+	long getEvictions() {
+		return evictions.get();
+	}
+
+	private static String key(String domain, String itemName) {
+		/* domain names cannot contain a slash */
+		return domain + "/" + itemName;
+	}
+
+	private static final class CachedItem {
+
+		private final Item item;
+		/* System.nanoTime() of the expiry, 0 if the item does not expire */
+		private final long expiresAt;
+
+		private CachedItem(Item item, long expiresAt) {
+			this.item = item;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired() {
+			return expiresAt != 0 && System.nanoTime() - expiresAt >= 0;
+		}
+	}
+}
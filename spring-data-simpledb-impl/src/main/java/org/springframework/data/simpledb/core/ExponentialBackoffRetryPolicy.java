@@ -0,0 +1,90 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Random;
+
+import org.springframework.util.Assert;
+
+/**
+ * Exponential backoff with full jitter: the delay before retry <tt>n</tt> is a random value between 0 and
+ * <tt>min(maxDelay, baseDelay * 2^n)</tt>, so concurrent clients throttled together do not retry together. <br/>
+ * Gives up after a maximum number of retries or once the delays of an operation exceed a total budget.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    public static final long DEFAULT_BASE_DELAY = 100;
+    public static final long DEFAULT_MAX_DELAY = 20000;
+    public static final long DEFAULT_MAX_TOTAL_DELAY = 60000;
+
+    /* a shift above 62 would overflow the exponential delay */
+    private static final int MAX_SHIFT = 62;
+
+    private final Random random = new Random();
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxTotalDelay;
+
+    public ExponentialBackoffRetryPolicy(int maxRetries) {
+        this(maxRetries, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_MAX_TOTAL_DELAY);
+    }
+
+    /**
+     * @param maxRetries
+     *            retries of an operation at most
+     * @param baseDelay
+     *            milliseconds, the cap of the first retry delay is twice this value
+     * @param maxDelay
+     *            milliseconds, cap of any retry delay
+     * @param maxTotalDelay
+     *            milliseconds, retry budget of an operation
+     */
+    public ExponentialBackoffRetryPolicy(int maxRetries, long baseDelay, long maxDelay, long maxTotalDelay) {
+        Assert.isTrue(maxRetries >= 0, "maxRetries must not be negative");
+        Assert.isTrue(baseDelay > 0 && maxDelay >= baseDelay, "delays must be positive, maxDelay at least baseDelay");
+        Assert.isTrue(maxTotalDelay >= 0, "maxTotalDelay must not be negative");
+
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxTotalDelay = maxTotalDelay;
+    }
+
+    /**
+     * @return default policy of operations attempted at most the given number of times
+     */
+    public static ExponentialBackoffRetryPolicy withMaxAttempts(int maxAttempts) {
+        return new ExponentialBackoffRetryPolicy(Math.max(0, maxAttempts - 1));
+    }
+
+    @Override
+    public long getRetryDelay(int retry, long totalDelay) {
+        if (retry > maxRetries || totalDelay >= maxTotalDelay) {
+            return NO_RETRY;
+        }
+
+        final long delay = nextRandom(getDelayCap(retry) + 1);
+        return Math.min(delay, maxTotalDelay - totalDelay);
+    }
+
+    /**
+     * @return upper bound of the delay before the given retry
+     */
+    public long getDelayCap(int retry) {
+        final int shift = Math.min(retry, MAX_SHIFT);
+        if (baseDelay > (maxDelay >> shift)) {
+            return maxDelay;
+        }
+        return Math.min(maxDelay, baseDelay << shift);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    private long nextRandom(long bound) {
+        synchronized (random) {
+            return (long) (random.nextDouble() * bound);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * Evenly spread two digit hexadecimal prefixes, matching the random UUID item names generated for entities without
+ * id. Other item names are covered as well but less evenly spread.
+ */
+public class HexItemNameSplitter implements ItemNameSplitter {
+
+	public static final int MAX_SEGMENTS = 256;
+
+	@Override
+	public List<String> getBoundaries(int segments) {
+		Assert.isTrue(segments > 1 && segments <= MAX_SEGMENTS, "Segments should be between 2 and " + MAX_SEGMENTS);
+
+		final List<String> boundaries = new ArrayList<String>(segments - 1);
+		for(int segment = 1; segment < segments; segment++) {
+			boundaries.add(String.format("%02x", segment * MAX_SEGMENTS / segments));
+		}
+		return boundaries;
+	}
+}
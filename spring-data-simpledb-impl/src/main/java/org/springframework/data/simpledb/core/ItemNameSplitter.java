@@ -0,0 +1,17 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.List;
+
+/**
+ * Splits the item names of a domain into lexical <tt>itemName()</tt> ranges which are counted or scanned concurrently.
+ */
+public interface ItemNameSplitter {
+
+	/**
+	 * @param segments
+	 *            number of ranges, at least 2
+	 * @return the segments - 1 increasing boundaries of the ranges; the first range ends before the first boundary, the
+	 *         last one starts at the last boundary
+	 */
+	List<String> getBoundaries(int segments);
+}
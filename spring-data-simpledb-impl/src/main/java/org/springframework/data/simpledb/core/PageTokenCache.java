@@ -0,0 +1,55 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bounded, least recently used record of the next tokens starting the pages of paged queries, so a page following a
+ * visited one is read without skipping the items before it again.
+ */
+class PageTokenCache {
+
+	private final Map<String, NavigableMap<Integer, String>> queries;
+
+	PageTokenCache(final int maxSize) {
+		queries = Collections.synchronizedMap(new LinkedHashMap<String, NavigableMap<Integer, String>>(16, 0.75f,
+				true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<Integer, String>> eldest) {
+				return size() > maxSize;
+			}
+		});
+	}
+
+	/**
+	 * @return the closest page at or before the given one with a known token, null if there is none
+	 */
+	Map.Entry<Integer, String> getFloorToken(String pagedQuery, boolean consistentRead, int pageNumber) {
+		final NavigableMap<Integer, String> tokens = queries.get(key(pagedQuery, consistentRead));
+		return tokens == null ? null : tokens.floorEntry(pageNumber);
+	}
+
+	void put(String pagedQuery, boolean consistentRead, int pageNumber, String token) {
+		final String key = key(pagedQuery, consistentRead);
+
+		synchronized(queries) {
+			NavigableMap<Integer, String> tokens = queries.get(key);
+			if(tokens == null) {
+				tokens = new ConcurrentSkipListMap<Integer, String>();
+				queries.put(key, tokens);
+			}
+			tokens.put(pageNumber, token);
+		}
+	}
+
+	private static String key(String pagedQuery, boolean consistentRead) {
+		/* the paged query holds the page size as its limit */
+		return (consistentRead ? "consistent:" : "eventual:") + pagedQuery;
+	}
+}
@@ -0,0 +1,157 @@
+package org.springframework.data.simpledb.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+import org.springframework.data.simpledb.attributeutil.SimpleDbAttributeValueSplitter;
+import org.springframework.data.simpledb.core.entity.json.JsonMarshaller;
+import org.springframework.data.simpledb.reflection.EntityMetadata;
+import org.springframework.data.simpledb.reflection.FieldType;
+import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
+import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Maps the attributes selected by a partial query straight from the items, the entity is not instantiated. <br/>
+ * Only the selected attributes are decoded, as their fields would be: simple fields with
+ * {@link SimpleDBAttributeConverter}, collections, arrays, maps and objects with {@link JsonMarshaller}. The id field
+ * is the item name. Nested and referenced entities and the
+ * {@link org.springframework.data.simpledb.annotation.Attributes} map can not be projected, they are spread over
+ * several attributes or other items.
+ */
+public final class ProjectionMapper {
+
+	private final List<String> attributeNames;
+	private final List<Field> fields;
+	private final List<FieldType> fieldTypes;
+
+	/**
+	 * @param entityClass
+	 * @param attributeNames
+	 *            the selected attributes, property paths of the entity class
+	 * @throws IllegalArgumentException
+	 *             if an attribute is no field of the entity or can not be projected
+	 */
+	public ProjectionMapper(Class<?> entityClass, List<String> attributeNames) {
+		this.attributeNames = new ArrayList<String>(attributeNames);
+		this.fields = new ArrayList<Field>(attributeNames.size());
+		this.fieldTypes = new ArrayList<FieldType>(attributeNames.size());
+
+		for(String attributeName : attributeNames) {
+			final Field field = ReflectionUtils.getPropertyField(entityClass, attributeName);
+			final FieldType fieldType = getFieldType(field);
+			Assert.isTrue(isSupported(fieldType), "Attribute " + attributeName + " of " + entityClass.getName()
+					+ " can not be projected");
+
+			fields.add(field);
+			fieldTypes.add(fieldType);
+		}
+	}
+
+	/**
+	 * @return true if all the attributes can be projected
+	 * @throws IllegalArgumentException
+	 *             if an attribute is no field of the entity
+	 */
+	public static boolean isSupported(Class<?> entityClass, List<String> attributeNames) {
+		if(attributeNames.isEmpty()) {
+			return false;
+		}
+
+		for(String attributeName : attributeNames) {
+			if(!isSupported(getFieldType(ReflectionUtils.getPropertyField(entityClass, attributeName)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public List<String> getAttributeNames() {
+		return attributeNames;
+	}
+
+	/**
+	 * @return the decoded values of the selected attributes, in selection order. Missing attributes are null, or the
+	 *         default value of primitive fields.
+	 */
+	public Map<String, Object> map(Item item) {
+		final Map<String, List<String>> multiValueAttributes = new HashMap<String, List<String>>();
+		for(Attribute attribute : item.getAttributes()) {
+			if(!attributeNames.contains(attribute.getName())) {
+				continue;
+			}
+			List<String> values = multiValueAttributes.get(attribute.getName());
+			if(values == null) {
+				values = new ArrayList<String>(1);
+				multiValueAttributes.put(attribute.getName(), values);
+			}
+			values.add(attribute.getValue());
+		}
+		final Map<String, String> attributes = SimpleDbAttributeValueSplitter
+				.combineAttributeValuesWithExceedingLengths(multiValueAttributes);
+
+		final Map<String, Object> projection = new LinkedHashMap<String, Object>();
+		for(int i = 0; i < attributeNames.size(); i++) {
+			final String attributeName = attributeNames.get(i);
+			final String value = fieldTypes.get(i) == FieldType.ID ? item.getName() : attributes.get(attributeName);
+			projection.put(attributeName, decode(fields.get(i), fieldTypes.get(i), value));
+		}
+		return projection;
+	}
+
+	public List<Map<String, Object>> map(List<Item> items) {
+		final List<Map<String, Object>> projections = new ArrayList<Map<String, Object>>(items.size());
+		for(Item item : items) {
+			projections.add(map(item));
+		}
+		return projections;
+	}
+
+	private static Object decode(Field field, FieldType fieldType, String value) {
+		final Class<?> type = field.getType();
+		if(value == null) {
+			return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+		}
+
+		switch(fieldType) {
+			case ID:
+				return value;
+			case PRIMITIVE:
+			case CORE_TYPE:
+				try {
+					return SimpleDBAttributeConverter.decodeToFieldOfType(value, type);
+				} catch(IllegalArgumentException e) {
+					throw new MappingException("Could not map attributes", e);
+				} catch(ParseException e) {
+					throw new MappingException("Could not map attributes", e);
+				}
+			default:
+				return JsonMarshaller.getInstance().unmarshall(value, type);
+		}
+	}
+
+	private static FieldType getFieldType(Field field) {
+		if(FieldTypeIdentifier.isOfType(field, FieldType.ID)) {
+			return FieldType.ID;
+		} else if(FieldTypeIdentifier.isOfType(field, FieldType.ATTRIBUTES)) {
+			return FieldType.ATTRIBUTES;
+		}
+		return EntityMetadata.getMappedFieldType(field);
+	}
+
+	private static boolean isSupported(FieldType fieldType) {
+		return fieldType != FieldType.NESTED_ENTITY && fieldType != FieldType.REFERENCE_ENTITY
+				&& fieldType != FieldType.ATTRIBUTES;
+	}
+}
@@ -66,6 +66,24 @@ public class QueryBuilder {
 		return this;
 	}
 
+	/**
+	 * Restricts the query to the given item names with a single <tt>itemName() in (...)</tt> comparison
+	 */
+	public QueryBuilder withIdsIn(Iterable<?> iterable) {
+		Iterator<?> iterator = iterable.iterator();
+		appendWhereOrEndClause(query);
+
+		query.append("itemName() in (");
+		while(iterator.hasNext()) {
+			query.append("'").append(iterator.next().toString().replace("'", "''")).append("'");
+			if(iterator.hasNext()) {
+				query.append(",");
+			}
+		}
+		query.append(")");
+		return this;
+	}
+
 	public QueryBuilder with(Sort sort) {
 		if(sort != null) {
 			Iterator<Sort.Order> sortIt = sort.iterator();
@@ -0,0 +1,18 @@
+package org.springframework.data.simpledb.core;
+
+/**
+ * Decides whether and when an operation failed because of service unavailability or throttling is retried.
+ */
+public interface RetryPolicy {
+
+    long NO_RETRY = -1;
+
+    /**
+     * @param retry
+     *            number of the upcoming retry, starting with 1
+     * @param totalDelay
+     *            milliseconds already waited for previous retries of the operation
+     * @return milliseconds to wait before the retry, or {@link #NO_RETRY} to give up
+     */
+    long getRetryDelay(int retry, long totalDelay);
+}
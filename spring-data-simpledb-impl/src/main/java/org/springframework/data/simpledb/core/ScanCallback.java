@@ -0,0 +1,11 @@
+package org.springframework.data.simpledb.core;
+
+/**
+ * Receives the entities of a scan, see {@link SimpleDbOperations#scan(Class, String, int, ScanCallback)}. <br/>
+ * The segments of a scan are paged concurrently, so the callback is invoked from several threads at once and should
+ * be thread safe.
+ */
+public interface ScanCallback<T> {
+
+	void doWith(T entity);
+}
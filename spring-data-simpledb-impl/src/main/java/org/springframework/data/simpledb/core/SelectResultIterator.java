@@ -0,0 +1,71 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * Lazy {@link Iterator} over the results of a select query, following the <tt>nextToken</tt> of each
+ * {@link SelectResult} page by page. Only the current page is held in memory, items are mapped as their page arrives.
+ */
+abstract class SelectResultIterator<T> implements Iterator<T> {
+
+	private final long maxResults;
+
+	private Iterator<T> currentPage = Collections.<T> emptyList().iterator();
+	private String nextToken;
+	private boolean lastPageFetched;
+	private long returnedResults;
+
+	/**
+	 * @param maxResults
+	 *            the maximum number of results to return, e.g. the <tt>limit</tt> of the query, as SimpleDB applies
+	 *            the limit to each page
+	 */
+	protected SelectResultIterator(long maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * Fetches the page starting at the given token, <tt>null</tt> for the first page
+	 */
+	protected abstract SelectResult fetchPage(String nextToken);
+
+	protected abstract List<T> mapItems(List<Item> items);
+
+	@Override
+	public boolean hasNext() {
+		if(returnedResults >= maxResults) {
+			return false;
+		}
+
+		while(!currentPage.hasNext() && !lastPageFetched) {
+			final SelectResult selectResult = fetchPage(nextToken);
+
+			nextToken = selectResult.getNextToken();
+			lastPageFetched = nextToken == null || nextToken.isEmpty();
+			currentPage = mapItems(selectResult.getItems()).iterator();
+		}
+
+		return currentPage.hasNext();
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		returnedResults++;
+		return currentPage.next();
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Results of a select query can not be removed while iterating");
+	}
+}
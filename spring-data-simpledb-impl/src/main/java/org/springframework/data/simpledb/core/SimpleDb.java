@@ -1,9 +1,22 @@
 package org.springframework.data.simpledb.core;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.data.simpledb.core.domain.DomainManagementPolicy;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetricsListener;
+import org.springframework.util.Assert;
 
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.services.simpledb.AmazonSimpleDB;
@@ -12,9 +25,13 @@ import com.amazonaws.services.simpledb.AmazonSimpleDBClient;
 /**
  * A configuration class to create and instance of {@link AmazonSimpleDB} from user credentials and to hold few extra
  * configuration options: {@link DomainManagementPolicy},
- * {@link org.springframework.data.simpledb.annotation.DomainPrefix}, consistentRead and dev
+ * {@link org.springframework.data.simpledb.annotation.DomainPrefix}, consistentRead and dev. <br/>
+ * It also holds the state shared by all templates using it, e.g. the write behind buffer, which is flushed when the
+ * Spring context is closed.
  */
-public class SimpleDb implements InitializingBean {
+public class SimpleDb implements InitializingBean, DisposableBean {
+
+	private static final int ATTRIBUTE_NAME_SNAPSHOT_SIZE = 10000;
 
 	private AmazonSimpleDB simpleDbClient;
 
@@ -28,10 +45,44 @@ public class SimpleDb implements InitializingBean {
 
 	private int unavailableServiceRetries = 1;
 
+	private RetryPolicy retryPolicy;
+
+	private int maxDomainConcurrency;
+
+	private SimpleDbMetricsListener metricsListener;
+
 	private String domainPrefix;
 
+	private Executor batchExecutor;
+
+	private UpdateMode updateMode = UpdateMode.DELETE_AND_PUT;
+
+	private int entityCacheSize = 10000;
+
+	private int countSegments = 1;
+
+	private long writeBehindDelay = 0;
+
+	private int writeBehindFlushSize = 250;
+
+	private int writeBehindMaxItems = 10000;
+
+	private ItemNameSplitter itemNameSplitter = new HexItemNameSplitter();
+
+	private int versionConflictAttempts = 3;
+
 	private SimpleDbDomain simpleDbDomain = new SimpleDbDomain();
 
+	private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> concurrencyLimiters = new ConcurrentHashMap<String, AdaptiveConcurrencyLimiter>();
+
+	private EntityCache entityCache;
+
+	private final AttributeNameSnapshot attributeNameSnapshot = new AttributeNameSnapshot(ATTRIBUTE_NAME_SNAPSHOT_SIZE);
+
+	private volatile WriteBehindBuffer writeBehindBuffer;
+	private ScheduledExecutorService writeBehindScheduler;
+	private SimpleDbTemplate writeBehindTemplate;
+
 	public SimpleDb() {
 		// for spring bean injection
 	}
@@ -46,6 +97,17 @@ public class SimpleDb implements InitializingBean {
 		return simpleDbClient;
 	}
 
+	/**
+	 * Set the {@link AmazonSimpleDB} client to use instead of creating an {@link AmazonSimpleDBClient} from the
+	 * configured credentials, e.g. an
+	 * {@link org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb} for local load tests.
+	 * 
+	 * @param simpleDbClient
+	 */
+	public void setSimpleDbClient(AmazonSimpleDB simpleDbClient) {
+		this.simpleDbClient = simpleDbClient;
+	}
+
 	/**
 	 * Set the Amazon AWS access key ID
 	 * 
@@ -146,8 +208,348 @@ public class SimpleDb implements InitializingBean {
 		return unavailableServiceRetries;
 	}
 
+	/**
+	 * @return the configured retry policy or exponential backoff with full jitter within the unavailable service
+	 *         retries
+	 */
+	public RetryPolicy getRetryPolicy() {
+		if(retryPolicy != null) {
+			return retryPolicy;
+		}
+		return ExponentialBackoffRetryPolicy.withMaxAttempts(unavailableServiceRetries);
+	}
+
+	/**
+	 * Set the {@link RetryPolicy} deciding when operations failed with service unavailable or request timeout are
+	 * retried, replaces the unavailable service retries.
+	 * 
+	 * @param retryPolicy
+	 */
+	public void setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+	}
+
+	public int getMaxDomainConcurrency() {
+		return maxDomainConcurrency;
+	}
+
+	/**
+	 * Set the maximum number of requests running concurrently against a domain, shared by all templates of this
+	 * configuration. The limit of each domain is lowered when SimpleDB throttles its requests and slowly raised again
+	 * while they succeed, see {@link AdaptiveConcurrencyLimiter}. Defaults to 0, which means concurrency is not limited.
+	 * 
+	 * @param maxDomainConcurrency
+	 */
+	public void setMaxDomainConcurrency(int maxDomainConcurrency) {
+		this.maxDomainConcurrency = maxDomainConcurrency;
+	}
+
+	/**
+	 * @return the limiter shared by all requests against the domain, null if concurrency is not limited
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter(String domainName) {
+		if(maxDomainConcurrency <= 0) {
+			return null;
+		}
+
+		AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.get(domainName);
+		if(limiter == null) {
+			limiter = new AdaptiveConcurrencyLimiter(maxDomainConcurrency);
+			final AdaptiveConcurrencyLimiter existing = concurrencyLimiters.putIfAbsent(domainName, limiter);
+			if(existing != null) {
+				limiter = existing;
+			}
+		}
+		return limiter;
+	}
+
+	public Executor getBatchExecutor() {
+		return batchExecutor;
+	}
+
+	/**
+	 * Set the {@link Executor} used to dispatch independent batch requests of bulk writes concurrently. If not set,
+	 * batch requests are sent one after the other by the calling thread.
+	 * 
+	 * @param batchExecutor
+	 */
+	public void setBatchExecutor(Executor batchExecutor) {
+		this.batchExecutor = batchExecutor;
+	}
+
+	public SimpleDbMetricsListener getMetricsListener() {
+		return metricsListener;
+	}
+
+	/**
+	 * Set the listener notified of every request templates send to SimpleDB, e.g. a
+	 * {@link org.springframework.data.simpledb.core.metrics.SimpleDbMetrics} exposing statistics per domain and
+	 * operation over JMX. Templates created afterwards report to it.
+	 * 
+	 * @param metricsListener
+	 */
+	public void setMetricsListener(SimpleDbMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
+	public UpdateMode getUpdateMode() {
+		return updateMode;
+	}
+
+	/**
+	 * Set how existing items are updated. This can be one of:
+	 * <ul>
+	 * <li><b>DELETE_AND_PUT</b>: The item is deleted before its attributes are written, this is the default mode
+	 * <li><b>REPLACE</b>: The attributes are replaced and only the attributes that disappeared are deleted
+	 * </ul>
+	 * 
+	 * @param updateMode
+	 */
+	public void setUpdateMode(UpdateMode updateMode) {
+		this.updateMode = updateMode;
+	}
+
+	public int getEntityCacheSize() {
+		return entityCacheSize;
+	}
+
+	/**
+	 * Set the maximum number of items kept in the entity cache shared by the templates. Only entities annotated with
+	 * {@link org.springframework.data.simpledb.annotation.Cached} are cached; defaults to 10000, 0 disables the cache.
+	 * The cache is resized for the templates already using it, evicting the least recently used items beyond the new
+	 * size.
+	 * 
+	 * @param entityCacheSize
+	 */
+	public synchronized void setEntityCacheSize(int entityCacheSize) {
+		this.entityCacheSize = entityCacheSize;
+		if(entityCache != null) {
+			entityCache.resize(entityCacheSize);
+		}
+	}
+
+	/**
+	 * @return the entity cache shared by the templates, so that writes of any template invalidate the cached items
+	 */
+	synchronized EntityCache getEntityCache() {
+		if(entityCache == null) {
+			entityCache = new EntityCache(entityCacheSize);
+		}
+		return entityCache;
+	}
+
+	/**
+	 * @return attribute names of the items last written by the templates or read consistently, shared so that a write
+	 *         of any template replaces the names the others recorded
+	 */
+	AttributeNameSnapshot getAttributeNameSnapshot() {
+		return attributeNameSnapshot;
+	}
+
+	public long getWriteBehindDelay() {
+		return writeBehindDelay;
+	}
+
+	/**
+	 * Set the milliseconds saves of single entities wait in the write behind buffer before being written in bulk,
+	 * repeated saves of the same item in between are coalesced into a single write. The buffer is shared by all
+	 * templates of this instance: reads by id see the pending saves, selects do not. Defaults to 0, saves are written
+	 * right away.
+	 * 
+	 * @param writeBehindDelay
+	 */
+	public void setWriteBehindDelay(long writeBehindDelay) {
+		Assert.isTrue(writeBehindDelay >= 0, "Write behind delay should not be negative");
+		this.writeBehindDelay = writeBehindDelay;
+	}
+
+	public int getWriteBehindFlushSize() {
+		return writeBehindFlushSize;
+	}
+
+	/**
+	 * Set the number of pending items from which the write behind buffer is flushed without waiting for the delay,
+	 * defaults to 250.
+	 * 
+	 * @param writeBehindFlushSize
+	 */
+	public void setWriteBehindFlushSize(int writeBehindFlushSize) {
+		Assert.isTrue(writeBehindFlushSize > 0, "Write behind flush size should be positive");
+		this.writeBehindFlushSize = writeBehindFlushSize;
+	}
+
+	public int getWriteBehindMaxItems() {
+		return writeBehindMaxItems;
+	}
+
+	/**
+	 * Set the maximum number of pending items of the write behind buffer, defaults to 10000. Once it is full, saves
+	 * of other items flush the buffer themselves.
+	 * 
+	 * @param writeBehindMaxItems
+	 */
+	public void setWriteBehindMaxItems(int writeBehindMaxItems) {
+		Assert.isTrue(writeBehindMaxItems > 0, "Write behind max items should be positive");
+		this.writeBehindMaxItems = writeBehindMaxItems;
+	}
+
+	public int getCountSegments() {
+		return countSegments;
+	}
+
+	/**
+	 * Set the number of <tt>itemName()</tt> ranges a count without limit is split into, the ranges are counted
+	 * concurrently on the {@link #setBatchExecutor(Executor) batch executor}. The ranges are split by the
+	 * {@link #setItemNameSplitter(ItemNameSplitter) item name splitter}. Defaults to 1, counts are not split.
+	 * 
+	 * @param countSegments
+	 */
+	public void setCountSegments(int countSegments) {
+		Assert.isTrue(countSegments > 0, "Count segments should be positive");
+		this.countSegments = countSegments;
+	}
+
+	public ItemNameSplitter getItemNameSplitter() {
+		return itemNameSplitter;
+	}
+
+	/**
+	 * Set the splitter of segmented counts and scans, defaults to {@link HexItemNameSplitter} which spreads the
+	 * generated item names evenly.
+	 * 
+	 * @param itemNameSplitter
+	 */
+	public void setItemNameSplitter(ItemNameSplitter itemNameSplitter) {
+		Assert.notNull(itemNameSplitter);
+		this.itemNameSplitter = itemNameSplitter;
+	}
+
+	public int getVersionConflictAttempts() {
+		return versionConflictAttempts;
+	}
+
+	/**
+	 * Set the attempts of {@link SimpleDbOperations#update(java.io.Serializable, Class, UpdateCallback)} to read and
+	 * save a {@link org.springframework.data.simpledb.annotation.Version versioned} entity before the version
+	 * conflict is thrown, defaults to 3.
+	 * 
+	 * @param versionConflictAttempts
+	 */
+	public void setVersionConflictAttempts(int versionConflictAttempts) {
+		Assert.isTrue(versionConflictAttempts > 0, "Version conflict attempts should be positive");
+		this.versionConflictAttempts = versionConflictAttempts;
+	}
+
 	@Override
 	public final void afterPropertiesSet() {
+		if(simpleDbClient == null) {
+			simpleDbClient = createSimpleDbClient();
+		}
+
+		simpleDbDomain = new SimpleDbDomain(domainPrefix);
+	}
+
+	/**
+	 * Stops the scheduled flushes and writes the saves pending in the write behind buffer. A later save starts a new
+	 * buffer with the current settings.
+	 */
+	@Override
+	public void destroy() {
+		final WriteBehindBuffer buffer;
+		final ScheduledExecutorService scheduler;
+		final SimpleDbTemplate template;
+		synchronized(this) {
+			buffer = writeBehindBuffer;
+			scheduler = writeBehindScheduler;
+			template = writeBehindTemplate;
+			writeBehindBuffer = null;
+			writeBehindScheduler = null;
+			writeBehindTemplate = null;
+		}
+
+		if(buffer != null) {
+			scheduler.shutdown();
+			template.flush(buffer);
+		}
+	}
+
+	/**
+	 * @return the write behind buffer shared by the templates, null if saves are written right away
+	 */
+	WriteBehindBuffer getWriteBehindBuffer() {
+		if(writeBehindDelay <= 0) {
+			return null;
+		}
+
+		WriteBehindBuffer buffer = writeBehindBuffer;
+		if(buffer == null) {
+			synchronized(this) {
+				buffer = writeBehindBuffer;
+				if(buffer == null) {
+					buffer = startWriteBehind();
+				}
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * Flushes the write behind buffer on the write behind thread without waiting for the delay.
+	 * 
+	 * @return false if the write behind was stopped meanwhile, the caller flushes the buffer itself
+	 */
+	boolean scheduleWriteBehindFlush(final WriteBehindBuffer buffer) {
+		final ScheduledExecutorService scheduler;
+		final SimpleDbTemplate template;
+		synchronized(this) {
+			if(buffer != writeBehindBuffer) {
+				return false;
+			}
+			scheduler = writeBehindScheduler;
+			template = writeBehindTemplate;
+		}
+
+		try {
+			scheduler.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					template.flushQuietly(buffer);
+				}
+			});
+			return true;
+		} catch(RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	private WriteBehindBuffer startWriteBehind() {
+		final WriteBehindBuffer buffer = new WriteBehindBuffer(writeBehindMaxItems);
+		final SimpleDbTemplate template = new SimpleDbTemplate(this);
+		final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				final Thread thread = new Thread(runnable, "simpledb-write-behind");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		scheduler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				template.flushQuietly(buffer);
+			}
+		}, writeBehindDelay, writeBehindDelay, TimeUnit.MILLISECONDS);
+
+		writeBehindTemplate = template;
+		writeBehindScheduler = scheduler;
+		writeBehindBuffer = buffer;
+		return buffer;
+	}
+
+	private AmazonSimpleDB createSimpleDbClient() {
 		final AWSCredentials awsCredentials = new AWSCredentials() {
 
 			@Override
@@ -161,14 +563,22 @@ public class SimpleDb implements InitializingBean {
 			}
 		};
 
-		this.simpleDbClient = new AmazonSimpleDBClient(awsCredentials);
-        this.simpleDbClient.setRegion(Region.getRegion(region));
+		final AmazonSimpleDB client = new AmazonSimpleDBClient(awsCredentials);
+		client.setRegion(Region.getRegion(region));
 
-		simpleDbDomain = new SimpleDbDomain(domainPrefix);
+		return client;
 	}
 
 	public String getDomain(Class<?> clazz) {
 		return simpleDbDomain.getDomain(clazz);
 	}
 
+	public String getDomain(Class<?> clazz, String itemName) {
+		return simpleDbDomain.getDomain(clazz, itemName);
+	}
+
+	public List<String> getDomains(Class<?> clazz) {
+		return simpleDbDomain.getDomains(clazz);
+	}
+
 }
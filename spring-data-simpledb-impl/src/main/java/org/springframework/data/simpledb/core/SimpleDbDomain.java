@@ -1,7 +1,12 @@
 package org.springframework.data.simpledb.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.data.simpledb.annotation.DomainPrefix;
+import org.springframework.data.simpledb.annotation.Sharded;
 import org.springframework.data.simpledb.util.StringUtil;
+import org.springframework.util.Assert;
 
 public class SimpleDbDomain {
 
@@ -36,6 +41,67 @@ public class SimpleDbDomain {
 
 		return ret.toString();
 	}
+
+	/**
+	 * @return true if the items of the class are spread over several domains, see {@link Sharded}
+	 */
+	public boolean isSharded(Class<?> clazz) {
+		return clazz.getAnnotation(Sharded.class) != null;
+	}
+
+	/**
+	 * @return all domains holding items of the class: the shard domains <tt>user_job.0</tt> ... <tt>user_job.N-1</tt>
+	 *         of a {@link Sharded} class, the single domain otherwise
+	 */
+	public List<String> getDomains(Class<?> clazz) {
+		final String domain = getDomain(clazz);
+		final int shards = getShards(clazz);
+
+		final List<String> domains = new ArrayList<String>(shards);
+		if(!isSharded(clazz)) {
+			domains.add(domain);
+		} else {
+			for(int shard = 0; shard < shards; shard++) {
+				domains.add(domain + "." + shard);
+			}
+		}
+		return domains;
+	}
+
+	/**
+	 * @return the domain owning the item of the class
+	 */
+	public String getDomain(Class<?> clazz, String itemName) {
+		if(!isSharded(clazz)) {
+			return getDomain(clazz);
+		}
+
+		Assert.notNull(itemName, "Item name of a sharded entity should not be null");
+		return getDomain(clazz) + "." + getShard(itemName, getShards(clazz));
+	}
+
+	/**
+	 * Stable across JVMs, {@link String#hashCode()} is specified, its bits are mixed to spread similar item names.
+	 */
+	static int getShard(String itemName, int shards) {
+		int hash = itemName.hashCode();
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return (hash & Integer.MAX_VALUE) % shards;
+	}
+
+	private int getShards(Class<?> clazz) {
+		final Sharded sharded = clazz.getAnnotation(Sharded.class);
+		if(sharded == null) {
+			return 1;
+		}
+
+		Assert.isTrue(sharded.shards() > 0, "Number of shards should be positive: " + clazz.getName());
+		return sharded.shards();
+	}
 	
 	private String getDomainPrefix(Class<?> clazz) {
 		String prefix = null;
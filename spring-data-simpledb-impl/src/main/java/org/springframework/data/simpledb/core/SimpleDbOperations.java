@@ -1,6 +1,7 @@
 package org.springframework.data.simpledb.core;
 
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -50,6 +51,16 @@ public interface SimpleDbOperations {
 	 */
 	<T> T createOrUpdate(T entity);
 
+	/**
+	 * Creates or updates entities in bulk, see {@link #createOrUpdate(Object)}. Entities of the same domain are
+	 * written with batch put requests of up to 25 items, independent batches are dispatched on the
+	 * {@link SimpleDb#setBatchExecutor(java.util.concurrent.Executor) batch executor}.
+	 * 
+	 * @param entities
+	 * @return the saved entities, in iteration order
+	 */
+	<T> List<T> createOrUpdateAll(Iterable<T> entities);
+
 	/**
 	 * Deletes an item based on domainName and itemName (id). 
 	 * 
@@ -118,6 +129,53 @@ public interface SimpleDbOperations {
 	 */
 	<T, ID extends Serializable> T read(ID id, Class<T> entityClass, boolean consistentRead);
 
+	/**
+	 * Find an entity by id, reading only the given attributes. The fields of the other attributes are left unset.
+	 * 
+	 * @param id
+	 * @param entityClass
+	 * @param consistentRead
+	 * @param attributeNames
+	 *            the attributes to read, all of them if none is given
+	 * @return T or null if the item has none of the attributes
+	 */
+	<T, ID extends Serializable> T read(ID id, Class<T> entityClass, boolean consistentRead, String... attributeNames);
+
+	/**
+	 * @param id
+	 * @param entityClass
+	 * @return true if the domain for entityClass holds an item with the given id
+	 */
+	<T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass);
+
+	/**
+	 * Find entities by id. Ids are read with <tt>itemName() in (...)</tt> selects of at most 20 ids, the selects are
+	 * dispatched on the {@link SimpleDb#setBatchExecutor(java.util.concurrent.Executor) batch executor}.
+	 * 
+	 * @param ids
+	 * @param entityClass
+	 * @return the entities found, in the order of the ids
+	 */
+	<T, ID extends Serializable> List<T> readAll(Iterable<ID> ids, Class<T> entityClass);
+
+	/**
+	 * Find entities by id, see {@link #readAll(Iterable, Class)}.
+	 * 
+	 * @param ids
+	 * @param entityClass
+	 * @param consistentRead
+	 * @return the entities found, in the order of the ids
+	 */
+	<T, ID extends Serializable> List<T> readAll(Iterable<ID> ids, Class<T> entityClass, boolean consistentRead);
+
+	/**
+	 * @param id
+	 * @param entityClass
+	 * @param consistentRead
+	 * @return true if the domain for entityClass holds an item with the given id
+	 */
+	<T, ID extends Serializable> boolean exists(ID id, Class<T> entityClass, boolean consistentRead);
+
 	/**
 	 * @param entityClass
 	 * @return count of items in the domain for entityClass
@@ -187,6 +245,63 @@ public interface SimpleDbOperations {
 	 */
 	<T> List<T> find(Class<T> entityClass, String query, boolean consistentRead);
 
+	/**
+	 * Finds the attributes selected by a partial query, e.g. <code>select name, age from entity</code>, subject to
+	 * the fetch rules of {@link #find(Class, String)}. The attributes are decoded straight from the items by a
+	 * {@link ProjectionMapper}, the entities are not instantiated.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 *            query selecting attributes of the entity
+	 * @return the selected attribute values of each item, keyed by attribute name in selection order
+	 */
+	<T> List<Map<String, Object>> findProjections(Class<T> entityClass, String query);
+
+	/**
+	 * Overloaded form of {@link #findProjections(Class, String)} with option to reverse the default consistentRead
+	 * setting.
+	 */
+	<T> List<Map<String, Object>> findProjections(Class<T> entityClass, String query, boolean consistentRead);
+
+	/**
+	 * Lazily iterates over all entities in a domain. Unlike {@link #findAll(Class)}, the returned iterator follows the
+	 * SimpleDB <tt>nextToken</tt>, fetching and mapping one page at a time, so domains of any size can be traversed in
+	 * constant memory.
+	 * 
+	 * @param entityClass
+	 * @return Iterator of T
+	 */
+	<T> Iterator<T> iterateAll(Class<T> entityClass);
+
+	/**
+	 * Overloaded form of {@link #iterateAll(Class)} with option to reverse the default consistentRead setting.
+	 * 
+	 * @param entityClass
+	 * @param consistentRead
+	 * @return Iterator of T
+	 */
+	<T> Iterator<T> iterateAll(Class<T> entityClass, boolean consistentRead);
+
+	/**
+	 * Lazily iterates over all entities matching the query, following the SimpleDB <tt>nextToken</tt> page by page.
+	 * A <tt>limit</tt> in the query bounds the total number of entities returned.
+	 * 
+	 * @param entityClass
+	 * @param query needs to be a full query with select, from and where clauses.
+	 * @return Iterator of T
+	 */
+	<T> Iterator<T> iterate(Class<T> entityClass, String query);
+
+	/**
+	 * Overloaded form of {@link #iterate(Class, String)} with option to reverse the default consistentRead setting.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 * @param consistentRead
+	 * @return Iterator of T
+	 */
+	<T> Iterator<T> iterate(Class<T> entityClass, String query, boolean consistentRead);
+
 	/**
 	 * Paginated finder method.
 	 * 
@@ -210,6 +325,57 @@ public interface SimpleDbOperations {
 	 */
 	<T> Page<T> executePagedQuery(Class<T> entityClass, String query, Pageable pageable, boolean consistentRead);
 
+	/**
+	 * Cursor based finder method, each slice costs a single select and no count. The first slice is fetched with a
+	 * null cursor, the next ones with the cursor of the previous slice. Queries of sharded entities go through the
+	 * shards one after the other and must not have an order by clause.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 *            query without limit
+	 * @param size
+	 *            maximum number of results of the slice, up to 2500
+	 * @param cursor
+	 *            {@link SimpleDbSlice#getNextCursor()} of the previous slice or null
+	 * @return Slice of T
+	 */
+	<T> SimpleDbSlice<T> findSlice(Class<T> entityClass, String query, int size, String cursor);
+
+	/**
+	 * Overloaded form of {@link #findSlice(Class, String, int, String)} with option to reverse the default
+	 * consistentRead setting.
+	 */
+	<T> SimpleDbSlice<T> findSlice(Class<T> entityClass, String query, int size, String cursor,
+			boolean consistentRead);
+
+	/**
+	 * Parallel full scan: the query is split into <tt>itemName()</tt> ranges, see {@link ItemNameSplitter}, which
+	 * are paged concurrently on the batch executor of {@link SimpleDb}, each range of each shard of sharded entities.
+	 * The entities are passed to the callback as their pages arrive, in no particular order. Pages are retried on
+	 * their own; once a range fails the other ones stop at their next page and the failure is rethrown.
+	 * 
+	 * @param entityClass
+	 * @param query
+	 *            query without limit
+	 * @param segments
+	 *            number of item name ranges per domain
+	 * @param callback
+	 *            thread safe receiver of the entities
+	 * @return number of scanned entities
+	 */
+	<T> long scan(Class<T> entityClass, String query, int segments, ScanCallback<T> callback);
+
+	/**
+	 * Overloaded form of {@link #scan(Class, String, int, ScanCallback)} with option to reverse the default
+	 * consistentRead setting.
+	 */
+	<T> long scan(Class<T> entityClass, String query, int segments, boolean consistentRead, ScanCallback<T> callback);
+
+	/**
+	 * Scans all entities of a domain, see {@link #scan(Class, String, int, ScanCallback)}.
+	 */
+	<T> long scanAll(Class<T> entityClass, int segments, ScanCallback<T> callback);
+
 	/**
 	 * Updates an entity with the property map provided. The keys for the 
 	 * property map would be the attribute names to be updated with corresponding
@@ -246,6 +412,9 @@ public interface SimpleDbOperations {
 	 * <p>
 	 * The consistent read property of this operation will be determined by
 	 * {@link SimpleDb#setConsistentRead(boolean)} setting.
+	 * <p>
+	 * The update of a {@link org.springframework.data.simpledb.annotation.Version versioned} entity is conditional on
+	 * the version given in the property map, or on the stored version if the map has none, and increments it.
 	 * 
 	 * @param entityClass
 	 * @param id
@@ -253,6 +422,20 @@ public interface SimpleDbOperations {
 	 */
 	<T, ID> void update(ID id, Class<T> entityClass, Map<String, ? extends Object> propertyMap);
 
+	/**
+	 * Reads an entity with a consistent read, lets the callback modify it and saves it. If the entity is
+	 * {@link org.springframework.data.simpledb.annotation.Version versioned} and was modified concurrently, it is read
+	 * and modified again, at most {@link SimpleDb#setVersionConflictAttempts(int)} times before the
+	 * {@link org.springframework.dao.OptimisticLockingFailureException} is thrown.
+	 * 
+	 * @param id
+	 * @param entityClass
+	 * @param callback
+	 *            modification of the entity, invoked once per attempt
+	 * @return the saved entity, null if there is no item with the given id
+	 */
+	<T, ID extends Serializable> T update(ID id, Class<T> entityClass, UpdateCallback<T> callback);
+
 	/**
 	 * Creates an object suitable for use with any of the query based methods
 	 * (and <i>consistentRead</i> variations) on {@link SimpleDbOperations}:
@@ -264,7 +447,10 @@ public interface SimpleDbOperations {
 	 * 
 	 * @param entityClass
 	 * @param whereClause
+	 *            where clause with positional <tt>?</tt> placeholders, see
+	 *            {@link org.springframework.data.simpledb.query.QueryTemplate}
 	 * @param queryParams
+	 *            values of the placeholders in order, quoted and encoded as literals
 	 * @return a {@link SdbItemQuery} object for executing the finder methods
 	 */
 	<T> SdbItemQuery<T> createQuery(Class<T> entityClass, String whereClause, Object...queryParams);
@@ -7,8 +7,10 @@ import java.util.Map;
 
 import org.springframework.data.simpledb.util.MapUtils;
 
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
 import com.amazonaws.services.simpledb.model.PutAttributesRequest;
 import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
 
 /**
  * Taking into account SimpleDb limitations, constructs requests that comply.
@@ -20,6 +22,8 @@ public final class SimpleDbRequestBuilder {
 	}
 
 	private static final int MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST = 256;
+	private static final int MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST = 25;
+	private static final int MAX_BATCH_REQUEST_SIZE = 1024 * 1024;
 
 	public static List<PutAttributesRequest> createPutAttributesRequests(String domain, String itemName,
 			Map<String, List<String>> rawAttributes) {
@@ -36,6 +40,59 @@ public final class SimpleDbRequestBuilder {
 		return putAttributesRequests;
 	}
 
+	/**
+	 * Groups the items of a domain into batch put requests of at most 25 items and 1MB of attribute names and values.
+	 * Items with more than 256 attributes are split into chunks, the chunks of the same item are sent in different
+	 * requests since an item may not appear twice in a batch.
+	 */
+	public static List<BatchPutAttributesRequest> createBatchPutAttributesRequests(String domain,
+			Map<String, Map<String, List<String>>> rawItems) {
+		List<BatchPutAttributesRequest> batchRequests = new LinkedList<BatchPutAttributesRequest>();
+
+		List<List<ReplaceableItem>> rounds = new ArrayList<List<ReplaceableItem>>();
+		for(Map.Entry<String, Map<String, List<String>>> rawItem : rawItems.entrySet()) {
+			List<Map<String, List<String>>> attributeChunks = MapUtils.splitToChunksOfSize(rawItem.getValue(),
+					MAX_NUMBER_OF_ATTRIBUTES_PER_SIMPLE_DB_REQUEST);
+
+			for(int i = 0; i < attributeChunks.size(); i++) {
+				if(rounds.size() == i) {
+					rounds.add(new ArrayList<ReplaceableItem>());
+				}
+				rounds.get(i).add(
+						new ReplaceableItem(rawItem.getKey(), toReplaceableAttributeList(attributeChunks.get(i))));
+			}
+		}
+
+		for(List<ReplaceableItem> round : rounds) {
+			List<ReplaceableItem> batch = new ArrayList<ReplaceableItem>();
+			int batchSize = 0;
+			for(ReplaceableItem item : round) {
+				int itemSize = estimateSize(item);
+				if(batch.size() == MAX_NUMBER_OF_ITEMS_PER_BATCH_REQUEST
+						|| (!batch.isEmpty() && batchSize + itemSize > MAX_BATCH_REQUEST_SIZE)) {
+					batchRequests.add(new BatchPutAttributesRequest(domain, batch));
+					batch = new ArrayList<ReplaceableItem>();
+					batchSize = 0;
+				}
+				batch.add(item);
+				batchSize += itemSize;
+			}
+			if(!batch.isEmpty()) {
+				batchRequests.add(new BatchPutAttributesRequest(domain, batch));
+			}
+		}
+
+		return batchRequests;
+	}
+
+	private static int estimateSize(ReplaceableItem item) {
+		int size = item.getName().length();
+		for(ReplaceableAttribute attribute : item.getAttributes()) {
+			size += attribute.getName().length() + attribute.getValue().length();
+		}
+		return size;
+	}
+
 	private static PutAttributesRequest createPutAttributesRequest(String domain, String itemName,
 			Map<String, List<String>> chunk) {
 		final PutAttributesRequest putRequest = new PutAttributesRequest();
@@ -0,0 +1,46 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Consecutive results of a query followed with an opaque cursor, see
+ * {@link SimpleDbOperations#findSlice(Class, String, int, String)}. <br/>
+ * Unlike a {@link org.springframework.data.domain.Page} a slice knows neither its number nor the total number of
+ * results, so fetching it costs a single select whatever its position.
+ */
+public class SimpleDbSlice<T> implements Iterable<T> {
+
+	private final List<T> content;
+	private final String nextCursor;
+
+	public SimpleDbSlice(List<T> content, String nextCursor) {
+		this.content = Collections.unmodifiableList(content);
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	/**
+	 * @return the cursor of the next slice, null if this is the last one
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * SimpleDB may end a slice early or hand out a cursor to an empty last slice, only a null cursor means no further
+	 * results.
+	 */
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return content.iterator();
+	}
+}
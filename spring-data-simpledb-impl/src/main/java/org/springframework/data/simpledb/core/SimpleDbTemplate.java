@@ -2,24 +2,43 @@ package org.springframework.data.simpledb.core;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
 import org.springframework.data.simpledb.attributeutil.SimpleDbAttributeValueSplitter;
 import org.springframework.data.simpledb.core.entity.EntityWrapper;
 import org.springframework.data.simpledb.core.entity.json.JsonMarshaller;
-import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
-import org.springframework.data.simpledb.parser.SimpleDBParser;
+import org.springframework.data.simpledb.exception.UncategorizedSpringDaoException;
 import org.springframework.data.simpledb.query.QueryUtils;
+import org.springframework.data.simpledb.reflection.EntityMetadata;
 import org.springframework.data.simpledb.reflection.FieldType;
 import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
 import org.springframework.data.simpledb.reflection.MetadataParser;
@@ -28,25 +47,192 @@ import org.springframework.data.simpledb.repository.support.entityinformation.Si
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformationSupport;
 import org.springframework.util.Assert;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.AttributeDoesNotExistException;
 import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ConditionalCheckFailedException;
 import com.amazonaws.services.simpledb.model.DeletableItem;
 import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
 import com.amazonaws.services.simpledb.model.Item;
 import com.amazonaws.services.simpledb.model.PutAttributesRequest;
 import com.amazonaws.services.simpledb.model.SelectRequest;
 import com.amazonaws.services.simpledb.model.SelectResult;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
 
 /**
  * Primary implementation of {@link SimpleDbOperations}
  */
-public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
+public class SimpleDbTemplate extends AbstractSimpleDbTemplate implements DisposableBean {
 
     private static final int MAX_BATCH_SIZE = 25;
+    private static final int MAX_SELECT_LIMIT = 2500;
+    private static final int MAX_ITEM_NAMES_PER_SELECT = 20;
+    private static final int COMPILED_QUERY_CACHE_SIZE = 1000;
+    private static final int PAGE_TOKEN_CACHE_SIZE = 1000;
+    private static final char SHARD_CURSOR_SEPARATOR = ':';
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleDbTemplate.class);
+    private static final ThreadLocal<Boolean> RUNNING_BATCH = new ThreadLocal<Boolean>();
+
+    private final AttributeNameSnapshot attributeNameSnapshot;
+    private final CompiledQueryCache compiledQueryCache = new CompiledQueryCache(COMPILED_QUERY_CACHE_SIZE);
+    private final PageTokenCache pageTokenCache = new PageTokenCache(PAGE_TOKEN_CACHE_SIZE);
+    private final EntityCache entityCache;
 
     public SimpleDbTemplate(SimpleDb simpleDb) {
         super(simpleDb);
+        entityCache = simpleDb.getEntityCache();
+        attributeNameSnapshot = simpleDb.getAttributeNameSnapshot();
+    }
+
+    /**
+     * @return number of queries found already validated and escaped in the compiled query cache
+     */
+    public long getQueryCacheHits() {
+        return compiledQueryCache.getHits();
+    }
+
+    /**
+     * @return number of queries parsed or escaped because they were not in the compiled query cache
+     */
+    public long getQueryCacheMisses() {
+        return compiledQueryCache.getMisses();
+    }
+
+    /**
+     * @return number of reads of {@link org.springframework.data.simpledb.annotation.Cached} entities served by the
+     *         entity cache
+     */
+    public long getEntityCacheHits() {
+        return entityCache.getHits();
+    }
+
+    /**
+     * @return number of reads of {@link org.springframework.data.simpledb.annotation.Cached} entities sent to SimpleDB
+     *         because the item was not cached or expired
+     */
+    public long getEntityCacheMisses() {
+        return entityCache.getMisses();
+    }
+
+    /**
+     * @return number of items removed from the entity cache because it was full or they expired
+     */
+    public long getEntityCacheEvictions() {
+        return entityCache.getEvictions();
+    }
+
+    public int getEntityCacheSize() {
+        return entityCache.size();
+    }
+
+    /**
+     * Discards all items of the entity cache, e.g. after the domains were changed by another application
+     */
+    public void clearEntityCache() {
+        entityCache.clear();
+    }
+
+    /**
+     * @return number of items with a save pending in the write behind buffer
+     */
+    public int getPendingWriteCount() {
+        final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+        return writeBehindBuffer == null ? 0 : writeBehindBuffer.size();
+    }
+
+    /**
+     * Writes the saves pending in the write behind buffer, see {@link SimpleDb#setWriteBehindDelay(long)}. Flushes
+     * run one at a time; saves failing to be written stay pending and the failure is rethrown.
+     */
+    public void flush() {
+        final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+        if (writeBehindBuffer != null) {
+            flush(writeBehindBuffer);
+        }
+    }
+
+    void flush(WriteBehindBuffer writeBehindBuffer) {
+        writeBehindBuffer.flushStarted();
+
+        synchronized (writeBehindBuffer.getFlushMonitor()) {
+            final List<WriteBehindBuffer.PendingSave> saves = writeBehindBuffer.snapshot();
+            if (saves.isEmpty()) {
+                return;
+            }
+            LOGGER.debug("Flush {} pending saves", saves.size());
+
+            final Map<String, Set<String>> existingItemNames = new LinkedHashMap<String, Set<String>>();
+            final Map<String, Map<String, Map<String, List<String>>>> rawItems = new LinkedHashMap<String, Map<String, Map<String, List<String>>>>();
+            for (WriteBehindBuffer.PendingSave save : saves) {
+                if (!rawItems.containsKey(save.getDomain())) {
+                    existingItemNames.put(save.getDomain(), new LinkedHashSet<String>());
+                    rawItems.put(save.getDomain(), new LinkedHashMap<String, Map<String, List<String>>>());
+                }
+                if (save.isExistingItem()) {
+                    existingItemNames.get(save.getDomain()).add(save.getItemName());
+                }
+                rawItems.get(save.getDomain()).put(save.getItemName(), save.getRawAttributes());
+            }
+
+            writeItems(existingItemNames, rawItems);
+            writeBehindBuffer.complete(saves);
+        }
+    }
+
+    /**
+     * Writes the pending saves, called on shutdown of the Spring context. The write behind buffer is shared by the
+     * templates of the {@link SimpleDb}, which stops the scheduled flushes when it is destroyed itself.
+     */
+    @Override
+    public void destroy() {
+        flush();
+    }
+
+    void flushQuietly(WriteBehindBuffer writeBehindBuffer) {
+        try {
+            flush(writeBehindBuffer);
+        } catch (RuntimeException e) {
+            LOGGER.error("Write behind flush failed, the saves stay pending", e);
+        }
+    }
+
+    /*
+     * A full buffer is flushed by the saving thread itself, which holds back the writers until SimpleDB keeps up. A
+     * save landing in a buffer stopped meanwhile by SimpleDb#destroy() is written right away.
+     */
+    private void writeBehind(WriteBehindBuffer writeBehindBuffer, String domain, String itemName,
+                             Map<String, List<String>> rawAttributes, boolean existingItem) {
+        while (!writeBehindBuffer.offer(domain, itemName, rawAttributes, existingItem)) {
+            flush(writeBehindBuffer);
+        }
+
+        if (writeBehindBuffer.size() >= getSimpleDb().getWriteBehindFlushSize() && writeBehindBuffer.scheduleFlush()
+                && !getSimpleDb().scheduleWriteBehindFlush(writeBehindBuffer)) {
+            flush(writeBehindBuffer);
+        } else if (getSimpleDb().getWriteBehindBuffer() != writeBehindBuffer) {
+            flush(writeBehindBuffer);
+        }
+    }
+
+    /*
+     * A pending save of a deleted or overwritten item is discarded. If a flush may be writing it, the flush is waited
+     * for so that the write does not land after the delete.
+     */
+    private void discardPendingSave(String domain, String itemName) {
+        final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+        if (writeBehindBuffer != null && writeBehindBuffer.remove(domain, itemName)) {
+            synchronized (writeBehindBuffer.getFlushMonitor()) {
+                LOGGER.debug("Discarded pending save of ItemName \"{}\"", itemName);
+            }
+        }
+    }
+
+    private Item getPendingItem(String domain, String itemName) {
+        final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+        return writeBehindBuffer == null ? null : writeBehindBuffer.getItem(domain, itemName);
     }
 
 	@Override
@@ -64,22 +250,327 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
             }
         }
 
-        if (entity.getItemName() != null) {
-        	delete(entity.getDomain(), entity.getItemName());
-        }
+        final boolean existingItem = entity.getItemName() != null;
         entity.generateIdIfNotSet();
 
+        final String domain = getDomainName(domainItem.getClass(), entity.getItemName());
+
+        if (entity.isVersioned()) {
+            createOrUpdateVersioned(domain, entity);
+            entityCache.invalidate(domain, entity.getItemName());
+            return entity.getItem();
+        }
+
+        final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+        if (writeBehindBuffer != null) {
+            writeBehind(writeBehindBuffer, domain, entity.getItemName(), entity.toMultiValueAttributes(), existingItem);
+            entityCache.invalidate(domain, entity.getItemName());
+            return entity.getItem();
+        }
+
+        Set<String> previousAttributeNames = null;
+        if (existingItem) {
+            if (isReplaceUpdateMode()) {
+                previousAttributeNames = getPreviousAttributeNames(domain, entity.getItemName());
+            } else {
+                delete(domain, entity.getItemName());
+            }
+        }
+
         Map<String, List<String>> rawAttributes = entity.toMultiValueAttributes();
         List<PutAttributesRequest> putAttributesRequests = SimpleDbRequestBuilder.createPutAttributesRequests(
-                entity.getDomain(), entity.getItemName(), rawAttributes);
+                domain, entity.getItemName(), rawAttributes);
 
         for (PutAttributesRequest request : putAttributesRequests) {
             getDB().putAttributes(request);
         }
+
+        if (isReplaceUpdateMode()) {
+            final List<Attribute> vanishedAttributes = getVanishedAttributes(previousAttributeNames,
+                    rawAttributes.keySet());
+            if (!vanishedAttributes.isEmpty()) {
+                getDB().deleteAttributes(new DeleteAttributesRequest(domain, entity.getItemName(),
+                        vanishedAttributes));
+            }
+            attributeNameSnapshot.record(domain, entity.getItemName(), rawAttributes.keySet());
+        }
+        entityCache.invalidate(domain, entity.getItemName());
         
         return entity.getItem();
     }
 
+    /*
+     * Saves a versioned item conditionally on the version it was read with and increments the version. The attributes
+     * are replaced and the vanished ones deleted afterwards, since deleting the item first could not be conditional.
+     * The version of the entity is restored if the save fails.
+     */
+    private <T> void createOrUpdateVersioned(String domain, EntityWrapper<T, ?> entity) {
+        final Field versionField = EntityMetadata.forClass(entity.getItem().getClass()).getVersionField();
+        final String itemName = entity.getItemName();
+        final Long version = entity.getVersion();
+        final Set<String> previousAttributeNames = version == null ? null : getPreviousAttributeNames(domain,
+                itemName);
+
+        entity.setVersion(version == null ? 1L : version + 1);
+        boolean written = false;
+        try {
+            final Map<String, List<String>> rawAttributes = entity.toMultiValueAttributes();
+            writeVersioned(domain, itemName, versionField, version, rawAttributes, previousAttributeNames);
+            written = true;
+
+            if (isReplaceUpdateMode()) {
+                attributeNameSnapshot.record(domain, itemName, rawAttributes.keySet());
+            }
+        } finally {
+            if (!written) {
+                entity.setVersion(version);
+            }
+        }
+    }
+
+    /*
+     * The put holding the version attribute is sent first and is conditional on the expected version, the other puts
+     * of an item with more than 256 attributes and the delete of vanished attributes on the new version.
+     */
+    private void writeVersioned(String domain, String itemName, Field versionField, Long version,
+                                Map<String, List<String>> rawAttributes, Set<String> previousAttributeNames) {
+        final UpdateCondition written = getVersionCondition(versionField, version == null ? 1L : version + 1);
+
+        final Map<String, List<String>> orderedAttributes = new LinkedHashMap<String, List<String>>();
+        orderedAttributes.put(versionField.getName(), rawAttributes.get(versionField.getName()));
+        orderedAttributes.putAll(rawAttributes);
+
+        try {
+            UpdateCondition condition = getVersionCondition(versionField, version);
+            for (PutAttributesRequest request : SimpleDbRequestBuilder.createPutAttributesRequests(domain, itemName,
+                    orderedAttributes)) {
+                getDB().putAttributes(request.withExpected(condition));
+                condition = written;
+            }
+
+            final List<Attribute> vanishedAttributes = getVanishedAttributes(previousAttributeNames,
+                    rawAttributes.keySet());
+            if (!vanishedAttributes.isEmpty()) {
+                getDB().deleteAttributes(new DeleteAttributesRequest(domain, itemName, vanishedAttributes)
+                        .withExpected(written));
+            }
+        } catch (ConditionalCheckFailedException e) {
+            throw versionConflict(domain, itemName, e);
+        } catch (AttributeDoesNotExistException e) {
+            throw versionConflict(domain, itemName, e);
+        }
+    }
+
+    /*
+     * An item that was never saved is expected to have no version attribute.
+     */
+    private static UpdateCondition getVersionCondition(Field versionField, Long version) {
+        if (version == null) {
+            return new UpdateCondition().withName(versionField.getName()).withExists(false);
+        }
+        return new UpdateCondition(versionField.getName(), EntityWrapper.encodeVersion(versionField, version), true);
+    }
+
+    private static OptimisticLockingFailureException versionConflict(String domain, String itemName,
+                                                                     AmazonServiceException cause) {
+        return new OptimisticLockingFailureException("Item \"" + itemName + "\" of domain \"" + domain
+                + "\" was modified or deleted concurrently", cause);
+    }
+
+    /*
+     * The items of a domain are deleted and written again with batch requests, all deletes complete before the first
+     * put is sent. Referenced entities are saved in bulk first. Versioned entities can not be written with batch
+     * requests, they are saved one by one on the batch executor instead.
+     */
+    @Override
+    public <T> List<T> createOrUpdateAllImpl(List<EntityWrapper<T, ?>> entities) {
+        final List<T> result = new ArrayList<T>(entities.size());
+        final List<Object> referenceEntities = new ArrayList<Object>();
+        final Map<String, Set<String>> existingItemNames = new LinkedHashMap<String, Set<String>>();
+        final Map<String, Map<String, Map<String, List<String>>>> rawItems = new LinkedHashMap<String, Map<String, Map<String, List<String>>>>();
+        final List<Runnable> versionedSaves = new ArrayList<Runnable>();
+        final List<EntityWrapper<T, ?>> bulkEntities = new ArrayList<EntityWrapper<T, ?>>();
+
+        for (EntityWrapper<T, ?> entity : entities) {
+            Assert.notNull(entity.getDomain(), "Domain name should not be null");
+
+            final T domainItem = entity.getItem();
+            if (entity.isVersioned()) {
+                versionedSaves.add(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        createOrUpdate(domainItem);
+                    }
+                });
+                continue;
+            }
+
+            for (final Field field : ReflectionUtils.getFirstLevelOfReferenceAttributes(domainItem.getClass())) {
+                final Object referenceEntity = ReflectionUtils.callGetter(domainItem, field.getName());
+                if (referenceEntity != null) {
+                    referenceEntities.add(referenceEntity);
+                }
+            }
+            bulkEntities.add(entity);
+        }
+
+        /* recursive call, new referenced entities get their ids before the parents are serialized */
+        if (!referenceEntities.isEmpty()) {
+            createOrUpdateAll(referenceEntities);
+        }
+
+        for (EntityWrapper<T, ?> entity : bulkEntities) {
+            logOperation("Create or update", entity);
+
+            final T domainItem = entity.getItem();
+            final boolean existingItem = entity.getItemName() != null;
+            entity.generateIdIfNotSet();
+
+            final String domain = getDomainName(domainItem.getClass(), entity.getItemName());
+            if (!rawItems.containsKey(domain)) {
+                existingItemNames.put(domain, new LinkedHashSet<String>());
+                rawItems.put(domain, new LinkedHashMap<String, Map<String, List<String>>>());
+            }
+
+            if (existingItem) {
+                existingItemNames.get(domain).add(entity.getItemName());
+            }
+
+            rawItems.get(domain).put(entity.getItemName(), entity.toMultiValueAttributes());
+        }
+
+        /* the bulk write supersedes pending saves of the same items */
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> entry : rawItems.entrySet()) {
+            for (String itemName : entry.getValue().keySet()) {
+                discardPendingSave(entry.getKey(), itemName);
+            }
+        }
+
+        writeItems(existingItemNames, rawItems);
+        executeBatches(versionedSaves);
+
+        for (EntityWrapper<T, ?> entity : entities) {
+            result.add(entity.getItem());
+        }
+        return result;
+    }
+
+    /*
+     * Writes items with batch requests in the update mode, existing items are deleted or have their vanished
+     * attributes removed.
+     */
+    private void writeItems(Map<String, Set<String>> existingItemNames,
+                            Map<String, Map<String, Map<String, List<String>>>> rawItems) {
+        if (isReplaceUpdateMode()) {
+            replaceAll(existingItemNames, rawItems);
+            return;
+        }
+
+        final List<Runnable> deleteBatches = new ArrayList<Runnable>();
+        for (Map.Entry<String, Set<String>> entry : existingItemNames.entrySet()) {
+            final List<DeletableItem> batch = new ArrayList<DeletableItem>(MAX_BATCH_SIZE);
+            final Iterator<String> itemNames = entry.getValue().iterator();
+            while (itemNames.hasNext()) {
+                batch.add(new DeletableItem().withName(itemNames.next()));
+
+                if (batch.size() == MAX_BATCH_SIZE || !itemNames.hasNext()) {
+                    final BatchDeleteAttributesRequest request = new BatchDeleteAttributesRequest(entry.getKey(),
+                            new ArrayList<DeletableItem>(batch));
+                    deleteBatches.add(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            batchDeleteAttributes(request);
+                        }
+                    });
+                    batch.clear();
+                }
+            }
+        }
+
+        executeBatches(deleteBatches);
+        executeBatches(createPutBatches(rawItems));
+        invalidateCachedItems(rawItems);
+    }
+
+    /*
+     * Bulk counterpart of the REPLACE update mode, the vanished attributes of all items are removed with batch deletes
+     * once every put completed.
+     */
+    private void replaceAll(Map<String, Set<String>> existingItemNames,
+                            Map<String, Map<String, Map<String, List<String>>>> rawItems) {
+        final Map<String, Map<String, Set<String>>> previousAttributeNames = new HashMap<String, Map<String, Set<String>>>();
+        for (Map.Entry<String, Set<String>> entry : existingItemNames.entrySet()) {
+            previousAttributeNames.put(entry.getKey(), getPreviousAttributeNames(entry.getKey(), entry.getValue()));
+        }
+
+        executeBatches(createPutBatches(rawItems));
+
+        final List<Runnable> deleteBatches = new ArrayList<Runnable>();
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> entry : rawItems.entrySet()) {
+            final String domain = entry.getKey();
+            final Map<String, Set<String>> previousDomainAttributeNames = previousAttributeNames.get(domain);
+
+            final List<DeletableItem> batch = new ArrayList<DeletableItem>(MAX_BATCH_SIZE);
+            final Iterator<Map.Entry<String, Map<String, List<String>>>> items = entry.getValue().entrySet().iterator();
+            while (items.hasNext()) {
+                final Map.Entry<String, Map<String, List<String>>> item = items.next();
+                final List<Attribute> vanishedAttributes = getVanishedAttributes(
+                        previousDomainAttributeNames.get(item.getKey()), item.getValue().keySet());
+                if (!vanishedAttributes.isEmpty()) {
+                    batch.add(new DeletableItem(item.getKey(), vanishedAttributes));
+                }
+                attributeNameSnapshot.record(domain, item.getKey(), item.getValue().keySet());
+
+                if (!batch.isEmpty() && (batch.size() == MAX_BATCH_SIZE || !items.hasNext())) {
+                    final BatchDeleteAttributesRequest request = new BatchDeleteAttributesRequest(domain,
+                            new ArrayList<DeletableItem>(batch));
+                    deleteBatches.add(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            batchDeleteAttributes(request);
+                        }
+                    });
+                    batch.clear();
+                }
+            }
+        }
+
+        executeBatches(deleteBatches);
+        invalidateCachedItems(rawItems);
+    }
+
+    /*
+     * Cached items are dropped once all their writes completed, a read racing the writes may cache the previous item
+     * until it expires.
+     */
+    private void invalidateCachedItems(Map<String, Map<String, Map<String, List<String>>>> rawItems) {
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> entry : rawItems.entrySet()) {
+            for (String itemName : entry.getValue().keySet()) {
+                entityCache.invalidate(entry.getKey(), itemName);
+            }
+        }
+    }
+
+    private List<Runnable> createPutBatches(Map<String, Map<String, Map<String, List<String>>>> rawItems) {
+        final List<Runnable> putBatches = new ArrayList<Runnable>();
+        for (Map.Entry<String, Map<String, Map<String, List<String>>>> entry : rawItems.entrySet()) {
+            for (final BatchPutAttributesRequest request : SimpleDbRequestBuilder.createBatchPutAttributesRequests(
+                    entry.getKey(), entry.getValue())) {
+                putBatches.add(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        batchPutAttributes(request);
+                    }
+                });
+            }
+        }
+        return putBatches;
+    }
+
     @Override
     public void deleteAttributesImpl(String domainName, String itemName) {
         LOGGER.debug("Delete Domain\"{}\" ItemName \"{}\"", domainName, itemName);
@@ -87,7 +578,10 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         Assert.notNull(domainName, "Domain name should not be null");
         Assert.notNull(itemName, "Item name should not be null");
 
+        discardPendingSave(domainName, itemName);
         getDB().deleteAttributes(new DeleteAttributesRequest(domainName, itemName));
+        attributeNameSnapshot.remove(domainName, itemName);
+        entityCache.invalidate(domainName, itemName);
     }
 
     @Override
@@ -103,52 +597,251 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
             }
         }
 
-        delete(entity.getDomain(), entity.getItemName());
+        final String domain = getDomainName(domainItem.getClass(), entity.getItemName());
+        if (entity.isVersioned() && entity.getVersion() != null) {
+            deleteVersioned(domain, entity);
+        } else {
+            delete(domain, entity.getItemName());
+        }
+    }
+
+    /*
+     * Deletes a versioned item conditionally on the version it was read with.
+     */
+    private <T> void deleteVersioned(String domain, EntityWrapper<T, ?> entity) {
+        final Field versionField = EntityMetadata.forClass(entity.getItem().getClass()).getVersionField();
+        final String itemName = entity.getItemName();
+
+        discardPendingSave(domain, itemName);
+        try {
+            getDB().deleteAttributes(new DeleteAttributesRequest(domain, itemName).withExpected(
+                    getVersionCondition(versionField, entity.getVersion())));
+        } catch (ConditionalCheckFailedException e) {
+            throw versionConflict(domain, itemName, e);
+        } catch (AttributeDoesNotExistException e) {
+            throw versionConflict(domain, itemName, e);
+        }
+        attributeNameSnapshot.remove(domain, itemName);
+        entityCache.invalidate(domain, itemName);
     }
 
     @Override
 	public <T, ID> void delete(Class<T> entityClass, Iterable<? extends ID> ids) {
 
     	if (ids.iterator().hasNext()) {
-    		String domainName = getDomainName(entityClass);
-    		
-			List<DeletableItem> deleteList = new ArrayList<DeletableItem>();
+			// items of a sharded entity are deleted from their own domains
+			Map<String, List<DeletableItem>> deleteLists = new LinkedHashMap<String, List<DeletableItem>>();
 			for (ID id : ids) {
-				deleteList.add(new DeletableItem().withName((String) id));
+				String domainName = getDomainName(entityClass, (String) id);
+				if (!deleteLists.containsKey(domainName)) {
+					deleteLists.put(domainName, new ArrayList<DeletableItem>());
+				}
+				deleteLists.get(domainName).add(new DeletableItem().withName((String) id));
+				attributeNameSnapshot.remove(domainName, (String) id);
+				discardPendingSave(domainName, (String) id);
 			}
-			// max allowed batch size is 25
-			List<DeletableItem> batch = new ArrayList<DeletableItem>(MAX_BATCH_SIZE);
-			for (int i = 0; i < deleteList.size(); i += MAX_BATCH_SIZE) {
-				int batchIndex = ((i + MAX_BATCH_SIZE) < deleteList.size()) ? (i + MAX_BATCH_SIZE)
-						: deleteList.size();
-				for (int j = i; j < batchIndex; j++) {
-					batch.add(deleteList.get(j));
+			for (Map.Entry<String, List<DeletableItem>> entry : deleteLists.entrySet()) {
+				String domainName = entry.getKey();
+				List<DeletableItem> deleteList = entry.getValue();
+				// max allowed batch size is 25
+				List<DeletableItem> batch = new ArrayList<DeletableItem>(MAX_BATCH_SIZE);
+				for (int i = 0; i < deleteList.size(); i += MAX_BATCH_SIZE) {
+					int batchIndex = ((i + MAX_BATCH_SIZE) < deleteList.size()) ? (i + MAX_BATCH_SIZE)
+							: deleteList.size();
+					for (int j = i; j < batchIndex; j++) {
+						batch.add(deleteList.get(j));
+					}
+					LOGGER.debug(String.format("Batch size: %d", batch.size()));
+					getDB().batchDeleteAttributes(new BatchDeleteAttributesRequest(
+							domainName, batch));
+					batch.clear();
+				}
+				for (DeletableItem deletableItem : deleteList) {
+					entityCache.invalidate(domainName, deletableItem.getName());
 				}
-				LOGGER.debug(String.format("Batch size: %d", batch.size()));
-				getDB().batchDeleteAttributes(new BatchDeleteAttributesRequest(
-						domainName, batch));
-				batch.clear();
 			}
 		}
 	}
 
 	@Override
     public SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery) {
+        return invokeFindImpl(consistentRead, escapedQuery, null);
+    }
+
+    private SelectResult invokeFindImpl(boolean consistentRead, String escapedQuery, String nextToken) {
     	LOGGER.debug("Query: {}", escapedQuery);
-        return getDB().select(new SelectRequest(escapedQuery, consistentRead));
+        return getDB().select(new SelectRequest(escapedQuery, consistentRead).withNextToken(nextToken));
     }
 
+    /*
+     * A single GetAttributes request, items are only read with a select to resolve their references. Full eventually
+     * consistent reads of cached entities are served by the entity cache.
+     */
     @Override
     public <T, ID extends Serializable> T readImpl(ID id, Class<T> entityClass, boolean consistentRead,
+                                                   List<String> attributeNames,
                                                    SimpleDbEntityInformation<T, ?> entityInformation) {
         LOGGER.debug("Read ItemName \"{}\"", id);
 
-        List<ID> ids = new ArrayList<ID>();
-        {
-            ids.add(id);
+        final String itemName = id.toString();
+        final String domain = getDomainName(entityClass, itemName);
+
+        final Item pendingItem = getPendingItem(domain, itemName);
+        if (pendingItem != null) {
+            if (!attributeNames.isEmpty()) {
+                pendingItem.setAttributes(filterAttributes(pendingItem.getAttributes(), attributeNames));
+            }
+            return buildDomainItems(entityClass, entityInformation, Collections.singletonList(pendingItem)).get(0);
         }
-        List<T> results = find(entityClass, new QueryBuilder(entityInformation).withIds(ids).toString(), consistentRead);
-        return results.size() == 1 ? results.get(0) : null;
+
+        final boolean cached = !consistentRead && attributeNames.isEmpty() && entityCache.isEnabled(entityClass);
+        if (cached) {
+            final Item item = entityCache.get(domain, itemName);
+            if (item != null) {
+                return buildDomainItems(entityClass, entityInformation, Collections.singletonList(item)).get(0);
+            }
+        }
+
+        final GetAttributesRequest request = new GetAttributesRequest(domain, itemName)
+                .withConsistentRead(consistentRead);
+        if (!attributeNames.isEmpty()) {
+            request.setAttributeNames(attributeNames);
+        }
+
+        final List<Attribute> attributes = getDB().getAttributes(request).getAttributes();
+        if (attributes.isEmpty()) {
+            return null;
+        }
+
+        final List<Item> items = Collections.singletonList(new Item(itemName, attributes));
+        if (consistentRead && attributeNames.isEmpty()) {
+            recordAttributeNames(domain, items);
+        }
+        if (cached) {
+            entityCache.put(entityClass, domain, items.get(0));
+        }
+
+        return buildDomainItems(entityClass, entityInformation, items).get(0);
+    }
+
+    /*
+     * The ids are read with itemName() in (...) selects of up to 20 ids per domain, SimpleDB allows no more
+     * comparisons per predicate. The selects run on the batch executor, their items are put back in the order of the
+     * ids before being built. Eventually consistent reads of cached entities only select the items missing from the
+     * entity cache.
+     */
+    @Override
+    public <T, ID extends Serializable> List<T> readAllImpl(Iterable<ID> ids, final Class<T> entityClass,
+                                                            final boolean consistentRead,
+                                                            SimpleDbEntityInformation<T, ?> entityInformation) {
+        final Set<String> itemNames = new LinkedHashSet<String>();
+        for (ID id : ids) {
+            itemNames.add(id.toString());
+        }
+
+        final boolean cached = !consistentRead && entityCache.isEnabled(entityClass);
+        final Map<String, Item> items = new ConcurrentHashMap<String, Item>();
+        final Map<String, List<String>> domainItemNames = new LinkedHashMap<String, List<String>>();
+        for (String itemName : itemNames) {
+            final String domain = getDomainName(entityClass, itemName);
+            final Item pendingItem = getPendingItem(domain, itemName);
+            if (pendingItem != null) {
+                items.put(itemName, pendingItem);
+                continue;
+            }
+            if (cached) {
+                final Item item = entityCache.get(domain, itemName);
+                if (item != null) {
+                    items.put(itemName, item);
+                    continue;
+                }
+            }
+            if (!domainItemNames.containsKey(domain)) {
+                domainItemNames.put(domain, new ArrayList<String>());
+            }
+            domainItemNames.get(domain).add(itemName);
+        }
+
+        final List<Runnable> selects = new ArrayList<Runnable>();
+        for (Map.Entry<String, List<String>> entry : domainItemNames.entrySet()) {
+            final String domain = entry.getKey();
+            final List<String> domainNames = entry.getValue();
+            for (int i = 0; i < domainNames.size(); i += MAX_ITEM_NAMES_PER_SELECT) {
+                final String query = new QueryBuilder("select * from `" + domain + "`").withIdsIn(
+                        domainNames.subList(i, Math.min(i + MAX_ITEM_NAMES_PER_SELECT, domainNames.size())))
+                        .toString();
+                selects.add(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        for (Item item : selectAll(domain, query, consistentRead)) {
+                            items.put(item.getName(), item);
+                            if (cached) {
+                                entityCache.put(entityClass, domain, item);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        executeBatches(selects);
+
+        final List<Item> orderedItems = new ArrayList<Item>(items.size());
+        for (String itemName : itemNames) {
+            final Item item = items.get(itemName);
+            if (item != null) {
+                orderedItems.add(item);
+            }
+        }
+
+        return buildDomainItems(entityClass, entityInformation, orderedItems);
+    }
+
+    /*
+     * Follows the next tokens of the select, each page is retried on its own.
+     */
+    private List<Item> selectAll(String domain, final String query, final boolean consistentRead) {
+        final List<Item> items = new ArrayList<Item>();
+
+        String nextToken = null;
+        do {
+            final SelectResult selectResult = selectPage(domain, query, consistentRead, nextToken);
+            items.addAll(selectResult.getItems());
+            nextToken = selectResult.getNextToken();
+        } while (nextToken != null);
+
+        recordAttributeNames(domain, query, consistentRead, items);
+        return items;
+    }
+
+    private SelectResult selectPage(String domain, final String query, final boolean consistentRead,
+                                    final String nextToken) {
+        final List<SelectResult> results = new ArrayList<SelectResult>(1);
+
+        new AbstractServiceUnavailableOperationRetrier(getRetryPolicy()) {
+
+            @Override
+            public void execute() {
+                results.add(invokeFindImpl(consistentRead, query, nextToken));
+            }
+        }.executeWithRetries();
+
+        return results.get(0);
+    }
+
+    /*
+     * SimpleDB items exist as long as they have attributes.
+     */
+    @Override
+    public <T, ID extends Serializable> boolean existsImpl(ID id, Class<T> entityClass, boolean consistentRead) {
+        final String itemName = id.toString();
+        if (getPendingItem(getDomainName(entityClass, itemName), itemName) != null) {
+            return true;
+        }
+
+        /* no attribute is written by every client, only the whole item tells whether it exists */
+        return !getDB().getAttributes(new GetAttributesRequest(getDomainName(entityClass, itemName), itemName)
+                .withConsistentRead(consistentRead)).getAttributes().isEmpty();
     }
 
     @Override
@@ -168,11 +861,106 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 			final String countQuery) {
 		
 		LOGGER.debug("Count items for query " + countQuery);
-        validateSelectQuery(countQuery);
+        final String escapedQuery = getValidatedQuery(countQuery, entityInformation);
 
-        final String escapedQuery = getEscapedQuery(countQuery, entityInformation);
+        final List<String> domainQueries = new ArrayList<String>();
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains == null) {
+            domainQueries.add(escapedQuery);
+        } else {
+            for (String shardDomain : shardDomains) {
+                domainQueries.add(QueryUtils.replaceQueryDomain(escapedQuery, shardDomain));
+            }
+        }
 
-        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
+        final List<String> segmentQueries = new ArrayList<String>();
+        for (String domainQuery : domainQueries) {
+            segmentQueries.addAll(getCountSegmentQueries(domainQuery));
+        }
+
+        final long count = countSegments(consistentRead, segmentQueries);
+        final Integer limit = QueryUtils.getQueryLimit(escapedQuery);
+        return limit == null ? count : Math.min(count, limit);
+	}
+
+    /*
+     * Counts the shards and item name ranges on the batch executor and sums their counts.
+     */
+    private long countSegments(final boolean consistentRead, List<String> segmentQueries) {
+        final long[] counts = new long[segmentQueries.size()];
+
+        final List<Runnable> segmentCounts = new ArrayList<Runnable>(segmentQueries.size());
+        for (int i = 0; i < segmentQueries.size(); i++) {
+            final int segment = i;
+            final String segmentQuery = segmentQueries.get(i);
+            segmentCounts.add(new Runnable() {
+
+                @Override
+                public void run() {
+                    counts[segment] = countAll(consistentRead, segmentQuery);
+                }
+            });
+        }
+        executeBatches(segmentCounts);
+
+        long count = 0;
+        for (long segmentCount : counts) {
+            count += segmentCount;
+        }
+        return count;
+    }
+
+    /*
+     * SimpleDB stops a count after 5 seconds and returns the partial count with a next token, the partial counts are
+     * summed. The limit of a continued count is lowered by the items already counted.
+     */
+    private long countAll(boolean consistentRead, String countQuery) {
+        final Integer limit = QueryUtils.getQueryLimit(countQuery);
+
+        long count = 0;
+        String nextToken = null;
+        do {
+            final String query = limit == null || nextToken == null ? countQuery : QueryUtils.replaceQueryLimit(
+                    countQuery, (int) (limit - count));
+            final SelectResult selectResult = invokeFindImpl(consistentRead, query, nextToken);
+            count += getCount(selectResult);
+            nextToken = selectResult.getNextToken();
+        } while (nextToken != null && (limit == null || count < limit));
+
+        return count;
+    }
+
+    /*
+     * Unlimited counts are split into item name ranges when counts are segmented and can run concurrently.
+     */
+    private List<String> getCountSegmentQueries(String countQuery) {
+        final int segments = getSimpleDb().getCountSegments();
+        if (segments < 2 || getSimpleDb().getBatchExecutor() == null || QueryUtils.getQueryLimit(countQuery) != null) {
+            return Collections.singletonList(countQuery);
+        }
+        return getSegmentQueries(countQuery, segments);
+    }
+
+    /*
+     * Splits the query into the item name ranges of the splitter, the first and last ranges are open ended.
+     */
+    private List<String> getSegmentQueries(String query, int segments) {
+        if (segments < 2) {
+            return Collections.singletonList(query);
+        }
+
+        final List<String> boundaries = getSimpleDb().getItemNameSplitter().getBoundaries(segments);
+        final List<String> segmentQueries = new ArrayList<String>(boundaries.size() + 1);
+        String lowerBound = null;
+        for (String upperBound : boundaries) {
+            segmentQueries.add(QueryUtils.withItemNameRange(query, lowerBound, upperBound));
+            lowerBound = upperBound;
+        }
+        segmentQueries.add(QueryUtils.withItemNameRange(query, lowerBound, null));
+        return segmentQueries;
+    }
+
+    private static long getCount(SelectResult selectResult) {
         for (Item item : selectResult.getItems()) {
             if (item.getName().equals("Domain")) {
                 for (Attribute attribute : item.getAttributes()) {
@@ -184,7 +972,7 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         }
 
         return 0;
-	}
+    }
 
     @Override
     public <T> List<T> findAllQueryImpl(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation) {
@@ -200,29 +988,184 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
         Assert.isTrue(pageable.getPageNumber() >= 0);
         Assert.isTrue(pageable.getPageSize() > 0);
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
+
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains != null) {
+            return executeShardedPagedQuery(entityClass, escapedQuery, pageable, consistentRead, entityInformation,
+                    shardDomains);
+        }
+
+        final int pageNumber = pageable.getPageNumber();
+        final String pagedQuery = new QueryBuilder(escapedQuery).with(pageable).toString();
+        final String pageToken = getPageToken(pagedQuery, escapedQuery, pageable, consistentRead);
+
+        List<T> resultsList = Collections.emptyList();
+        String nextToken = null;
+        if (pageNumber == 0 || pageToken != null) {
+            final SelectResult selectResult = invokeFindImpl(consistentRead, pagedQuery, pageToken);
+            recordAttributeNames(entityInformation.getDomain(), pagedQuery, consistentRead, selectResult.getItems());
+            resultsList = buildDomainItems(entityClass, entityInformation, selectResult.getItems());
+
+            nextToken = selectResult.getNextToken();
+            /* a page cut short by SimpleDB does not end where the next page starts */
+            if (nextToken != null && selectResult.getItems().size() == pageable.getPageSize()) {
+                pageTokenCache.put(pagedQuery, consistentRead, pageNumber + 1, nextToken);
+            }
+        }
+
+        /* the total of the last page is known without counting */
+        if (nextToken == null && (pageNumber == 0 || !resultsList.isEmpty())) {
+            return new PageImpl<T>(resultsList, pageable, (long) pageNumber * pageable.getPageSize()
+                    + resultsList.size());
+        }
+
+        final String countQuery = new QueryBuilder(escapedQuery, true).toString();
+
+        Long totalCount = count(countQuery, entityClass, consistentRead);
+
+        return new PageImpl<T>(resultsList, pageable, totalCount);
+    }
+
+    /*
+     * Any shard may hold items of the page, the first (page + 1) * size items of every shard are merged and the page
+     * is cut out of them.
+     */
+    private <T> Page<T> executeShardedPagedQuery(Class<T> entityClass, String escapedQuery, Pageable pageable,
+                                                 boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation,
+                                                 List<String> shardDomains) {
+        final int offset = pageable.getPageNumber() * pageable.getPageSize();
+        final int end = offset + pageable.getPageSize();
+
+        final String pagedQuery = new QueryBuilder(escapedQuery).with(pageable.getSort())
+                .withLimit(Math.min(end, MAX_SELECT_LIMIT)).toString();
+        final List<Item> items = selectShards(pagedQuery, consistentRead, shardDomains, end, true);
+        final List<Item> pageItems = offset < items.size() ? items.subList(offset, items.size()) : Collections
+                .<Item> emptyList();
+
+        final List<T> resultsList = buildDomainItems(entityClass, entityInformation, pageItems);
+
+        final String countQuery = new QueryBuilder(escapedQuery, true).toString();
+
+        Long totalCount = count(countQuery, entityClass, consistentRead);
+
+        return new PageImpl<T>(resultsList, pageable, totalCount);
+    }
+
+    /*
+     * Every item name range of every shard is a segment paged on its own with the biggest pages SimpleDB allows. A
+     * failed segment stops the others before their next page, the entities already passed to the callback stay so.
+     */
+    @Override
+    public <T> long scanImpl(final Class<T> entityClass, String query, int segments, final boolean consistentRead,
+                             final ScanCallback<T> callback, final SimpleDbEntityInformation<T, ?> entityInformation) {
+
+        LOGGER.debug("Scan Domain \"{}\" in {} segments", entityInformation.getDomain(), segments);
+
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
+        Assert.isNull(QueryUtils.getQueryLimit(escapedQuery), "Scan query should not have a limit: " + query);
+        final String pagedQuery = new QueryBuilder(escapedQuery).withLimit(MAX_SELECT_LIMIT).toString();
+
+        final Map<String, String> domainQueries = new LinkedHashMap<String, String>();
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains == null) {
+            domainQueries.put(QueryUtils.getQueryDomain(escapedQuery), pagedQuery);
+        } else {
+            for (String shardDomain : shardDomains) {
+                domainQueries.put(shardDomain, QueryUtils.replaceQueryDomain(pagedQuery, shardDomain));
+            }
+        }
+
+        final AtomicLong scanned = new AtomicLong();
+        final AtomicBoolean failed = new AtomicBoolean();
+
+        final List<Runnable> segmentScans = new ArrayList<Runnable>();
+        for (final Map.Entry<String, String> domainQuery : domainQueries.entrySet()) {
+            for (final String segmentQuery : getSegmentQueries(domainQuery.getValue(), segments)) {
+                segmentScans.add(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            String nextToken = null;
+                            do {
+                                if (failed.get()) {
+                                    return;
+                                }
+                                final SelectResult selectResult = selectPage(domainQuery.getKey(), segmentQuery,
+                                        consistentRead, nextToken);
+                                recordAttributeNames(domainQuery.getKey(), segmentQuery, consistentRead,
+                                        selectResult.getItems());
+
+                                for (T entity : buildDomainItems(entityClass, entityInformation,
+                                        selectResult.getItems())) {
+                                    callback.doWith(entity);
+                                }
+                                scanned.addAndGet(selectResult.getItems().size());
+                                nextToken = selectResult.getNextToken();
+                            } while (nextToken != null);
+                        } catch (RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                    }
+                });
+            }
+        }
+        executeBatches(segmentScans);
+
+        return scanned.get();
+    }
+
+    /*
+     * The cursor of an unsharded query is the next token of SimpleDB. The shards of a sharded entity are read one after
+     * the other, the cursor holds the shard and the next token within it; such slices can not be ordered.
+     */
+    @Override
+    public <T> SimpleDbSlice<T> findSliceImpl(Class<T> entityClass, String query, int size, String cursor,
+                                             boolean consistentRead, SimpleDbEntityInformation<T, ?> entityInformation) {
+        Assert.isTrue(size > 0 && size <= MAX_SELECT_LIMIT, "Slice size should be between 1 and " + MAX_SELECT_LIMIT);
 
-        List<T> resultsList;
-        String queryWithPageSizeLimit = new QueryBuilder(escapedQuery).with(pageable).toString();
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
+        Assert.isNull(QueryUtils.getQueryLimit(escapedQuery), "Slice query should not have a limit: " + query);
+        final String slicedQuery = new QueryBuilder(escapedQuery).withLimit(size).toString();
 
-        if (pageable.getPageNumber() > 0) {
-            String pageOffsetToken = getPageOffsetToken(pageable, entityInformation, escapedQuery, consistentRead);
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains == null) {
+            final SelectResult selectResult = invokeFindImpl(consistentRead, slicedQuery, cursor);
+            recordAttributeNames(entityInformation.getDomain(), slicedQuery, consistentRead, selectResult.getItems());
 
-            if (pageOffsetToken != null && !pageOffsetToken.isEmpty()) {
-                resultsList = find(entityInformation, queryWithPageSizeLimit, pageOffsetToken, consistentRead);
-            } else {
-                resultsList = Collections.emptyList();
-            }
+            return new SimpleDbSlice<T>(buildDomainItems(entityClass, entityInformation, selectResult.getItems()),
+                    selectResult.getNextToken());
+        }
 
-        } else {
-            resultsList = find(entityClass, queryWithPageSizeLimit, consistentRead);
+        Assert.isNull(QueryUtils.getQueryOrder(escapedQuery),
+                "Slices of sharded entities read the shards one after the other and can not be ordered: " + query);
+
+        int shard = 0;
+        String nextToken = null;
+        if (cursor != null) {
+            final int separator = cursor.indexOf(SHARD_CURSOR_SEPARATOR);
+            Assert.isTrue(separator > 0, "Invalid cursor: " + cursor);
+            shard = Integer.parseInt(cursor.substring(0, separator));
+            Assert.isTrue(shard < shardDomains.size(), "Invalid cursor: " + cursor);
+            nextToken = separator == cursor.length() - 1 ? null : cursor.substring(separator + 1);
         }
 
-        final String countQuery = new QueryBuilder(escapedQuery, true).toString();
+        final String shardDomain = shardDomains.get(shard);
+        final SelectResult selectResult = invokeFindImpl(consistentRead,
+                QueryUtils.replaceQueryDomain(slicedQuery, shardDomain), nextToken);
+        recordAttributeNames(shardDomain, slicedQuery, consistentRead, selectResult.getItems());
 
-        Long totalCount = count(countQuery, entityClass, consistentRead);
+        String nextCursor = null;
+        if (selectResult.getNextToken() != null) {
+            nextCursor = shard + String.valueOf(SHARD_CURSOR_SEPARATOR) + selectResult.getNextToken();
+        } else if (shard + 1 < shardDomains.size()) {
+            nextCursor = (shard + 1) + String.valueOf(SHARD_CURSOR_SEPARATOR);
+        }
 
-        return new PageImpl<T>(resultsList, pageable, totalCount);
+        return new SimpleDbSlice<T>(buildDomainItems(entityClass, entityInformation, selectResult.getItems()),
+                nextCursor);
     }
 
     @Override
@@ -231,41 +1174,160 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
         LOGGER.debug("Find All Domain \"{}\" isConsistent=\"{}\"", entityInformation.getDomain(), consistentRead);
 
-        validateSelectQuery(query);
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains != null) {
+            final Integer limit = QueryUtils.getQueryLimit(escapedQuery);
+            return buildDomainItems(entityClass, entityInformation,
+                    selectShards(escapedQuery, consistentRead, shardDomains, limit == null ? 0 : limit, true));
+        }
 
-        List<T> result = new ArrayList<T>();
+        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
+        recordAttributeNames(entityInformation.getDomain(), escapedQuery, consistentRead, selectResult.getItems());
 
-        List<String> referenceFieldsNames = ReflectionUtils.getReferencedAttributeNames(entityClass);
+        return buildDomainItems(entityClass, entityInformation, selectResult.getItems());
+    }
 
-        final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
+    /*
+     * Same fetch rules as recursiveFindImpl, the selected attributes are mapped without building the entities. The
+     * partial items are neither cached nor recorded as the attribute names of the domain.
+     */
+    @Override
+    public <T> List<Map<String, Object>> findProjectionsImpl(String query, boolean consistentRead,
+                                                             SimpleDbEntityInformation<T, ?> entityInformation) {
 
-        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery);
+        LOGGER.debug("Find Projections Domain \"{}\" isConsistent=\"{}\"", entityInformation.getDomain(),
+                consistentRead);
 
-        if (referenceFieldsNames.isEmpty()) {
-            return domainItemBuilder.populateDomainItems(entityInformation, selectResult);
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
+        final ProjectionMapper projectionMapper = new ProjectionMapper(entityInformation.getJavaType(),
+                QueryUtils.getQueryPartialFieldNames(escapedQuery));
+
+        final List<String> shardDomains = getScatterDomains(escapedQuery, entityInformation);
+        if (shardDomains != null) {
+            final Integer limit = QueryUtils.getQueryLimit(escapedQuery);
+            return projectionMapper.map(selectShards(escapedQuery, consistentRead, shardDomains,
+                    limit == null ? 0 : limit, false));
         }
 
-        for (Item item : selectResult.getItems()) {
+        return projectionMapper.map(invokeFindImpl(consistentRead, escapedQuery).getItems());
+    }
+
+    @Override
+    public <T> Iterator<T> iterateImpl(final Class<T> entityClass, String query, final boolean consistentRead,
+                                       final SimpleDbEntityInformation<T, ?> entityInformation) {
 
-            T populatedItem = domainItemBuilder.populateDomainItem(entityInformation, item);
+        LOGGER.debug("Iterate Domain \"{}\" isConsistent=\"{}\"", entityInformation.getDomain(), consistentRead);
 
-            result.add(populatedItem);
-            for (Attribute attribute : item.getAttributes()) {
-                if (!referenceFieldsNames.contains(attribute.getName())) {
-                    continue;
-                }
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
+
+        final Integer limit = QueryUtils.getQueryLimit(query);
+
+        final List<String> shardDomains = getScatterDomains(query, entityInformation);
+        if (shardDomains != null) {
+            return iterateShards(entityClass, query, consistentRead, shardDomains, limit);
+        }
+
+        final String pagedQuery;
+        if (limit == null) {
+            /* fetch the biggest pages SimpleDB allows, the default is 100 items */
+            pagedQuery = new QueryBuilder(escapedQuery).withLimit(MAX_SELECT_LIMIT).toString();
+        } else {
+            pagedQuery = escapedQuery;
+        }
+
+        return new SelectResultIterator<T>(limit == null ? Long.MAX_VALUE : limit) {
+
+            @Override
+            protected SelectResult fetchPage(final String nextToken) {
+                final List<SelectResult> results = new ArrayList<SelectResult>();
 
-                Class<?> referenceEntityClazz = ReflectionUtils.getFieldClass(entityClass, attribute.getName());
-                Object referenceEntity = read(attribute.getValue(), referenceEntityClazz);
+                new AbstractServiceUnavailableOperationRetrier(getRetryPolicy()) {
+
+                    @Override
+                    public void execute() {
+                        results.add(invokeFindImpl(consistentRead, pagedQuery, nextToken));
+                    }
+                }.executeWithRetries();
+
+                return results.get(0);
+            }
 
-                ReflectionUtils.callSetter(populatedItem, attribute.getName(), referenceEntity);
+            @Override
+            protected List<T> mapItems(List<Item> items) {
+                recordAttributeNames(entityInformation.getDomain(), pagedQuery, consistentRead, items);
+                return buildDomainItems(entityClass, entityInformation, items);
+            }
+        };
+    }
 
+    /*
+     * Without order by clause the shards are iterated one after the other. The ordered items of the shards are merged
+     * one by one, reading the pages of all shards at the same pace.
+     */
+    private <T> Iterator<T> iterateShards(final Class<T> entityClass, String query, boolean consistentRead,
+                                          List<String> shardDomains, Integer limit) {
+        final long maxResults = limit == null ? Long.MAX_VALUE : limit;
+
+        final Sort.Order order = QueryUtils.getQueryOrder(query);
+        if (order == null) {
+            final List<Iterator<T>> shardIterators = new ArrayList<Iterator<T>>(shardDomains.size());
+            for (String shardDomain : shardDomains) {
+                shardIterators.add(iterateImpl(entityClass, QueryUtils.replaceQueryDomain(query, shardDomain),
+                        consistentRead, SimpleDbEntityInformationSupport.getMetadata(entityClass, shardDomain)));
             }
+            return new ShardIterator<T>(shardIterators, maxResults);
         }
 
-        return result;
+        final List<SimpleDbEntityInformation<T, ?>> shardInformations = new ArrayList<SimpleDbEntityInformation<T, ?>>(
+                shardDomains.size());
+        final List<Iterator<Item>> shardItems = new ArrayList<Iterator<Item>>(shardDomains.size());
+        for (String shardDomain : shardDomains) {
+            final SimpleDbEntityInformation<T, ?> shardInformation = SimpleDbEntityInformationSupport.getMetadata(
+                    entityClass, shardDomain);
+            final String shardQuery = getValidatedQuery(QueryUtils.replaceQueryDomain(query, shardDomain),
+                    shardInformation);
+            shardInformations.add(shardInformation);
+            shardItems.add(iterateItems(shardQuery, consistentRead, shardDomain, limit));
+        }
+
+        final Iterator<T> merged = new OrderedShardIterator<T>(shardItems, new ItemComparator(order)) {
+
+            @Override
+            protected T mapItem(int shard, Item item) {
+                return buildDomainItems(entityClass, shardInformations.get(shard), Collections.singletonList(item))
+                        .get(0);
+            }
+        };
+        return new ShardIterator<T>(Collections.singletonList(merged), maxResults);
+    }
+
+    /*
+     * Items of the select page by page, each page is retried on its own.
+     */
+    private Iterator<Item> iterateItems(String escapedQuery, final boolean consistentRead, final String domain,
+                                        Integer limit) {
+        final String pagedQuery;
+        if (limit == null) {
+            pagedQuery = new QueryBuilder(escapedQuery).withLimit(MAX_SELECT_LIMIT).toString();
+        } else {
+            pagedQuery = escapedQuery;
+        }
+
+        return new SelectResultIterator<Item>(limit == null ? Long.MAX_VALUE : limit) {
+
+            @Override
+            protected SelectResult fetchPage(String nextToken) {
+                return selectPage(domain, pagedQuery, consistentRead, nextToken);
+            }
+
+            @Override
+            protected List<Item> mapItems(List<Item> items) {
+                recordAttributeNames(domain, pagedQuery, consistentRead, items);
+                return items;
+            }
+        };
     }
 
     @Override
@@ -277,14 +1339,11 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
 
         final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
 
-        validateSelectQuery(query);
+        final String escapedQuery = getValidatedQuery(query, entityInformation);
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
-        SelectRequest selectRequest = new SelectRequest(escapedQuery, consistentRead);
+        final SelectResult selectResult = invokeFindImpl(consistentRead, escapedQuery, nextToken);
 
-        selectRequest.setNextToken(nextToken);
-
-        final SelectResult selectResult = getDB().select(selectRequest);
+        recordAttributeNames(entityInformation.getDomain(), escapedQuery, consistentRead, selectResult.getItems());
 
         return domainItemBuilder.populateDomainItems(entityInformation, selectResult);
     }
@@ -298,6 +1357,12 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
     	// FieldWrapper#serialize semantics, plug into the scheme to convert
     	// to item and send a put request.
 		String domainName = getDomainName(entityClass);
+		String itemDomainName = getDomainName(entityClass, (String) id);
+		final WriteBehindBuffer writeBehindBuffer = getSimpleDb().getWriteBehindBuffer();
+		if (writeBehindBuffer != null && writeBehindBuffer.contains(itemDomainName, (String) id)) {
+			/* the pending save is written first, it would overwrite the update otherwise */
+			flush(writeBehindBuffer);
+		}
     	Map<String, String> serializedValues = new LinkedHashMap<String, String>();
 		for (Map.Entry<String, ?> entry : propertyMap.entrySet()) {
     		String propertyPath = entry.getKey();
@@ -328,56 +1393,557 @@ public class SimpleDbTemplate extends AbstractSimpleDbTemplate {
     			serializedValues.put(propertyPath, serializedPropertyValue);
     		}
     	}
+		final Field versionField = EntityMetadata.forClass(entityClass).getVersionField();
+		Long version = null;
+		if (versionField != null) {
+			version = getExpectedVersion(itemDomainName, (String) id, versionField,
+					propertyMap.get(versionField.getName()));
+			serializedValues.put(versionField.getName(),
+					EntityWrapper.encodeVersion(versionField, version == null ? 1L : version + 1));
+		}
 		Map<String, List<String>> rawAttributes = SimpleDbAttributeValueSplitter.splitAttributeValuesWithExceedingLengths(serializedValues);
-		List<PutAttributesRequest> putAttributesRequests = SimpleDbRequestBuilder.createPutAttributesRequests(
-				domainName, (String) id, rawAttributes);
 
-        for (PutAttributesRequest request : putAttributesRequests) {
-            getDB().putAttributes(request);
-        }
+		if (versionField != null) {
+			writeVersioned(itemDomainName, (String) id, versionField, version, rawAttributes, null);
+		} else {
+			List<PutAttributesRequest> putAttributesRequests = SimpleDbRequestBuilder.createPutAttributesRequests(
+					itemDomainName, (String) id, rawAttributes);
+
+			for (PutAttributesRequest request : putAttributesRequests) {
+				getDB().putAttributes(request);
+			}
+		}
+        /* the item may have gained attributes, they are fetched again on the next replace */
+        attributeNameSnapshot.remove(itemDomainName, (String) id);
+        entityCache.invalidate(itemDomainName, (String) id);
 	}
 
-    private <T> String getEscapedQuery(String query, SimpleDbEntityInformation<T, ?> entityInformation) {
-        return QueryUtils.escapeQueryAttributes(query, MetadataParser.getIdField(entityInformation.getJavaType())
-                .getName());
+    /*
+     * A partial update of a versioned item is conditional on the version of the property map, or else on the stored
+     * version read consistently.
+     */
+    private Long getExpectedVersion(String domain, String itemName, Field versionField, Object mappedVersion) {
+        if (mappedVersion != null) {
+            final long version = ((Number) mappedVersion).longValue();
+            return version == 0 ? null : Long.valueOf(version);
+        }
+
+        final List<Attribute> attributes = getDB().getAttributes(new GetAttributesRequest(domain, itemName)
+                .withAttributeNames(versionField.getName()).withConsistentRead(true)).getAttributes();
+        if (attributes.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return ((Number) SimpleDBAttributeConverter.decodeToFieldOfType(attributes.get(0).getValue(),
+                    versionField.getType())).longValue();
+        } catch (ParseException e) {
+            throw new MappingException("Could not decode version of item " + itemName, e);
+        }
     }
 
     /*
-     * Validate a custom query before sending the request to the DB.
+     * Builds the entities of the items of a select page. The references of the whole page are collected first and
+     * read from their own domains with one select per chunk of item names, instead of one read per item.
      */
-    private void validateSelectQuery(final String selectQuery) {
-        final SimpleDBParser parser = new SimpleDBParser(selectQuery);
-        try {
-            parser.selectQuery();
-        } catch (Exception e) {
-            throw new InvalidSimpleDBQueryException("The following query is an invalid SimpleDB query: " + selectQuery,
-                    e);
+    private <T> List<T> buildDomainItems(Class<T> entityClass, SimpleDbEntityInformation<T, ?> entityInformation,
+                                         List<Item> items) {
+        final List<T> result = new ArrayList<T>(items.size());
+
+        final EntityMetadata metadata = EntityMetadata.forClass(entityClass);
+
+        final DomainItemBuilder<T> domainItemBuilder = new DomainItemBuilder<T>();
+
+        final Map<Class<?>, Set<String>> referencedItemNames = new HashMap<Class<?>, Set<String>>();
+
+        for (Item item : items) {
+            result.add(domainItemBuilder.populateDomainItem(entityInformation, item));
+
+            for (Attribute attribute : item.getAttributes()) {
+                if (metadata.isReferenceField(attribute.getName())) {
+                    Class<?> referenceEntityClazz = metadata.getReferenceField(attribute.getName()).getType();
+                    if (!referencedItemNames.containsKey(referenceEntityClazz)) {
+                        referencedItemNames.put(referenceEntityClazz, new LinkedHashSet<String>());
+                    }
+                    referencedItemNames.get(referenceEntityClazz).add(attribute.getValue());
+                }
+            }
+        }
+
+        if (referencedItemNames.isEmpty()) {
+            return result;
+        }
+
+        final Map<Class<?>, Map<String, Object>> referencedEntities = new HashMap<Class<?>, Map<String, Object>>();
+        for (Map.Entry<Class<?>, Set<String>> entry : referencedItemNames.entrySet()) {
+            referencedEntities.put(entry.getKey(), readReferencedEntities(entry.getKey(), entry.getValue()));
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            for (Attribute attribute : items.get(i).getAttributes()) {
+                if (!metadata.isReferenceField(attribute.getName())) {
+                    continue;
+                }
+
+                Class<?> referenceEntityClazz = metadata.getReferenceField(attribute.getName()).getType();
+                Object referenceEntity = referencedEntities.get(referenceEntityClazz).get(attribute.getValue());
+
+                ReflectionUtils.callSetter(result.get(i), attribute.getName(), referenceEntity);
+            }
+        }
+
+        return result;
+    }
+
+    /*
+     * Reads the referenced entities with itemName() in (...) selects, SimpleDB allows up to 20 comparisons per select.
+     * Cached referenced entities are taken from the entity cache.
+     */
+    private Map<String, Object> readReferencedEntities(Class<?> referenceEntityClazz, Set<String> itemNames) {
+        final Map<String, Object> referencedEntities = new HashMap<String, Object>();
+
+        for (Object referenceEntity : readAll(itemNames, referenceEntityClazz, getSimpleDb().isConsistentRead())) {
+            referencedEntities.put(MetadataParser.getItemName(referenceEntity), referenceEntity);
+        }
+
+        return referencedEntities;
+    }
+
+    private boolean isReplaceUpdateMode() {
+        return getSimpleDb().getUpdateMode() == UpdateMode.REPLACE;
+    }
+
+    /*
+     * Only items selected consistently with all of their attributes are recorded, partial or stale items would hide
+     * attributes to delete.
+     */
+    private void recordAttributeNames(String domain, String query, boolean consistentRead, List<Item> items) {
+        if (consistentRead && QueryUtils.isSelectAllQuery(query)) {
+            recordAttributeNames(domain, items);
+        }
+    }
+
+    private void recordAttributeNames(String domain, List<Item> items) {
+        if (isReplaceUpdateMode()) {
+            for (Item item : items) {
+                attributeNameSnapshot.record(domain, item);
+            }
+        }
+    }
+
+    /*
+     * Attribute names of the item when it was last written or read consistently, fetched with a consistent read if
+     * unknown.
+     */
+    private Set<String> getPreviousAttributeNames(String domain, String itemName) {
+        final Set<String> previousAttributeNames = attributeNameSnapshot.get(domain, itemName);
+        if (previousAttributeNames != null) {
+            return previousAttributeNames;
+        }
+
+        final Set<String> attributeNames = new HashSet<String>();
+        for (Attribute attribute : getDB().getAttributes(
+                new GetAttributesRequest(domain, itemName).withConsistentRead(true)).getAttributes()) {
+            attributeNames.add(attribute.getName());
+        }
+        return attributeNames;
+    }
+
+    /*
+     * Bulk counterpart of getPreviousAttributeNames, unknown items are read with itemName() in (...) selects.
+     */
+    private Map<String, Set<String>> getPreviousAttributeNames(String domain, Set<String> itemNames) {
+        final Map<String, Set<String>> previousAttributeNames = new HashMap<String, Set<String>>();
+
+        final List<String> chunk = new ArrayList<String>(MAX_ITEM_NAMES_PER_SELECT);
+        final Iterator<String> itemNamesIterator = itemNames.iterator();
+        while (itemNamesIterator.hasNext()) {
+            final String itemName = itemNamesIterator.next();
+            final Set<String> attributeNames = attributeNameSnapshot.get(domain, itemName);
+            if (attributeNames != null) {
+                previousAttributeNames.put(itemName, attributeNames);
+            } else {
+                previousAttributeNames.put(itemName, new HashSet<String>());
+                chunk.add(itemName);
+            }
+
+            if (!chunk.isEmpty() && (chunk.size() == MAX_ITEM_NAMES_PER_SELECT || !itemNamesIterator.hasNext())) {
+                final String query = new QueryBuilder("select * from `" + domain + "`").withIdsIn(chunk).toString();
+                String nextToken = null;
+                do {
+                    final SelectResult selectResult = invokeFindImpl(true, query, nextToken);
+                    for (Item item : selectResult.getItems()) {
+                        for (Attribute attribute : item.getAttributes()) {
+                            previousAttributeNames.get(item.getName()).add(attribute.getName());
+                        }
+                    }
+                    nextToken = selectResult.getNextToken();
+                } while (nextToken != null);
+                chunk.clear();
+            }
+        }
+
+        return previousAttributeNames;
+    }
+
+    private static List<Attribute> getVanishedAttributes(Set<String> previousAttributeNames,
+                                                         Set<String> attributeNames) {
+        final List<Attribute> vanishedAttributes = new ArrayList<Attribute>();
+        if (previousAttributeNames != null) {
+            for (String previousAttributeName : previousAttributeNames) {
+                if (!attributeNames.contains(previousAttributeName)) {
+                    vanishedAttributes.add(new Attribute().withName(previousAttributeName));
+                }
+            }
+        }
+        return vanishedAttributes;
+    }
+
+    private static List<Attribute> filterAttributes(List<Attribute> attributes, List<String> attributeNames) {
+        final List<Attribute> filtered = new ArrayList<Attribute>();
+        for (Attribute attribute : attributes) {
+            if (attributeNames.contains(attribute.getName())) {
+                filtered.add(attribute);
+            }
+        }
+        return filtered;
+    }
+
+    private void batchDeleteAttributes(final BatchDeleteAttributesRequest request) {
+        LOGGER.debug("Batch delete Domain \"{}\" size {}", request.getDomainName(), request.getItems().size());
+
+        new AbstractServiceUnavailableOperationRetrier(getRetryPolicy()) {
+
+            @Override
+            public void execute() {
+                getDB().batchDeleteAttributes(request);
+            }
+        }.executeWithRetries();
+    }
+
+    private void batchPutAttributes(final BatchPutAttributesRequest request) {
+        LOGGER.debug("Batch put Domain \"{}\" size {}", request.getDomainName(), request.getItems().size());
+
+        new AbstractServiceUnavailableOperationRetrier(getRetryPolicy()) {
+
+            @Override
+            public void execute() {
+                getDB().batchPutAttributes(request);
+            }
+        }.executeWithRetries();
+    }
+
+    /*
+     * Runs independent batches on the batch executor and waits for all of them, the first failure is rethrown. Batches
+     * nested in a batch, e.g. reads of references while scanning a segment, run inline: waiting for them on an
+     * executor thread could deadlock a bounded executor.
+     */
+    private void executeBatches(List<Runnable> batches) {
+        final Executor executor = getSimpleDb().getBatchExecutor();
+        if (executor == null || batches.size() < 2 || RUNNING_BATCH.get() != null) {
+            for (Runnable batch : batches) {
+                batch.run();
+            }
+            return;
+        }
+
+        final List<Future<Object>> futures = new ArrayList<Future<Object>>(batches.size());
+        for (final Runnable batch : batches) {
+            final FutureTask<Object> future = new FutureTask<Object>(new Runnable() {
+
+                @Override
+                public void run() {
+                    RUNNING_BATCH.set(Boolean.TRUE);
+                    try {
+                        batch.run();
+                    } finally {
+                        RUNNING_BATCH.remove();
+                    }
+                }
+            }, null);
+            executor.execute(future);
+            futures.add(future);
+        }
+
+        RuntimeException failure = null;
+        for (Future<Object> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new UncategorizedSpringDaoException("Batch request failed", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncategorizedSpringDaoException("Interrupted while waiting for batch requests", e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * Domains a query of a sharded entity is scattered to, null if the entity is not sharded or the query names one of
+     * the shards.
+     */
+    private List<String> getScatterDomains(String query, SimpleDbEntityInformation<?, ?> entityInformation) {
+        final Class<?> entityClass = entityInformation.getJavaType();
+        if (!getSimpleDb().getSimpleDbDomain().isSharded(entityClass)
+                || !getDomainName(entityClass).equals(QueryUtils.getQueryDomain(query))) {
+            return null;
         }
+        return getDomainNames(entityClass);
     }
 
-    private String getNextToken(String query, boolean consistentRead) {
-        LOGGER.debug("Get next token for query: " + query);
+    /*
+     * Scatters the select to the shards on the batch executor and merges their items, ordered as the order by clause
+     * says. Each shard returns its first page, or up to maxItems items following its next tokens if maxItems is
+     * positive; the merged items are truncated to maxItems. Attribute names of partial items should not be recorded.
+     */
+    private List<Item> selectShards(final String query, final boolean consistentRead, List<String> shardDomains,
+                                    final int maxItems, final boolean recordAttributeNames) {
+        final List<List<Item>> shardItems = new ArrayList<List<Item>>(shardDomains.size());
+
+        final List<Runnable> shardSelects = new ArrayList<Runnable>(shardDomains.size());
+        for (final String shardDomain : shardDomains) {
+            final List<Item> items = new ArrayList<Item>();
+            final String shardQuery = QueryUtils.replaceQueryDomain(query, shardDomain);
+            shardItems.add(items);
+            shardSelects.add(new Runnable() {
+
+                @Override
+                public void run() {
+                    String nextToken = null;
+                    do {
+                        final SelectResult selectResult = invokeFindImpl(consistentRead, shardQuery, nextToken);
+                        items.addAll(selectResult.getItems());
+                        nextToken = selectResult.getNextToken();
+                    } while (nextToken != null && items.size() < maxItems);
+
+                    if (recordAttributeNames) {
+                        recordAttributeNames(shardDomain, shardQuery, consistentRead, items);
+                    }
+                }
+            });
+        }
+        executeBatches(shardSelects);
+
+        final List<Item> merged = new ArrayList<Item>();
+        for (List<Item> items : shardItems) {
+            merged.addAll(items);
+        }
 
-        Assert.isTrue(query.contains("limit"), "Only queries with limit have a next token!");
+        final Sort.Order order = QueryUtils.getQueryOrder(query);
+        if (order != null) {
+            Collections.sort(merged, new ItemComparator(order));
+        }
 
-        final SelectResult selectResult = getDB().select(new SelectRequest(query, consistentRead));
+        if (maxItems > 0 && merged.size() > maxItems) {
+            return new ArrayList<Item>(merged.subList(0, maxItems));
+        }
+        return merged;
+    }
 
-        return selectResult.getNextToken();
+    /*
+     * Validate a custom query before sending the request to the DB, the queries bound from the same query are only
+     * parsed the first time one of them is sent.
+     */
+    private <T> String getValidatedQuery(String query, SimpleDbEntityInformation<T, ?> entityInformation) {
+        return compiledQueryCache.getValidatedQuery(query, getIdFieldName(entityInformation));
     }
 
-    private <T> String getPageOffsetToken(final Pageable pageable, SimpleDbEntityInformation<T, ?> entityInformation,
-                                          String query, boolean consistentRead) {
+    private static String getIdFieldName(SimpleDbEntityInformation<?, ?> entityInformation) {
+        return MetadataParser.getIdField(entityInformation.getJavaType()).getName();
+    }
 
-    	int endOfPreviousPageLimit = pageable.getPageNumber() * pageable.getPageSize();
+    /*
+     * Next token starting the page, null for the first page or past the last one. Tokens of pages following visited
+     * pages are cached; otherwise the items before the page are skipped with count queries, starting at the closest
+     * cached page before it. Each count is limited to the maximum SimpleDB accepts, further items are counted from
+     * its next token.
+     */
+    private String getPageToken(String pagedQuery, String escapedQuery, Pageable pageable, boolean consistentRead) {
+        final int pageNumber = pageable.getPageNumber();
+        if (pageNumber == 0) {
+            return null;
+        }
 
-        final String escapedQuery = getEscapedQuery(query, entityInformation);
-        final String countQuery = new QueryBuilder(escapedQuery, true).withLimit(endOfPreviousPageLimit).toString();
+        final Map.Entry<Integer, String> floorToken = pageTokenCache.getFloorToken(pagedQuery, consistentRead,
+                pageNumber);
+        if (floorToken != null && floorToken.getKey() == pageNumber) {
+            return floorToken.getValue();
+        }
 
-        return getNextToken(countQuery, consistentRead);
+        final long offset = (long) (pageNumber - (floorToken == null ? 0 : floorToken.getKey()))
+                * pageable.getPageSize();
+        String nextToken = floorToken == null ? null : floorToken.getValue();
+        long skipped = 0;
+        do {
+            final String countQuery = new QueryBuilder(escapedQuery, true).withLimit(
+                    (int) Math.min(offset - skipped, MAX_SELECT_LIMIT)).toString();
+            final SelectResult selectResult = invokeFindImpl(consistentRead, countQuery, nextToken);
+            skipped += getCount(selectResult);
+            nextToken = selectResult.getNextToken();
+        } while (nextToken != null && skipped < offset);
+
+        if (nextToken != null) {
+            pageTokenCache.put(pagedQuery, consistentRead, pageNumber, nextToken);
+        }
+        return nextToken;
     }
 
     private void logOperation(String operation, EntityWrapper<?, ?> entity) {
         LOGGER.debug(operation + " \"{}\" ItemName \"{}\"", entity.getDomain(), entity.getItemName());
     }
 
+    /*
+     * Orders items as SimpleDB does, comparing the values of the attribute lexicographically.
+     */
+    private static final class ItemComparator implements Comparator<Item> {
+
+        private static final String ITEM_NAME = "itemName()";
+
+        private final String attributeName;
+        private final boolean descending;
+
+        private ItemComparator(Sort.Order order) {
+            this.attributeName = order.getProperty();
+            this.descending = !order.isAscending();
+        }
+
+        @Override
+        public int compare(Item item, Item other) {
+            final String value = getValue(item);
+            final String otherValue = getValue(other);
+
+            int result;
+            if (value == null) {
+                result = otherValue == null ? 0 : -1;
+            } else {
+                result = otherValue == null ? 1 : value.compareTo(otherValue);
+            }
+            return descending ? -result : result;
+        }
+
+        private String getValue(Item item) {
+            if (ITEM_NAME.equals(attributeName)) {
+                return item.getName();
+            }
+
+            for (Attribute attribute : item.getAttributes()) {
+                if (attribute.getName().equals(attributeName)) {
+                    return attribute.getValue();
+                }
+            }
+            return null;
+        }
+    }
+
+    /*
+     * Merges the ordered items of the shards, each step returns the first of the next items of the shards.
+     */
+    private abstract static class OrderedShardIterator<T> implements Iterator<T> {
+
+        private final List<Iterator<Item>> shardItems;
+        private final Comparator<Item> comparator;
+        private final Item[] nextItems;
+
+        private OrderedShardIterator(List<Iterator<Item>> shardItems, Comparator<Item> comparator) {
+            this.shardItems = shardItems;
+            this.comparator = comparator;
+            this.nextItems = new Item[shardItems.size()];
+        }
+
+        protected abstract T mapItem(int shard, Item item);
+
+        @Override
+        public boolean hasNext() {
+            return nextShard() >= 0;
+        }
+
+        @Override
+        public T next() {
+            final int shard = nextShard();
+            if (shard < 0) {
+                throw new NoSuchElementException();
+            }
+
+            final Item item = nextItems[shard];
+            nextItems[shard] = null;
+            return mapItem(shard, item);
+        }
+
+        /*
+         * Shard holding the first of the next items, -1 once all shards are exhausted
+         */
+        private int nextShard() {
+            int next = -1;
+            for (int shard = 0; shard < nextItems.length; shard++) {
+                if (nextItems[shard] == null && shardItems.get(shard).hasNext()) {
+                    nextItems[shard] = shardItems.get(shard).next();
+                }
+                if (nextItems[shard] != null
+                        && (next < 0 || comparator.compare(nextItems[shard], nextItems[next]) < 0)) {
+                    next = shard;
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Results of a select query can not be removed while iterating");
+        }
+    }
+
+    /*
+     * Chains the iterators of the shards, returning at most maxResults items from all of them.
+     */
+    private static final class ShardIterator<T> implements Iterator<T> {
+
+        private final Iterator<Iterator<T>> shardIterators;
+        private final long maxResults;
+
+        private Iterator<T> current = Collections.<T> emptyList().iterator();
+        private long returnedResults;
+
+        private ShardIterator(List<Iterator<T>> shardIterators, long maxResults) {
+            this.shardIterators = shardIterators.iterator();
+            this.maxResults = maxResults;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (returnedResults >= maxResults) {
+                return false;
+            }
+
+            while (!current.hasNext() && shardIterators.hasNext()) {
+                current = shardIterators.next();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            returnedResults++;
+            return current.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Results of a select query can not be removed while iterating");
+        }
+    }
+
 }
@@ -0,0 +1,10 @@
+package org.springframework.data.simpledb.core;
+
+/**
+ * Modifies an entity read by {@link SimpleDbOperations#update(java.io.Serializable, Class, UpdateCallback)}. <br/>
+ * The callback is invoked again with a fresh entity after a version conflict, so it should only modify the entity.
+ */
+public interface UpdateCallback<T> {
+
+	void doWith(T entity);
+}
@@ -0,0 +1,15 @@
+package org.springframework.data.simpledb.core;
+
+/**
+ * How {@link SimpleDbOperations#createOrUpdate(Object)} writes an entity whose id is already set:
+ * <ul>
+ * <li><b>DELETE_AND_PUT</b>: the item is deleted and written again, this is the default mode
+ * <li><b>REPLACE</b>: the attributes are written with replace semantics, only the attribute names that disappeared
+ * since the item was last read or written by the template are deleted afterwards. When the template has no record of
+ * the item, its attribute names are fetched first.
+ * </ul>
+ * With <b>REPLACE</b> attributes added by other clients after the item was last read are not removed.
+ */
+public enum UpdateMode {
+	DELETE_AND_PUT, REPLACE
+}
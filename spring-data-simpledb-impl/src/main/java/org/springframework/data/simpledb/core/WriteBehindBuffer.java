@@ -0,0 +1,211 @@
+package org.springframework.data.simpledb.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+/**
+ * Saves waiting to be written in bulk, coalesced per item: a save replaces the pending save of the same item. <br/>
+ * The saves are spread over lock stripes by item and the number of pending items is bounded. A pending save stays
+ * visible until it was written, a flush only completes the saves it wrote and not the ones replaced meanwhile. <br/>
+ * Flushes of the buffer hold its flush monitor, so that they run one at a time.
+ */
+class WriteBehindBuffer {
+
+	private static final int STRIPES = 16;
+
+	private final int maxItems;
+	private final AtomicInteger size = new AtomicInteger();
+	private final Stripe[] stripes = new Stripe[STRIPES];
+	private final Object flushMonitor = new Object();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	WriteBehindBuffer(int maxItems) {
+		this.maxItems = maxItems;
+		for(int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * @param existingItem
+	 *            whether the item may exist already, its attributes are deleted before the put
+	 * @return false if the item is not pending and the buffer is full, the save was not added
+	 */
+	boolean offer(String domain, String itemName, Map<String, List<String>> rawAttributes, boolean existingItem) {
+		final String key = key(domain, itemName);
+		final Stripe stripe = getStripe(key);
+
+		synchronized(stripe) {
+			final PendingSave previous = stripe.saves.get(key);
+			if(previous != null) {
+				/* the previous save may be being written, so the item may exist */
+				stripe.saves.put(key, new PendingSave(domain, itemName, rawAttributes, true));
+				return true;
+			}
+
+			if(size.incrementAndGet() > maxItems) {
+				size.decrementAndGet();
+				return false;
+			}
+			stripe.saves.put(key, new PendingSave(domain, itemName, rawAttributes, existingItem));
+			return true;
+		}
+	}
+
+	/**
+	 * @return the item of the pending save, null if there is none
+	 */
+	Item getItem(String domain, String itemName) {
+		final String key = key(domain, itemName);
+		final Stripe stripe = getStripe(key);
+
+		final PendingSave save;
+		synchronized(stripe) {
+			save = stripe.saves.get(key);
+		}
+		if(save == null) {
+			return null;
+		}
+
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		for(Map.Entry<String, List<String>> rawAttribute : save.rawAttributes.entrySet()) {
+			for(String value : rawAttribute.getValue()) {
+				attributes.add(new Attribute(rawAttribute.getKey(), value));
+			}
+		}
+		return new Item(itemName, attributes);
+	}
+
+	boolean contains(String domain, String itemName) {
+		final String key = key(domain, itemName);
+		final Stripe stripe = getStripe(key);
+
+		synchronized(stripe) {
+			return stripe.saves.containsKey(key);
+		}
+	}
+
+	/**
+	 * Discards the pending save of the item, e.g. because the item is deleted.
+	 *
+	 * @return true if a save was pending
+	 */
+	boolean remove(String domain, String itemName) {
+		final String key = key(domain, itemName);
+		final Stripe stripe = getStripe(key);
+
+		synchronized(stripe) {
+			if(stripe.saves.remove(key) == null) {
+				return false;
+			}
+		}
+		size.decrementAndGet();
+		return true;
+	}
+
+	/**
+	 * @return the saves currently pending, they stay pending until {@link #complete(Collection)}
+	 */
+	List<PendingSave> snapshot() {
+		final List<PendingSave> saves = new ArrayList<PendingSave>(size.get());
+		for(Stripe stripe : stripes) {
+			synchronized(stripe) {
+				saves.addAll(stripe.saves.values());
+			}
+		}
+		return saves;
+	}
+
+	/**
+	 * Removes the written saves, unless they were replaced by newer saves of their item.
+	 */
+	void complete(Collection<PendingSave> saves) {
+		for(PendingSave save : saves) {
+			final String key = key(save.domain, save.itemName);
+			final Stripe stripe = getStripe(key);
+
+			synchronized(stripe) {
+				if(stripe.saves.get(key) != save) {
+					continue;
+				}
+				stripe.saves.remove(key);
+			}
+			size.decrementAndGet();
+		}
+	}
+
+	int size() {
+		return size.get();
+	}
+
+	Object getFlushMonitor() {
+		return flushMonitor;
+	}
+
+	/**
+	 * @return true if no flush was scheduled yet, the caller schedules one
+	 */
+	boolean scheduleFlush() {
+		return flushScheduled.compareAndSet(false, true);
+	}
+
+	/**
+	 * Called by a flush starting to run, the next full buffer schedules another one.
+	 */
+	void flushStarted() {
+		flushScheduled.set(false);
+	}
+
+	private Stripe getStripe(String key) {
+		return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+	}
+
+	private static String key(String domain, String itemName) {
+		return domain + "/" + itemName;
+	}
+
+	private static final class Stripe {
+
+		private final Map<String, PendingSave> saves = new LinkedHashMap<String, PendingSave>();
+	}
+
+	static final class PendingSave {
+
+		private final String domain;
+		private final String itemName;
+		private final Map<String, List<String>> rawAttributes;
+		private final boolean existingItem;
+
+		private PendingSave(String domain, String itemName, Map<String, List<String>> rawAttributes,
+				boolean existingItem) {
+			this.domain = domain;
+			this.itemName = itemName;
+			this.rawAttributes = rawAttributes;
+			this.existingItem = existingItem;
+		}
+
+		String getDomain() {
+			return domain;
+		}
+
+		String getItemName() {
+			return itemName;
+		}
+
+		Map<String, List<String>> getRawAttributes() {
+			return rawAttributes;
+		}
+
+		boolean isExistingItem() {
+			return existingItem;
+		}
+	}
+}
@@ -4,7 +4,7 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.Map;
 
-import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.data.simpledb.reflection.PropertyAccessor;
 import org.springframework.util.Assert;
 
 public abstract class AbstractFieldWrapper<T, ID extends Serializable> {
@@ -14,6 +14,9 @@ public abstract class AbstractFieldWrapper<T, ID extends Serializable> {
 	private final EntityWrapper<T, ID> parentWrapper;
 	private final boolean isNewParent;
 
+	/* resolved on first access, for the runtime class of the parent item */
+	private PropertyAccessor accessor;
+
 	protected AbstractFieldWrapper(final Field field, final EntityWrapper<T, ID> parentWrapper,
 			final boolean isNewParent) {
 		Assert.notNull(field);
@@ -22,7 +25,9 @@ public abstract class AbstractFieldWrapper<T, ID extends Serializable> {
 		this.field = field;
 		this.parentWrapper = parentWrapper;
 
-		this.field.setAccessible(Boolean.TRUE);
+		if(!this.field.isAccessible()) {
+			this.field.setAccessible(Boolean.TRUE);
+		}
 
 		this.isNewParent = isNewParent;
 	}
@@ -55,14 +60,28 @@ public abstract class AbstractFieldWrapper<T, ID extends Serializable> {
 	 * Sets value via setter
 	 */
 	public void setFieldValue(Object fieldValue) {
-		ReflectionUtils.callSetter(parentWrapper.getItem(), field.getName(), fieldValue);
+		final T item = parentWrapper.getItem();
+		getAccessor(item).setValue(item, fieldValue);
 	}
 
 	/**
 	 * Retrieves value via getter
 	 */
 	public Object getFieldValue() {
-		return ReflectionUtils.callGetter(parentWrapper.getItem(), field.getName());
+		final T item = parentWrapper.getItem();
+		if(item == null) {
+			return null;
+		}
+		return getAccessor(item).getValue(item);
+	}
+
+	private PropertyAccessor getAccessor(T item) {
+		PropertyAccessor current = accessor;
+		if(current == null || current.getEntityClass() != item.getClass()) {
+			current = PropertyAccessor.forProperty(item.getClass(), field.getName());
+			accessor = current;
+		}
+		return current;
 	}
 
 	public T getParentEntity() {
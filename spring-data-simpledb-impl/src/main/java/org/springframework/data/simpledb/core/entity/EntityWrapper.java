@@ -11,11 +11,9 @@ import java.util.UUID;
 
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.simpledb.attributeutil.AttributesKeySplitter;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
 import org.springframework.data.simpledb.attributeutil.SimpleDbAttributeValueSplitter;
-import org.springframework.data.simpledb.reflection.FieldType;
-import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
-import org.springframework.data.simpledb.reflection.MetadataParser;
-import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.data.simpledb.reflection.EntityMetadata;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
 
 public class EntityWrapper<T, ID extends Serializable> {
@@ -57,10 +55,11 @@ public class EntityWrapper<T, ID extends Serializable> {
 	
 	private void createFieldWrappers(final boolean isNew, final boolean isNested) {
 
-		List<Field> supportedFields = MetadataParser.getSupportedFields(entityInformation.getJavaType());
-		for(final Field field : supportedFields) {
-			if (! (!isNested && FieldTypeIdentifier.isOfType(field, FieldType.ID)) ) {
-				wrappedFields.put(field.getName(), FieldWrapperFactory.createFieldWrapper(field, this, isNew));	
+		final EntityMetadata metadata = EntityMetadata.forClass(entityInformation.getJavaType());
+		for(final Field field : metadata.getSupportedFields()) {
+			if (isNested || !metadata.isIdField(field)) {
+				wrappedFields.put(field.getName(),
+						FieldWrapperFactory.createFieldWrapper(field, metadata.getFieldType(field), this, isNew));
 			}
 		}
 	}
@@ -88,20 +87,72 @@ public class EntityWrapper<T, ID extends Serializable> {
 	}
 
 	public void setId(String itemName) {
-		final Field idField;
+		final Field idField = EntityMetadata.forClass(item.getClass()).getIdField();
+		if(idField == null) {
+			throw new MappingException("Could not set id field, none declared in class " + item.getClass().getName());
+		}
 		try {
-			idField = ReflectionUtils.getDeclaredFieldInHierarchy(
-					item.getClass(), 
-					entityInformation.getItemNameFieldName(item)); 
-			idField.setAccessible(Boolean.TRUE);
 			idField.set(item, itemName);
-		} catch(NoSuchFieldException e) {
-			throw new MappingException("Could not set id field", e);
 		} catch(IllegalAccessException e) {
 			throw new MappingException("Could not set id field", e);
 		}
 	}
 
+	/**
+	 * @return true if the entity declares a {@link org.springframework.data.simpledb.annotation.Version} field
+	 */
+	public boolean isVersioned() {
+		return getVersionField() != null;
+	}
+
+	/**
+	 * @return the version of the entity, null if it was never saved
+	 */
+	public Long getVersion() {
+		final Number version;
+		try {
+			version = (Number) getVersionField().get(item);
+		} catch(IllegalAccessException e) {
+			throw new MappingException("Could not read version field", e);
+		}
+		return version == null || version.longValue() == 0 ? null : Long.valueOf(version.longValue());
+	}
+
+	/**
+	 * @param version
+	 *            the version to set, null marks the entity as never saved
+	 */
+	public void setVersion(Long version) {
+		final Field versionField = getVersionField();
+		try {
+			versionField.set(item, toVersionValue(versionField.getType(), version));
+		} catch(IllegalAccessException e) {
+			throw new MappingException("Could not set version field", e);
+		}
+	}
+
+	/**
+	 * @return the version attribute value, encoded like the version field is serialized
+	 */
+	public static String encodeVersion(Field versionField, long version) {
+		return SimpleDBAttributeConverter.encode(toVersionValue(versionField.getType(), version));
+	}
+
+	private static Object toVersionValue(Class<?> versionType, Long version) {
+		final boolean intVersion = versionType == int.class || versionType == Integer.class;
+		if(version == null) {
+			if(!versionType.isPrimitive()) {
+				return null;
+			}
+			return intVersion ? Integer.valueOf(0) : Long.valueOf(0);
+		}
+		return intVersion ? Integer.valueOf(version.intValue()) : version;
+	}
+
+	private Field getVersionField() {
+		return EntityMetadata.forClass(entityInformation.getJavaType()).getVersionField();
+	}
+
 	public Map<String, String> serialize() {
 		return serialize("");
 	}
@@ -1,7 +1,7 @@
 package org.springframework.data.simpledb.core.entity;
 
+import org.springframework.data.simpledb.reflection.EntityMetadata;
 import org.springframework.data.simpledb.reflection.FieldType;
-import org.springframework.data.simpledb.reflection.FieldTypeIdentifier;
 
 import java.io.Serializable;
 import java.lang.reflect.Field;
@@ -14,23 +14,31 @@ public final class FieldWrapperFactory {
 
 	public static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createFieldWrapper(final Field field,
 			final EntityWrapper<T, ID> parent, final boolean isNewParent) {
-		if(FieldTypeIdentifier.isOfType(field, FieldType.PRIMITIVE)) {
-			return createSimpleFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.CORE_TYPE)) {
-			return createSimpleFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.COLLECTION)) {
-			return createCollectionFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.ARRAY)) {
-			return createArrayFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.NESTED_ENTITY)) {
-			return createNestedEntityFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.REFERENCE_ENTITY)) {
-			return createReferenceEntityFieldWrapper(field, parent, isNewParent);
-		} else if(FieldTypeIdentifier.isOfType(field, FieldType.MAP)) {
-			return createMapFieldWrapper(field, parent, isNewParent);
-		}
+		return createFieldWrapper(field, EntityMetadata.getMappedFieldType(field), parent, isNewParent);
+	}
 
-		return createObjectFieldWrapper(field, parent, isNewParent);
+	/**
+	 * Creates the wrapper of a field already classified by {@link EntityMetadata#getMappedFieldType(Field)}
+	 */
+	public static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createFieldWrapper(final Field field,
+			final FieldType fieldType, final EntityWrapper<T, ID> parent, final boolean isNewParent) {
+		switch(fieldType) {
+			case PRIMITIVE:
+			case CORE_TYPE:
+				return createSimpleFieldWrapper(field, parent, isNewParent);
+			case COLLECTION:
+				return createCollectionFieldWrapper(field, parent, isNewParent);
+			case ARRAY:
+				return createArrayFieldWrapper(field, parent, isNewParent);
+			case NESTED_ENTITY:
+				return createNestedEntityFieldWrapper(field, parent, isNewParent);
+			case REFERENCE_ENTITY:
+				return createReferenceEntityFieldWrapper(field, parent, isNewParent);
+			case MAP:
+				return createMapFieldWrapper(field, parent, isNewParent);
+			default:
+				return createObjectFieldWrapper(field, parent, isNewParent);
+		}
 	}
 
 	private static <T, ID extends Serializable> AbstractFieldWrapper<T, ID> createSimpleFieldWrapper(
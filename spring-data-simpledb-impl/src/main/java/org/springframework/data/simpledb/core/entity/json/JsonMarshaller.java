@@ -1,48 +1,60 @@
 package org.springframework.data.simpledb.core.entity.json;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.annotate.JsonAutoDetect;
 import org.codehaus.jackson.annotate.JsonMethod;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.mrbean.MrBeanModule;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.util.Assert;
 
 /**
- * Marshall and unmarshall objects, collections and map field wrappers
+ * Marshall and unmarshall objects, collections and map field wrappers. <br/>
+ * The underlying {@link ObjectMapper} is configured once, readers are cached per type; both are immutable and shared
+ * between threads.
  */
 public final class JsonMarshaller {
 
 	static class JsonMarshallerHolder {
 
-		private static JsonMarshaller instance = new JsonMarshaller();
+		private static final JsonMarshaller INSTANCE = new JsonMarshaller();
 	}
 
-	private ObjectMapper jsonMapper;
+	private final ObjectMapper jsonMapper;
+	private final ObjectWriter jsonWriter;
+	private final ConcurrentMap<Class<?>, ObjectReader> jsonReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
 
 	private JsonMarshaller() {
 		JsonFactory factory = new JsonFactory();
 		jsonMapper = new ObjectMapper(factory);
-        jsonMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
-        JsonUnknownPropertyHandler jsonUnknownPropertyHandler = new JsonUnknownPropertyHandler();
+		jsonMapper.setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
+		jsonMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
+		JsonUnknownPropertyHandler jsonUnknownPropertyHandler = new JsonUnknownPropertyHandler();
 		jsonMapper.getDeserializationConfig().addHandler(jsonUnknownPropertyHandler);
 		jsonMapper.registerModule(new MrBeanModule());
+
+		jsonWriter = jsonMapper.writer();
 	}
 
 	public static JsonMarshaller getInstance() {
-		return JsonMarshallerHolder.instance;
+		return JsonMarshallerHolder.INSTANCE;
 	}
 
-    static JsonMarshaller createNew(){
-        return new JsonMarshaller();
-    }
+	static JsonMarshaller createNew() {
+		return new JsonMarshaller();
+	}
 
+	@SuppressWarnings("unchecked")
 	public <T> T unmarshall(String jsonString, Class<?> objectType) {
 		Assert.notNull(jsonString);
 		try {
-			return (T) jsonMapper.readValue(jsonString, objectType);
+			return (T) getReader(objectType).readValue(jsonString);
 		} catch(IOException e) {
 			throw new MappingException("Could not unmarshall object : " + jsonString, e);
 		}
@@ -50,13 +62,22 @@ public final class JsonMarshaller {
 
 	public <T> String marshall(T input) {
 		Assert.notNull(input);
-		jsonMapper = new ObjectMapper().setVisibility(JsonMethod.FIELD, JsonAutoDetect.Visibility.ANY);
-		jsonMapper.enableDefaultTypingAsProperty(ObjectMapper.DefaultTyping.NON_FINAL, "@class");
 		try {
-			return jsonMapper.writeValueAsString(input);
+			return jsonWriter.writeValueAsString(input);
 		} catch(Exception e) {
 			throw new MappingException(e.getMessage(), e);
 		}
 	}
 
+	private ObjectReader getReader(Class<?> objectType) {
+		ObjectReader reader = jsonReaders.get(objectType);
+		if(reader == null) {
+			reader = jsonMapper.reader(objectType);
+			final ObjectReader existing = jsonReaders.putIfAbsent(objectType, reader);
+			if(existing != null) {
+				reader = existing;
+			}
+		}
+		return reader;
+	}
 }
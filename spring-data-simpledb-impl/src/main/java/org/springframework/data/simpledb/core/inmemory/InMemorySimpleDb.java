@@ -0,0 +1,840 @@
+package org.springframework.data.simpledb.core.inmemory;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ResponseMetadata;
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.SimpleDBResponseMetadata;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.AttributeDoesNotExistException;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ConditionalCheckFailedException;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeleteDomainRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataResult;
+import com.amazonaws.services.simpledb.model.DuplicateItemNameException;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.InvalidNextTokenException;
+import com.amazonaws.services.simpledb.model.InvalidParameterValueException;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.ListDomainsRequest;
+import com.amazonaws.services.simpledb.model.ListDomainsResult;
+import com.amazonaws.services.simpledb.model.MissingParameterException;
+import com.amazonaws.services.simpledb.model.NoSuchDomainException;
+import com.amazonaws.services.simpledb.model.NumberDomainsExceededException;
+import com.amazonaws.services.simpledb.model.NumberItemAttributesExceededException;
+import com.amazonaws.services.simpledb.model.NumberSubmittedAttributesExceededException;
+import com.amazonaws.services.simpledb.model.NumberSubmittedItemsExceededException;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
+
+/**
+ * In-memory, thread-safe implementation of {@link AmazonSimpleDB} to be used instead of the AWS client for local load
+ * tests and benchmarks, see {@link org.springframework.data.simpledb.core.SimpleDb#setSimpleDbClient(AmazonSimpleDB)}. <br/>
+ * <br/>
+ * It enforces the SimpleDB limits the template has to cope with (256 attributes per item and per request, 1024 bytes
+ * per attribute name and value, 25 items per batch, 20 comparisons per select, 2500 items and 1MB per select page),
+ * evaluates select expressions with lexicographic comparisons and <tt>nextToken</tt> paging, and can inject latency,
+ * <tt>503 Service Unavailable</tt> errors and partial counts so that retry and paging paths can be exercised.
+ */
+public class InMemorySimpleDb implements AmazonSimpleDB {
+
+	public static final int MAX_ATTRIBUTES_PER_ITEM = 256;
+	public static final int MAX_ITEMS_PER_BATCH = 25;
+	public static final int MAX_ATTRIBUTE_LENGTH = 1024;
+	public static final int MAX_DOMAINS = 250;
+	public static final int DEFAULT_SELECT_LIMIT = 100;
+	public static final int MAX_SELECT_LIMIT = 2500;
+	public static final int MAX_RESPONSE_BYTES = 1024 * 1024;
+
+	private static final int SERVICE_UNAVAILABLE_STATUS_CODE = 503;
+	private static final int RESPONSE_METADATA_CACHE_SIZE = 50;
+	private static final Pattern DOMAIN_NAME_PATTERN = Pattern.compile("[a-zA-Z0-9_\\-\\.]{3,255}");
+
+	private static final double PUT_BOX_USAGE = 0.0000219907;
+	private static final double GET_BOX_USAGE = 0.0000093282;
+	private static final double SELECT_BOX_USAGE = 0.0000137200;
+	private static final double SELECT_ITEM_BOX_USAGE = 0.0000000470;
+	private static final double DOMAIN_BOX_USAGE = 0.0055590278;
+
+	private final ConcurrentMap<String, ConcurrentNavigableMap<String, Map<String, List<String>>>> domains = new ConcurrentHashMap<String, ConcurrentNavigableMap<String, Map<String, List<String>>>>();
+
+	private final Map<AmazonWebServiceRequest, ResponseMetadata> responseMetadata = Collections
+			.synchronizedMap(new LinkedHashMap<AmazonWebServiceRequest, ResponseMetadata>() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<AmazonWebServiceRequest, ResponseMetadata> eldest) {
+					return size() > RESPONSE_METADATA_CACHE_SIZE;
+				}
+			});
+
+	private final Random random = new Random();
+
+	private volatile long minLatencyMillis;
+	private volatile long maxLatencyMillis;
+	private volatile double serviceUnavailableRate;
+	private volatile int countPageSize = Integer.MAX_VALUE;
+
+	/**
+	 * Set the bounds of the latency added to every request, the actual value is uniformly distributed between them.
+	 * Defaults to 0, no latency.
+	 *
+	 * @param minLatencyMillis
+	 * @param maxLatencyMillis
+	 */
+	public void setLatencyMillis(long minLatencyMillis, long maxLatencyMillis) {
+		if(minLatencyMillis < 0 || maxLatencyMillis < minLatencyMillis) {
+			throw new IllegalArgumentException("Invalid latency bounds: " + minLatencyMillis + ", " + maxLatencyMillis);
+		}
+		this.minLatencyMillis = minLatencyMillis;
+		this.maxLatencyMillis = maxLatencyMillis;
+	}
+
+	/**
+	 * Set the fraction of requests, between 0 and 1, failing with <tt>503 Service Unavailable</tt>. Defaults to 0.
+	 *
+	 * @param serviceUnavailableRate
+	 */
+	public void setServiceUnavailableRate(double serviceUnavailableRate) {
+		if(serviceUnavailableRate < 0 || serviceUnavailableRate > 1) {
+			throw new IllegalArgumentException("Invalid service unavailable rate: " + serviceUnavailableRate);
+		}
+		this.serviceUnavailableRate = serviceUnavailableRate;
+	}
+
+	/**
+	 * Set the maximum number of items a single <tt>count(*)</tt> request counts before returning a partial count and a
+	 * <tt>nextToken</tt>, as SimpleDB does for long running counts. Defaults to no limit.
+	 *
+	 * @param countPageSize
+	 */
+	public void setCountPageSize(int countPageSize) {
+		if(countPageSize < 1) {
+			throw new IllegalArgumentException("Invalid count page size: " + countPageSize);
+		}
+		this.countPageSize = countPageSize;
+	}
+
+	/**
+	 * Set the seed of the random generator used for latency and failure injection, to get repeatable runs.
+	 *
+	 * @param seed
+	 */
+	public void setRandomSeed(long seed) {
+		random.setSeed(seed);
+	}
+
+	@Override
+	public void setEndpoint(String endpoint) {
+		// nothing to connect to
+	}
+
+	@Override
+	public void setRegion(Region region) {
+		// nothing to connect to
+	}
+
+	@Override
+	public void createDomain(CreateDomainRequest createDomainRequest) {
+		simulateRequest();
+
+		final String domainName = createDomainRequest.getDomainName();
+		if(domainName == null || !DOMAIN_NAME_PATTERN.matcher(domainName).matches()) {
+			throw invalidParameter("Value (" + domainName + ") for parameter DomainName is invalid.");
+		}
+
+		if(!domains.containsKey(domainName) && domains.size() >= MAX_DOMAINS) {
+			throw serviceException(new NumberDomainsExceededException("Number of domains limit exceeded."), 409,
+					"NumberDomainsExceeded");
+		}
+
+		domains.putIfAbsent(domainName, new ConcurrentSkipListMap<String, Map<String, List<String>>>());
+		recordBoxUsage(createDomainRequest, DOMAIN_BOX_USAGE);
+	}
+
+	@Override
+	public void deleteDomain(DeleteDomainRequest deleteDomainRequest) {
+		simulateRequest();
+
+		domains.remove(deleteDomainRequest.getDomainName());
+		recordBoxUsage(deleteDomainRequest, DOMAIN_BOX_USAGE);
+	}
+
+	@Override
+	public ListDomainsResult listDomains() {
+		return listDomains(new ListDomainsRequest());
+	}
+
+	@Override
+	public ListDomainsResult listDomains(ListDomainsRequest listDomainsRequest) {
+		simulateRequest();
+
+		final int maxDomains = listDomainsRequest.getMaxNumberOfDomains() == null ? 100 : listDomainsRequest
+				.getMaxNumberOfDomains();
+		final NavigableMap<String, Object> sortedDomains = new ConcurrentSkipListMap<String, Object>(domains);
+		final NavigableMap<String, Object> remaining = listDomainsRequest.getNextToken() == null ? sortedDomains
+				: sortedDomains.tailMap(decodeToken(listDomainsRequest.getNextToken(), "d"), false);
+
+		final List<String> domainNames = new ArrayList<String>();
+		String nextToken = null;
+		for(String domainName : remaining.keySet()) {
+			if(domainNames.size() == maxDomains) {
+				nextToken = encodeToken("d", domainNames.get(domainNames.size() - 1));
+				break;
+			}
+			domainNames.add(domainName);
+		}
+
+		recordBoxUsage(listDomainsRequest, GET_BOX_USAGE);
+		return new ListDomainsResult().withDomainNames(domainNames).withNextToken(nextToken);
+	}
+
+	@Override
+	public DomainMetadataResult domainMetadata(DomainMetadataRequest domainMetadataRequest) {
+		simulateRequest();
+
+		final Map<String, Map<String, List<String>>> items = getDomain(domainMetadataRequest.getDomainName());
+		final Set<String> attributeNames = new HashSet<String>();
+		long itemNamesSize = 0;
+		long attributeValuesSize = 0;
+		int attributeValueCount = 0;
+
+		for(Map.Entry<String, Map<String, List<String>>> item : items.entrySet()) {
+			itemNamesSize += utf8Length(item.getKey());
+			for(Map.Entry<String, List<String>> attribute : item.getValue().entrySet()) {
+				attributeNames.add(attribute.getKey());
+				for(String value : attribute.getValue()) {
+					attributeValuesSize += utf8Length(value);
+					attributeValueCount++;
+				}
+			}
+		}
+
+		long attributeNamesSize = 0;
+		for(String attributeName : attributeNames) {
+			attributeNamesSize += utf8Length(attributeName);
+		}
+
+		recordBoxUsage(domainMetadataRequest, GET_BOX_USAGE);
+		return new DomainMetadataResult().withItemCount(items.size()).withItemNamesSizeBytes(itemNamesSize)
+				.withAttributeNameCount(attributeNames.size()).withAttributeNamesSizeBytes(attributeNamesSize)
+				.withAttributeValueCount(attributeValueCount).withAttributeValuesSizeBytes(attributeValuesSize)
+				.withTimestamp((int) (System.currentTimeMillis() / 1000));
+	}
+
+	@Override
+	public void putAttributes(PutAttributesRequest putAttributesRequest) {
+		simulateRequest();
+
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = getDomain(putAttributesRequest
+				.getDomainName());
+		validateItemName(putAttributesRequest.getItemName());
+		validateReplaceableAttributes(putAttributesRequest.getAttributes());
+
+		synchronized(items) {
+			final Map<String, List<String>> current = items.get(putAttributesRequest.getItemName());
+			checkCondition(current, putAttributesRequest.getExpected());
+			store(items, putAttributesRequest.getItemName(),
+					applyPut(current, putAttributesRequest.getAttributes()));
+		}
+
+		recordBoxUsage(putAttributesRequest, PUT_BOX_USAGE);
+	}
+
+	@Override
+	public void batchPutAttributes(BatchPutAttributesRequest batchPutAttributesRequest) {
+		simulateRequest();
+
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = getDomain(batchPutAttributesRequest
+				.getDomainName());
+		final List<ReplaceableItem> replaceableItems = batchPutAttributesRequest.getItems();
+		validateBatchSize(replaceableItems.size());
+
+		final Set<String> itemNames = new HashSet<String>();
+		for(ReplaceableItem item : replaceableItems) {
+			validateItemName(item.getName());
+			validateReplaceableAttributes(item.getAttributes());
+			if(!itemNames.add(item.getName())) {
+				throw serviceException(new DuplicateItemNameException("Item " + item.getName()
+						+ " was specified more than once."), 400, "DuplicateItemName");
+			}
+		}
+
+		synchronized(items) {
+			final Map<String, Map<String, List<String>>> updated = new HashMap<String, Map<String, List<String>>>();
+			for(ReplaceableItem item : replaceableItems) {
+				updated.put(item.getName(), applyPut(items.get(item.getName()), item.getAttributes()));
+			}
+			for(Map.Entry<String, Map<String, List<String>>> entry : updated.entrySet()) {
+				store(items, entry.getKey(), entry.getValue());
+			}
+		}
+
+		recordBoxUsage(batchPutAttributesRequest, PUT_BOX_USAGE * replaceableItems.size());
+	}
+
+	@Override
+	public void deleteAttributes(DeleteAttributesRequest deleteAttributesRequest) {
+		simulateRequest();
+
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = getDomain(deleteAttributesRequest
+				.getDomainName());
+		validateItemName(deleteAttributesRequest.getItemName());
+
+		synchronized(items) {
+			final Map<String, List<String>> current = items.get(deleteAttributesRequest.getItemName());
+			checkCondition(current, deleteAttributesRequest.getExpected());
+			store(items, deleteAttributesRequest.getItemName(),
+					applyDelete(current, deleteAttributesRequest.getAttributes()));
+		}
+
+		recordBoxUsage(deleteAttributesRequest, PUT_BOX_USAGE);
+	}
+
+	@Override
+	public void batchDeleteAttributes(BatchDeleteAttributesRequest batchDeleteAttributesRequest) {
+		simulateRequest();
+
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = getDomain(batchDeleteAttributesRequest
+				.getDomainName());
+		final List<DeletableItem> deletableItems = batchDeleteAttributesRequest.getItems();
+		validateBatchSize(deletableItems.size());
+
+		for(DeletableItem item : deletableItems) {
+			validateItemName(item.getName());
+		}
+
+		synchronized(items) {
+			for(DeletableItem item : deletableItems) {
+				store(items, item.getName(), applyDelete(items.get(item.getName()), item.getAttributes()));
+			}
+		}
+
+		recordBoxUsage(batchDeleteAttributesRequest, PUT_BOX_USAGE * deletableItems.size());
+	}
+
+	@Override
+	public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+		simulateRequest();
+
+		final Map<String, List<String>> item = getDomain(getAttributesRequest.getDomainName()).get(
+				getAttributesRequest.getItemName());
+		final List<String> attributeNames = getAttributesRequest.getAttributeNames();
+
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		if(item != null) {
+			attributes.addAll(toAttributes(item, attributeNames == null || attributeNames.isEmpty() ? null
+					: attributeNames));
+		}
+
+		recordBoxUsage(getAttributesRequest, GET_BOX_USAGE);
+		return new GetAttributesResult().withAttributes(attributes);
+	}
+
+	@Override
+	public SelectResult select(SelectRequest selectRequest) {
+		simulateRequest();
+
+		final SelectExpression expression = SelectExpression.parse(selectRequest.getSelectExpression());
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = getDomain(expression.getDomainName());
+
+		final SelectResult result;
+		if(expression.getOutput() == SelectExpression.Output.COUNT) {
+			result = count(expression, items, selectRequest.getNextToken());
+		} else {
+			result = select(expression, items, selectRequest.getNextToken());
+		}
+
+		recordBoxUsage(selectRequest, SELECT_BOX_USAGE + SELECT_ITEM_BOX_USAGE * result.getItems().size());
+		return result;
+	}
+
+	@Override
+	public void shutdown() {
+		domains.clear();
+		responseMetadata.clear();
+	}
+
+	/**
+	 * Returns the {@link SimpleDBResponseMetadata}, holding the synthetic box usage, of one of the last requests.
+	 */
+	@Override
+	public ResponseMetadata getCachedResponseMetadata(AmazonWebServiceRequest request) {
+		return responseMetadata.get(request);
+	}
+
+	private SelectResult count(SelectExpression expression, NavigableMap<String, Map<String, List<String>>> items,
+			String nextToken) {
+		final NavigableMap<String, Map<String, List<String>>> remaining = nextToken == null ? items : items.tailMap(
+				decodeToken(nextToken, "c"), false);
+		final Integer requestedLimit = expression.getLimit();
+		if(requestedLimit != null && (requestedLimit < 1 || requestedLimit > MAX_SELECT_LIMIT)) {
+			throw invalidParameter("Value (" + requestedLimit + ") for parameter Limit is invalid. Limit must be between 1 and " + MAX_SELECT_LIMIT + ".");
+		}
+		final int limit = requestedLimit == null ? Integer.MAX_VALUE : requestedLimit;
+		final int pageSize = countPageSize;
+
+		int count = 0;
+		int scanned = 0;
+		String lastItemName = null;
+		boolean more = false;
+
+		for(Map.Entry<String, Map<String, List<String>>> entry : remaining.entrySet()) {
+			if(count == limit || scanned == pageSize) {
+				more = true;
+				break;
+			}
+			scanned++;
+			lastItemName = entry.getKey();
+			if(expression.matches(entry.getKey(), entry.getValue())) {
+				count++;
+			}
+		}
+
+		final Item item = new Item("Domain", Collections.singletonList(new Attribute("Count", String.valueOf(count))));
+		return new SelectResult().withItems(item).withNextToken(more ? encodeToken("c", lastItemName) : null);
+	}
+
+	private SelectResult select(SelectExpression expression, NavigableMap<String, Map<String, List<String>>> items,
+			String nextToken) {
+		final Integer requestedLimit = expression.getLimit();
+		if(requestedLimit != null && (requestedLimit < 1 || requestedLimit > MAX_SELECT_LIMIT)) {
+			throw invalidParameter("Value (" + requestedLimit + ") for parameter Limit is invalid. Limit must be between 1 and " + MAX_SELECT_LIMIT + ".");
+		}
+		final int limit = requestedLimit == null ? DEFAULT_SELECT_LIMIT : requestedLimit;
+
+		if(expression.isSortedByItemName()) {
+			NavigableMap<String, Map<String, List<String>>> ordered = expression.isSortDescending() ? items
+					.descendingMap() : items;
+			if(nextToken != null) {
+				ordered = ordered.tailMap(decodeToken(nextToken, "k"), false);
+			}
+			return page(expression, ordered.entrySet(), limit, false, 0);
+		}
+
+		final List<Map.Entry<String, Map<String, List<String>>>> matching = new ArrayList<Map.Entry<String, Map<String, List<String>>>>();
+		for(Map.Entry<String, Map<String, List<String>>> entry : items.entrySet()) {
+			if(expression.matches(entry.getKey(), entry.getValue())) {
+				matching.add(entry);
+			}
+		}
+		Collections.sort(matching, new AttributeComparator(expression.getSortAttribute(), expression
+				.isSortDescending()));
+
+		final int offset = nextToken == null ? 0 : parseOffset(decodeToken(nextToken, "o"));
+		return page(expression, matching.subList(Math.min(offset, matching.size()), matching.size()), limit, true,
+				offset);
+	}
+
+	private SelectResult page(SelectExpression expression,
+			Collection<Map.Entry<String, Map<String, List<String>>>> candidates, int limit, boolean alreadyMatched,
+			int offset) {
+		final List<Item> page = new ArrayList<Item>();
+		final List<String> projection = expression.getOutput() == SelectExpression.Output.ATTRIBUTES ? expression
+				.getAttributeNames() : null;
+		long responseSize = 0;
+		String lastItemName = null;
+		boolean more = false;
+
+		for(Map.Entry<String, Map<String, List<String>>> entry : candidates) {
+			if(!alreadyMatched && !expression.matches(entry.getKey(), entry.getValue())) {
+				continue;
+			}
+
+			final Item item = toItem(expression, entry.getKey(), entry.getValue(), projection);
+			if(item == null) {
+				offset++;
+				continue;
+			}
+
+			final long itemSize = sizeOf(item);
+			if(page.size() == limit || !page.isEmpty() && responseSize + itemSize > MAX_RESPONSE_BYTES) {
+				more = true;
+				break;
+			}
+
+			page.add(item);
+			responseSize += itemSize;
+			lastItemName = entry.getKey();
+			offset++;
+		}
+
+		String nextToken = null;
+		if(more) {
+			nextToken = alreadyMatched ? encodeToken("o", String.valueOf(offset)) : encodeToken("k", lastItemName);
+		}
+		return new SelectResult().withItems(page).withNextToken(nextToken);
+	}
+
+	private Item toItem(SelectExpression expression, String itemName, Map<String, List<String>> attributes,
+			List<String> projection) {
+		switch(expression.getOutput()) {
+		case ITEM_NAME:
+			return new Item(itemName, new ArrayList<Attribute>());
+		case ATTRIBUTES:
+			final List<Attribute> projected = toAttributes(attributes, projection);
+			return projected.isEmpty() ? null : new Item(itemName, projected);
+		default:
+			return new Item(itemName, toAttributes(attributes, null));
+		}
+	}
+
+	private static List<Attribute> toAttributes(Map<String, List<String>> attributes, Collection<String> attributeNames) {
+		final List<Attribute> result = new ArrayList<Attribute>();
+		for(Map.Entry<String, List<String>> attribute : attributes.entrySet()) {
+			if(attributeNames != null && !attributeNames.contains(attribute.getKey())) {
+				continue;
+			}
+			for(String value : attribute.getValue()) {
+				result.add(new Attribute(attribute.getKey(), value));
+			}
+		}
+		return result;
+	}
+
+	private Map<String, List<String>> applyPut(Map<String, List<String>> current, List<ReplaceableAttribute> attributes) {
+		final Map<String, Set<String>> updated = copy(current);
+
+		for(ReplaceableAttribute attribute : attributes) {
+			if(Boolean.TRUE.equals(attribute.getReplace())) {
+				updated.remove(attribute.getName());
+			}
+		}
+
+		for(ReplaceableAttribute attribute : attributes) {
+			Set<String> values = updated.get(attribute.getName());
+			if(values == null) {
+				values = new LinkedHashSet<String>();
+				updated.put(attribute.getName(), values);
+			}
+			values.add(attribute.getValue());
+		}
+
+		int attributeCount = 0;
+		for(Set<String> values : updated.values()) {
+			attributeCount += values.size();
+		}
+		if(attributeCount > MAX_ATTRIBUTES_PER_ITEM) {
+			throw serviceException(new NumberItemAttributesExceededException("Too many attributes in this item."), 409,
+					"NumberItemAttributesExceeded");
+		}
+
+		return freeze(updated);
+	}
+
+	private Map<String, List<String>> applyDelete(Map<String, List<String>> current, List<Attribute> attributes) {
+		if(current == null || attributes == null || attributes.isEmpty()) {
+			return null;
+		}
+
+		final Map<String, Set<String>> updated = copy(current);
+		for(Attribute attribute : attributes) {
+			if(attribute.getValue() == null) {
+				updated.remove(attribute.getName());
+			} else {
+				final Set<String> values = updated.get(attribute.getName());
+				if(values != null) {
+					values.remove(attribute.getValue());
+					if(values.isEmpty()) {
+						updated.remove(attribute.getName());
+					}
+				}
+			}
+		}
+
+		return freeze(updated);
+	}
+
+	private static void checkCondition(Map<String, List<String>> current, UpdateCondition expected) {
+		if(expected == null || expected.getName() == null) {
+			return;
+		}
+
+		final List<String> values = current == null ? null : current.get(expected.getName());
+
+		if(Boolean.FALSE.equals(expected.getExists())) {
+			if(values != null) {
+				throw serviceException(new ConditionalCheckFailedException("Conditional check failed. Attribute ("
+						+ expected.getName() + ") value exists."), 409, "ConditionalCheckFailed");
+			}
+			return;
+		}
+
+		if(expected.getValue() == null) {
+			throw serviceException(new MissingParameterException("No value specified for expected attribute "
+					+ expected.getName()), 400, "MissingParameter");
+		}
+
+		if(values == null) {
+			throw serviceException(new AttributeDoesNotExistException("Attribute (" + expected.getName()
+					+ ") does not exist"), 404, "AttributeDoesNotExist");
+		}
+
+		if(values.size() > 1 || !values.get(0).equals(expected.getValue())) {
+			throw serviceException(new ConditionalCheckFailedException("Conditional check failed. Attribute ("
+					+ expected.getName() + ") value is (" + values + ") but was expected (" + expected.getValue()
+					+ ")"), 409, "ConditionalCheckFailed");
+		}
+	}
+
+	private static void store(ConcurrentNavigableMap<String, Map<String, List<String>>> items, String itemName,
+			Map<String, List<String>> attributes) {
+		if(attributes == null || attributes.isEmpty()) {
+			items.remove(itemName);
+		} else {
+			items.put(itemName, attributes);
+		}
+	}
+
+	private static Map<String, Set<String>> copy(Map<String, List<String>> attributes) {
+		final Map<String, Set<String>> copy = new LinkedHashMap<String, Set<String>>();
+		if(attributes != null) {
+			for(Map.Entry<String, List<String>> attribute : attributes.entrySet()) {
+				copy.put(attribute.getKey(), new LinkedHashSet<String>(attribute.getValue()));
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Stored attribute maps are immutable, so that selects can read them without locking the domain
+	 */
+	private static Map<String, List<String>> freeze(Map<String, Set<String>> attributes) {
+		final Map<String, List<String>> frozen = new LinkedHashMap<String, List<String>>();
+		for(Map.Entry<String, Set<String>> attribute : attributes.entrySet()) {
+			frozen.put(attribute.getKey(), Collections.unmodifiableList(new ArrayList<String>(attribute.getValue())));
+		}
+		return Collections.unmodifiableMap(frozen);
+	}
+
+	private ConcurrentNavigableMap<String, Map<String, List<String>>> getDomain(String domainName) {
+		if(domainName == null) {
+			throw serviceException(new MissingParameterException("The request must contain the parameter DomainName"),
+					400, "MissingParameter");
+		}
+
+		final ConcurrentNavigableMap<String, Map<String, List<String>>> items = domains.get(domainName);
+		if(items == null) {
+			throw serviceException(new NoSuchDomainException("The specified domain does not exist."), 400,
+					"NoSuchDomain");
+		}
+		return items;
+	}
+
+	private static void validateItemName(String itemName) {
+		if(itemName == null) {
+			throw serviceException(new MissingParameterException("The request must contain the parameter ItemName"),
+					400, "MissingParameter");
+		}
+		validateLength("ItemName", itemName);
+	}
+
+	private static void validateReplaceableAttributes(List<ReplaceableAttribute> attributes) {
+		if(attributes.size() > MAX_ATTRIBUTES_PER_ITEM) {
+			throw serviceException(new NumberSubmittedAttributesExceededException(
+					"Too many attributes for item in a single call. Up to " + MAX_ATTRIBUTES_PER_ITEM
+							+ " attributes per call allowed."), 409, "NumberSubmittedAttributesExceeded");
+		}
+
+		for(ReplaceableAttribute attribute : attributes) {
+			if(attribute.getName() == null || attribute.getValue() == null) {
+				throw serviceException(new MissingParameterException("Attribute name and value are required"), 400,
+						"MissingParameter");
+			}
+			validateLength("Name", attribute.getName());
+			validateLength("Value", attribute.getValue());
+		}
+	}
+
+	private static void validateBatchSize(int size) {
+		if(size > MAX_ITEMS_PER_BATCH) {
+			throw serviceException(new NumberSubmittedItemsExceededException("Too many items in a single call. Up to "
+					+ MAX_ITEMS_PER_BATCH + " items per call allowed."), 409, "NumberSubmittedItemsExceeded");
+		}
+	}
+
+	private static void validateLength(String parameter, String value) {
+		if(utf8Length(value) > MAX_ATTRIBUTE_LENGTH) {
+			throw invalidParameter("Value (" + value.substring(0, 32) + "...) for parameter " + parameter
+					+ " is invalid. Value exceeds maximum length of " + MAX_ATTRIBUTE_LENGTH + ".");
+		}
+	}
+
+	/**
+	 * Adds the configured latency and fails the request with <tt>503 Service Unavailable</tt> at the configured rate
+	 */
+	private void simulateRequest() {
+		final long min = minLatencyMillis;
+		final long max = maxLatencyMillis;
+
+		if(max > 0) {
+			final long latency = min + (max > min ? (long) (random.nextDouble() * (max - min)) : 0);
+			try {
+				Thread.sleep(latency);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if(serviceUnavailableRate > 0 && random.nextDouble() < serviceUnavailableRate) {
+			final AmazonServiceException exception = new AmazonServiceException(
+					"Service AmazonSimpleDB is currently unavailable. Please try again later");
+			exception.setErrorType(ErrorType.Service);
+			exception.setErrorCode("ServiceUnavailable");
+			exception.setStatusCode(SERVICE_UNAVAILABLE_STATUS_CODE);
+			exception.setServiceName("AmazonSimpleDB");
+			throw exception;
+		}
+	}
+
+	private void recordBoxUsage(AmazonWebServiceRequest request, double boxUsage) {
+		final Map<String, String> metadata = new HashMap<String, String>();
+		metadata.put(SimpleDBResponseMetadata.BOX_USAGE, BigDecimal.valueOf(boxUsage).toPlainString());
+		responseMetadata.put(request, new SimpleDBResponseMetadata(metadata));
+	}
+
+	private static String encodeToken(String type, String position) {
+		try {
+			return new String(Base64.encodeBase64((type + ":" + position).getBytes("UTF-8")), "UTF-8");
+		} catch(UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decodeToken(String token, String expectedType) {
+		final String decoded;
+		try {
+			decoded = new String(Base64.decodeBase64(token.getBytes("UTF-8")), "UTF-8");
+		} catch(UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+
+		if(!decoded.startsWith(expectedType + ":")) {
+			throw serviceException(new InvalidNextTokenException("The specified next token is not valid."), 400,
+					"InvalidNextToken");
+		}
+		return decoded.substring(expectedType.length() + 1);
+	}
+
+	private static int parseOffset(String offset) {
+		try {
+			return Integer.parseInt(offset);
+		} catch(NumberFormatException e) {
+			throw serviceException(new InvalidNextTokenException("The specified next token is not valid."), 400,
+					"InvalidNextToken");
+		}
+	}
+
+	private static long sizeOf(Item item) {
+		long size = utf8Length(item.getName());
+		for(Attribute attribute : item.getAttributes()) {
+			size += utf8Length(attribute.getName()) + utf8Length(attribute.getValue());
+		}
+		return size;
+	}
+
+	static int utf8Length(String value) {
+		int length = 0;
+		for(int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if(c < 0x80) {
+				length += 1;
+			} else if(c < 0x800) {
+				length += 2;
+			} else if(Character.isHighSurrogate(c)) {
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static InvalidParameterValueException invalidParameter(String message) {
+		return serviceException(new InvalidParameterValueException(message), 400, "InvalidParameterValue");
+	}
+
+	private static <E extends AmazonServiceException> E serviceException(E exception, int statusCode, String errorCode) {
+		exception.setStatusCode(statusCode);
+		exception.setErrorCode(errorCode);
+		exception.setErrorType(ErrorType.Client);
+		exception.setServiceName("AmazonSimpleDB");
+		return exception;
+	}
+
+	/**
+	 * Orders items by the lexicographically smallest value of the sort attribute, then by item name
+	 */
+	private static final class AttributeComparator implements Comparator<Map.Entry<String, Map<String, List<String>>>> {
+
+		private final String attributeName;
+		private final boolean descending;
+
+		private AttributeComparator(String attributeName, boolean descending) {
+			this.attributeName = attributeName;
+			this.descending = descending;
+		}
+
+		@Override
+		public int compare(Map.Entry<String, Map<String, List<String>>> first,
+				Map.Entry<String, Map<String, List<String>>> second) {
+			int comparison = sortValue(first.getValue()).compareTo(sortValue(second.getValue()));
+			if(comparison == 0) {
+				comparison = first.getKey().compareTo(second.getKey());
+			}
+			return descending ? -comparison : comparison;
+		}
+
+		private String sortValue(Map<String, List<String>> attributes) {
+			final List<String> values = attributes.get(attributeName);
+			if(values == null) {
+				return "";
+			}
+
+			String min = values.get(0);
+			for(String value : values) {
+				if(value.compareTo(min) < 0) {
+					min = value;
+				}
+			}
+			return min;
+		}
+	}
+}
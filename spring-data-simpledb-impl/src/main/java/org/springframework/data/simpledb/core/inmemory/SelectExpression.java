@@ -0,0 +1,562 @@
+package org.springframework.data.simpledb.core.inmemory;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.simpledb.parser.SimpleCharStream;
+import org.springframework.data.simpledb.parser.SimpleDBParserConstants;
+import org.springframework.data.simpledb.parser.SimpleDBParserTokenManager;
+import org.springframework.data.simpledb.parser.Token;
+import org.springframework.data.simpledb.parser.TokenMgrError;
+
+import com.amazonaws.services.simpledb.model.InvalidQueryExpressionException;
+
+/**
+ * Parsed form of a SimpleDB select expression, evaluated by {@link InMemorySimpleDb} against its stored items. <br/>
+ * Comparisons are lexicographic, multi-valued attributes match if any of their values match, unless they are
+ * wrapped in <tt>every()</tt>.
+ */
+final class SelectExpression {
+
+	static final String ITEM_NAME = "itemName()";
+
+	static final int MAX_COMPARISONS = 20;
+
+	enum Output {
+		ALL, ITEM_NAME, COUNT, ATTRIBUTES
+	}
+
+	interface Condition {
+
+		boolean matches(String itemName, Map<String, List<String>> attributes);
+
+		/**
+		 * Collects the attributes used by comparisons which require the attribute to be present
+		 */
+		void collectSortableAttributes(Set<String> attributeNames);
+	}
+
+	private Output output;
+	private final List<String> attributeNames = new ArrayList<String>();
+	private String domainName;
+	private Condition condition;
+	private String sortAttribute;
+	private boolean sortDescending;
+	private Integer limit;
+	private int comparisons;
+
+	private SelectExpression() {
+	}
+
+	public static SelectExpression parse(String expression) {
+		final SelectExpression selectExpression = new SelectExpression();
+		new Parser(tokenize(expression), selectExpression).parse();
+		selectExpression.validateSort();
+
+		if(selectExpression.comparisons > MAX_COMPARISONS) {
+			throw invalidExpression("Too many comparisons in select expression, maximum is " + MAX_COMPARISONS);
+		}
+
+		return selectExpression;
+	}
+
+	public Output getOutput() {
+		return output;
+	}
+
+	public List<String> getAttributeNames() {
+		return Collections.unmodifiableList(attributeNames);
+	}
+
+	public String getDomainName() {
+		return domainName;
+	}
+
+	public boolean matches(String itemName, Map<String, List<String>> attributes) {
+		return condition == null || condition.matches(itemName, attributes);
+	}
+
+	public String getSortAttribute() {
+		return sortAttribute;
+	}
+
+	public boolean isSortedByItemName() {
+		return sortAttribute == null || ITEM_NAME.equals(sortAttribute);
+	}
+
+	public boolean isSortDescending() {
+		return sortDescending;
+	}
+
+	public Integer getLimit() {
+		return limit;
+	}
+
+	private void validateSort() {
+		if(isSortedByItemName()) {
+			return;
+		}
+
+		final Set<String> sortable = new HashSet<String>();
+		if(condition != null) {
+			condition.collectSortableAttributes(sortable);
+		}
+
+		if(!sortable.contains(sortAttribute)) {
+			throw invalidExpression("Invalid sort expression. The sort attribute must be present in at least one of the predicates, and the predicate cannot include 'is null'.");
+		}
+	}
+
+	static InvalidQueryExpressionException invalidExpression(String message) {
+		final InvalidQueryExpressionException exception = new InvalidQueryExpressionException(message);
+		exception.setErrorCode("InvalidQueryExpression");
+		exception.setStatusCode(400);
+		return exception;
+	}
+
+	private static List<Token> tokenize(String expression) {
+		final SimpleDBParserTokenManager tokenManager = new SimpleDBParserTokenManager(new SimpleCharStream(
+				new StringReader(expression)));
+		final List<Token> tokens = new ArrayList<Token>();
+
+		try {
+			Token token;
+			do {
+				token = tokenManager.getNextToken();
+				tokens.add(token);
+			} while(token.kind != SimpleDBParserConstants.EOF);
+		} catch(TokenMgrError e) {
+			throw invalidExpression("Invalid select expression: " + e.getMessage());
+		}
+
+		return tokens;
+	}
+
+	/**
+	 * Recursive descent over the tokens of the SimpleDB grammar, with the usual NOT &gt; AND &gt; OR precedence.
+	 */
+	private static final class Parser implements SimpleDBParserConstants {
+
+		private final List<Token> tokens;
+		private final SelectExpression target;
+		private int position;
+
+		private Parser(List<Token> tokens, SelectExpression target) {
+			this.tokens = tokens;
+			this.target = target;
+		}
+
+		void parse() {
+			expect(SELECT);
+			if(accept(ALL_ITEMS)) {
+				target.output = Output.ALL;
+			} else if(accept(ITEM_NAME)) {
+				target.output = Output.ITEM_NAME;
+			} else if(accept(COUNT)) {
+				target.output = Output.COUNT;
+			} else {
+				target.output = Output.ATTRIBUTES;
+				do {
+					target.attributeNames.add(attributeName());
+				} while(accept(COMMA));
+			}
+
+			expect(FROM);
+			target.domainName = attributeName();
+
+			if(accept(WHERE)) {
+				target.condition = or();
+			}
+
+			if(accept(ORDER_BY)) {
+				target.sortAttribute = accept(ITEM_NAME) ? SelectExpression.ITEM_NAME : attributeName();
+				if(!accept(ASC)) {
+					target.sortDescending = accept(DESC);
+				}
+			}
+
+			if(accept(LIMIT)) {
+				final String number = expect(NUMBER).image;
+				try {
+					target.limit = Integer.valueOf(number);
+				} catch(NumberFormatException e) {
+					throw invalidExpression("Invalid limit: " + number);
+				}
+			}
+
+			expect(EOF);
+		}
+
+		private Condition or() {
+			Condition condition = and();
+			while(accept(OR)) {
+				condition = new Or(condition, and());
+			}
+			return condition;
+		}
+
+		private Condition and() {
+			Condition condition = unary();
+			while(accept(AND) || accept(INTERSECTION)) {
+				condition = new And(condition, unary());
+			}
+			return condition;
+		}
+
+		private Condition unary() {
+			if(accept(NOT)) {
+				return new Not(unary());
+			}
+
+			if(accept(LPAREN)) {
+				final Condition condition = or();
+				expect(RPAREN);
+				return condition;
+			}
+
+			return comparison();
+		}
+
+		private Condition comparison() {
+			final String attribute;
+			boolean every = false;
+
+			if(accept(SimpleDBParserConstants.ITEM_NAME)) {
+				attribute = SelectExpression.ITEM_NAME;
+			} else if(peek().kind == EVERY) {
+				final String image = next().image;
+				attribute = image.substring(image.indexOf('(') + 1, image.lastIndexOf(')')).trim();
+				every = true;
+			} else {
+				attribute = attributeName();
+			}
+
+			final Token operator = next();
+			target.comparisons++;
+
+			switch(operator.kind) {
+			case EQUALS:
+			case NOT_EQUALS:
+			case GT:
+			case GTEQ:
+			case LT:
+			case LTEQ:
+				return new Comparison(attribute, every, new Relational(operator.kind, literal()));
+			case LIKE:
+				return new Comparison(attribute, every, new Like(literal(), false));
+			case NOT_LIKE:
+				return new Comparison(attribute, every, new Like(literal(), true));
+			case BETWEEN: {
+				final String lower = literal();
+				expect(AND);
+				return new Comparison(attribute, every, new Between(lower, literal()));
+			}
+			case IN: {
+				final Set<String> values = new HashSet<String>();
+				expect(LPAREN);
+				values.add(literal());
+				while(accept(COMMA)) {
+					values.add(literal());
+					target.comparisons++;
+				}
+				expect(RPAREN);
+				return new Comparison(attribute, every, new In(values));
+			}
+			case IS_NULL:
+				return new Presence(attribute, false);
+			case IS_NOT_NULL:
+				return new Presence(attribute, true);
+			default:
+				throw unexpected(operator);
+			}
+		}
+
+		private String attributeName() {
+			if(accept(BACKTICK)) {
+				final StringBuilder name = new StringBuilder(expect(IDENTIFIER).image);
+				while(accept(DOT)) {
+					name.append('.').append(expect(IDENTIFIER).image);
+				}
+				expect(BACKTICK);
+				return name.toString();
+			}
+
+			return expect(IDENTIFIER).image;
+		}
+
+		private String literal() {
+			final Token token = next();
+			if(token.kind != QUOTED_STRING_LITERAL && token.kind != QUOTED_STRING_LITERAL_NO_PERCENT_1
+					&& token.kind != QUOTED_STRING_LITERAL_NO_PERCENT_2) {
+				throw unexpected(token);
+			}
+
+			return token.image.substring(1, token.image.length() - 1).replace("''", "'");
+		}
+
+		private Token peek() {
+			return tokens.get(position);
+		}
+
+		private Token next() {
+			final Token token = tokens.get(position);
+			if(token.kind != EOF) {
+				position++;
+			}
+			return token;
+		}
+
+		private boolean accept(int kind) {
+			if(peek().kind == kind) {
+				next();
+				return true;
+			}
+			return false;
+		}
+
+		private Token expect(int kind) {
+			final Token token = next();
+			if(token.kind != kind) {
+				throw unexpected(token);
+			}
+			return token;
+		}
+
+		private InvalidQueryExpressionException unexpected(Token token) {
+			return invalidExpression("Invalid select expression near '" + token.image + "' at column "
+					+ token.beginColumn);
+		}
+	}
+
+	private interface ValueTest {
+
+		boolean test(String value);
+	}
+
+	private static final class Comparison implements Condition {
+
+		private final String attribute;
+		private final boolean every;
+		private final ValueTest test;
+
+		private Comparison(String attribute, boolean every, ValueTest test) {
+			this.attribute = attribute;
+			this.every = every;
+			this.test = test;
+		}
+
+		@Override
+		public boolean matches(String itemName, Map<String, List<String>> attributes) {
+			final List<String> values = values(attribute, itemName, attributes);
+			if(values == null || values.isEmpty()) {
+				return false;
+			}
+
+			for(String value : values) {
+				final boolean matches = test.test(value);
+				if(every && !matches) {
+					return false;
+				}
+				if(!every && matches) {
+					return true;
+				}
+			}
+
+			return every;
+		}
+
+		@Override
+		public void collectSortableAttributes(Set<String> attributeNames) {
+			attributeNames.add(attribute);
+		}
+	}
+
+	private static final class Presence implements Condition {
+
+		private final String attribute;
+		private final boolean present;
+
+		private Presence(String attribute, boolean present) {
+			this.attribute = attribute;
+			this.present = present;
+		}
+
+		@Override
+		public boolean matches(String itemName, Map<String, List<String>> attributes) {
+			final List<String> values = values(attribute, itemName, attributes);
+			return present == (values != null && !values.isEmpty());
+		}
+
+		@Override
+		public void collectSortableAttributes(Set<String> attributeNames) {
+			if(present) {
+				attributeNames.add(attribute);
+			}
+		}
+	}
+
+	private static final class And implements Condition {
+
+		private final Condition left;
+		private final Condition right;
+
+		private And(Condition left, Condition right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public boolean matches(String itemName, Map<String, List<String>> attributes) {
+			return left.matches(itemName, attributes) && right.matches(itemName, attributes);
+		}
+
+		@Override
+		public void collectSortableAttributes(Set<String> attributeNames) {
+			left.collectSortableAttributes(attributeNames);
+			right.collectSortableAttributes(attributeNames);
+		}
+	}
+
+	private static final class Or implements Condition {
+
+		private final Condition left;
+		private final Condition right;
+
+		private Or(Condition left, Condition right) {
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public boolean matches(String itemName, Map<String, List<String>> attributes) {
+			return left.matches(itemName, attributes) || right.matches(itemName, attributes);
+		}
+
+		@Override
+		public void collectSortableAttributes(Set<String> attributeNames) {
+			left.collectSortableAttributes(attributeNames);
+			right.collectSortableAttributes(attributeNames);
+		}
+	}
+
+	private static final class Not implements Condition {
+
+		private final Condition condition;
+
+		private Not(Condition condition) {
+			this.condition = condition;
+		}
+
+		@Override
+		public boolean matches(String itemName, Map<String, List<String>> attributes) {
+			return !condition.matches(itemName, attributes);
+		}
+
+		@Override
+		public void collectSortableAttributes(Set<String> attributeNames) {
+			condition.collectSortableAttributes(attributeNames);
+		}
+	}
+
+	private static final class Relational implements ValueTest {
+
+		private final int operator;
+		private final String operand;
+
+		private Relational(int operator, String operand) {
+			this.operator = operator;
+			this.operand = operand;
+		}
+
+		@Override
+		public boolean test(String value) {
+			final int comparison = value.compareTo(operand);
+			switch(operator) {
+			case SimpleDBParserConstants.EQUALS:
+				return comparison == 0;
+			case SimpleDBParserConstants.NOT_EQUALS:
+				return comparison != 0;
+			case SimpleDBParserConstants.GT:
+				return comparison > 0;
+			case SimpleDBParserConstants.GTEQ:
+				return comparison >= 0;
+			case SimpleDBParserConstants.LT:
+				return comparison < 0;
+			default:
+				return comparison <= 0;
+			}
+		}
+	}
+
+	private static final class Like implements ValueTest {
+
+		private final String pattern;
+		private final boolean leadingWildcard;
+		private final boolean trailingWildcard;
+		private final boolean negated;
+
+		private Like(String pattern, boolean negated) {
+			this.leadingWildcard = pattern.startsWith("%");
+			this.trailingWildcard = pattern.endsWith("%") && (!leadingWildcard || pattern.length() > 1);
+			this.pattern = pattern.substring(leadingWildcard ? 1 : 0, pattern.length() - (trailingWildcard ? 1 : 0));
+			this.negated = negated;
+		}
+
+		@Override
+		public boolean test(String value) {
+			final boolean matches;
+			if(leadingWildcard && trailingWildcard) {
+				matches = value.contains(pattern);
+			} else if(leadingWildcard) {
+				matches = value.endsWith(pattern);
+			} else if(trailingWildcard) {
+				matches = value.startsWith(pattern);
+			} else {
+				matches = value.equals(pattern);
+			}
+			return matches != negated;
+		}
+	}
+
+	private static final class Between implements ValueTest {
+
+		private final String lower;
+		private final String upper;
+
+		private Between(String lower, String upper) {
+			this.lower = lower;
+			this.upper = upper;
+		}
+
+		@Override
+		public boolean test(String value) {
+			return value.compareTo(lower) >= 0 && value.compareTo(upper) <= 0;
+		}
+	}
+
+	private static final class In implements ValueTest {
+
+		private final Set<String> values;
+
+		private In(Set<String> values) {
+			this.values = values;
+		}
+
+		@Override
+		public boolean test(String value) {
+			return values.contains(value);
+		}
+	}
+
+	private static List<String> values(String attribute, String itemName, Map<String, List<String>> attributes) {
+		if(ITEM_NAME.equals(attribute)) {
+			return Collections.singletonList(itemName);
+		}
+		return attributes.get(attribute);
+	}
+}
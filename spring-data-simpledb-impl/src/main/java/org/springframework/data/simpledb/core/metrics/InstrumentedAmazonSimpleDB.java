@@ -0,0 +1,376 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.data.simpledb.core.AbstractServiceUnavailableOperationRetrier;
+import org.springframework.data.simpledb.query.QueryUtils;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ResponseMetadata;
+import com.amazonaws.regions.Region;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.SimpleDBResponseMetadata;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeleteDomainRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataRequest;
+import com.amazonaws.services.simpledb.model.DomainMetadataResult;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.ListDomainsRequest;
+import com.amazonaws.services.simpledb.model.ListDomainsResult;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+
+/**
+ * {@link AmazonSimpleDB} decorator reporting every request to a {@link SimpleDbMetricsListener}: domain, operation
+ * type, latency, items, approximate payload sizes and the <tt>BoxUsage</tt> of the response metadata. <br/>
+ * Retries are reported by the retrier through {@link #retryScheduled()}, the failed request is remembered per thread
+ * until then.
+ */
+public class InstrumentedAmazonSimpleDB implements AmazonSimpleDB {
+
+	private static final Pattern COUNT_PATTERN = Pattern.compile("^\\s*select\\s+count\\s*\\(",
+			Pattern.CASE_INSENSITIVE);
+
+	private final AmazonSimpleDB delegate;
+	private final SimpleDbMetricsListener listener;
+	/* last request of the thread, if it failed with service unavailable or request timeout */
+	private final ThreadLocal<FailedRequest> lastRetryableFailure = new ThreadLocal<FailedRequest>();
+
+	public InstrumentedAmazonSimpleDB(AmazonSimpleDB delegate, SimpleDbMetricsListener listener) {
+		Assert.notNull(delegate);
+		Assert.notNull(listener);
+		this.delegate = delegate;
+		this.listener = listener;
+	}
+
+	public AmazonSimpleDB getDelegate() {
+		return delegate;
+	}
+
+	/**
+	 * Reports the retry of the last request of the current thread, ignored if that request did not fail with service
+	 * unavailable or request timeout
+	 */
+	public void retryScheduled() {
+		final FailedRequest failedRequest = lastRetryableFailure.get();
+		if(failedRequest == null) {
+			return;
+		}
+
+		lastRetryableFailure.remove();
+		listener.requestRetried(failedRequest.domainName, failedRequest.operationType);
+	}
+
+	@Override
+	public void setEndpoint(String endpoint) {
+		delegate.setEndpoint(endpoint);
+	}
+
+	@Override
+	public void setRegion(Region region) {
+		delegate.setRegion(region);
+	}
+
+	@Override
+	public SelectResult select(SelectRequest selectRequest) {
+		final String expression = selectRequest.getSelectExpression();
+		final String domainName = getSelectDomain(expression);
+		final OperationType operationType = expression != null && COUNT_PATTERN.matcher(expression).find() ? OperationType.COUNT
+				: OperationType.SELECT;
+
+		final long start = System.nanoTime();
+		final SelectResult result;
+		try {
+			result = delegate.select(selectRequest);
+		} catch(AmazonClientException e) {
+			failed(domainName, operationType, System.nanoTime() - start, e);
+			throw e;
+		}
+
+		long bytesIn = 0;
+		for(Item item : result.getItems()) {
+			bytesIn += utf8Length(item.getName()) + attributesLength(item.getAttributes());
+		}
+		completed(selectRequest, domainName, operationType, start, result.getItems().size(),
+				utf8Length(expression) + utf8Length(selectRequest.getNextToken()), bytesIn);
+		return result;
+	}
+
+	@Override
+	public void putAttributes(PutAttributesRequest putAttributesRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.putAttributes(putAttributesRequest);
+		} catch(AmazonClientException e) {
+			failed(putAttributesRequest.getDomainName(), OperationType.PUT, System.nanoTime() - start, e);
+			throw e;
+		}
+
+		completed(putAttributesRequest, putAttributesRequest.getDomainName(), OperationType.PUT, start, 1,
+				utf8Length(putAttributesRequest.getItemName())
+						+ replaceableAttributesLength(putAttributesRequest.getAttributes()), 0);
+	}
+
+	@Override
+	public void batchPutAttributes(BatchPutAttributesRequest batchPutAttributesRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.batchPutAttributes(batchPutAttributesRequest);
+		} catch(AmazonClientException e) {
+			failed(batchPutAttributesRequest.getDomainName(), OperationType.BATCH_PUT,
+					System.nanoTime() - start, e);
+			throw e;
+		}
+
+		long bytesOut = 0;
+		for(ReplaceableItem item : batchPutAttributesRequest.getItems()) {
+			bytesOut += utf8Length(item.getName()) + replaceableAttributesLength(item.getAttributes());
+		}
+		completed(batchPutAttributesRequest, batchPutAttributesRequest.getDomainName(), OperationType.BATCH_PUT, start,
+				batchPutAttributesRequest.getItems().size(), bytesOut, 0);
+	}
+
+	@Override
+	public void deleteAttributes(DeleteAttributesRequest deleteAttributesRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.deleteAttributes(deleteAttributesRequest);
+		} catch(AmazonClientException e) {
+			failed(deleteAttributesRequest.getDomainName(), OperationType.DELETE, System.nanoTime()
+					- start, e);
+			throw e;
+		}
+
+		completed(deleteAttributesRequest, deleteAttributesRequest.getDomainName(), OperationType.DELETE, start, 1,
+				utf8Length(deleteAttributesRequest.getItemName())
+						+ attributesLength(deleteAttributesRequest.getAttributes()), 0);
+	}
+
+	@Override
+	public void batchDeleteAttributes(BatchDeleteAttributesRequest batchDeleteAttributesRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.batchDeleteAttributes(batchDeleteAttributesRequest);
+		} catch(AmazonClientException e) {
+			failed(batchDeleteAttributesRequest.getDomainName(), OperationType.BATCH_DELETE,
+					System.nanoTime() - start, e);
+			throw e;
+		}
+
+		long bytesOut = 0;
+		for(DeletableItem item : batchDeleteAttributesRequest.getItems()) {
+			bytesOut += utf8Length(item.getName()) + attributesLength(item.getAttributes());
+		}
+		completed(batchDeleteAttributesRequest, batchDeleteAttributesRequest.getDomainName(),
+				OperationType.BATCH_DELETE, start, batchDeleteAttributesRequest.getItems().size(), bytesOut, 0);
+	}
+
+	@Override
+	public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+		final long start = System.nanoTime();
+		final GetAttributesResult result;
+		try {
+			result = delegate.getAttributes(getAttributesRequest);
+		} catch(AmazonClientException e) {
+			failed(getAttributesRequest.getDomainName(), OperationType.GET, System.nanoTime() - start,
+					e);
+			throw e;
+		}
+
+		final List<Attribute> attributes = result.getAttributes();
+		completed(getAttributesRequest, getAttributesRequest.getDomainName(), OperationType.GET, start,
+				attributes.isEmpty() ? 0 : 1, utf8Length(getAttributesRequest.getItemName()), attributesLength(attributes));
+		return result;
+	}
+
+	@Override
+	public void createDomain(CreateDomainRequest createDomainRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.createDomain(createDomainRequest);
+		} catch(AmazonClientException e) {
+			failed(createDomainRequest.getDomainName(), OperationType.CREATE_DOMAIN, System.nanoTime()
+					- start, e);
+			throw e;
+		}
+
+		completed(createDomainRequest, createDomainRequest.getDomainName(), OperationType.CREATE_DOMAIN, start, 0,
+				utf8Length(createDomainRequest.getDomainName()), 0);
+	}
+
+	@Override
+	public void deleteDomain(DeleteDomainRequest deleteDomainRequest) {
+		final long start = System.nanoTime();
+		try {
+			delegate.deleteDomain(deleteDomainRequest);
+		} catch(AmazonClientException e) {
+			failed(deleteDomainRequest.getDomainName(), OperationType.DELETE_DOMAIN, System.nanoTime()
+					- start, e);
+			throw e;
+		}
+
+		completed(deleteDomainRequest, deleteDomainRequest.getDomainName(), OperationType.DELETE_DOMAIN, start, 0,
+				utf8Length(deleteDomainRequest.getDomainName()), 0);
+	}
+
+	@Override
+	public ListDomainsResult listDomains() {
+		return listDomains(new ListDomainsRequest());
+	}
+
+	@Override
+	public ListDomainsResult listDomains(ListDomainsRequest listDomainsRequest) {
+		final long start = System.nanoTime();
+		final ListDomainsResult result;
+		try {
+			result = delegate.listDomains(listDomainsRequest);
+		} catch(AmazonClientException e) {
+			failed(null, OperationType.LIST_DOMAINS, System.nanoTime() - start, e);
+			throw e;
+		}
+
+		long bytesIn = 0;
+		for(String domainName : result.getDomainNames()) {
+			bytesIn += utf8Length(domainName);
+		}
+		completed(listDomainsRequest, null, OperationType.LIST_DOMAINS, start, result.getDomainNames().size(),
+				utf8Length(listDomainsRequest.getNextToken()), bytesIn);
+		return result;
+	}
+
+	@Override
+	public DomainMetadataResult domainMetadata(DomainMetadataRequest domainMetadataRequest) {
+		final long start = System.nanoTime();
+		final DomainMetadataResult result;
+		try {
+			result = delegate.domainMetadata(domainMetadataRequest);
+		} catch(AmazonClientException e) {
+			failed(domainMetadataRequest.getDomainName(), OperationType.DOMAIN_METADATA,
+					System.nanoTime() - start, e);
+			throw e;
+		}
+
+		completed(domainMetadataRequest, domainMetadataRequest.getDomainName(), OperationType.DOMAIN_METADATA, start,
+				0, utf8Length(domainMetadataRequest.getDomainName()), 0);
+		return result;
+	}
+
+	@Override
+	public void shutdown() {
+		delegate.shutdown();
+	}
+
+	@Override
+	public ResponseMetadata getCachedResponseMetadata(AmazonWebServiceRequest request) {
+		return delegate.getCachedResponseMetadata(request);
+	}
+
+	/**
+	 * @return the domain of a select expression, without quotes, or null if there is none
+	 */
+	static String getSelectDomain(String selectExpression) {
+		if(selectExpression == null) {
+			return null;
+		}
+		return QueryUtils.getQueryDomain(selectExpression);
+	}
+
+	private void completed(AmazonWebServiceRequest request, String domainName, OperationType operationType,
+			long start, int items, long bytesOut, long bytesIn) {
+		final long latencyNanos = System.nanoTime() - start;
+		lastRetryableFailure.remove();
+		listener.requestCompleted(domainName, operationType, latencyNanos, items, bytesOut, bytesIn,
+				getBoxUsage(request));
+	}
+
+	private void failed(String domainName, OperationType operationType, long latencyNanos,
+			AmazonClientException exception) {
+		if(AbstractServiceUnavailableOperationRetrier.isServiceUnavailableException(exception)) {
+			lastRetryableFailure.set(new FailedRequest(domainName, operationType));
+		} else {
+			lastRetryableFailure.remove();
+		}
+		listener.requestFailed(domainName, operationType, latencyNanos, exception);
+	}
+
+	private double getBoxUsage(AmazonWebServiceRequest request) {
+		final ResponseMetadata responseMetadata = delegate.getCachedResponseMetadata(request);
+		if(responseMetadata == null) {
+			return 0;
+		}
+
+		final String boxUsage = responseMetadata.get(SimpleDBResponseMetadata.BOX_USAGE);
+		if(boxUsage == null) {
+			return 0;
+		}
+
+		try {
+			return Double.parseDouble(boxUsage);
+		} catch(NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private static long attributesLength(List<Attribute> attributes) {
+		long length = 0;
+		for(Attribute attribute : attributes) {
+			length += utf8Length(attribute.getName()) + utf8Length(attribute.getValue());
+		}
+		return length;
+	}
+
+	private static long replaceableAttributesLength(List<ReplaceableAttribute> attributes) {
+		long length = 0;
+		for(ReplaceableAttribute attribute : attributes) {
+			length += utf8Length(attribute.getName()) + utf8Length(attribute.getValue());
+		}
+		return length;
+	}
+
+	static long utf8Length(String value) {
+		if(value == null) {
+			return 0;
+		}
+
+		long length = 0;
+		for(int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if(c < 0x80) {
+				length++;
+			} else if(c < 0x800) {
+				length += 2;
+			} else if(Character.isHighSurrogate(c)) {
+				/* a surrogate pair is encoded as 4 bytes */
+				length += 4;
+				i++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static final class FailedRequest {
+
+		private final String domainName;
+		private final OperationType operationType;
+
+		private FailedRequest(String domainName, OperationType operationType) {
+			this.domainName = domainName;
+			this.operationType = operationType;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Immutable snapshot of the requests of one operation type against one domain, see
+ * {@link SimpleDbMetrics#getOperationStatistics()}. <br/>
+ * Latencies are distributed over the buckets of {@link SimpleDbMetrics#LATENCY_BUCKET_BOUNDS_MICROS}, the last bucket
+ * counting latencies above the last bound.
+ */
+public class OperationStatistics {
+
+	private final String domainName;
+	private final String operationType;
+	private final long calls;
+	private final long retries;
+	private final long errors;
+	private final long items;
+	private final long bytesOut;
+	private final long bytesIn;
+	private final double boxUsage;
+	private final long totalLatencyMicros;
+	private final long maxLatencyMicros;
+	private final long[] latencyHistogram;
+
+	@ConstructorProperties({ "domainName", "operationType", "calls", "retries", "errors", "items", "bytesOut",
+			"bytesIn", "boxUsage", "totalLatencyMicros", "maxLatencyMicros", "latencyHistogram" })
+	public OperationStatistics(String domainName, String operationType, long calls, long retries, long errors,
+			long items, long bytesOut, long bytesIn, double boxUsage, long totalLatencyMicros, long maxLatencyMicros,
+			long[] latencyHistogram) {
+		this.domainName = domainName;
+		this.operationType = operationType;
+		this.calls = calls;
+		this.retries = retries;
+		this.errors = errors;
+		this.items = items;
+		this.bytesOut = bytesOut;
+		this.bytesIn = bytesIn;
+		this.boxUsage = boxUsage;
+		this.totalLatencyMicros = totalLatencyMicros;
+		this.maxLatencyMicros = maxLatencyMicros;
+		this.latencyHistogram = latencyHistogram.clone();
+	}
+
+	/**
+	 * @return the domain or null for requests not bound to a domain
+	 */
+	public String getDomainName() {
+		return domainName;
+	}
+
+	/**
+	 * @return name of the {@link OperationType}
+	 */
+	public String getOperationType() {
+		return operationType;
+	}
+
+	/**
+	 * @return requests sent, including failed ones
+	 */
+	public long getCalls() {
+		return calls;
+	}
+
+	/**
+	 * @return requests that failed with service unavailable or request timeout and were sent again according to the
+	 *         retry policy, the last failed attempt counts as error only
+	 */
+	public long getRetries() {
+		return retries;
+	}
+
+	/**
+	 * @return requests that failed, including the retried ones
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getItems() {
+		return items;
+	}
+
+	public long getBytesOut() {
+		return bytesOut;
+	}
+
+	public long getBytesIn() {
+		return bytesIn;
+	}
+
+	/**
+	 * @return machine hours SimpleDB charged for the requests
+	 */
+	public double getBoxUsage() {
+		return boxUsage;
+	}
+
+	public long getTotalLatencyMicros() {
+		return totalLatencyMicros;
+	}
+
+	public long getMaxLatencyMicros() {
+		return maxLatencyMicros;
+	}
+
+	public long getMeanLatencyMicros() {
+		return calls == 0 ? 0 : totalLatencyMicros / calls;
+	}
+
+	/**
+	 * @return upper bound of the bucket holding the median latency
+	 */
+	public long getMedianLatencyMicros() {
+		return getLatencyPercentileMicros(0.5);
+	}
+
+	/**
+	 * @return upper bound of the bucket holding the 99th percentile latency
+	 */
+	public long getLatency99thPercentileMicros() {
+		return getLatencyPercentileMicros(0.99);
+	}
+
+	/**
+	 * @return request counts per latency bucket
+	 */
+	public long[] getLatencyHistogram() {
+		return latencyHistogram.clone();
+	}
+
+	/**
+	 * @return upper bound of the bucket holding the percentile, the maximum latency for the last bucket
+	 */
+	public long getLatencyPercentileMicros(double percentile) {
+		long total = 0;
+		for(long count : latencyHistogram) {
+			total += count;
+		}
+		if(total == 0) {
+			return 0;
+		}
+
+		final long rank = (long) Math.ceil(percentile * total);
+		long seen = 0;
+		for(int i = 0; i < latencyHistogram.length; i++) {
+			seen += latencyHistogram[i];
+			if(seen >= rank && i < SimpleDbMetrics.LATENCY_BUCKET_BOUNDS_MICROS.length) {
+				return Math.min(SimpleDbMetrics.LATENCY_BUCKET_BOUNDS_MICROS[i], maxLatencyMicros);
+			}
+		}
+		return maxLatencyMicros;
+	}
+
+	@Override
+	public String toString() {
+		return "OperationStatistics{domainName=" + domainName + ", operationType=" + operationType + ", calls=" + calls
+				+ ", retries=" + retries + ", errors=" + errors + ", items=" + items + ", bytesOut=" + bytesOut
+				+ ", bytesIn=" + bytesIn + ", boxUsage=" + boxUsage + ", meanLatencyMicros=" + getMeanLatencyMicros()
+				+ ", maxLatencyMicros=" + maxLatencyMicros + "}";
+	}
+}
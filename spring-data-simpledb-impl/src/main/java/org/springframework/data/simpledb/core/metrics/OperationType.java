@@ -0,0 +1,8 @@
+package org.springframework.data.simpledb.core.metrics;
+
+/**
+ * Kind of SimpleDB request metrics are recorded for. Selects of <tt>count(*)</tt> are recorded as <b>COUNT</b>.
+ */
+public enum OperationType {
+	SELECT, COUNT, GET, PUT, BATCH_PUT, DELETE, BATCH_DELETE, CREATE_DOMAIN, DELETE_DOMAIN, LIST_DOMAINS, DOMAIN_METADATA
+}
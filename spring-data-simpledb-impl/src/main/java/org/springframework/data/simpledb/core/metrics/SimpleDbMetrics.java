@@ -0,0 +1,230 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * In memory {@link SimpleDbMetricsListener} aggregating requests per domain and {@link OperationType}: calls, retries,
+ * errors, items, payload sizes, box usage and a latency histogram. <br/>
+ * Statistics are read with {@link #getOperationStatistics()} or over JMX once the bean is registered, see
+ * {@link #registerMBean()}. Recording is lock free and may run on any number of threads.
+ */
+public class SimpleDbMetrics implements SimpleDbMetricsListener, SimpleDbMetricsMXBean {
+
+	public static final String DEFAULT_OBJECT_NAME = "org.springframework.data.simpledb:type=SimpleDbMetrics";
+
+	/**
+	 * Upper bounds of the latency histogram buckets
+	 */
+	public static final long[] LATENCY_BUCKET_BOUNDS_MICROS = { 1000, 2500, 5000, 10000, 25000, 50000, 100000, 250000,
+			500000, 1000000, 2500000, 5000000, 10000000 };
+
+	private static final String KEY_SEPARATOR = "/";
+
+	private final ConcurrentMap<String, OperationCounters> counters = new ConcurrentHashMap<String, OperationCounters>();
+
+	private ObjectName registeredName;
+
+	@Override
+	public void requestCompleted(String domainName, OperationType operationType, long latencyNanos, int items,
+			long bytesOut, long bytesIn, double boxUsage) {
+		final OperationCounters operationCounters = getCounters(domainName, operationType);
+		operationCounters.record(latencyNanos);
+		operationCounters.items.addAndGet(items);
+		operationCounters.bytesOut.addAndGet(bytesOut);
+		operationCounters.bytesIn.addAndGet(bytesIn);
+		operationCounters.addBoxUsage(boxUsage);
+	}
+
+	@Override
+	public void requestFailed(String domainName, OperationType operationType, long latencyNanos,
+			AmazonClientException exception) {
+		final OperationCounters operationCounters = getCounters(domainName, operationType);
+		operationCounters.record(latencyNanos);
+		operationCounters.errors.incrementAndGet();
+	}
+
+	@Override
+	public void requestRetried(String domainName, OperationType operationType) {
+		getCounters(domainName, operationType).retries.incrementAndGet();
+	}
+
+	/**
+	 * @return statistics of the domain and operation type, null if no request was recorded
+	 */
+	public OperationStatistics getOperationStatistics(String domainName, OperationType operationType) {
+		final OperationCounters operationCounters = counters.get(toKey(domainName, operationType));
+		return operationCounters == null ? null : operationCounters.snapshot();
+	}
+
+	@Override
+	public List<OperationStatistics> getOperationStatistics() {
+		final List<OperationStatistics> statistics = new ArrayList<OperationStatistics>();
+		for(OperationCounters operationCounters : counters.values()) {
+			statistics.add(operationCounters.snapshot());
+		}
+		return statistics;
+	}
+
+	@Override
+	public long getTotalCalls() {
+		long calls = 0;
+		for(OperationCounters operationCounters : counters.values()) {
+			calls += operationCounters.calls.get();
+		}
+		return calls;
+	}
+
+	@Override
+	public long getTotalErrors() {
+		long errors = 0;
+		for(OperationCounters operationCounters : counters.values()) {
+			errors += operationCounters.errors.get();
+		}
+		return errors;
+	}
+
+	@Override
+	public double getTotalBoxUsage() {
+		double boxUsage = 0;
+		for(OperationCounters operationCounters : counters.values()) {
+			boxUsage += operationCounters.getBoxUsage();
+		}
+		return boxUsage;
+	}
+
+	@Override
+	public void reset() {
+		counters.clear();
+	}
+
+	/**
+	 * Registers this bean with the platform MBean server under {@link #DEFAULT_OBJECT_NAME}
+	 */
+	public void registerMBean() {
+		registerMBean(DEFAULT_OBJECT_NAME);
+	}
+
+	public synchronized void registerMBean(String objectName) {
+		try {
+			final ObjectName name = new ObjectName(objectName);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			registeredName = name;
+		} catch(JMException e) {
+			throw new IllegalStateException("Could not register SimpleDB metrics as " + objectName, e);
+		}
+	}
+
+	public synchronized void unregisterMBean() {
+		if(registeredName == null) {
+			return;
+		}
+
+		try {
+			final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if(server.isRegistered(registeredName)) {
+				server.unregisterMBean(registeredName);
+			}
+			registeredName = null;
+		} catch(JMException e) {
+			throw new IllegalStateException("Could not unregister SimpleDB metrics " + registeredName, e);
+		}
+	}
+
+	private OperationCounters getCounters(String domainName, OperationType operationType) {
+		final String key = toKey(domainName, operationType);
+
+		OperationCounters operationCounters = counters.get(key);
+		if(operationCounters == null) {
+			operationCounters = new OperationCounters(domainName, operationType);
+			final OperationCounters existing = counters.putIfAbsent(key, operationCounters);
+			if(existing != null) {
+				operationCounters = existing;
+			}
+		}
+		return operationCounters;
+	}
+
+	private static String toKey(String domainName, OperationType operationType) {
+		return operationType.name() + KEY_SEPARATOR + (domainName == null ? "" : domainName);
+	}
+
+	private static final class OperationCounters {
+
+		private final String domainName;
+		private final OperationType operationType;
+
+		private final AtomicLong calls = new AtomicLong();
+		private final AtomicLong retries = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong items = new AtomicLong();
+		private final AtomicLong bytesOut = new AtomicLong();
+		private final AtomicLong bytesIn = new AtomicLong();
+		/* bits of the double sum */
+		private final AtomicLong boxUsageBits = new AtomicLong(Double.doubleToLongBits(0));
+		private final AtomicLong totalLatencyMicros = new AtomicLong();
+		private final AtomicLong maxLatencyMicros = new AtomicLong();
+		private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MICROS.length + 1);
+
+		private OperationCounters(String domainName, OperationType operationType) {
+			this.domainName = domainName;
+			this.operationType = operationType;
+		}
+
+		private void record(long latencyNanos) {
+			final long latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+
+			calls.incrementAndGet();
+			totalLatencyMicros.addAndGet(latencyMicros);
+
+			long max = maxLatencyMicros.get();
+			while(latencyMicros > max && !maxLatencyMicros.compareAndSet(max, latencyMicros)) {
+				max = maxLatencyMicros.get();
+			}
+
+			int bucket = 0;
+			while(bucket < LATENCY_BUCKET_BOUNDS_MICROS.length && latencyMicros > LATENCY_BUCKET_BOUNDS_MICROS[bucket]) {
+				bucket++;
+			}
+			latencyHistogram.incrementAndGet(bucket);
+		}
+
+		private void addBoxUsage(double boxUsage) {
+			if(boxUsage == 0) {
+				return;
+			}
+
+			long bits = boxUsageBits.get();
+			while(!boxUsageBits.compareAndSet(bits, Double.doubleToLongBits(Double.longBitsToDouble(bits) + boxUsage))) {
+				bits = boxUsageBits.get();
+			}
+		}
+
+		private double getBoxUsage() {
+			return Double.longBitsToDouble(boxUsageBits.get());
+		}
+
+		private OperationStatistics snapshot() {
+			final long[] histogram = new long[latencyHistogram.length()];
+			for(int i = 0; i < histogram.length; i++) {
+				histogram[i] = latencyHistogram.get(i);
+			}
+
+			return new OperationStatistics(domainName, operationType.name(), calls.get(), retries.get(), errors.get(),
+					items.get(), bytesOut.get(), bytesIn.get(), getBoxUsage(), totalLatencyMicros.get(),
+					maxLatencyMicros.get(), histogram);
+		}
+	}
+}
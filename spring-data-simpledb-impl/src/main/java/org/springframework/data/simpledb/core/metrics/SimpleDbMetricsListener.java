@@ -0,0 +1,42 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Receives the outcome of every request the template sends to SimpleDB, see
+ * {@link org.springframework.data.simpledb.core.SimpleDb#setMetricsListener(SimpleDbMetricsListener)}. <br/>
+ * Listeners are called on the requesting threads and must be thread safe.
+ */
+public interface SimpleDbMetricsListener {
+
+	/**
+	 * @param domainName
+	 *            domain of the request, null for requests not bound to a domain
+	 * @param latencyNanos
+	 *            duration of the request
+	 * @param items
+	 *            items returned, written or deleted
+	 * @param bytesOut
+	 *            approximate payload sent: UTF-8 length of item names, attribute names and values or select expressions
+	 * @param bytesIn
+	 *            approximate payload received, measured the same way
+	 * @param boxUsage
+	 *            machine hours SimpleDB reported for the request, 0 if unknown
+	 */
+	void requestCompleted(String domainName, OperationType operationType, long latencyNanos, int items, long bytesOut,
+			long bytesIn, double boxUsage);
+
+	/**
+	 * @param exception
+	 *            the failure, requests failed with service unavailable or request timeout may be retried according to
+	 *            the retry policy, see {@link #requestRetried(String, OperationType)}
+	 */
+	void requestFailed(String domainName, OperationType operationType, long latencyNanos,
+			AmazonClientException exception);
+
+	/**
+	 * Called once the retry policy scheduled another attempt of a request failed with service unavailable or request
+	 * timeout, before waiting for the retry delay. The last attempt of a request is never reported.
+	 */
+	void requestRetried(String domainName, OperationType operationType);
+}
@@ -0,0 +1,28 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import java.util.List;
+
+/**
+ * JMX view of the {@link SimpleDbMetrics}
+ */
+public interface SimpleDbMetricsMXBean {
+
+	/**
+	 * @return statistics per domain and operation type
+	 */
+	List<OperationStatistics> getOperationStatistics();
+
+	long getTotalCalls();
+
+	long getTotalErrors();
+
+	/**
+	 * @return machine hours SimpleDB charged for all requests
+	 */
+	double getTotalBoxUsage();
+
+	/**
+	 * Discards all recorded statistics
+	 */
+	void reset();
+}
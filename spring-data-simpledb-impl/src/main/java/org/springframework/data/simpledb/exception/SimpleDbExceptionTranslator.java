@@ -44,6 +44,11 @@ public final class SimpleDbExceptionTranslator implements PersistenceExceptionTr
             return new DuplicateKeyException(errorMessage, e);
         }
 
+        // The expected attribute of a conditional put or delete has another value.
+        if(e instanceof ConditionalCheckFailedException) {
+            return new OptimisticLockingFailureException(errorMessage, e);
+        }
+
         // The specified attribute does not exist.
         if(e instanceof AttributeDoesNotExistException) {
             return new EmptyResultDataAccessException(errorMessage, -1);
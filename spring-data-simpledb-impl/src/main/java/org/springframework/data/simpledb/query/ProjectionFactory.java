@@ -0,0 +1,105 @@
+package org.springframework.data.simpledb.query;
+
+import java.beans.Introspector;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Creates the projections returned by query methods from the attribute values mapped by
+ * {@link org.springframework.data.simpledb.core.ProjectionMapper}. <br/>
+ * An interface projection is a proxy whose getters return the selected attributes of the same name. A DTO projection
+ * is created with the public constructor taking the selected attributes in selection order, or else with its default
+ * constructor and setters.
+ */
+final class ProjectionFactory {
+
+	private ProjectionFactory() {
+		/* utility class */
+	}
+
+	static <P> P createProjection(Class<P> projectionType, Map<String, Object> values) {
+		if(projectionType.isInterface()) {
+			return projectionType.cast(Proxy.newProxyInstance(projectionType.getClassLoader(),
+					new Class<?>[] { projectionType }, new ProjectionInvocationHandler(projectionType, values)));
+		}
+
+		final Object[] arguments = values.values().toArray();
+		for(Constructor<?> constructor : projectionType.getConstructors()) {
+			if(acceptsArguments(constructor.getParameterTypes(), arguments)) {
+				return projectionType.cast(BeanUtils.instantiateClass(constructor, arguments));
+			}
+		}
+
+		final BeanWrapper projection = new BeanWrapperImpl(projectionType);
+		for(Map.Entry<String, Object> value : values.entrySet()) {
+			projection.setPropertyValue(value.getKey(), value.getValue());
+		}
+		return projectionType.cast(projection.getWrappedInstance());
+	}
+
+	private static boolean acceptsArguments(Class<?>[] parameterTypes, Object[] arguments) {
+		if(parameterTypes.length != arguments.length) {
+			return false;
+		}
+		for(int i = 0; i < parameterTypes.length; i++) {
+			if(!ClassUtils.isAssignableValue(parameterTypes[i], arguments[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class ProjectionInvocationHandler implements InvocationHandler {
+
+		private final Class<?> projectionType;
+		private final Map<String, Object> values;
+
+		private ProjectionInvocationHandler(Class<?> projectionType, Map<String, Object> values) {
+			this.projectionType = projectionType;
+			this.values = values;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			final String methodName = method.getName();
+			if(methodName.equals("equals") && method.getParameterTypes().length == 1) {
+				return proxy == args[0];
+			} else if(methodName.equals("hashCode") && method.getParameterTypes().length == 0) {
+				return System.identityHashCode(proxy);
+			} else if(methodName.equals("toString") && method.getParameterTypes().length == 0) {
+				return projectionType.getSimpleName() + values;
+			}
+
+			final String propertyName = getPropertyName(method);
+			if(method.getParameterTypes().length > 0 || !values.containsKey(propertyName)) {
+				throw new UnsupportedOperationException("Projection " + projectionType.getName()
+						+ " has no selected attribute for method " + methodName);
+			}
+
+			final Object value = values.get(propertyName);
+			if(value == null && method.getReturnType().isPrimitive()) {
+				return Array.get(Array.newInstance(method.getReturnType(), 1), 0);
+			}
+			return value;
+		}
+
+		private static String getPropertyName(Method method) {
+			final String methodName = method.getName();
+			if(methodName.startsWith("get") && methodName.length() > 3) {
+				return Introspector.decapitalize(methodName.substring(3));
+			} else if(methodName.startsWith("is") && methodName.length() > 2) {
+				return Introspector.decapitalize(methodName.substring(2));
+			}
+			return methodName;
+		}
+	}
+}
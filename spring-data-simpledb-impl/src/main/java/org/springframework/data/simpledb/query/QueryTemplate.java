@@ -0,0 +1,349 @@
+package org.springframework.data.simpledb.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+import org.springframework.util.Assert;
+
+/**
+ * Query with bind parameters compiled once into literal fragments and parameter slots. <br/>
+ * Binding is a single append pass: a value is encoded with {@link SimpleDBAttributeConverter} and quoted, its single
+ * quotes are doubled. A <tt>%</tt> around the placeholder is kept inside the quotes for <tt>like</tt> conditions and
+ * an array following <tt>in</tt> is bound as a list of values. Placeholders inside quoted literals or names are not
+ * parameters.
+ */
+public final class QueryTemplate {
+
+	private static final char SINGLE_QUOTE = '\'';
+	private static final char DOUBLE_QUOTE = '"';
+	private static final char BACKTICK = '`';
+	private static final char LIKE_WILDCARD = '%';
+	private static final String POSITIONAL_PLACEHOLDER = "?";
+
+	private final String query;
+	private final List<String> fragments;
+	private final List<Slot> slots;
+
+	private QueryTemplate(String query, List<String> fragments, List<Slot> slots) {
+		this.query = query;
+		this.fragments = fragments;
+		this.slots = slots;
+	}
+
+	/**
+	 * Compiles the query, the placeholders of the parameters are looked up in declaration order. Pageable and Sort
+	 * parameters are not bound.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the placeholder of a parameter is missing from the query
+	 */
+	public static QueryTemplate compile(String rawQuery, Parameters parameters) {
+		Assert.notNull(rawQuery);
+
+		final List<String> placeholders = new ArrayList<String>();
+		final List<Integer> parameterIndexes = new ArrayList<Integer>();
+		boolean hasNamedParameter = false;
+		for(Parameter parameter : parameters) {
+			hasNamedParameter |= parameter.isNamedParameter();
+			if(!isNotBound(parameter)) {
+				placeholders.add(parameter.isNamedParameter() ? parameter.getPlaceholder() : POSITIONAL_PLACEHOLDER);
+				parameterIndexes.add(parameter.getIndex());
+			}
+		}
+
+		if(!hasNamedParameter && !rawQuery.contains(POSITIONAL_PLACEHOLDER)) {
+			return new QueryTemplate(rawQuery, Arrays.asList(rawQuery), new ArrayList<Slot>());
+		}
+		return compile(rawQuery, placeholders, parameterIndexes);
+	}
+
+	/**
+	 * Compiles a query with positional placeholders only, bound to the given number of values in query order
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the query has fewer placeholders than values
+	 */
+	public static QueryTemplate compile(String rawQuery, int numberOfParameters) {
+		Assert.notNull(rawQuery);
+
+		final List<String> placeholders = new ArrayList<String>(numberOfParameters);
+		final List<Integer> parameterIndexes = new ArrayList<Integer>(numberOfParameters);
+		for(int i = 0; i < numberOfParameters; i++) {
+			placeholders.add(POSITIONAL_PLACEHOLDER);
+			parameterIndexes.add(i);
+		}
+		return compile(rawQuery, placeholders, parameterIndexes);
+	}
+
+	private static QueryTemplate compile(String rawQuery, List<String> placeholders, List<Integer> parameterIndexes) {
+		final String query = rawQuery.trim();
+		final boolean[] quoted = QueryUtils.getQuotedPositions(query);
+		final boolean[] claimed = new boolean[query.length()];
+
+		final List<Slot> slots = new ArrayList<Slot>();
+		for(int i = 0; i < placeholders.size(); i++) {
+			final String placeholder = placeholders.get(i);
+			final boolean named = !POSITIONAL_PLACEHOLDER.equals(placeholder);
+			final int start = findPlaceholder(query, placeholder, named, quoted, claimed);
+			Assert.isTrue(start >= 0, "Placeholder " + placeholder + " of parameter " + parameterIndexes.get(i)
+					+ " not found in query: " + rawQuery);
+
+			final Slot slot = new Slot(query, parameterIndexes.get(i), start, start + placeholder.length());
+			Arrays.fill(claimed, slot.start, slot.end, true);
+			slots.add(slot);
+		}
+
+		/* named parameters may be declared out of query order */
+		Collections.sort(slots);
+		return new QueryTemplate(query, getFragments(query, slots), slots);
+	}
+
+	/**
+	 * @return the compiled query, with its placeholders
+	 */
+	public String getQuery() {
+		return query;
+	}
+
+	public boolean hasParameters() {
+		return !slots.isEmpty();
+	}
+
+	/**
+	 * @param parameterValues
+	 *            values of all the query method parameters, indexed as the method parameters
+	 * @return the query with the parameter values bound
+	 */
+	public String bind(Object... parameterValues) {
+		if(slots.isEmpty()) {
+			return query;
+		}
+
+		final StringBuilder builder = new StringBuilder(query.length() + 16 * slots.size());
+		for(int i = 0; i < slots.size(); i++) {
+			builder.append(fragments.get(i));
+			slots.get(i).append(builder, parameterValues);
+		}
+		builder.append(fragments.get(slots.size()));
+
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return query;
+	}
+
+	/**
+	 * Empties the quoted literals of a bound query, so that the queries bound from one template share their unbound
+	 * query as long as their arrays have the same length. Quoted names are kept; an unterminated quote and the rest
+	 * of the query are kept as well.
+	 * 
+	 * @param literals
+	 *            receives the literals in query order, quotes included
+	 * @return the query with empty literals
+	 */
+	public static String unbind(String query, List<String> literals) {
+		StringBuilder unbound = null;
+		int copied = 0;
+		int position = 0;
+		while(position < query.length()) {
+			final char c = query.charAt(position);
+			if(c != SINGLE_QUOTE && c != DOUBLE_QUOTE && c != BACKTICK) {
+				position++;
+				continue;
+			}
+
+			final int end = getQuotedEnd(query, position);
+			if(end < 0) {
+				break;
+			}
+			if(c != BACKTICK) {
+				if(unbound == null) {
+					unbound = new StringBuilder(query.length());
+				}
+				unbound.append(query, copied, position + 1).append(c);
+				literals.add(query.substring(position, end));
+				copied = end;
+			}
+			position = end;
+		}
+
+		if(unbound == null) {
+			return query;
+		}
+		return unbound.append(query, copied, query.length()).toString();
+	}
+
+	/**
+	 * Puts the literals back into a query unbound by {@link #unbind(String, List)}, in order. The query may have been
+	 * changed outside of its quotes in between.
+	 */
+	public static String rebind(String unboundQuery, List<String> literals) {
+		if(literals.isEmpty()) {
+			return unboundQuery;
+		}
+
+		final StringBuilder builder = new StringBuilder(unboundQuery.length() + 16 * literals.size());
+		int literal = 0;
+		int copied = 0;
+		int position = 0;
+		while(position < unboundQuery.length() && literal < literals.size()) {
+			final char c = unboundQuery.charAt(position);
+			if(c != SINGLE_QUOTE && c != DOUBLE_QUOTE && c != BACKTICK) {
+				position++;
+				continue;
+			}
+
+			final int end = getQuotedEnd(unboundQuery, position);
+			Assert.isTrue(end > 0, "Unterminated quote in unbound query: " + unboundQuery);
+			if(c != BACKTICK) {
+				builder.append(unboundQuery, copied, position).append(literals.get(literal++));
+				copied = end;
+			}
+			position = end;
+		}
+		Assert.isTrue(literal == literals.size(), "Missing literals in unbound query: " + unboundQuery);
+
+		return builder.append(unboundQuery, copied, unboundQuery.length()).toString();
+	}
+
+	/**
+	 * @return the position following the closing quote, doubled quotes are part of the quoted text; -1 if the quote
+	 *         is not closed
+	 */
+	private static int getQuotedEnd(String query, int start) {
+		final char quote = query.charAt(start);
+		int position = start + 1;
+		while(position < query.length()) {
+			if(query.charAt(position) == quote) {
+				if(position + 1 < query.length() && query.charAt(position + 1) == quote) {
+					position += 2;
+					continue;
+				}
+				return position + 1;
+			}
+			position++;
+		}
+		return -1;
+	}
+
+	private static boolean isNotBound(Parameter parameter) {
+		return Pageable.class.isAssignableFrom(parameter.getType())
+				|| Sort.class.isAssignableFrom(parameter.getType());
+	}
+
+	private static int findPlaceholder(String query, String placeholder, boolean named, boolean[] quoted,
+			boolean[] claimed) {
+		int start = query.indexOf(placeholder);
+		while(start >= 0) {
+			final int end = start + placeholder.length();
+			if(!quoted[start] && !claimed[start] && (!named || isWordEnd(query, end))) {
+				return start;
+			}
+			start = query.indexOf(placeholder, start + 1);
+		}
+		return -1;
+	}
+
+	private static boolean isWordEnd(String query, int end) {
+		return end == query.length() || !isWordCharacter(query.charAt(end))
+				|| !isWordCharacter(query.charAt(end - 1));
+	}
+
+	private static boolean isWordCharacter(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	private static List<String> getFragments(String query, List<Slot> slots) {
+		final List<String> fragments = new ArrayList<String>(slots.size() + 1);
+
+		int position = 0;
+		for(Slot slot : slots) {
+			fragments.add(query.substring(position, slot.start));
+			position = slot.end;
+		}
+		fragments.add(query.substring(position));
+		return fragments;
+	}
+
+	private static final class Slot implements Comparable<Slot> {
+
+		private final int parameterIndex;
+		private final int start;
+		private final int end;
+		private final boolean likePrefix;
+		private final boolean likeSuffix;
+		private final boolean inOperation;
+
+		private Slot(String query, int parameterIndex, int placeholderStart, int placeholderEnd) {
+			this.parameterIndex = parameterIndex;
+			this.likePrefix = placeholderStart > 0 && query.charAt(placeholderStart - 1) == LIKE_WILDCARD;
+			this.likeSuffix = placeholderEnd < query.length() && query.charAt(placeholderEnd) == LIKE_WILDCARD;
+			this.start = likePrefix ? placeholderStart - 1 : placeholderStart;
+			this.end = likeSuffix ? placeholderEnd + 1 : placeholderEnd;
+			this.inOperation = followsInOperator(query, start);
+		}
+
+		private void append(StringBuilder builder, Object[] parameterValues) {
+			final Object value = parameterValues[parameterIndex];
+			Assert.notNull(value, "Query parameter " + parameterIndex + " should not be null");
+
+			if(inOperation && value.getClass().isArray()) {
+				final List<String> encodedValues = SimpleDBAttributeConverter.encodeArray(value);
+				builder.append('(');
+				for(int i = 0; i < encodedValues.size(); i++) {
+					if(i > 0) {
+						builder.append(',');
+					}
+					appendQuoted(builder, encodedValues.get(i), false, false);
+				}
+				builder.append(')');
+			} else {
+				appendQuoted(builder, SimpleDBAttributeConverter.encode(value), likePrefix, likeSuffix);
+			}
+		}
+
+		private static void appendQuoted(StringBuilder builder, String value, boolean likePrefix, boolean likeSuffix) {
+			builder.append(SINGLE_QUOTE);
+			if(likePrefix) {
+				builder.append(LIKE_WILDCARD);
+			}
+			for(int i = 0; i < value.length(); i++) {
+				final char c = value.charAt(i);
+				if(c == SINGLE_QUOTE) {
+					builder.append(SINGLE_QUOTE);
+				}
+				builder.append(c);
+			}
+			if(likeSuffix) {
+				builder.append(LIKE_WILDCARD);
+			}
+			builder.append(SINGLE_QUOTE);
+		}
+
+		/**
+		 * @return true if the placeholder follows a whitespace separated <tt>in</tt> operator
+		 */
+		private static boolean followsInOperator(String query, int placeholderStart) {
+			int position = placeholderStart;
+			while(position > 0 && Character.isWhitespace(query.charAt(position - 1))) {
+				position--;
+			}
+			return position >= 3 && query.regionMatches(true, position - 2, "in", 0, 2)
+					&& Character.isWhitespace(query.charAt(position - 3));
+		}
+
+		@Override
+		public int compareTo(Slot other) {
+			return start < other.start ? -1 : (start == other.start ? 0 : 1);
+		}
+	}
+}
@@ -6,12 +6,10 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.repository.query.Parameter;
 import org.springframework.data.repository.query.Parameters;
-import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
 import org.springframework.data.simpledb.reflection.SupportedCoreTypes;
 import org.springframework.util.Assert;
 
@@ -24,7 +22,15 @@ import org.springframework.util.Assert;
 
 public final class QueryUtils {
 
-	private static final String BIND_PARAMETER_REGEX = "(\\?)";
+	private static final Pattern SELECT_ALL_PATTERN = Pattern.compile("^\\s*select\\s+\\*\\s", Pattern.CASE_INSENSITIVE);
+	private static final Pattern LIMIT_PATTERN = Pattern.compile("\\slimit\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE);
+	private static final Pattern DOMAIN_PATTERN = Pattern.compile("\\sfrom\\s+(`([^`]|``)+`|[^\\s]+)",
+			Pattern.CASE_INSENSITIVE);
+	private static final Pattern ORDER_BY_PATTERN = Pattern.compile(
+			"\\sorder\\s+by\\s+(`([^`]|``)+`|[^\\s]+)(\\s+(asc|desc))?", Pattern.CASE_INSENSITIVE);
+	private static final Pattern WHERE_PATTERN = Pattern.compile("\\swhere\\s", Pattern.CASE_INSENSITIVE);
+	private static final Pattern WHERE_END_PATTERN = Pattern.compile("\\s(order\\s+by|limit)\\s",
+			Pattern.CASE_INSENSITIVE);
 	private static final String SINGLE_QUOTE = "'";
 
 	private QueryUtils() {
@@ -32,15 +38,7 @@ public final class QueryUtils {
 
 	public static String bindQueryParameters(SimpleDbQueryMethod queryMethod,
 			Object... parameterValues) {
-		final String rawQuery = queryMethod.getAnnotatedQuery();
-
-		if (hasNamedParameter(queryMethod) || hasBindParameter(rawQuery)) {
-			final Parameters parameters = queryMethod.getParameters();
-			return buildQuery(rawQuery, parameters, parameterValues);
-
-		}
-
-		return rawQuery;
+		return queryMethod.getQueryTemplate().bind(parameterValues);
 	}
 
 	public static boolean hasNamedParameter(SimpleDbQueryMethod queryMethod) {
@@ -52,12 +50,6 @@ public final class QueryUtils {
 		return Boolean.FALSE;
 	}
 
-	public static boolean hasBindParameter(String query) {
-		final Pattern regexPattern = Pattern.compile(BIND_PARAMETER_REGEX);
-		final Matcher matcher = regexPattern.matcher(query);
-		return matcher.find();
-	}
-
 	public static void validateBindParametersCount(Parameters parameters,
 			Object... parameterValues) {
 		int numOfParameters = parameters.getNumberOfParameters();
@@ -114,120 +106,145 @@ public final class QueryUtils {
 		return query.toLowerCase().contains("count(");
 	}
 
-	static String replaceOneParameterInQuery(String rawQuery,
-			Parameter parameter, Object parameterValue) {
-		final String bindEndCharacter = "\\b";
+	/**
+	 * @return true if the query selects all attributes of the items, <tt>select * from ...</tt>
+	 */
+	public static boolean isSelectAllQuery(String query) {
+		return SELECT_ALL_PATTERN.matcher(query).find();
+	}
+
+	/**
+	 * @return the value of the trailing <tt>limit</tt> clause of the query, or null if the query has no limit
+	 */
+	public static Integer getQueryLimit(String query) {
+		final Matcher matcher = LIMIT_PATTERN.matcher(query);
+		return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+	}
+
+	/**
+	 * @return the query with the value of its trailing <tt>limit</tt> clause replaced
+	 */
+	public static String replaceQueryLimit(String query, int limit) {
+		final Matcher matcher = LIMIT_PATTERN.matcher(query);
+		Assert.isTrue(matcher.find(), "Query has no limit: " + query);
 
-		String namedParameter;
-		if (parameter.isNamedParameter()) {
-			namedParameter = parameter.getPlaceholder() + bindEndCharacter;
-		} else {
-			namedParameter = "\\?";
+		return query.substring(0, matcher.start(1)) + limit + query.substring(matcher.end(1));
+	}
+
+	/**
+	 * Restricts the query to the items whose name is at least the lower bound and below the upper bound, a null bound
+	 * leaves that side open. The existing conditions are kept in parentheses, keywords inside quoted literals are not
+	 * taken for clauses.
+	 */
+	public static String withItemNameRange(String query, String lowerBound, String upperBound) {
+		final StringBuilder range = new StringBuilder();
+		if(lowerBound != null) {
+			range.append("itemName() >= '").append(lowerBound.replace(SINGLE_QUOTE, "''")).append(SINGLE_QUOTE);
+		}
+		if(upperBound != null) {
+			range.append(range.length() > 0 ? " and " : "");
+			range.append("itemName() < '").append(upperBound.replace(SINGLE_QUOTE, "''")).append(SINGLE_QUOTE);
+		}
+		if(range.length() == 0) {
+			return query;
 		}
 
-		Assert.isTrue(rawQuery.matches("(.*)(" + namedParameter + ")(.*)"));
-//		String rawQuery = aRawQuery;
-
-//		if (isInOperation(rawQuery, namedParameter)) {
-//			String replacedValue = createInOperatorStatement(parameterValue);
-//			rawQuery = rawQuery.replaceFirst(namedParameter, replacedValue);
-//		} else {
-//			// handle LIKE queries & quoting together
-//			String encodedValue = SimpleDBAttributeConverter.encode(parameterValue);
-//			StringBuilder namedParamBuilder = new StringBuilder();
-//			StringBuilder paramValueBuilder = new StringBuilder();
-//			Pattern likeOperatorPattern = Pattern.compile("(%?)" + namedParameter + "(%?)");
-//			Matcher m = likeOperatorPattern.matcher(rawQuery);
-//			if (m.find()) {
-//				paramValueBuilder.append(SINGLE_QUOTE);
-//				if (!m.group(1).isEmpty()) {
-//					namedParamBuilder.append("%");
-//					paramValueBuilder.append("%");
-//				}
-//				namedParamBuilder.append(namedParameter);
-//				paramValueBuilder.append(encodedValue);
-//				if (!m.group(2).isEmpty()) {
-//					namedParamBuilder.append("%");
-//					paramValueBuilder.append("%");
-//				}
-//				paramValueBuilder.append(SINGLE_QUOTE);
-//				rawQuery = rawQuery.replaceFirst(namedParamBuilder.toString(), paramValueBuilder.toString());
-//			}
-//		}
-		return replaceOneParameterInQuery(rawQuery, namedParameter, parameterValue);
-	}
-
-	public static String replaceOneParameterInQuery(String rawQuery, 
-			String paramPlaceholder, Object paramValue) {
-
-		String replacedQuery = null;
-		if (paramValue.getClass().isArray() && isInOperation(rawQuery, paramPlaceholder)) {
-			String replacedValue = createInOperatorStatement(paramValue);
-			replacedQuery = rawQuery.replaceFirst(paramPlaceholder, replacedValue);
-		} else {
-			// handle LIKE queries & quoting together
-			String encodedValue = SimpleDBAttributeConverter.encode(paramValue);
-			StringBuilder namedParamBuilder = new StringBuilder();
-			StringBuilder paramValueBuilder = new StringBuilder();
-			Pattern likeOperatorPattern = Pattern.compile("(%?)" + paramPlaceholder + "(%?)");
-			Matcher m = likeOperatorPattern.matcher(rawQuery);
-			if (m.find()) {
-				paramValueBuilder.append(SINGLE_QUOTE);
-				if (!m.group(1).isEmpty()) {
-					namedParamBuilder.append("%");
-					paramValueBuilder.append("%");
-				}
-				namedParamBuilder.append(paramPlaceholder);
-				paramValueBuilder.append(encodedValue);
-				if (!m.group(2).isEmpty()) {
-					namedParamBuilder.append("%");
-					paramValueBuilder.append("%");
-				}
-				paramValueBuilder.append(SINGLE_QUOTE);
-				replacedQuery = rawQuery.replaceFirst(
-						namedParamBuilder.toString(), paramValueBuilder.toString());
-			}
+		final Matcher whereMatcher = findUnquoted(WHERE_PATTERN, query, 0);
+		if(whereMatcher != null) {
+			final Matcher endMatcher = findUnquoted(WHERE_END_PATTERN, query, whereMatcher.end());
+			final int end = endMatcher != null ? endMatcher.start() : query.length();
+
+			return query.substring(0, whereMatcher.end()) + range + " and (" + query.substring(whereMatcher.end(), end)
+					+ ")" + query.substring(end);
 		}
-		
-		return replacedQuery;
+
+		final Matcher domainMatcher = findUnquoted(DOMAIN_PATTERN, query, 0);
+		Assert.notNull(domainMatcher, "Query has no from clause: " + query);
+		return query.substring(0, domainMatcher.end()) + " where " + range + query.substring(domainMatcher.end());
+	}
+
+	/**
+	 * @return the unquoted domain of the <tt>from</tt> clause of the query, or null if the query has none
+	 */
+	public static String getQueryDomain(String query) {
+		final Matcher matcher = findUnquoted(DOMAIN_PATTERN, query, 0);
+		return matcher != null ? unquote(matcher.group(1)) : null;
 	}
-	
-	static String buildQuery(final String rawQuery, Parameters parameters,
-			Object... parameterValues) {
-		String replacedRawQuery = rawQuery;
-		for (Iterator<Parameter> iterator = parameters.iterator(); iterator
-				.hasNext();) {
-
-			Parameter eachParameter = iterator.next();
-			if (Pageable.class.isAssignableFrom(eachParameter.getType())
-					|| Sort.class.isAssignableFrom(eachParameter.getType())) {
-				continue;
-			}
 
-			replacedRawQuery = replaceOneParameterInQuery(replacedRawQuery,
-					eachParameter, parameterValues[eachParameter.getIndex()]);
+	/**
+	 * @return the query with the domain of its <tt>from</tt> clause replaced by the given one
+	 */
+	public static String replaceQueryDomain(String query, String domainName) {
+		final Matcher matcher = findUnquoted(DOMAIN_PATTERN, query, 0);
+		Assert.notNull(matcher, "Query has no from clause: " + query);
+
+		return query.substring(0, matcher.start(1)) + "`" + domainName.replace("`", "``") + "`"
+				+ query.substring(matcher.end(1));
+	}
+
+	/**
+	 * @return the unquoted attribute and direction of the <tt>order by</tt> clause of the query, or null if the query
+	 *         is not ordered
+	 */
+	public static Sort.Order getQueryOrder(String query) {
+		final Matcher matcher = findUnquoted(ORDER_BY_PATTERN, query, 0);
+		if(matcher == null) {
+			return null;
 		}
 
-		return replacedRawQuery.trim();
+		final Sort.Direction direction = "desc".equalsIgnoreCase(matcher.group(4)) ? Sort.Direction.DESC
+				: Sort.Direction.ASC;
+		return new Sort.Order(direction, unquote(matcher.group(1)));
+	}
+
+	/**
+	 * Marks the characters enclosed in single quotes, double quotes or backticks. Doubled quotes close and reopen the
+	 * literal, so they need no special care.
+	 */
+	static boolean[] getQuotedPositions(String query) {
+		final boolean[] quoted = new boolean[query.length()];
+
+		char quote = 0;
+		for(int i = 0; i < query.length(); i++) {
+			final char c = query.charAt(i);
+			if(quote != 0) {
+				quoted[i] = true;
+				if(c == quote) {
+					quote = 0;
+				}
+			} else if(c == '\'' || c == '"' || c == '`') {
+				quoted[i] = true;
+				quote = c;
+			}
+		}
+		return quoted;
 	}
 
-	private static boolean isInOperation(String rawQuery, String parameterName) {
-		final String matchingString = "(.*)\\s(in)((\\s)*)" + parameterName
-				+ "(.*)";
-		return rawQuery.toLowerCase().matches(matchingString);
+	/**
+	 * Finds the first match of the pattern from the given index on which starts outside of quoted literals and names,
+	 * so that keywords inside values are not taken for clauses of the query.
+	 * 
+	 * @return the matcher positioned on the match, or null if there is none
+	 */
+	private static Matcher findUnquoted(Pattern pattern, String query, int from) {
+		final boolean[] quoted = getQuotedPositions(query);
+		final Matcher matcher = pattern.matcher(query);
+
+		int start = from;
+		while(start < query.length() && matcher.find(start)) {
+			if(!quoted[matcher.start()]) {
+				return matcher;
+			}
+			start = matcher.start() + 1;
+		}
+		return null;
 	}
 
-	private static String createInOperatorStatement(Object parameterValue) {
-		List<String> encodedArray = SimpleDBAttributeConverter
-				.encodeArray(parameterValue);
-		StringBuilder stringBuilder = new StringBuilder("(");
-		int numberOfParameters = encodedArray.size() - 1;
-		for (int i = 0; i < numberOfParameters; i++) {
-			stringBuilder.append("'").append(encodedArray.get(i)).append("',");
+	private static String unquote(String name) {
+		if(name.startsWith("`")) {
+			return name.substring(1, name.length() - 1).replace("``", "`");
 		}
-		stringBuilder.append("'").append(encodedArray.get(numberOfParameters))
-				.append("')");
-		return stringBuilder.toString();
+		return name;
 	}
 
 	public static String escapeQueryAttributes(String rawQuery,
@@ -10,14 +10,17 @@ import org.springframework.data.simpledb.annotation.Query;
 import org.springframework.data.simpledb.core.SimpleDbDomain;
 import org.springframework.data.simpledb.query.parser.QueryParserUtils;
 import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.data.simpledb.reflection.SupportedCoreTypes;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * SimpleDB specific extension of {@link org.springframework.data.repository.query.QueryMethod}. <br/>
@@ -29,6 +32,10 @@ public class SimpleDbQueryMethod extends QueryMethod {
 	private final Method method;
 	private final SimpleDbDomain simpleDbDomain;
 
+	/* built on first use, the where clause of subclasses is not known by this constructor */
+	private volatile String annotatedQuery;
+	private volatile QueryTemplate queryTemplate;
+
 	/**
 	 * Creates a new {@link org.springframework.data.simpledb.query.SimpleDbQueryMethod}
 	 * 
@@ -75,6 +82,27 @@ public class SimpleDbQueryMethod extends QueryMethod {
 	 * @return a Query String
 	 */
 	public final String getAnnotatedQuery() {
+		String result = annotatedQuery;
+		if(result == null) {
+			result = buildAnnotatedQuery();
+			annotatedQuery = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the annotated query compiled for binding the method parameters, see {@link QueryTemplate}
+	 */
+	public final QueryTemplate getQueryTemplate() {
+		QueryTemplate result = queryTemplate;
+		if(result == null) {
+			result = QueryTemplate.compile(getAnnotatedQuery(), getParameters());
+			queryTemplate = result;
+		}
+		return result;
+	}
+
+	private String buildAnnotatedQuery() {
 		String valueParameter = getValueParameters();
 		String whereParameters = getWhereParameters();
 		String[] selectParameters = getSelectParameters();
@@ -145,6 +173,35 @@ public class SimpleDbQueryMethod extends QueryMethod {
 		return returnedGenericType.equals(getDomainClass());
 	}
 
+	/**
+	 * @return true if the selected attributes are returned as interface or DTO projections, of another type than the
+	 *         domain class
+	 */
+	public boolean returnsProjection() {
+		final Type returnedType = getCollectionGenericType();
+		if(!(returnedType instanceof Class) || isPagedQuery()) {
+			return false;
+		}
+
+		final Class<?> projectionType = (Class<?>) returnedType;
+		if(projectionType.equals(getDomainClass()) || projectionType.equals(Object.class) || projectionType.isEnum()
+				|| SupportedCoreTypes.isSupported(projectionType) || Collection.class.isAssignableFrom(projectionType)
+				|| Map.class.isAssignableFrom(projectionType)) {
+			return false;
+		}
+
+		final String query = getAnnotatedQuery();
+		final List<String> attributesFromQuery = QueryUtils.getQueryPartialFieldNames(query);
+		return !attributesFromQuery.isEmpty() && !attributesFromQuery.contains("*") && !QueryUtils.isCountQuery(query);
+	}
+
+	/**
+	 * @return the projection type, see {@link #returnsProjection()}
+	 */
+	public Class<?> getProjectionType() {
+		return (Class<?>) getCollectionGenericType();
+	}
+
 	private Type getCollectionGenericType() {
 		Type returnType = method.getGenericReturnType();
 		if(isCollectionQuery()) {
@@ -1,9 +1,11 @@
 package org.springframework.data.simpledb.query;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.simpledb.core.ProjectionMapper;
 import org.springframework.data.simpledb.core.SimpleDbOperations;
 import org.springframework.util.Assert;
 
@@ -52,6 +54,33 @@ public class SimpleDbQueryRunner {
 		return returnListFromDb.size() > 0 ? returnListFromDb.get(0) : null;
 	}
 
+	/**
+	 * @return true if the selected attributes can be mapped without building the entities, see
+	 *         {@link ProjectionMapper}
+	 */
+	public boolean isProjectionQuery() {
+		final List<String> queryFieldNames = getRequestedQueryFieldNames();
+		if(queryFieldNames.contains("*") || QueryUtils.isCountQuery(query)) {
+			return false;
+		}
+
+		try {
+			return ProjectionMapper.isSupported(domainClass, queryFieldNames);
+		} catch(IllegalArgumentException e) {
+			/* not a field, e.g. itemName() */
+			return false;
+		}
+	}
+
+	public List<Map<String, Object>> executeProjectionQuery() {
+		return simpledbOperations.findProjections(domainClass, query);
+	}
+
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> executeSingleProjectionQuery() {
+		return (Map<String, Object>) getSingleResult(executeProjectionQuery());
+	}
+
 	public long executeCount() {
 		return simpledbOperations.count(query, domainClass);
 	}
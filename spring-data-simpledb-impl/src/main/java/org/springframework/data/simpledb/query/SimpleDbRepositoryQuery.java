@@ -52,8 +52,13 @@ public class SimpleDbRepositoryQuery implements RepositoryQuery {
 	public static RepositoryQuery fromQueryAnnotation(SimpleDbQueryMethod queryMethod,
 			SimpleDbOperations simpleDbOperations) {
 		LOGGER.debug("Looking up query for method {}", queryMethod.getName());
-		return queryMethod.getAnnotatedQuery() == null ? null : new SimpleDbRepositoryQuery(queryMethod,
-				simpleDbOperations);
+		if(queryMethod.getAnnotatedQuery() == null) {
+			return null;
+		}
+
+		/* compiled once, executions only bind the parameter values */
+		queryMethod.getQueryTemplate();
+		return new SimpleDbRepositoryQuery(queryMethod, simpleDbOperations);
 	}
 
 	protected AbstractSimpleDbQueryExecution getExecution() {
@@ -46,4 +46,45 @@ public final class SimpleDbResultConverter {
 		}
 	}
 
+	/*
+	 * Conversions of the attribute values mapped by ProjectionMapper, the entities are not instantiated.
+	 */
+
+	public static List<Object> projectionsAsList(List<Map<String, Object>> projections, String attributeName) {
+		List<Object> ret = new ArrayList<Object>(projections.size());
+		for(Map<String, Object> projection : projections) {
+			ret.add(projection.get(attributeName));
+		}
+		return ret;
+	}
+
+	public static Set<Object> projectionsAsSet(List<Map<String, Object>> projections, String attributeName) {
+		return new LinkedHashSet<Object>(projectionsAsList(projections, attributeName));
+	}
+
+	public static List<List<Object>> projectionsAsListOfListOfObject(List<Map<String, Object>> projections,
+			List<String> requestedQueryFieldNames) {
+		List<List<Object>> rows = new ArrayList<List<Object>>(projections.size());
+		for(Map<String, Object> projection : projections) {
+			List<Object> cols = new ArrayList<Object>(requestedQueryFieldNames.size());
+			for(String fieldName : requestedQueryFieldNames) {
+				cols.add(projection.get(fieldName));
+			}
+			rows.add(cols);
+		}
+		return rows;
+	}
+
+	/**
+	 * @param projectionType
+	 *            interface with getters, or DTO, of the selected attributes
+	 */
+	public static <P> List<P> toProjections(List<Map<String, Object>> projections, Class<P> projectionType) {
+		List<P> ret = new ArrayList<P>(projections.size());
+		for(Map<String, Object> projection : projections) {
+			ret.add(ProjectionFactory.createProjection(projectionType, projection));
+		}
+		return ret;
+	}
+
 }
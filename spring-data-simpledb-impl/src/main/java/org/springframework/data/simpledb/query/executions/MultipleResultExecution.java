@@ -6,8 +6,11 @@ import org.springframework.data.simpledb.query.SimpleDbQueryMethod;
 import org.springframework.data.simpledb.query.SimpleDbQueryRunner;
 import org.springframework.data.simpledb.query.SimpleDbResultConverter;
 import org.springframework.data.simpledb.reflection.ReflectionUtils;
+import org.springframework.util.Assert;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -32,10 +35,15 @@ public class MultipleResultExecution extends AbstractSimpleDbQueryExecution {
 	 * as returned type for query <code> select aField from entity</code></li>
 	 * <li>SET_OF_FIELDS - {@code Set<?>} <br/>
 	 * as returned type for query <code> select aField from entity</code></li>
+	 * <li>COLLECTION_OF_PROJECTIONS - {@code List<Projection>} or {@code Set<Projection>} <br/>
+	 * as returned type for query <code> select aField, bField from entity</code>, the projection being an interface
+	 * with getters or a DTO of the selected fields</li>
 	 * </ul>
+	 * Selected fields are mapped straight from the items when possible, without building the entities.
 	 */
 	public enum MultipleResultType {
-		COLLECTION_OF_DOMAIN_ENTITIES, LIST_OF_LIST_OF_OBJECT, FIELD_OF_TYPE_COLLECTION, LIST_OF_FIELDS, SET_OF_FIELDS;
+		COLLECTION_OF_DOMAIN_ENTITIES, LIST_OF_LIST_OF_OBJECT, FIELD_OF_TYPE_COLLECTION, LIST_OF_FIELDS, SET_OF_FIELDS,
+		COLLECTION_OF_PROJECTIONS;
 
 	}
 
@@ -47,21 +55,46 @@ public class MultipleResultExecution extends AbstractSimpleDbQueryExecution {
 			case COLLECTION_OF_DOMAIN_ENTITIES:
 				return queryRunner.executeQuery();
 			case LIST_OF_LIST_OF_OBJECT:
-				List<?> returnList = queryRunner.executeQuery();
 				List<String> requestedQueryFieldNames = queryRunner.getRequestedQueryFieldNames();
+				if(queryRunner.isProjectionQuery()) {
+					return SimpleDbResultConverter.projectionsAsListOfListOfObject(
+							queryRunner.executeProjectionQuery(), requestedQueryFieldNames);
+				}
+				List<?> returnList = queryRunner.executeQuery();
 				return SimpleDbResultConverter.toListOfListOfObject(returnList, requestedQueryFieldNames);
 			case FIELD_OF_TYPE_COLLECTION:
 				String attributeName = queryRunner.getSingleQueryFieldName();
+				if(queryRunner.isProjectionQuery()) {
+					Map<String, Object> projection = queryRunner.executeSingleProjectionQuery();
+					return projection == null ? null : projection.get(attributeName);
+				}
 				Object returnedEntity = queryRunner.executeSingleResultQuery();
 				return ReflectionUtils.callGetter(returnedEntity, attributeName);
 			case LIST_OF_FIELDS:
 				String attributeName1 = queryRunner.getSingleQueryFieldName();
+				if(queryRunner.isProjectionQuery()) {
+					return SimpleDbResultConverter.projectionsAsList(queryRunner.executeProjectionQuery(),
+							attributeName1);
+				}
 				List<?> returnListFromDb = queryRunner.executeQuery();
 				return SimpleDbResultConverter.filterNamedAttributesAsList(returnListFromDb, attributeName1);
 			case SET_OF_FIELDS:
 				String attributeName3 = queryRunner.getSingleQueryFieldName();
+				if(queryRunner.isProjectionQuery()) {
+					return SimpleDbResultConverter.projectionsAsSet(queryRunner.executeProjectionQuery(),
+							attributeName3);
+				}
 				List<?> returnListFromDb1 = queryRunner.executeQuery();
 				return SimpleDbResultConverter.filterNamedAttributesAsSet(returnListFromDb1, attributeName3);
+			case COLLECTION_OF_PROJECTIONS:
+				Assert.isTrue(queryRunner.isProjectionQuery(), "Selected fields can not be projected for query: "
+						+ method.getAnnotatedQuery());
+				List<?> projections = SimpleDbResultConverter.toProjections(queryRunner.executeProjectionQuery(),
+						method.getProjectionType());
+				if(Set.class.isAssignableFrom(method.getReturnType())) {
+					return new LinkedHashSet<Object>(projections);
+				}
+				return projections;
 
 		}
 		throw new IllegalArgumentException("Unrecognized multiple result type");
@@ -71,6 +104,8 @@ public class MultipleResultExecution extends AbstractSimpleDbQueryExecution {
 		String query = method.getAnnotatedQuery();
 		if(method.returnsCollectionOfDomainClass()) {
 			return MultipleResultType.COLLECTION_OF_DOMAIN_ENTITIES;
+		} else if(method.returnsProjection()) {
+			return MultipleResultType.COLLECTION_OF_PROJECTIONS;
 		} else if(QueryUtils.getQueryPartialFieldNames(query).size() > 1) {
 			return MultipleResultType.LIST_OF_LIST_OF_OBJECT;
 		} else {
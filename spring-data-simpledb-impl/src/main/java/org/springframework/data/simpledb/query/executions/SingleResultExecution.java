@@ -1,9 +1,13 @@
 package org.springframework.data.simpledb.query.executions;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.springframework.data.simpledb.core.SimpleDbOperations;
 import org.springframework.data.simpledb.query.QueryUtils;
 import org.springframework.data.simpledb.query.SimpleDbQueryMethod;
 import org.springframework.data.simpledb.query.SimpleDbQueryRunner;
+import org.springframework.data.simpledb.query.SimpleDbResultConverter;
 import org.springframework.data.simpledb.reflection.ReflectionUtils;
 import org.springframework.util.Assert;
 
@@ -30,11 +34,17 @@ public class SingleResultExecution extends AbstractSimpleDbQueryExecution {
 	 * {@code SELECT * FROM entity where itemName()="1"}
 	 * </pre>
 	 * 
+	 * <li>PROJECTION_RESULT - Interface with getters or DTO of the selected fields</li> as returned type for query:
+	 * 
+	 * <pre>
+	 * {@code SELECT field, otherField FROM entity where itemName()="1"}
+	 * </pre>
+	 * 
 	 * </ul>
 	 */
 	public enum SingleResultType {
 
-		SINGLE_FIELD_RESULT, COUNT_RESULT, ENTITY_RESULT;
+		SINGLE_FIELD_RESULT, COUNT_RESULT, ENTITY_RESULT, PROJECTION_RESULT;
 	}
 
 	public SingleResultExecution(SimpleDbOperations simpleDbOperations) {
@@ -58,10 +68,22 @@ public class SingleResultExecution extends AbstractSimpleDbQueryExecution {
 
 			case SINGLE_FIELD_RESULT: {
 				String attributeName = queryRunner.getSingleQueryFieldName();
+				if(queryRunner.isProjectionQuery()) {
+					Map<String, Object> projection = queryRunner.executeSingleProjectionQuery();
+					return projection == null ? null : projection.get(attributeName);
+				}
 				Object returnedEntity = queryRunner.executeSingleResultQuery();
 				return ReflectionUtils.callGetter(returnedEntity, attributeName);
 			}
 
+			case PROJECTION_RESULT: {
+				Assert.isTrue(queryRunner.isProjectionQuery(), "Selected fields can not be projected for query: "
+						+ queryMethod.getAnnotatedQuery());
+				Map<String, Object> projection = queryRunner.executeSingleProjectionQuery();
+				return projection == null ? null : SimpleDbResultConverter.toProjections(
+						Collections.singletonList(projection), queryMethod.getProjectionType()).get(0);
+			}
+
 			case ENTITY_RESULT: {
 				return queryRunner.executeSingleResultQuery();
 			}
@@ -78,6 +100,8 @@ public class SingleResultExecution extends AbstractSimpleDbQueryExecution {
 			return SingleResultType.COUNT_RESULT;
 		} else if(method.isQueryForEntity()) {
 			return SingleResultType.ENTITY_RESULT;
+		} else if(method.returnsProjection()) {
+			return SingleResultType.PROJECTION_RESULT;
 		} else if(QueryUtils.getQueryPartialFieldNames(query).size() == 1) {
 			return SingleResultType.SINGLE_FIELD_RESULT;
 		} else {
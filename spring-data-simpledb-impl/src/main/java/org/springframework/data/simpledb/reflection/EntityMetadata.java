@@ -0,0 +1,200 @@
+package org.springframework.data.simpledb.reflection;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.simpledb.annotation.Version;
+import org.springframework.util.Assert;
+
+/**
+ * Immutable mapping plan of an entity class: supported fields and their mapped {@link FieldType}, id fields, version
+ * field, reference and nested entity fields. <br/>
+ * Plans are computed once per class and shared, use {@link #forClass(Class)} to obtain one.
+ */
+public final class EntityMetadata {
+
+	private static final ConcurrentMap<Class<?>, EntityMetadata> METADATA = new ConcurrentHashMap<Class<?>, EntityMetadata>();
+
+	private final Class<?> javaType;
+	private final List<Field> supportedFields;
+	private final Map<Field, FieldType> fieldTypes;
+	private final Set<Field> idFields;
+	private final List<Field> nestedFields;
+	private final List<Field> referenceFields;
+	private final Map<String, Field> referenceFieldsByName;
+	private final Field versionField;
+
+	/* lazily resolved, an entity declaring several id fields fails only when its id is requested */
+	private volatile Field idField;
+	private volatile boolean idFieldResolved;
+
+	private EntityMetadata(Class<?> javaType) {
+		this.javaType = javaType;
+
+		final List<Field> fields = new ArrayList<Field>();
+		final Map<Field, FieldType> types = new LinkedHashMap<Field, FieldType>();
+		final Set<Field> ids = new HashSet<Field>();
+		final List<Field> nested = new ArrayList<Field>();
+		Field version = null;
+		for(Field field : ReflectionUtils.getDeclaredFieldsInHierarchy(javaType)) {
+			if(MetadataParser.isSerializableFieldForObject(javaType, field)) {
+				/* field wrappers access fields directly as well */
+				field.setAccessible(true);
+
+				final FieldType fieldType = getMappedFieldType(field);
+				fields.add(field);
+				types.put(field, fieldType);
+				if(FieldType.ID.isOfType(field)) {
+					ids.add(field);
+				}
+				if(fieldType == FieldType.NESTED_ENTITY) {
+					nested.add(field);
+				}
+				if(field.getAnnotation(Version.class) != null) {
+					if(version != null) {
+						throw new MappingException("Several version fields declared in class " + javaType.getName());
+					}
+					if(!isVersionType(field.getType())) {
+						throw new MappingException("Version field " + field.getName() + " should be an int or a long");
+					}
+					version = field;
+				}
+			}
+		}
+
+		final Map<String, Field> references = new LinkedHashMap<String, Field>();
+		for(Field field : javaType.getDeclaredFields()) {
+			if(ReflectionUtils.isReference(field)) {
+				references.put(field.getName(), field);
+			}
+		}
+
+		this.supportedFields = Collections.unmodifiableList(fields);
+		this.fieldTypes = Collections.unmodifiableMap(types);
+		this.idFields = Collections.unmodifiableSet(ids);
+		this.nestedFields = Collections.unmodifiableList(nested);
+		this.referenceFields = Collections.unmodifiableList(new ArrayList<Field>(references.values()));
+		this.referenceFieldsByName = Collections.unmodifiableMap(references);
+		this.versionField = version;
+	}
+
+	private static boolean isVersionType(Class<?> type) {
+		return type == int.class || type == Integer.class || type == long.class || type == Long.class;
+	}
+
+	public static EntityMetadata forClass(Class<?> javaType) {
+		Assert.notNull(javaType);
+
+		EntityMetadata metadata = METADATA.get(javaType);
+		if(metadata == null) {
+			metadata = new EntityMetadata(javaType);
+			final EntityMetadata existing = METADATA.putIfAbsent(javaType, metadata);
+			if(existing != null) {
+				metadata = existing;
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * Classifies a field the way it is mapped to SimpleDB attributes, e.g. an id field of type String is mapped as a
+	 * {@link FieldType#CORE_TYPE}.
+	 */
+	public static FieldType getMappedFieldType(Field field) {
+		if(FieldType.PRIMITIVE.isOfType(field)) {
+			return FieldType.PRIMITIVE;
+		} else if(FieldType.CORE_TYPE.isOfType(field)) {
+			return FieldType.CORE_TYPE;
+		} else if(FieldType.COLLECTION.isOfType(field)) {
+			return FieldType.COLLECTION;
+		} else if(FieldType.ARRAY.isOfType(field)) {
+			return FieldType.ARRAY;
+		} else if(FieldType.NESTED_ENTITY.isOfType(field)) {
+			return FieldType.NESTED_ENTITY;
+		} else if(FieldType.REFERENCE_ENTITY.isOfType(field)) {
+			return FieldType.REFERENCE_ENTITY;
+		} else if(FieldType.MAP.isOfType(field)) {
+			return FieldType.MAP;
+		}
+
+		return FieldType.OBJECT;
+	}
+
+	public Class<?> getJavaType() {
+		return javaType;
+	}
+
+	/**
+	 * @return fields having both getter and setter or annotated as persistent, in class hierarchy order
+	 */
+	public List<Field> getSupportedFields() {
+		return supportedFields;
+	}
+
+	/**
+	 * @return the mapped type of a supported field, see {@link #getMappedFieldType(Field)}
+	 */
+	public FieldType getFieldType(Field supportedField) {
+		return fieldTypes.get(supportedField);
+	}
+
+	/**
+	 * @return true if the supported field is named <tt>id</tt> or annotated with {@link org.springframework.data.annotation.Id}
+	 */
+	public boolean isIdField(Field supportedField) {
+		return idFields.contains(supportedField);
+	}
+
+	/**
+	 * @return the id field or null, throws MappingException if several id fields are declared
+	 */
+	public Field getIdField() {
+		if(!idFieldResolved) {
+			final Field resolvedIdField = MetadataParser.findIdField(javaType);
+			if(resolvedIdField != null) {
+				resolvedIdField.setAccessible(true);
+			}
+			idField = resolvedIdField;
+			idFieldResolved = true;
+		}
+		return idField;
+	}
+
+	/**
+	 * @return the field annotated with {@link Version} or null if the entity is not versioned
+	 */
+	public Field getVersionField() {
+		return versionField;
+	}
+
+	public List<Field> getNestedFields() {
+		return nestedFields;
+	}
+
+	/**
+	 * @return the {@link org.springframework.data.annotation.Reference} fields declared by the class itself
+	 */
+	public List<Field> getReferenceFields() {
+		return referenceFields;
+	}
+
+	public boolean isReferenceField(String fieldName) {
+		return referenceFieldsByName.containsKey(fieldName);
+	}
+
+	/**
+	 * @return the reference field with the given name or null
+	 */
+	public Field getReferenceField(String fieldName) {
+		return referenceFieldsByName.get(fieldName);
+	}
+}
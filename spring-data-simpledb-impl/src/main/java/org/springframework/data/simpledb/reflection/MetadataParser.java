@@ -29,7 +29,6 @@ public final class MetadataParser {
 
 		if(idField != null) {
 			try {
-				idField.setAccessible(true);
 				return (String) idField.get(object);
 			} catch(IllegalAccessException e) {
 				throw new MappingException("Could not read simpleDb id field", e);
@@ -44,6 +43,10 @@ public final class MetadataParser {
 	}
 
 	public static Field getIdField(Class<?> clazz) {
+		return EntityMetadata.forClass(clazz).getIdField();
+	}
+
+	static Field findIdField(Class<?> clazz) {
 		Field idField = null;
 
 		for(Field f : ReflectionUtils.getDeclaredFieldsInHierarchy(clazz)) {
@@ -92,18 +95,10 @@ public final class MetadataParser {
 	}
 
 	public static List<Field> getSupportedFields(Class<?> clazz) {
-		List<Field> supportedFields = new ArrayList<Field>();
-
-		for(Field field : ReflectionUtils.getDeclaredFieldsInHierarchy(clazz)) {
-			if(isSerializableFieldForObject(clazz, field)) {
-				supportedFields.add(field);
-			}
-		}
-
-		return supportedFields;
+		return new ArrayList<Field>(EntityMetadata.forClass(clazz).getSupportedFields());
 	}
 
-	private static boolean isSerializableFieldForObject(Class<?> clazz, Field field) {
+	static boolean isSerializableFieldForObject(Class<?> clazz, Field field) {
 		
 		boolean isSerializable = !hasUnsupportedAnnotations(field);
 		isSerializable = isSerializable && !isTransientField(field);
@@ -0,0 +1,135 @@
+package org.springframework.data.simpledb.reflection;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.util.Assert;
+
+/**
+ * Reads and writes a property of an entity class. Persistent fields are accessed directly, other properties through
+ * their getter and setter. <br/>
+ * Members are resolved and made accessible once, accessors are cached per class and property and shared between
+ * threads.
+ */
+public final class PropertyAccessor {
+
+	private static final String METHOD_SETTER = "setter";
+	private static final String METHOD_GETTER = "getter";
+
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, PropertyAccessor>> ACCESSORS = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, PropertyAccessor>>();
+
+	private final Class<?> entityClass;
+	private final String propertyName;
+	private final Field field;
+	private final Method getter;
+	private final Method setter;
+
+	private PropertyAccessor(Class<?> entityClass, String propertyName) {
+		this.entityClass = entityClass;
+		this.propertyName = propertyName;
+
+		final Field propertyField = ReflectionUtils.getField(entityClass, propertyName);
+		if(ReflectionUtils.isPersistentField(propertyField)) {
+			this.field = makeAccessible(propertyField);
+			this.getter = null;
+			this.setter = null;
+		} else {
+			this.field = null;
+			this.getter = makeAccessible(ReflectionUtils.retrieveGetterFrom(entityClass, propertyName));
+			this.setter = makeAccessible(ReflectionUtils.retrieveSetterFrom(entityClass, propertyName));
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if the class has no field with the given name
+	 */
+	public static PropertyAccessor forProperty(Class<?> entityClass, String propertyName) {
+		Assert.notNull(entityClass);
+		Assert.notNull(propertyName);
+
+		ConcurrentMap<String, PropertyAccessor> classAccessors = ACCESSORS.get(entityClass);
+		if(classAccessors == null) {
+			classAccessors = new ConcurrentHashMap<String, PropertyAccessor>();
+			final ConcurrentMap<String, PropertyAccessor> existing = ACCESSORS.putIfAbsent(entityClass, classAccessors);
+			if(existing != null) {
+				classAccessors = existing;
+			}
+		}
+
+		PropertyAccessor accessor = classAccessors.get(propertyName);
+		if(accessor == null) {
+			accessor = new PropertyAccessor(entityClass, propertyName);
+			final PropertyAccessor existing = classAccessors.putIfAbsent(propertyName, accessor);
+			if(existing != null) {
+				accessor = existing;
+			}
+		}
+		return accessor;
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	public String getPropertyName() {
+		return propertyName;
+	}
+
+	public Object getValue(Object entity) {
+		try {
+			if(field != null) {
+				return field.get(entity);
+			}
+
+			Assert.notNull(getter, "No getter found for: " + propertyName);
+			return getter.invoke(entity);
+
+		} catch(IllegalAccessException e) {
+			throw toMappingException(e, METHOD_GETTER, entity);
+		} catch(InvocationTargetException e) {
+			throw toMappingException(e, METHOD_GETTER, entity);
+		} catch(IllegalArgumentException e) {
+			throw toMappingException(e, METHOD_GETTER, entity);
+		}
+	}
+
+	public void setValue(Object entity, Object value) {
+		try {
+			if(field != null) {
+				field.set(entity, value);
+			} else {
+				Assert.notNull(setter, "No setter found for: " + propertyName);
+				setter.invoke(entity, value);
+			}
+
+		} catch(IllegalAccessException e) {
+			throw toMappingException(e, METHOD_SETTER, entity);
+		} catch(InvocationTargetException e) {
+			throw toMappingException(e, METHOD_SETTER, entity);
+		} catch(IllegalArgumentException e) {
+			throw toMappingException(e, METHOD_SETTER, entity);
+		}
+	}
+
+	private MappingException toMappingException(Exception cause, String accessMethod, Object entity) {
+		return new MappingException("Could not call " + accessMethod + " for field " + propertyName + " in class:  "
+				+ entity.getClass(), cause);
+	}
+
+	private static <A extends AccessibleObject> A makeAccessible(A member) {
+		if(member != null && !member.isAccessible()) {
+			try {
+				member.setAccessible(true);
+			} catch(SecurityException e) {
+				/* access checks are then done on every call */
+			}
+		}
+		return member;
+	}
+}
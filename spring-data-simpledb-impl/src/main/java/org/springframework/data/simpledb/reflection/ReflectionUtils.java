@@ -3,7 +3,6 @@ package org.springframework.data.simpledb.reflection;
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -30,73 +29,21 @@ public final class ReflectionUtils {
 	}
 
 	public static Object callGetter(Object obj, String fieldName) {
-		Object object = null;
-		try {
-			if (obj != null) {
-				Field field = getField(obj.getClass(), fieldName);
-				if (isPersistentField(field)) {
-					 object = getPersistentFieldValue(field, obj);
-				} else {
-					Method getterMethod = retrieveGetterFrom(obj.getClass(), fieldName);
-					Assert.notNull(getterMethod, "No getter found for: " + fieldName);
-
-					object = getterMethod.invoke(obj);
-				}
-			}
-			return object;
-
-		} catch(IllegalAccessException e) {
-			throw toMappingException(e, METHOD_GETTER, fieldName, obj);
-		} catch(InvocationTargetException e) {
-			throw toMappingException(e, METHOD_GETTER, fieldName, obj);
-		} catch(IllegalArgumentException e) {
-			throw toMappingException(e, METHOD_GETTER, fieldName, obj);
-		}
-	}
-
-	private static Object getPersistentFieldValue(Field field, Object obj) throws IllegalAccessException {
-		boolean fieldAccessible = field.isAccessible();
-		try {
-			if (!fieldAccessible) {
-				field.setAccessible(true);
-			}
-			return field.get(obj);
-			
-		} finally {
-			field.setAccessible(fieldAccessible);
+		if (obj == null) {
+			return null;
 		}
+		return getPropertyAccessor(obj, fieldName, METHOD_GETTER).getValue(obj);
 	}
 
 	public static void callSetter(Object obj, String fieldName, Object fieldValue) {
-		try {
-			Field field = getField(obj.getClass(), fieldName);
-			if (isPersistentField(field)) {
-				setPersistentFieldValue(field, obj, fieldValue);
-			} else {
-				Method setterMethod = retrieveSetterFrom(obj.getClass(), fieldName);
-				Assert.notNull(setterMethod, "No setter found for: " + fieldName);
-				setterMethod.invoke(obj, fieldValue);
-			}
-
-		} catch(IllegalAccessException e) {
-			throw toMappingException(e, METHOD_SETTER, fieldName, obj);
-		} catch(InvocationTargetException e) {
-			throw toMappingException(e, METHOD_SETTER, fieldName, obj);
-		} catch(IllegalArgumentException e) {
-			throw toMappingException(e, METHOD_SETTER, fieldName, obj);
-		}
+		getPropertyAccessor(obj, fieldName, METHOD_SETTER).setValue(obj, fieldValue);
 	}
 
-	private static void setPersistentFieldValue(Field field, Object obj, Object fieldValue) throws IllegalAccessException {
-		boolean fieldAccessible = field.isAccessible();
+	private static PropertyAccessor getPropertyAccessor(Object obj, String fieldName, String accessMethod) {
 		try {
-			if (!fieldAccessible) {
-				field.setAccessible(true);
-			}
-			field.set(obj, fieldValue);
-			
-		} finally {
-			field.setAccessible(fieldAccessible);
+			return PropertyAccessor.forProperty(obj.getClass(), fieldName);
+		} catch(IllegalArgumentException e) {
+			throw toMappingException(e, accessMethod, fieldName, obj);
 		}
 	}
 
@@ -161,11 +108,8 @@ public final class ReflectionUtils {
 	public static List<String> getReferencedAttributeNames(Class<?> clazz) {
 		List<String> referenceFields = new ArrayList<String>();
 
-		for(Field eachField : clazz.getDeclaredFields()) {
-
-			if(eachField.getAnnotation(Reference.class) != null) {
-				referenceFields.add(eachField.getName());
-			}
+		for(Field eachField : EntityMetadata.forClass(clazz).getReferenceFields()) {
+			referenceFields.add(eachField.getName());
 		}
 		return referenceFields;
 	}
@@ -191,15 +135,7 @@ public final class ReflectionUtils {
      * @return List<Field> of referenced fields
      */
     public static List<Field> getFirstLevelOfReferenceAttributes(Class<?> clazz) {
-        List<Field> references = new ArrayList<Field>();
-        List<String> referencedFields = ReflectionUtils.getReferencedAttributeNames(clazz);
-
-        for(String eachReference : referencedFields) {
-            Field referenceField = ReflectionUtils.getField(clazz, eachReference);
-            references.add(referenceField);
-        }
-
-        return references;
+        return EntityMetadata.forClass(clazz).getReferenceFields();
     }
 
 	private static MappingException toMappingException(Exception cause, String accessMethod, String fieldName,
@@ -208,7 +144,7 @@ public final class ReflectionUtils {
 				+ fieldObject.getClass(), cause);
 	}
 
-	private static <T> Method retrieveGetterFrom(final Class<T> entityClazz, final String fieldName) {
+	static <T> Method retrieveGetterFrom(final Class<T> entityClazz, final String fieldName) {
 		Method getterMethod;
 		try {
 			final PropertyDescriptor descriptor = new PropertyDescriptor(fieldName, entityClazz);
@@ -220,7 +156,7 @@ public final class ReflectionUtils {
 		return getterMethod;
 	}
 
-	private static <T> Method retrieveSetterFrom(final Class<T> entityClazz, final String fieldName) {
+	static <T> Method retrieveSetterFrom(final Class<T> entityClazz, final String fieldName) {
 		Method setterMethod;
 
 		try {
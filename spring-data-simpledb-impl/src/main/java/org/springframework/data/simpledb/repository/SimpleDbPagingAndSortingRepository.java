@@ -6,6 +6,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.Repository;
 
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.List;
 
 public interface SimpleDbPagingAndSortingRepository<T, ID extends Serializable> extends Repository<T, ID> {
@@ -74,6 +75,26 @@ public interface SimpleDbPagingAndSortingRepository<T, ID extends Serializable>
 	 */
 	Iterable<T> findAll(Sort sort, boolean consistentRead);
 
+	/**
+	 * Returns a lazy iterator over all instances of the type. Results are fetched page by page while iterating, so
+	 * that domains of any size can be traversed without being truncated or loaded in memory at once.
+	 * 
+	 * @param consistentRead
+	 *            true for consistent read from master node
+	 * @return iterator over all entities
+	 */
+	Iterator<T> iterateAll(boolean consistentRead);
+
+	/**
+	 * Returns a lazy iterator over all instances of the type, sorted by the given options.
+	 * 
+	 * @param sort
+	 * @param consistentRead
+	 *            true for consistent read from master node
+	 * @return iterator over all entities sorted by the given options
+	 */
+	Iterator<T> iterateAll(Sort sort, boolean consistentRead);
+
 	/**
 	 * Returns a {@link org.springframework.data.domain.Page} of entities meeting the paging restriction provided in the
 	 * {@code Pageable} object.
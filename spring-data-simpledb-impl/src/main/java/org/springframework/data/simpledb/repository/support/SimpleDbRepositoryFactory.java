@@ -6,7 +6,6 @@ import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.simpledb.core.SimpleDbOperations;
-import org.springframework.data.simpledb.core.SimpleDbTemplate;
 import org.springframework.data.simpledb.query.SimpleDbQueryLookupStrategy;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformation;
 import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformationSupport;
@@ -20,8 +19,7 @@ public class SimpleDbRepositoryFactory extends RepositoryFactorySupport {
 	private SimpleDbOperations simpleDbOperations;
 
 	public SimpleDbRepositoryFactory(SimpleDbOperations simpleDbOperations) {
-		this.simpleDbOperations = new SimpleDbTemplate(simpleDbOperations.getSimpleDb());
-
+		this.simpleDbOperations = simpleDbOperations;
 	}
 
 	/*
@@ -17,6 +17,7 @@ package org.springframework.data.simpledb.repository.support;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -119,14 +120,10 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 
 	@Override
 	public <S extends T> List<S> save(Iterable<S> entities, boolean consistentRead) {
-		List<S> result = new ArrayList<S>();
 		if(entities == null) {
-			return result;
+			return new ArrayList<S>();
 		}
-		for(S entity : entities) {
-			result.add(save(entity, consistentRead));
-		}
-		return result;
+		return operations.createOrUpdateAll(entities);
 	}
 
 	@Override
@@ -138,7 +135,7 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 	@Override
 	public boolean exists(ID id, boolean consistentRead) {
 		Assert.notNull(id, "The given id must not be null!");
-		return findOne(id, consistentRead) != null;
+		return operations.exists(id, entityInformation.getJavaType(), consistentRead);
 	}
 
 	@Override
@@ -149,8 +146,7 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 
 	@Override
 	public List<T> findAll(Iterable<ID> ids, boolean consistentRead) {
-		return operations.find(entityInformation.getJavaType(), new QueryBuilder(entityInformation).withIds(ids)
-				.toString(), consistentRead);
+		return operations.readAll(ids, entityInformation.getJavaType(), consistentRead);
 	}
 
 	@Override
@@ -159,6 +155,17 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 				.toString(), consistentRead);
 	}
 
+	@Override
+	public Iterator<T> iterateAll(boolean consistentRead) {
+		return operations.iterateAll(entityInformation.getJavaType(), consistentRead);
+	}
+
+	@Override
+	public Iterator<T> iterateAll(Sort sort, boolean consistentRead) {
+		return operations.iterate(entityInformation.getJavaType(), new QueryBuilder(entityInformation).with(sort)
+				.toString(), consistentRead);
+	}
+
 	@Override
 	public Page<T> findAll(Pageable pageable, boolean consistentRead) {
 		return operations.executePagedQuery(entityInformation.getJavaType(),
@@ -183,7 +190,7 @@ public class SimpleDbRepositoryImpl<T, ID extends Serializable> implements Pagin
 			}
 		}
 
-		operations.delete(entityInformation.getDomain(), (String) id);
+		operations.delete(entityInformation.getJavaType(), id);
 	}
 
 	@Override
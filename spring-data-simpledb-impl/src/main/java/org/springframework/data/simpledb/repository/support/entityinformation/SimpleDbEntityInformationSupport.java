@@ -16,6 +16,8 @@
 package org.springframework.data.simpledb.repository.support.entityinformation;
 
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.data.repository.core.support.AbstractEntityInformation;
 import org.springframework.util.Assert;
@@ -27,6 +29,8 @@ import org.springframework.util.Assert;
 public abstract class SimpleDbEntityInformationSupport<T, ID extends Serializable> extends
 		AbstractEntityInformation<T, ID> implements SimpleDbEntityInformation<T, ID> {
 
+	private static final ConcurrentMap<Class<?>, ConcurrentMap<String, SimpleDbEntityInformation<?, ?>>> ENTITY_INFORMATION = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, SimpleDbEntityInformation<?, ?>>>();
+
 	/**
 	 * Creates a new {@link SimpleDbEntityInformationSupport} with the given domain class.
 	 * 
@@ -39,7 +43,8 @@ public abstract class SimpleDbEntityInformationSupport<T, ID extends Serializabl
 	}
 
 	/**
-	 * Creates a {@link SimpleDbEntityInformation} for the given domain class.
+	 * Returns the {@link SimpleDbEntityInformation} for the given domain class. Instances are immutable and cached per
+	 * domain class and domain.
 	 * 
 	 * @param domainClass
 	 *            must not be {@literal null}.
@@ -50,7 +55,28 @@ public abstract class SimpleDbEntityInformationSupport<T, ID extends Serializabl
 		Assert.notNull(domainClass);
 		Assert.notNull(simpleDbDomain);
 
-		return new SimpleDbMetamodelEntityInformation(domainClass, simpleDbDomain);
+		ConcurrentMap<String, SimpleDbEntityInformation<?, ?>> domainEntityInformation = ENTITY_INFORMATION
+				.get(domainClass);
+		if(domainEntityInformation == null) {
+			domainEntityInformation = new ConcurrentHashMap<String, SimpleDbEntityInformation<?, ?>>();
+			final ConcurrentMap<String, SimpleDbEntityInformation<?, ?>> existing = ENTITY_INFORMATION.putIfAbsent(
+					domainClass, domainEntityInformation);
+			if(existing != null) {
+				domainEntityInformation = existing;
+			}
+		}
+
+		SimpleDbEntityInformation<?, ?> entityInformation = domainEntityInformation.get(simpleDbDomain);
+		if(entityInformation == null) {
+			entityInformation = new SimpleDbMetamodelEntityInformation(domainClass, simpleDbDomain);
+			final SimpleDbEntityInformation<?, ?> existing = domainEntityInformation.putIfAbsent(simpleDbDomain,
+					entityInformation);
+			if(existing != null) {
+				entityInformation = existing;
+			}
+		}
+
+		return (SimpleDbEntityInformation<T, ?>) entityInformation;
 	}
 
 }
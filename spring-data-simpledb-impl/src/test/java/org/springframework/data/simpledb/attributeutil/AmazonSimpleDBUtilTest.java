@@ -0,0 +1,159 @@
+package org.springframework.data.simpledb.attributeutil;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+public class AmazonSimpleDBUtilTest {
+
+	private static final int DIGITS = 20;
+	private static final BigDecimal OFFSET = new BigDecimal(Long.MIN_VALUE).negate();
+	private static final int RANDOM_VALUES = 10000;
+
+	private static final long[] LONG_VALUES = { 0, 1, -1, 9, 10, -10, Integer.MAX_VALUE, Integer.MIN_VALUE,
+			Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, Short.MIN_VALUE, Byte.MAX_VALUE };
+
+	private static final double[] DOUBLE_VALUES = { 0.0, -0.0, 1.0, -1.0, 0.5, -0.5, 0.1, -0.1, 1e-20, -1e-20,
+			5e-21, -5e-21, 4.9e-21, 1.5e-20, 1.2345678901234567e-15, 123456.789, -123456.789, 1e18, -1e18,
+			9.2233720368547748e18, -9.2233720368547758e18, 9.3e18, -9.3e18, 1e19, -1e30, Double.MAX_VALUE,
+			-Double.MAX_VALUE, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL };
+
+	private static final long[] DATE_MILLIS = { 0, -1, 1, 999, -86400000, 951782400000L, 253402300799999L,
+			253402300800000L, -12212553600000L, -12219292800001L, -62135596800000L, Long.MAX_VALUE / 1000 };
+
+	private static final float[] FLOAT_VALUES = { 0.0f, -0.0f, 1.1f, -1.1f, 3.4028235e38f, Float.MIN_VALUE,
+			-Float.MAX_VALUE, 1.0e7f, 1.2345e-5f };
+
+	@Test
+	public void encodeAsIntegerNumber_should_match_big_decimal_encoding() {
+		Random random = new Random(42);
+		for(long value : LONG_VALUES) {
+			assertIntegerEncoding(value);
+		}
+		for(int i = 0; i < RANDOM_VALUES; i++) {
+			assertIntegerEncoding(random.nextLong());
+			assertIntegerEncoding(random.nextInt());
+		}
+	}
+
+	@Test
+	public void encodeAsIntegerNumber_should_encode_boxed_integral_types() {
+		assertEquals(AmazonSimpleDBUtil.encodeLong(-3), AmazonSimpleDBUtil.encodeAsIntegerNumber(Integer.valueOf(-3)));
+		assertEquals(AmazonSimpleDBUtil.encodeLong(-3),
+				AmazonSimpleDBUtil.encodeAsIntegerNumber(Short.valueOf((short) -3)));
+		assertEquals(AmazonSimpleDBUtil.encodeLong(-3), AmazonSimpleDBUtil.encodeAsIntegerNumber(Byte.valueOf((byte) -3)));
+	}
+
+	@Test
+	public void decodeLong_should_fall_back_to_big_decimal_decoding() {
+		assertEquals(new BigDecimal("99999999999999999999").subtract(OFFSET).longValue(),
+				AmazonSimpleDBUtil.decodeLong("99999999999999999999"));
+		assertEquals(5L, AmazonSimpleDBUtil.decodeLong("9223372036854775813"));
+	}
+
+	@Test
+	public void encodeAsRealNumber_should_match_big_decimal_encoding() {
+		Random random = new Random(42);
+		for(double value : DOUBLE_VALUES) {
+			assertRealEncoding(Double.valueOf(value));
+		}
+		for(float value : FLOAT_VALUES) {
+			assertRealEncoding(Float.valueOf(value));
+		}
+		for(int i = 0; i < RANDOM_VALUES; i++) {
+			assertRealEncoding(Double.valueOf(random.nextDouble()));
+			assertRealEncoding(Double.valueOf((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(50) - 25)));
+			assertRealEncoding(Double.valueOf(Double.longBitsToDouble(random.nextLong())));
+			assertRealEncoding(Float.valueOf((random.nextFloat() - 0.5f) * (float) Math.pow(10, random.nextInt(30) - 15)));
+		}
+	}
+
+	@Test
+	public void encodeAsRealNumber_should_preserve_ordering() {
+		double[] ordered = { -1e18, -1.5, -0.5, -1e-20, 0.0, 1e-20, 0.5, 1.5, 1e18 };
+		for(int i = 1; i < ordered.length; i++) {
+			String lower = AmazonSimpleDBUtil.encodeAsRealNumber(Double.valueOf(ordered[i - 1]));
+			String higher = AmazonSimpleDBUtil.encodeAsRealNumber(Double.valueOf(ordered[i]));
+			assertTrue(lower + " < " + higher, lower.compareTo(higher) < 0);
+		}
+	}
+
+	@Test
+	public void encodeDate_should_match_simple_date_format_encoding() throws ParseException {
+		Random random = new Random(42);
+		for(long millis : DATE_MILLIS) {
+			assertDateEncoding(millis);
+		}
+		for(int i = 0; i < RANDOM_VALUES; i++) {
+			/* around year 0 up to year 12000 */
+			assertDateEncoding((long) ((random.nextDouble() * 12000 - 1970) * 365.25 * 86400000));
+		}
+	}
+
+	@Test
+	public void decodeDate_should_leniently_parse_unusual_values() throws ParseException {
+		assertEquals(legacyDecodeDate("2013-02-30T00:00:00.00:0Z"),
+				AmazonSimpleDBUtil.decodeDate("2013-02-30T00:00:00.00:0Z"));
+		assertEquals(legacyDecodeDate("2013-01-01T25:00:00.00:0Z"),
+				AmazonSimpleDBUtil.decodeDate("2013-01-01T25:00:00.00:0Z"));
+	}
+
+	private void assertDateEncoding(long millis) throws ParseException {
+		Date date = new Date(millis);
+		String expected = legacyEncodeDate(date);
+
+		assertEquals(expected, AmazonSimpleDBUtil.encodeDate(date));
+		assertEquals(expected, legacyDecodeDate(expected), AmazonSimpleDBUtil.decodeDate(expected));
+	}
+
+	private String legacyEncodeDate(Date date) {
+		String result = createDateFormatter().format(date);
+		return result.substring(0, result.length() - 2) + ":" + result.substring(result.length() - 2);
+	}
+
+	private Date legacyDecodeDate(String value) throws ParseException {
+		return createDateFormatter().parse(value.substring(0, value.length() - 3) + value.substring(value.length() - 2));
+	}
+
+	private SimpleDateFormat createDateFormatter() {
+		SimpleDateFormat dateFormatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+		dateFormatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return dateFormatter;
+	}
+
+	private void assertIntegerEncoding(long value) {
+		String expected = AmazonSimpleDBUtil.encodeRealNumberRange(new BigDecimal(value), DIGITS, OFFSET);
+
+		assertEquals(expected, AmazonSimpleDBUtil.encodeLong(value));
+		assertEquals(expected, AmazonSimpleDBUtil.encodeAsIntegerNumber(Long.valueOf(value)));
+		assertEquals(value, AmazonSimpleDBUtil.decodeLong(expected));
+		assertEquals(AmazonSimpleDBUtil.decodeIntegerNumber(expected).longValue(), AmazonSimpleDBUtil.decodeLong(expected));
+	}
+
+	private void assertRealEncoding(Number value) {
+		if(AmazonSimpleDBUtil.isNaN(value) || AmazonSimpleDBUtil.isInfinite(value)) {
+			return;
+		}
+
+		String expected = AmazonSimpleDBUtil.encodeRealNumberRange(new BigDecimal(value.toString()), DIGITS, DIGITS,
+				OFFSET);
+		assertEquals(value.toString(), expected, AmazonSimpleDBUtil.encodeAsRealNumber(value));
+		if(!expected.matches("\\d{40}")) {
+			/* out of the encodable range */
+			return;
+		}
+
+		BigDecimal decoded = AmazonSimpleDBUtil.decodeRealNumber(expected);
+		assertEquals(expected, Double.doubleToLongBits(decoded.doubleValue()),
+				Double.doubleToLongBits(AmazonSimpleDBUtil.decodeDouble(expected)));
+		assertEquals(expected, Float.floatToIntBits(decoded.floatValue()),
+				Float.floatToIntBits(AmazonSimpleDBUtil.decodeFloat(expected)));
+	}
+}
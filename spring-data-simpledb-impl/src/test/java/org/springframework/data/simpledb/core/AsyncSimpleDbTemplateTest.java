@@ -0,0 +1,90 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+public class AsyncSimpleDbTemplateTest {
+
+	private ExecutorService executor;
+	private SimpleDbOperations operations;
+	private AsyncSimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(2);
+		operations = mock(SimpleDbOperations.class);
+		template = new AsyncSimpleDbTemplate(operations, executor);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void operations_should_complete_with_results_of_blocking_operations() throws Exception {
+		when(operations.read("id", String.class)).thenReturn("entity");
+		when(operations.count(String.class)).thenReturn(3L);
+		when(operations.find(String.class, "select * from `strings`")).thenReturn(Arrays.asList("a", "b"));
+
+		Future<String> read = template.read("id", String.class);
+		Future<Long> count = template.count(String.class);
+		Future<List<String>> found = template.find(String.class, "select * from `strings`");
+
+		assertEquals("entity", read.get(1, TimeUnit.SECONDS));
+		assertEquals(Long.valueOf(3), count.get(1, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("a", "b"), found.get(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void operations_should_run_concurrently() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		Answer<Object> waitForOther = new Answer<Object>() {
+
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				started.countDown();
+				assertTrue(started.await(1, TimeUnit.SECONDS));
+				return Collections.emptyList();
+			}
+		};
+		when(operations.find(String.class, "first")).thenAnswer(waitForOther);
+		when(operations.find(String.class, "second")).thenAnswer(waitForOther);
+
+		Future<List<String>> first = template.find(String.class, "first");
+		Future<List<String>> second = template.find(String.class, "second");
+
+		assertTrue(first.get(2, TimeUnit.SECONDS).isEmpty());
+		assertTrue(second.get(2, TimeUnit.SECONDS).isEmpty());
+	}
+
+	@Test
+	public void delete_should_rethrow_operation_failure_from_future() throws Exception {
+		DataAccessResourceFailureException failure = new DataAccessResourceFailureException("unavailable");
+		doThrow(failure).when(operations).delete("entity");
+
+		try {
+			template.delete("entity").get(1, TimeUnit.SECONDS);
+			fail("operation failure should be rethrown");
+		} catch(ExecutionException e) {
+			assertSame(failure, e.getCause());
+		}
+	}
+}
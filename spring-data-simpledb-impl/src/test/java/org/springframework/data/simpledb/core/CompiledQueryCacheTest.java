@@ -0,0 +1,77 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.springframework.data.simpledb.exception.InvalidSimpleDBQueryException;
+
+public class CompiledQueryCacheTest {
+
+	private static final String QUERY = "select * from `sample` where id = '1'";
+
+	@Test
+	public void repeated_queries_should_be_compiled_once() {
+		CompiledQueryCache cache = new CompiledQueryCache(10);
+
+		assertEquals("select * from `sample` where itemName() = '1'", cache.getValidatedQuery(QUERY, "id"));
+		assertEquals("select * from `sample` where itemName() = '1'", cache.getValidatedQuery(QUERY, "id"));
+
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void queries_bound_from_same_query_should_be_compiled_once() {
+		CompiledQueryCache cache = new CompiledQueryCache(10);
+
+		cache.getValidatedQuery(QUERY, "id");
+
+		assertEquals("select * from `sample` where itemName() = 'it''s' and name = ' id '", cache.getValidatedQuery(
+				"select * from `sample` where id = 'it''s' and name = ' id '", "id"));
+		assertEquals("select * from `sample` where itemName() = '2' and name = ''", cache.getValidatedQuery(
+				"select * from `sample` where id = '2' and name = ''", "id"));
+		assertEquals("select * from `sample` where itemName() = '3'", cache.getValidatedQuery(
+				"select * from `sample` where id = '3'", "id"));
+
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void query_should_be_escaped_again_for_other_id_field() {
+		CompiledQueryCache cache = new CompiledQueryCache(10);
+
+		cache.getValidatedQuery(QUERY, "id");
+
+		assertEquals(QUERY, cache.getValidatedQuery(QUERY, "itemName"));
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void invalid_query_should_fail_every_time() {
+		CompiledQueryCache cache = new CompiledQueryCache(10);
+
+		for(int i = 0; i < 2; i++) {
+			try {
+				cache.getValidatedQuery("select * form `sample`", "id");
+				fail("query should be invalid");
+			} catch(InvalidSimpleDBQueryException e) {
+				/* expected */
+			}
+		}
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void cache_should_stay_within_its_size() {
+		CompiledQueryCache cache = new CompiledQueryCache(2);
+
+		for(int i = 0; i < 10; i++) {
+			cache.getValidatedQuery("select * from `d" + i + "`", "id");
+		}
+		assertEquals(2, cache.getSize());
+
+		cache.getValidatedQuery("select * from `d9`", "id");
+		assertEquals(1, cache.getHits());
+	}
+}
@@ -1,21 +1,37 @@
 package org.springframework.data.simpledb.core;
 
+import java.util.HashMap;
+
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
 import com.amazonaws.services.cloudwatch.model.ResourceNotFoundException;
 import org.hamcrest.core.StringContains;
 import org.junit.Assert;
 import org.junit.Test;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SimpleDbOperationRetrierTest {
 
     private static final int SERVICE_UNAVAILABLE_RETRIES = 3;
 
+    private static final RetryPolicy NO_DELAY_POLICY = new RetryPolicy() {
+
+        @Override
+        public long getRetryDelay(int retry, long totalDelay) {
+            return retry <= SERVICE_UNAVAILABLE_RETRIES ? 0 : NO_RETRY;
+        }
+    };
+
     @Test
 	public void executeWithRetries_should_fail_for_exceeded_retries() throws Exception {
 
@@ -64,4 +80,134 @@ public class SimpleDbOperationRetrierTest {
 		};
 		retrier.executeWithRetries();
 	}
+
+	@Test
+	public void executeWithRetries_should_succeed_if_last_retry_succeeds() {
+		final int[] attempts = new int[1];
+		AbstractServiceUnavailableOperationRetrier retrier = new AbstractServiceUnavailableOperationRetrier(NO_DELAY_POLICY) {
+
+			@Override
+			public void execute() {
+				if(++attempts[0] <= SERVICE_UNAVAILABLE_RETRIES) {
+					throw createServiceException(SERVICE_UNAVAILABLE_STATUS_CODE, "ServiceUnavailable");
+				}
+			}
+		};
+
+		retrier.executeWithRetries();
+		assertEquals(SERVICE_UNAVAILABLE_RETRIES, retrier.getCurrentRetry());
+	}
+
+	@Test
+	public void executeWithRetries_should_retry_request_timeouts() {
+		final int[] attempts = new int[1];
+		AbstractServiceUnavailableOperationRetrier retrier = new AbstractServiceUnavailableOperationRetrier(NO_DELAY_POLICY) {
+
+			@Override
+			public void execute() {
+				if(++attempts[0] == 1) {
+					throw createServiceException(408, REQUEST_TIMEOUT_ERROR_CODE);
+				}
+			}
+		};
+
+		retrier.executeWithRetries();
+		assertEquals(1, retrier.getCurrentRetry());
+	}
+
+	@Test
+	public void throttled_requests_should_lower_concurrency_limit() {
+		final int[] failures = new int[1];
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb() {
+
+			@Override
+			public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+				if(failures[0]-- > 0) {
+					throw createServiceException(
+							AbstractServiceUnavailableOperationRetrier.SERVICE_UNAVAILABLE_STATUS_CODE, "ServiceUnavailable");
+				}
+				return super.getAttributes(getAttributesRequest);
+			}
+		});
+		simpleDb.setMaxDomainConcurrency(8);
+		simpleDb.setRetryPolicy(NO_DELAY_POLICY);
+		simpleDb.afterPropertiesSet();
+		SimpleDbTemplate template = new SimpleDbTemplate(simpleDb);
+
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("item");
+		entity.setAtts(new HashMap<String, String>());
+		template.createOrUpdate(entity);
+
+		failures[0] = 2;
+		template.read("item", SimpleDbSampleEntity.class, true);
+
+		AdaptiveConcurrencyLimiter limiter = simpleDb.getConcurrencyLimiter("simpleDbSampleEntity");
+		assertEquals(2, limiter.getLimit());
+		assertEquals(0, limiter.getInFlight());
+	}
+
+	@Test
+	public void concurrency_limiter_should_decrease_once_per_generation_and_increase_additively() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16);
+		long first = limiter.acquire();
+		long second = limiter.acquire();
+
+		limiter.release(first, true);
+		limiter.release(second, true);
+		assertEquals(8, limiter.getLimit());
+
+		/* about one more request per limit successful requests */
+		for(int i = 0; i < 9; i++) {
+			limiter.release(limiter.acquire(), false);
+		}
+		assertEquals(9, limiter.getLimit());
+	}
+
+	@Test(timeout = 10000)
+	public void concurrency_limit_of_one_should_not_block_nested_requests() {
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setMaxDomainConcurrency(1);
+		simpleDb.afterPropertiesSet();
+		SimpleDbTemplate template = new SimpleDbTemplate(simpleDb);
+
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("item");
+		entity.setAtts(new HashMap<String, String>());
+		template.createOrUpdate(entity);
+
+		/* the existing item is deleted before the put */
+		entity.setAge(5);
+		template.createOrUpdate(entity);
+
+		assertEquals(5, template.read("item", SimpleDbSampleEntity.class, true).getAge());
+		assertEquals(0, simpleDb.getConcurrencyLimiter("simpleDbSampleEntity").getInFlight());
+	}
+
+	@Test
+	public void exponential_backoff_should_respect_cap_and_budget() {
+		ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy(10, 100, 1000, 1500);
+
+		assertEquals(200, policy.getDelayCap(1));
+		assertEquals(800, policy.getDelayCap(3));
+		assertEquals(1000, policy.getDelayCap(4));
+		assertEquals(1000, policy.getDelayCap(100));
+
+		for(int retry = 1; retry <= 10; retry++) {
+			long delay = policy.getRetryDelay(retry, 1000);
+			assertTrue(delay >= 0 && delay <= 500);
+		}
+		assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelay(1, 1500));
+		assertEquals(RetryPolicy.NO_RETRY, policy.getRetryDelay(11, 0));
+	}
+
+	private static AmazonServiceException createServiceException(int statusCode, String errorCode) {
+		AmazonServiceException serviceException = new AmazonServiceException("Test message");
+		serviceException.setStatusCode(statusCode);
+		serviceException.setErrorCode(errorCode);
+		serviceException.setErrorType(AmazonServiceException.ErrorType.Service);
+		return serviceException;
+	}
 }
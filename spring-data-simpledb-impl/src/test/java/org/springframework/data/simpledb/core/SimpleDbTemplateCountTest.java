@@ -0,0 +1,105 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+import org.springframework.data.simpledb.query.QueryUtils;
+
+public class SimpleDbTemplateCountTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+	private static final int NUMBER_OF_ENTITIES = 40;
+
+	private ExecutorService executor;
+	private InMemorySimpleDb simpleDbClient;
+	private SimpleDbMetrics metrics;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		simpleDbClient = new InMemorySimpleDb();
+		metrics = new SimpleDbMetrics();
+
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			/* generated item names */
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setAge(i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		template.createOrUpdateAll(entities);
+
+		simpleDbClient.setCountPageSize(7);
+		metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void count_should_sum_partial_counts() {
+		assertEquals(NUMBER_OF_ENTITIES, template.count(SimpleDbSampleEntity.class));
+		assertEquals(6, metrics.getOperationStatistics(DOMAIN, OperationType.COUNT).getCalls());
+	}
+
+	@Test
+	public void count_should_respect_limit_over_partial_counts() {
+		assertEquals(17, template.count("select * from `" + DOMAIN + "` limit 17", SimpleDbSampleEntity.class));
+	}
+
+	@Test
+	public void count_should_sum_item_name_segments() {
+		simpleDb.setBatchExecutor(executor);
+		simpleDb.setCountSegments(4);
+
+		assertEquals(NUMBER_OF_ENTITIES, template.count(SimpleDbSampleEntity.class));
+		assertTrue(metrics.getOperationStatistics(DOMAIN, OperationType.COUNT).getCalls() >= 4);
+
+		assertEquals(NUMBER_OF_ENTITIES - 10, template.count("select * from `" + DOMAIN + "` where age >= '"
+				+ SimpleDBAttributeConverter.encode(10)
+				+ "' order by age", SimpleDbSampleEntity.class));
+	}
+
+	@Test
+	public void withItemNameRange_should_keep_query_conditions() {
+		assertEquals("select count(*) from `d` where itemName() >= '40' and itemName() < '80' and (a = '1' or b = '2')"
+				+ " order by a limit 5", QueryUtils.withItemNameRange(
+				"select count(*) from `d` where a = '1' or b = '2' order by a limit 5", "40", "80"));
+		assertEquals("select count(*) from `d` where itemName() < '40'",
+				QueryUtils.withItemNameRange("select count(*) from `d`", null, "40"));
+	}
+
+	@Test
+	public void withItemNameRange_should_ignore_keywords_in_literals() {
+		assertEquals("select count(*) from `d` where itemName() >= '40' and (status = 'retry limit reached'"
+				+ " or note = ' where a order by b ') limit 5", QueryUtils.withItemNameRange(
+				"select count(*) from `d` where status = 'retry limit reached' or note = ' where a order by b ' limit 5",
+				"40", null));
+		assertEquals("select count(*) from `a where b` where itemName() < '40'",
+				QueryUtils.withItemNameRange("select count(*) from `a where b`", null, "40"));
+	}
+}
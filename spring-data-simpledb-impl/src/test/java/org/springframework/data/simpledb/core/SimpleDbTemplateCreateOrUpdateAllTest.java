@@ -0,0 +1,153 @@
+package org.springframework.data.simpledb.core;
+
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SimpleDbTemplateCreateOrUpdateAllTest {
+
+	private static final int NUMBER_OF_ENTITIES = 60;
+
+	private CountingSimpleDb simpleDbClient;
+	private ExecutorService executor;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDbClient = new CountingSimpleDb();
+		executor = Executors.newFixedThreadPool(4);
+
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setBatchExecutor(executor);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void createOrUpdateAll_should_write_batches_of_25_items() {
+		List<SimpleDbSampleEntity> saved = template.createOrUpdateAll(createEntities(0));
+
+		assertEquals(NUMBER_OF_ENTITIES, saved.size());
+		assertEquals(3, simpleDbClient.batchPuts.get());
+		assertEquals(0, simpleDbClient.puts.get());
+		assertEquals(0, simpleDbClient.batchDeletes.get());
+
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			assertEquals("item" + i, saved.get(i).getItemName());
+			assertEquals(i, template.read("item" + i, SimpleDbSampleEntity.class).getAge());
+		}
+	}
+
+	@Test
+	public void createOrUpdateAll_should_replace_existing_items() {
+		template.createOrUpdateAll(createEntities(0));
+
+		List<SimpleDbSampleEntity> entities = createEntities(100);
+		entities.get(0).getAtts().put("extra", "value");
+		template.createOrUpdateAll(entities);
+
+		assertEquals(3, simpleDbClient.batchDeletes.get());
+		assertEquals(NUMBER_OF_ENTITIES, template.count(SimpleDbSampleEntity.class));
+		assertEquals(100, template.read("item0", SimpleDbSampleEntity.class).getAge());
+		assertEquals("value", template.read("item0", SimpleDbSampleEntity.class).getAtts().get("extra"));
+	}
+
+	@Test
+	public void createOrUpdateAll_should_generate_missing_ids() {
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < 3; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+
+		List<SimpleDbSampleEntity> saved = template.createOrUpdateAll(entities);
+
+		for(SimpleDbSampleEntity entity : saved) {
+			assertNotNull(entity.getItemName());
+		}
+		assertEquals(3, template.count(SimpleDbSampleEntity.class));
+	}
+
+	@Test
+	public void createBatchPutAttributesRequests_should_send_attribute_chunks_in_different_batches() {
+		Map<String, List<String>> attributes = new LinkedHashMap<String, List<String>>();
+		for(int i = 0; i < 300; i++) {
+			List<String> values = new ArrayList<String>();
+			values.add("value" + i);
+			attributes.put("attribute" + i, values);
+		}
+		Map<String, Map<String, List<String>>> rawItems = new LinkedHashMap<String, Map<String, List<String>>>();
+		rawItems.put("item", attributes);
+
+		List<BatchPutAttributesRequest> requests = SimpleDbRequestBuilder.createBatchPutAttributesRequests("domain",
+				rawItems);
+
+		assertEquals(2, requests.size());
+		for(BatchPutAttributesRequest request : requests) {
+			for(ReplaceableItem item : request.getItems()) {
+				assertTrue(item.getAttributes().size() <= 256);
+			}
+		}
+	}
+
+	private List<SimpleDbSampleEntity> createEntities(int ageOffset) {
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName("item" + i);
+			entity.setAge(ageOffset + i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		return entities;
+	}
+
+	static class CountingSimpleDb extends InMemorySimpleDb {
+
+		private final AtomicInteger puts = new AtomicInteger();
+		private final AtomicInteger batchPuts = new AtomicInteger();
+		private final AtomicInteger batchDeletes = new AtomicInteger();
+
+		@Override
+		public void putAttributes(PutAttributesRequest putAttributesRequest) {
+			puts.incrementAndGet();
+			super.putAttributes(putAttributesRequest);
+		}
+
+		@Override
+		public void batchPutAttributes(BatchPutAttributesRequest batchPutAttributesRequest) {
+			batchPuts.incrementAndGet();
+			super.batchPutAttributes(batchPutAttributesRequest);
+		}
+
+		@Override
+		public void batchDeleteAttributes(BatchDeleteAttributesRequest batchDeleteAttributesRequest) {
+			batchDeletes.incrementAndGet();
+			super.batchDeleteAttributes(batchDeleteAttributesRequest);
+		}
+	}
+}
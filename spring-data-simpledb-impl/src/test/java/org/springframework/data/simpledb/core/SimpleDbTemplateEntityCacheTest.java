@@ -0,0 +1,196 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbCachedEntity;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationStatistics;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+public class SimpleDbTemplateEntityCacheTest {
+
+	private static final String DOMAIN = "simpleDbCachedEntity";
+
+	private SimpleDbMetrics metrics;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		metrics = new SimpleDbMetrics();
+
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		template.createOrUpdate(new SimpleDbCachedEntity("item1", 1));
+		template.createOrUpdate(new SimpleDbCachedEntity("item2", 2));
+
+		metrics.reset();
+	}
+
+	@Test
+	public void read_should_be_served_from_cache_after_first_read() {
+		SimpleDbCachedEntity first = template.read("item1", SimpleDbCachedEntity.class);
+		first.setAge(10);
+		SimpleDbCachedEntity second = template.read("item1", SimpleDbCachedEntity.class);
+
+		assertEquals(1, second.getAge());
+		assertNotSame(first, second);
+		assertEquals(1, getCalls(OperationType.GET));
+		assertEquals(1, template.getEntityCacheHits());
+		assertEquals(1, template.getEntityCacheMisses());
+	}
+
+	@Test
+	public void consistent_read_should_bypass_cache() {
+		template.read("item1", SimpleDbCachedEntity.class);
+		template.read("item1", SimpleDbCachedEntity.class, true);
+
+		assertEquals(2, getCalls(OperationType.GET));
+		assertEquals(0, template.getEntityCacheHits());
+	}
+
+	@Test
+	public void readAll_should_only_select_uncached_items() {
+		template.read("item1", SimpleDbCachedEntity.class);
+
+		List<SimpleDbCachedEntity> read = template.readAll(Arrays.asList("item2", "item1"),
+				SimpleDbCachedEntity.class);
+
+		assertEquals("item2", read.get(0).getItemName());
+		assertEquals("item1", read.get(1).getItemName());
+		assertEquals(1, template.getEntityCacheHits());
+		assertEquals(1, metrics.getOperationStatistics(DOMAIN, OperationType.SELECT).getItems());
+
+		template.readAll(Arrays.asList("item1", "item2"), SimpleDbCachedEntity.class);
+		assertEquals(1, getCalls(OperationType.SELECT));
+	}
+
+	@Test
+	public void writes_should_invalidate_cached_items() {
+		template.read("item1", SimpleDbCachedEntity.class);
+		template.createOrUpdate(new SimpleDbCachedEntity("item1", 5));
+		assertEquals(5, template.read("item1", SimpleDbCachedEntity.class).getAge());
+
+		template.update("item1", SimpleDbCachedEntity.class, Collections.singletonMap("age", 6));
+		assertEquals(6, template.read("item1", SimpleDbCachedEntity.class).getAge());
+
+		template.delete(SimpleDbCachedEntity.class, "item1");
+		assertNull(template.read("item1", SimpleDbCachedEntity.class));
+		assertEquals(0, template.getEntityCacheHits());
+	}
+
+	@Test
+	public void writes_of_other_templates_should_invalidate_cached_items() {
+		SimpleDbTemplate other = new SimpleDbTemplate(simpleDb);
+		template.read("item1", SimpleDbCachedEntity.class);
+
+		other.createOrUpdate(new SimpleDbCachedEntity("item1", 5));
+
+		assertEquals(5, template.read("item1", SimpleDbCachedEntity.class).getAge());
+		assertEquals(5, other.read("item1", SimpleDbCachedEntity.class).getAge());
+		assertEquals(1, other.getEntityCacheHits());
+	}
+
+	@Test
+	public void entities_without_annotation_should_not_be_cached() {
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("sample");
+		entity.setAtts(new HashMap<String, String>());
+		template.createOrUpdate(entity);
+
+		template.read("sample", SimpleDbSampleEntity.class);
+		template.read("sample", SimpleDbSampleEntity.class);
+
+		assertEquals(0, template.getEntityCacheSize());
+		assertEquals(2, metrics.getOperationStatistics("simpleDbSampleEntity", OperationType.GET).getCalls());
+	}
+
+	@Test
+	public void cache_should_be_disabled_by_zero_size() {
+		simpleDb.setEntityCacheSize(0);
+		template = new SimpleDbTemplate(simpleDb);
+
+		template.read("item1", SimpleDbCachedEntity.class);
+		template.read("item1", SimpleDbCachedEntity.class);
+
+		assertEquals(2, getCalls(OperationType.GET));
+	}
+
+	@Test
+	public void cache_size_change_should_apply_to_existing_templates() {
+		template.read("item1", SimpleDbCachedEntity.class);
+		assertEquals(1, template.getEntityCacheSize());
+
+		simpleDb.setEntityCacheSize(0);
+		assertEquals(0, template.getEntityCacheSize());
+
+		template.read("item1", SimpleDbCachedEntity.class);
+		assertEquals(2, getCalls(OperationType.GET));
+		assertEquals(0, template.getEntityCacheSize());
+	}
+
+	@Test
+	public void resize_should_evict_least_recently_used_items() {
+		EntityCache cache = new EntityCache(3);
+		cache.put(DOMAIN, createItem("item1"), 0);
+		cache.put(DOMAIN, createItem("item2"), 0);
+		cache.put(DOMAIN, createItem("item3"), 0);
+		cache.get(DOMAIN, "item1");
+
+		cache.resize(2);
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get(DOMAIN, "item2"));
+		assertNotNull(cache.get(DOMAIN, "item1"));
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void cache_should_evict_least_recently_used_items() {
+		EntityCache cache = new EntityCache(2);
+		cache.put(DOMAIN, createItem("item1"), 0);
+		cache.put(DOMAIN, createItem("item2"), 0);
+		cache.get(DOMAIN, "item1");
+		cache.put(DOMAIN, createItem("item3"), 0);
+
+		assertNotNull(cache.get(DOMAIN, "item1"));
+		assertNull(cache.get(DOMAIN, "item2"));
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void cache_should_evict_expired_items() throws InterruptedException {
+		EntityCache cache = new EntityCache(2);
+		cache.put(DOMAIN, createItem("item1"), 1);
+		Thread.sleep(1);
+
+		assertNull(cache.get(DOMAIN, "item1"));
+		assertEquals(0, cache.size());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	private long getCalls(OperationType operationType) {
+		final OperationStatistics statistics = metrics.getOperationStatistics(DOMAIN, operationType);
+		return statistics == null ? 0 : statistics.getCalls();
+	}
+
+	private static Item createItem(String itemName) {
+		return new Item(itemName, Arrays.asList(new Attribute("age", "1")));
+	}
+}
@@ -0,0 +1,114 @@
+package org.springframework.data.simpledb.core;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.SelectResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SimpleDbTemplateIterateTest {
+
+	private static final int NUMBER_OF_ENTITIES = 230;
+
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName(String.format("item%03d", i));
+			entity.setAge(i);
+			entity.setAtts(new HashMap<String, String>());
+			template.createOrUpdate(entity);
+		}
+	}
+
+	@Test
+	public void iterateAll_should_return_all_items() {
+		Iterator<SimpleDbSampleEntity> iterator = template.iterateAll(SimpleDbSampleEntity.class);
+
+		Set<String> itemNames = new HashSet<String>();
+		while(iterator.hasNext()) {
+			itemNames.add(iterator.next().getItemName());
+		}
+
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+	}
+
+	@Test
+	public void iterate_should_return_matching_items() {
+		Iterator<SimpleDbSampleEntity> iterator = template.iterate(SimpleDbSampleEntity.class,
+				"select * from `simpleDbSampleEntity` where itemName() > 'item199'");
+
+		int count = 0;
+		while(iterator.hasNext()) {
+			iterator.next();
+			count++;
+		}
+
+		assertEquals(30, count);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void iterate_should_honour_query_limit() {
+		Iterator<SimpleDbSampleEntity> iterator = template.iterate(SimpleDbSampleEntity.class,
+				"select * from `simpleDbSampleEntity` limit 5");
+
+		for(int i = 0; i < 5; i++) {
+			assertNotNull(iterator.next());
+		}
+		assertFalse(iterator.hasNext());
+
+		iterator.next();
+	}
+
+	@Test
+	public void selectResultIterator_should_follow_next_token() {
+		final List<String> requestedTokens = new ArrayList<String>();
+		Iterator<String> iterator = new SelectResultIterator<String>(Long.MAX_VALUE) {
+
+			@Override
+			protected SelectResult fetchPage(String nextToken) {
+				requestedTokens.add(nextToken);
+				int page = requestedTokens.size();
+				return new SelectResult().withItems(new Item("item" + page, new ArrayList<Attribute>()))
+						.withNextToken(page < 3 ? "token" + page : null);
+			}
+
+			@Override
+			protected List<String> mapItems(List<Item> items) {
+				List<String> names = new ArrayList<String>();
+				for(Item item : items) {
+					names.add(item.getName());
+				}
+				return names;
+			}
+		};
+
+		List<String> results = new ArrayList<String>();
+		while(iterator.hasNext()) {
+			results.add(iterator.next());
+		}
+
+		assertEquals(Arrays.asList("item1", "item2", "item3"), results);
+		assertEquals(Arrays.asList(null, "token1", "token2"), requestedTokens);
+	}
+}
@@ -0,0 +1,168 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.domain.SimpleDbShardedEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationStatistics;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+public class SimpleDbTemplatePagingTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+	private static final String QUERY = "select * from `" + DOMAIN + "`";
+	private static final int NUMBER_OF_ENTITIES = 25;
+
+	private SimpleDbMetrics metrics;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		metrics = new SimpleDbMetrics();
+
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName("item" + i);
+			entity.setAge(i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		template.createOrUpdateAll(entities);
+
+		metrics.reset();
+	}
+
+	@Test
+	public void findSlice_should_follow_cursor_without_counting() {
+		Set<String> itemNames = new HashSet<String>();
+
+		SimpleDbSlice<SimpleDbSampleEntity> slice = template.findSlice(SimpleDbSampleEntity.class, QUERY, 10, null);
+		int slices = 1;
+		addItemNames(itemNames, slice);
+		while(slice.hasNext()) {
+			slice = template.findSlice(SimpleDbSampleEntity.class, QUERY, 10, slice.getNextCursor());
+			slices++;
+			addItemNames(itemNames, slice);
+		}
+
+		assertEquals(3, slices);
+		assertEquals(5, slice.getContent().size());
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+		assertEquals(3, getCalls(DOMAIN, OperationType.SELECT));
+		assertEquals(0, getCalls(DOMAIN, OperationType.COUNT));
+	}
+
+	@Test
+	public void findSlice_should_go_through_shards() {
+		for(int i = 0; i < 12; i++) {
+			template.createOrUpdate(new SimpleDbShardedEntity("sharded" + i, i));
+		}
+
+		Set<String> itemNames = new HashSet<String>();
+		String cursor = null;
+		do {
+			SimpleDbSlice<SimpleDbShardedEntity> slice = template.findSlice(SimpleDbShardedEntity.class,
+					"select * from `simpleDbShardedEntity`", 5, cursor);
+			for(SimpleDbShardedEntity entity : slice) {
+				itemNames.add(entity.getItemName());
+			}
+			cursor = slice.getNextCursor();
+		} while(cursor != null);
+
+		assertEquals(12, itemNames.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void findSlice_should_fail_for_query_with_limit() {
+		template.findSlice(SimpleDbSampleEntity.class, QUERY + " limit 5", 10, null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void findSlice_should_fail_for_ordered_query_of_sharded_entity() {
+		template.findSlice(SimpleDbShardedEntity.class,
+				"select * from `simpleDbShardedEntity` where age is not null order by age", 5, null);
+	}
+
+	@Test
+	public void executePagedQuery_should_start_next_page_at_cached_token() {
+		Page<SimpleDbSampleEntity> first = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(0, 10));
+		Page<SimpleDbSampleEntity> second = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(1, 10));
+		Page<SimpleDbSampleEntity> last = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(2, 10));
+
+		Set<String> itemNames = new HashSet<String>();
+		addItemNames(itemNames, first);
+		addItemNames(itemNames, second);
+		addItemNames(itemNames, last);
+
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+		assertEquals(5, last.getContent().size());
+		assertEquals(NUMBER_OF_ENTITIES, first.getTotalElements());
+		assertEquals(NUMBER_OF_ENTITIES, last.getTotalElements());
+
+		/* no offset counts, the total of the last page is known */
+		assertEquals(3, getCalls(DOMAIN, OperationType.SELECT));
+		assertEquals(2, getCalls(DOMAIN, OperationType.COUNT));
+	}
+
+	@Test
+	public void executePagedQuery_should_not_count_single_page() {
+		Page<SimpleDbSampleEntity> page = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(0, 50));
+
+		assertEquals(NUMBER_OF_ENTITIES, page.getTotalElements());
+		assertEquals(0, getCalls(DOMAIN, OperationType.COUNT));
+	}
+
+	@Test
+	public void executePagedQuery_should_skip_more_items_than_a_count_limit() {
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < 2985; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName("extra" + i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		template.createOrUpdateAll(entities);
+		metrics.reset();
+
+		Page<SimpleDbSampleEntity> page = template.executePagedQuery(SimpleDbSampleEntity.class, QUERY,
+				new PageRequest(3, 1000));
+
+		assertEquals(10, page.getContent().size());
+		assertEquals(3010, page.getTotalElements());
+		assertEquals(2, getCalls(DOMAIN, OperationType.COUNT));
+	}
+
+	private void addItemNames(Set<String> itemNames, Iterable<SimpleDbSampleEntity> entities) {
+		for(SimpleDbSampleEntity entity : entities) {
+			itemNames.add(entity.getItemName());
+		}
+	}
+
+	private long getCalls(String domain, OperationType operationType) {
+		final OperationStatistics statistics = metrics.getOperationStatistics(domain, operationType);
+		return statistics == null ? 0 : statistics.getCalls();
+	}
+}
@@ -0,0 +1,96 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.entity.json.JsonMarshaller;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.query.SampleEntity;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+
+public class SimpleDbTemplateProjectionTest {
+
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		for(int i = 0; i < 3; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName("item" + i);
+			entity.setAge(i);
+			entity.setBooleanField(i % 2 == 0);
+			entity.setAtts(new HashMap<String, String>());
+			template.createOrUpdate(entity);
+		}
+	}
+
+	@Test
+	public void findProjections_should_decode_selected_attributes() {
+		List<Map<String, Object>> projections = template.findProjections(SimpleDbSampleEntity.class,
+				"select age, booleanField from `simpleDbSampleEntity` where age >= '" + SimpleDBAttributeConverter.encode(1)
+						+ "'");
+
+		assertEquals(2, projections.size());
+		for(Map<String, Object> projection : projections) {
+			assertEquals(Arrays.asList("age", "booleanField"), Arrays.asList(projection.keySet().toArray()));
+			int age = (Integer) projection.get("age");
+			assertTrue(age >= 1);
+			assertEquals(age % 2 == 0, projection.get("booleanField"));
+		}
+	}
+
+	@Test
+	public void map_should_only_decode_selected_attributes() {
+		String sampleList = JsonMarshaller.getInstance().marshall(new ArrayList<Integer>(Arrays.asList(1, 2)));
+		Item item = new Item("item", Arrays.asList(new Attribute("sampleList", sampleList), new Attribute(
+				"listOfListOfInteger", "not json")));
+
+		Map<String, Object> projection = new ProjectionMapper(SampleEntity.class, Arrays.asList("item_id",
+				"sampleList", "sampleAttribute")).map(item);
+
+		assertEquals("item", projection.get("item_id"));
+		assertEquals(Arrays.asList(1, 2), projection.get("sampleList"));
+		assertEquals(0, projection.get("sampleAttribute"));
+	}
+
+	@Test
+	public void map_should_combine_values_exceeding_length() {
+		String sampleList = JsonMarshaller.getInstance().marshall(new ArrayList<Integer>(Arrays.asList(1, 2)));
+		int half = sampleList.length() / 2;
+		Item item = new Item("item", Arrays.asList(new Attribute("sampleList", "1@" + sampleList.substring(half)),
+				new Attribute("sampleList", "0@" + sampleList.substring(0, half))));
+
+		Map<String, Object> projection = new ProjectionMapper(SampleEntity.class, Arrays.asList("sampleList"))
+				.map(item);
+
+		assertEquals(Arrays.asList(1, 2), projection.get("sampleList"));
+	}
+
+	@Test
+	public void nested_entities_should_not_be_projected() {
+		assertTrue(ProjectionMapper.isSupported(SampleEntity.class, Arrays.asList("sampleAttribute", "sampleList")));
+		assertFalse(ProjectionMapper.isSupported(SampleEntity.class, Arrays.asList("sampleNestedAttribute")));
+		assertFalse(ProjectionMapper.isSupported(SimpleDbSampleEntity.class, Arrays.asList("atts")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void mapper_should_fail_for_unknown_attribute() {
+		new ProjectionMapper(SampleEntity.class, Arrays.asList("unknown"));
+	}
+}
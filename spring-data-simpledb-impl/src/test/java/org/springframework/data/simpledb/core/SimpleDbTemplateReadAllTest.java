@@ -0,0 +1,96 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+public class SimpleDbTemplateReadAllTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+	private static final int NUMBER_OF_ENTITIES = 50;
+
+	private ExecutorService executor;
+	private SimpleDbMetrics metrics;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(3);
+		metrics = new SimpleDbMetrics();
+
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setBatchExecutor(executor);
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setItemName("item" + i);
+			entity.setAge(i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		template.createOrUpdateAll(entities);
+
+		metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void readAll_should_return_entities_in_id_order_with_chunked_selects() {
+		List<String> ids = new ArrayList<String>();
+		for(int i = NUMBER_OF_ENTITIES - 1; i >= 0; i--) {
+			ids.add("item" + i);
+		}
+		ids.add(5, "missing");
+
+		List<SimpleDbSampleEntity> read = template.readAll(ids, SimpleDbSampleEntity.class);
+
+		assertEquals(NUMBER_OF_ENTITIES, read.size());
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			assertEquals(NUMBER_OF_ENTITIES - 1 - i, read.get(i).getAge());
+		}
+
+		/* 51 ids in chunks of 20 */
+		assertEquals(3, metrics.getOperationStatistics(DOMAIN, OperationType.SELECT).getCalls());
+	}
+
+	@Test
+	public void readAll_should_return_duplicate_ids_once() {
+		List<String> ids = new ArrayList<String>();
+		ids.add("item3");
+		ids.add("item1");
+		ids.add("item3");
+
+		List<SimpleDbSampleEntity> read = template.readAll(ids, SimpleDbSampleEntity.class, true);
+
+		assertEquals(2, read.size());
+		assertEquals("item3", read.get(0).getItemName());
+		assertEquals("item1", read.get(1).getItemName());
+	}
+
+	@Test
+	public void readAll_should_return_empty_list_for_no_ids() {
+		assertTrue(template.readAll(new ArrayList<String>(), SimpleDbSampleEntity.class).isEmpty());
+		assertNull(metrics.getOperationStatistics(DOMAIN, OperationType.SELECT));
+	}
+}
@@ -0,0 +1,96 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+
+public class SimpleDbTemplateReadTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+
+	private SimpleDbMetrics metrics;
+	private InMemorySimpleDb simpleDbClient;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		metrics = new SimpleDbMetrics();
+
+		simpleDbClient = new InMemorySimpleDb();
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("item");
+		entity.setAge(42);
+		entity.setBooleanField(true);
+		entity.setAtts(new HashMap<String, String>());
+		template.createOrUpdate(entity);
+
+		metrics.reset();
+	}
+
+	@Test
+	public void read_should_get_attributes_without_select() {
+		SimpleDbSampleEntity read = template.read("item", SimpleDbSampleEntity.class, true);
+
+		assertEquals("item", read.getItemName());
+		assertEquals(42, read.getAge());
+		assertTrue(read.getBooleanField());
+		assertEquals(1, metrics.getOperationStatistics(DOMAIN, OperationType.GET).getCalls());
+		assertNull(metrics.getOperationStatistics(DOMAIN, OperationType.SELECT));
+	}
+
+	@Test
+	public void createQuery_should_bind_positional_parameters_as_literals() {
+		assertEquals(1, template.createQuery(SimpleDbSampleEntity.class, "itemName() in ? and age = ?",
+				new String[] { "item", "other" }, 42).find(true).size());
+		assertTrue(template.createQuery(SimpleDbSampleEntity.class, "itemName() = ?", "o'hara").find(true).isEmpty());
+	}
+
+	@Test
+	public void read_should_return_null_for_missing_item() {
+		assertNull(template.read("missing", SimpleDbSampleEntity.class));
+	}
+
+	@Test
+	public void read_should_only_populate_requested_attributes() {
+		SimpleDbSampleEntity read = template.read("item", SimpleDbSampleEntity.class, false, "age");
+
+		assertEquals("item", read.getItemName());
+		assertEquals(42, read.getAge());
+		assertFalse(read.getBooleanField());
+	}
+
+	@Test
+	public void exists_should_get_attributes_without_select() {
+		assertTrue(template.exists("item", SimpleDbSampleEntity.class));
+		assertFalse(template.exists("missing", SimpleDbSampleEntity.class, true));
+
+		assertEquals(2, metrics.getOperationStatistics(DOMAIN, OperationType.GET).getCalls());
+		assertNull(metrics.getOperationStatistics(DOMAIN, OperationType.SELECT));
+	}
+
+	@Test
+	public void exists_should_find_item_without_primitive_attributes() {
+		/* e.g. written by another client or by an older version of the entity */
+		simpleDbClient.putAttributes(new PutAttributesRequest(DOMAIN, "partial", Collections
+				.singletonList(new ReplaceableAttribute("atts", "{}", true))));
+
+		assertTrue(template.exists("partial", SimpleDbSampleEntity.class, true));
+	}
+}
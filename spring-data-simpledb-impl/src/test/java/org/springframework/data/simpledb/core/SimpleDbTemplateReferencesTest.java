@@ -0,0 +1,145 @@
+package org.springframework.data.simpledb.core;
+
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Reference;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimpleDbTemplateReferencesTest {
+
+	private static final int NUMBER_OF_PARENTS = 50;
+	private static final int NUMBER_OF_CHILDREN = 30;
+
+	private CountingSimpleDb simpleDbClient;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDbClient = new CountingSimpleDb();
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		for(int i = 0; i < NUMBER_OF_PARENTS; i++) {
+			Child child = new Child();
+			child.setId("child" + i % NUMBER_OF_CHILDREN);
+			child.setName("name" + i % NUMBER_OF_CHILDREN);
+
+			Parent parent = new Parent();
+			parent.setId("parent" + i);
+			parent.setChild(child);
+			template.createOrUpdate(parent);
+		}
+	}
+
+	@Test
+	public void find_should_resolve_references_with_chunked_selects() {
+		simpleDbClient.selects = 0;
+
+		List<Parent> parents = template.findAll(Parent.class);
+
+		assertEquals(NUMBER_OF_PARENTS, parents.size());
+		for(Parent parent : parents) {
+			int index = Integer.parseInt(parent.getId().substring("parent".length()));
+			assertEquals("name" + index % NUMBER_OF_CHILDREN, parent.getChild().getName());
+		}
+
+		/* one select for the parents, two for the 30 distinct children in chunks of 20 */
+		assertEquals(3, simpleDbClient.selects);
+	}
+
+	@Test
+	public void find_should_share_repeated_references() {
+		List<Parent> parents = template.find(Parent.class,
+				"select * from `parent` where itemName() in ('parent1','parent31')");
+
+		assertEquals(2, parents.size());
+		assertSame(parents.get(0).getChild(), parents.get(1).getChild());
+	}
+
+	@Test
+	public void createOrUpdateAll_should_store_ids_of_new_references() {
+		Child child = new Child();
+		child.setName("new child");
+
+		Parent parent = new Parent();
+		parent.setId("new parent");
+		parent.setChild(child);
+		template.createOrUpdateAll(Arrays.asList(parent));
+
+		assertNotNull(child.getId());
+		Parent read = template.read("new parent", Parent.class, true);
+		assertNotNull(read.getChild());
+		assertEquals(child.getId(), read.getChild().getId());
+		assertEquals("new child", read.getChild().getName());
+	}
+
+	static class CountingSimpleDb extends InMemorySimpleDb {
+
+		private volatile int selects;
+
+		@Override
+		public SelectResult select(SelectRequest selectRequest) {
+			selects++;
+			return super.select(selectRequest);
+		}
+	}
+
+	public static class Parent {
+
+		@Id
+		private String id;
+
+		@Reference
+		private Child child;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public Child getChild() {
+			return child;
+		}
+
+		public void setChild(Child child) {
+			this.child = child;
+		}
+	}
+
+	public static class Child {
+
+		@Id
+		private String id;
+
+		private String name;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+}
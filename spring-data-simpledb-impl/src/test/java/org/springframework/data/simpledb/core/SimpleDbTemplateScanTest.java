@@ -0,0 +1,203 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.domain.SimpleDbShardedEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+public class SimpleDbTemplateScanTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+	private static final int NUMBER_OF_ENTITIES = 40;
+
+	private ExecutorService executor;
+	private SimpleDbMetrics metrics;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		metrics = new SimpleDbMetrics();
+
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.setBatchExecutor(executor);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		List<SimpleDbSampleEntity> entities = new ArrayList<SimpleDbSampleEntity>();
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			/* generated item names */
+			SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+			entity.setAge(i);
+			entity.setAtts(new HashMap<String, String>());
+			entities.add(entity);
+		}
+		template.createOrUpdateAll(entities);
+
+		metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void scanAll_should_pass_every_entity_once() {
+		final Set<String> itemNames = Collections.synchronizedSet(new HashSet<String>());
+
+		long scanned = template.scanAll(SimpleDbSampleEntity.class, 4, new ScanCallback<SimpleDbSampleEntity>() {
+
+			@Override
+			public void doWith(SimpleDbSampleEntity entity) {
+				assertTrue(itemNames.add(entity.getItemName()));
+			}
+		});
+
+		assertEquals(NUMBER_OF_ENTITIES, scanned);
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+		assertEquals(4, metrics.getOperationStatistics(DOMAIN, OperationType.SELECT).getCalls());
+	}
+
+	@Test
+	public void scan_should_go_through_segments_of_every_shard() {
+		for(int i = 0; i < 12; i++) {
+			template.createOrUpdate(new SimpleDbShardedEntity("sharded" + i, i));
+		}
+
+		final Set<String> itemNames = Collections.synchronizedSet(new HashSet<String>());
+		long scanned = template.scanAll(SimpleDbShardedEntity.class, 2, new ScanCallback<SimpleDbShardedEntity>() {
+
+			@Override
+			public void doWith(SimpleDbShardedEntity entity) {
+				itemNames.add(entity.getItemName());
+			}
+		});
+
+		assertEquals(12, scanned);
+		assertEquals(12, itemNames.size());
+	}
+
+	@Test
+	public void scan_should_use_item_name_splitter() {
+		simpleDb.setItemNameSplitter(new ItemNameSplitter() {
+
+			@Override
+			public List<String> getBoundaries(int segments) {
+				return Arrays.asList("8");
+			}
+		});
+
+		final Set<String> itemNames = Collections.synchronizedSet(new HashSet<String>());
+		template.scan(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "` where age >= '"
+				+ SimpleDBAttributeConverter.encode(0) + "'", 2,
+				new ScanCallback<SimpleDbSampleEntity>() {
+
+					@Override
+					public void doWith(SimpleDbSampleEntity entity) {
+						itemNames.add(entity.getItemName());
+					}
+				});
+
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+		assertEquals(2, metrics.getOperationStatistics(DOMAIN, OperationType.SELECT).getCalls());
+	}
+
+	@Test
+	public void scan_should_split_queries_with_keywords_in_literals() {
+		final Set<String> itemNames = Collections.synchronizedSet(new HashSet<String>());
+		template.scan(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "` where age >= '"
+				+ SimpleDBAttributeConverter.encode(0) + "' or age = ' where age order by age limit 1'", 4,
+				new ScanCallback<SimpleDbSampleEntity>() {
+
+					@Override
+					public void doWith(SimpleDbSampleEntity entity) {
+						itemNames.add(entity.getItemName());
+					}
+				});
+
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+		assertEquals(4, metrics.getOperationStatistics(DOMAIN, OperationType.SELECT).getCalls());
+	}
+
+	@Test(timeout = 10000)
+	public void scan_should_read_references_of_segments_on_a_single_thread_executor() {
+		ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+		simpleDb.setBatchExecutor(singleThreadExecutor);
+		try {
+			for(int i = 0; i < 30; i++) {
+				SimpleDbTemplateReferencesTest.Child child = new SimpleDbTemplateReferencesTest.Child();
+				child.setId("child" + i);
+				child.setName("name" + i);
+
+				SimpleDbTemplateReferencesTest.Parent parent = new SimpleDbTemplateReferencesTest.Parent();
+				parent.setId("parent" + i);
+				parent.setChild(child);
+				template.createOrUpdate(parent);
+			}
+
+			final Set<String> names = Collections.synchronizedSet(new HashSet<String>());
+			long scanned = template.scanAll(SimpleDbTemplateReferencesTest.Parent.class, 2,
+					new ScanCallback<SimpleDbTemplateReferencesTest.Parent>() {
+
+						@Override
+						public void doWith(SimpleDbTemplateReferencesTest.Parent parent) {
+							names.add(parent.getChild().getName());
+						}
+					});
+
+			assertEquals(30, scanned);
+			assertEquals(30, names.size());
+		} finally {
+			singleThreadExecutor.shutdownNow();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void scan_should_rethrow_failure_of_callback() {
+		template.scanAll(SimpleDbSampleEntity.class, 4, new ScanCallback<SimpleDbSampleEntity>() {
+
+			@Override
+			public void doWith(SimpleDbSampleEntity entity) {
+				throw new IllegalStateException();
+			}
+		});
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void scan_should_fail_for_query_with_limit() {
+		template.scan(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "` limit 5", 4,
+				new ScanCallback<SimpleDbSampleEntity>() {
+
+					@Override
+					public void doWith(SimpleDbSampleEntity entity) {
+					}
+				});
+	}
+
+	@Test
+	public void hex_splitter_should_spread_boundaries_evenly() {
+		assertEquals(Arrays.asList("40", "80", "c0"), new HexItemNameSplitter().getBoundaries(4));
+		assertEquals(Arrays.asList("55", "aa"), new HexItemNameSplitter().getBoundaries(3));
+	}
+}
@@ -0,0 +1,161 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.simpledb.core.domain.SimpleDbShardedEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import com.amazonaws.services.simpledb.model.SelectRequest;
+
+public class SimpleDbTemplateShardingTest {
+
+	private static final int NUMBER_OF_ENTITIES = 40;
+	private static final String DOMAIN = "simpleDbShardedEntity";
+
+	private InMemorySimpleDb simpleDbClient;
+	private ExecutorService executor;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDbClient = new InMemorySimpleDb();
+		executor = Executors.newFixedThreadPool(4);
+
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setBatchExecutor(executor);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			template.createOrUpdate(new SimpleDbShardedEntity(String.format("item%03d", i), i));
+		}
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void createOrUpdate_should_spread_items_over_all_shards() {
+		assertEquals(Arrays.asList(DOMAIN + ".0", DOMAIN + ".1", DOMAIN + ".2", DOMAIN + ".3"),
+				simpleDbClient.listDomains().getDomainNames());
+
+		int items = 0;
+		for(int shard = 0; shard < 4; shard++) {
+			int shardItems = simpleDbClient.select(new SelectRequest("select * from `" + DOMAIN + "." + shard + "`"))
+					.getItems().size();
+			assertTrue(shardItems > 0);
+			items += shardItems;
+		}
+		assertEquals(NUMBER_OF_ENTITIES, items);
+	}
+
+	@Test
+	public void read_should_return_item_from_owning_shard() {
+		SimpleDbShardedEntity entity = template.read("item007", SimpleDbShardedEntity.class);
+
+		assertEquals(7, entity.getAge());
+		assertEquals(template.getDomainName(SimpleDbShardedEntity.class, "item007"), DOMAIN + "."
+				+ SimpleDbDomain.getShard("item007", 4));
+	}
+
+	@Test
+	public void find_should_merge_shards_in_order_and_honour_limit() {
+		List<SimpleDbShardedEntity> found = template.find(SimpleDbShardedEntity.class, "select * from `" + DOMAIN
+				+ "` where age is not null order by age desc limit 5");
+
+		assertEquals(Arrays.asList(39, 38, 37, 36, 35), getAges(found));
+	}
+
+	@Test
+	public void count_should_sum_all_shards() {
+		assertEquals(NUMBER_OF_ENTITIES, template.count(SimpleDbShardedEntity.class));
+		assertEquals(10, template.count("select count(*) from `" + DOMAIN + "` where itemName() < 'item010'",
+				SimpleDbShardedEntity.class));
+	}
+
+	@Test
+	public void executePagedQuery_should_cut_page_out_of_merged_shards() {
+		Page<SimpleDbShardedEntity> page = template.executePagedQuery(SimpleDbShardedEntity.class, "select * from `"
+				+ DOMAIN + "`", new PageRequest(2, 7, new Sort("age")));
+
+		assertEquals(Arrays.asList(14, 15, 16, 17, 18, 19, 20), getAges(page.getContent()));
+		assertEquals(NUMBER_OF_ENTITIES, page.getTotalElements());
+	}
+
+	@Test
+	public void iterate_should_return_items_of_all_shards() {
+		Iterator<SimpleDbShardedEntity> iterator = template.iterateAll(SimpleDbShardedEntity.class);
+
+		Set<String> itemNames = new HashSet<String>();
+		while(iterator.hasNext()) {
+			itemNames.add(iterator.next().getItemName());
+		}
+		assertEquals(NUMBER_OF_ENTITIES, itemNames.size());
+	}
+
+	@Test
+	public void iterate_should_merge_shards_in_order() {
+		Iterator<SimpleDbShardedEntity> iterator = template.iterate(SimpleDbShardedEntity.class, "select * from `"
+				+ DOMAIN + "` where age is not null order by age desc");
+
+		List<SimpleDbShardedEntity> iterated = new ArrayList<SimpleDbShardedEntity>();
+		while(iterator.hasNext()) {
+			iterated.add(iterator.next());
+		}
+
+		List<Integer> ages = getAges(iterated);
+		assertEquals(NUMBER_OF_ENTITIES, ages.size());
+		for(int i = 0; i < NUMBER_OF_ENTITIES; i++) {
+			assertEquals(NUMBER_OF_ENTITIES - 1 - i, ages.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void iterate_should_honour_limit_of_ordered_query() {
+		Iterator<SimpleDbShardedEntity> iterator = template.iterate(SimpleDbShardedEntity.class, "select * from `"
+				+ DOMAIN + "` where age is not null order by age limit 3");
+
+		List<SimpleDbShardedEntity> iterated = new ArrayList<SimpleDbShardedEntity>();
+		while(iterator.hasNext()) {
+			iterated.add(iterator.next());
+		}
+
+		assertEquals(Arrays.asList(0, 1, 2), getAges(iterated));
+	}
+
+	@Test
+	public void delete_should_remove_items_from_their_shards() {
+		template.delete(SimpleDbShardedEntity.class, Arrays.asList("item000", "item001", "item002"));
+		template.delete(template.read("item003", SimpleDbShardedEntity.class));
+
+		assertNull(template.read("item000", SimpleDbShardedEntity.class));
+		assertNull(template.read("item003", SimpleDbShardedEntity.class));
+		assertEquals(NUMBER_OF_ENTITIES - 4, template.count(SimpleDbShardedEntity.class));
+	}
+
+	private static List<Integer> getAges(List<SimpleDbShardedEntity> entities) {
+		List<Integer> ages = new ArrayList<Integer>();
+		for(SimpleDbShardedEntity entity : entities) {
+			ages.add(entity.getAge());
+		}
+		return ages;
+	}
+}
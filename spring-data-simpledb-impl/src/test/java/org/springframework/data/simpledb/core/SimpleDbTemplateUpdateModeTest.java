@@ -0,0 +1,259 @@
+package org.springframework.data.simpledb.core;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SimpleDbTemplateUpdateModeTest {
+
+	private CountingSimpleDb simpleDbClient;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDbClient = new CountingSimpleDb();
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setUpdateMode(UpdateMode.REPLACE);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+	}
+
+	@Test
+	public void replace_should_only_delete_vanished_attributes() {
+		SampleEntity entity = createEntity("item", "first", "second");
+		template.createOrUpdate(entity);
+
+		entity.setSecond(null);
+		template.createOrUpdate(entity);
+
+		assertEquals(0, simpleDbClient.itemDeletes);
+		assertEquals(1, simpleDbClient.attributeDeletes);
+		assertEquals(0, simpleDbClient.getAttributes);
+
+		SampleEntity read = template.read("item", SampleEntity.class);
+		assertEquals("first", read.getFirst());
+		assertNull(read.getSecond());
+	}
+
+	@Test
+	public void replace_should_not_delete_when_no_attribute_vanished() {
+		SampleEntity entity = createEntity("item", "first", null);
+		template.createOrUpdate(entity);
+
+		entity.setFirst("changed");
+		template.createOrUpdate(entity);
+
+		assertEquals(0, simpleDbClient.itemDeletes);
+		assertEquals(0, simpleDbClient.attributeDeletes);
+		assertEquals("changed", template.read("item", SampleEntity.class).getFirst());
+	}
+
+	@Test
+	public void replace_should_fetch_attribute_names_of_unknown_items() {
+		template.createOrUpdate(createEntity("item", "first", "second"));
+
+		SimpleDbTemplate otherTemplate = createTemplateOfOtherSimpleDb();
+		otherTemplate.createOrUpdate(createEntity("item", "first", null));
+
+		assertEquals(1, simpleDbClient.getAttributes);
+		assertEquals(1, simpleDbClient.attributeDeletes);
+		assertNull(template.read("item", SampleEntity.class).getSecond());
+	}
+
+	@Test
+	public void replace_should_share_attribute_names_between_templates() {
+		template.createOrUpdate(createEntity("item", "first", "second"));
+
+		SimpleDbTemplate otherTemplate = new SimpleDbTemplate(simpleDb);
+		otherTemplate.createOrUpdate(createEntity("item", "first", null));
+
+		assertEquals(0, simpleDbClient.getAttributes);
+		assertEquals(1, simpleDbClient.attributeDeletes);
+		assertNull(template.read("item", SampleEntity.class).getSecond());
+	}
+
+	@Test
+	public void replace_should_use_names_of_consistently_read_entities() {
+		template.createOrUpdate(createEntity("item", "first", "second"));
+
+		SimpleDbTemplate otherTemplate = createTemplateOfOtherSimpleDb();
+		SampleEntity entity = otherTemplate.read("item", SampleEntity.class, true);
+		entity.setFirst(null);
+		simpleDbClient.getAttributes = 0;
+		otherTemplate.createOrUpdate(entity);
+
+		assertEquals(0, simpleDbClient.getAttributes);
+		assertNull(template.read("item", SampleEntity.class).getFirst());
+	}
+
+	@Test
+	public void replace_should_not_use_names_of_stale_reads() {
+		template.createOrUpdate(createEntity("item", "first", "second"));
+
+		SimpleDbTemplate otherTemplate = createTemplateOfOtherSimpleDb();
+		simpleDbClient.staleAttributeName = "second";
+		SampleEntity entity = otherTemplate.read("item", SampleEntity.class, false);
+		assertNull(entity.getSecond());
+		simpleDbClient.staleAttributeName = null;
+		simpleDbClient.getAttributes = 0;
+		otherTemplate.createOrUpdate(entity);
+
+		assertEquals(1, simpleDbClient.getAttributes);
+		assertEquals(1, simpleDbClient.attributeDeletes);
+		assertNull(template.read("item", SampleEntity.class).getSecond());
+	}
+
+	@Test
+	public void replace_should_delete_vanished_attributes_in_bulk() {
+		List<SampleEntity> entities = new ArrayList<SampleEntity>();
+		for(int i = 0; i < 30; i++) {
+			entities.add(createEntity("item" + i, "first", "second"));
+		}
+		template.createOrUpdateAll(entities);
+
+		SimpleDbTemplate otherTemplate = createTemplateOfOtherSimpleDb();
+		for(SampleEntity entity : entities) {
+			entity.setSecond(null);
+		}
+		otherTemplate.createOrUpdateAll(entities);
+
+		assertEquals(0, simpleDbClient.itemDeletes);
+		for(int i = 0; i < 30; i++) {
+			SampleEntity read = template.read("item" + i, SampleEntity.class);
+			assertEquals("first", read.getFirst());
+			assertNull(read.getSecond());
+		}
+	}
+
+	@Test
+	public void replace_should_not_use_names_of_partial_selects() {
+		SampleEntity entity = createEntity("item", "first", "second");
+		template.createOrUpdate(entity);
+
+		template.find(SampleEntity.class, "select first from `" + simpleDb.getDomain(SampleEntity.class) + "`");
+		entity.setSecond(null);
+		template.createOrUpdate(entity);
+
+		assertNull(template.read("item", SampleEntity.class).getSecond());
+	}
+
+	@Test
+	public void replace_should_fetch_attribute_names_after_partial_update() {
+		SampleEntity entity = createEntity("item", "first", null);
+		template.createOrUpdate(entity);
+
+		template.update("item", SampleEntity.class, Collections.singletonMap("second", "second"));
+		simpleDbClient.getAttributes = 0;
+		template.createOrUpdate(entity);
+
+		assertEquals(1, simpleDbClient.getAttributes);
+		assertNull(template.read("item", SampleEntity.class).getSecond());
+	}
+
+	@Test
+	public void delete_and_put_should_remain_the_default() {
+		assertEquals(UpdateMode.DELETE_AND_PUT, new SimpleDb().getUpdateMode());
+	}
+
+	/*
+	 * Template of another application sharing the domains, it knows nothing about the items written so far
+	 */
+	private SimpleDbTemplate createTemplateOfOtherSimpleDb() {
+		SimpleDb otherSimpleDb = new SimpleDb();
+		otherSimpleDb.setSimpleDbClient(simpleDbClient);
+		otherSimpleDb.setUpdateMode(UpdateMode.REPLACE);
+		otherSimpleDb.afterPropertiesSet();
+		return new SimpleDbTemplate(otherSimpleDb);
+	}
+
+	private static SampleEntity createEntity(String itemName, String first, String second) {
+		SampleEntity entity = new SampleEntity();
+		entity.setItemName(itemName);
+		entity.setFirst(first);
+		entity.setSecond(second);
+		return entity;
+	}
+
+	static class CountingSimpleDb extends InMemorySimpleDb {
+
+		private int itemDeletes;
+		private int attributeDeletes;
+		private int getAttributes;
+		/* attribute missing from eventually consistent reads, as if its put did not propagate yet */
+		private String staleAttributeName;
+
+		@Override
+		public void deleteAttributes(DeleteAttributesRequest deleteAttributesRequest) {
+			if(deleteAttributesRequest.getAttributes().isEmpty()) {
+				itemDeletes++;
+			} else {
+				attributeDeletes++;
+			}
+			super.deleteAttributes(deleteAttributesRequest);
+		}
+
+		@Override
+		public GetAttributesResult getAttributes(GetAttributesRequest getAttributesRequest) {
+			getAttributes++;
+			final GetAttributesResult result = super.getAttributes(getAttributesRequest);
+			if(staleAttributeName == null || Boolean.TRUE.equals(getAttributesRequest.getConsistentRead())) {
+				return result;
+			}
+
+			final List<Attribute> attributes = new ArrayList<Attribute>();
+			for(Attribute attribute : result.getAttributes()) {
+				if(!staleAttributeName.equals(attribute.getName())) {
+					attributes.add(attribute);
+				}
+			}
+			return new GetAttributesResult().withAttributes(attributes);
+		}
+	}
+
+	public static class SampleEntity {
+
+		@Id
+		private String itemName;
+
+		private String first;
+
+		private String second;
+
+		public String getItemName() {
+			return itemName;
+		}
+
+		public void setItemName(String itemName) {
+			this.itemName = itemName;
+		}
+
+		public String getFirst() {
+			return first;
+		}
+
+		public void setFirst(String first) {
+			this.first = first;
+		}
+
+		public String getSecond() {
+			return second;
+		}
+
+		public void setSecond(String second) {
+			this.second = second;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.simpledb.core.domain.SimpleDbVersionedEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+public class SimpleDbTemplateVersionTest {
+
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		template.createOrUpdate(new SimpleDbVersionedEntity("item", 1));
+	}
+
+	@Test
+	public void createOrUpdate_should_increment_version() {
+		SimpleDbVersionedEntity entity = read();
+		assertEquals(Long.valueOf(1), entity.getVersion());
+
+		entity.setAge(2);
+		template.createOrUpdate(entity);
+
+		assertEquals(Long.valueOf(2), entity.getVersion());
+		assertEquals(Long.valueOf(2), read().getVersion());
+		assertEquals(2, read().getAge());
+	}
+
+	@Test
+	public void stale_save_should_fail_with_version_conflict() {
+		SimpleDbVersionedEntity first = read();
+		SimpleDbVersionedEntity second = read();
+
+		first.setAge(2);
+		template.createOrUpdate(first);
+
+		second.setAge(3);
+		try {
+			template.createOrUpdate(second);
+			fail("Stale save should fail");
+		} catch(OptimisticLockingFailureException e) {
+			/* the version of the failed save is kept */
+			assertEquals(Long.valueOf(1), second.getVersion());
+		}
+
+		assertEquals(2, read().getAge());
+	}
+
+	@Test(expected = OptimisticLockingFailureException.class)
+	public void new_entity_should_not_overwrite_existing_item() {
+		template.createOrUpdate(new SimpleDbVersionedEntity("item", 5));
+	}
+
+	@Test
+	public void createOrUpdate_should_delete_vanished_attributes() {
+		SimpleDbVersionedEntity entity = read();
+		entity.setDescription("description");
+		template.createOrUpdate(entity);
+		assertEquals("description", read().getDescription());
+
+		entity.setDescription(null);
+		template.createOrUpdate(entity);
+
+		assertNull(read().getDescription());
+		assertEquals(Long.valueOf(3), read().getVersion());
+	}
+
+	@Test
+	public void update_should_increment_stored_version() {
+		template.update("item", SimpleDbVersionedEntity.class, Collections.singletonMap("age", 5));
+
+		assertEquals(5, read().getAge());
+		assertEquals(Long.valueOf(2), read().getVersion());
+	}
+
+	@Test(expected = OptimisticLockingFailureException.class)
+	public void update_should_fail_for_stale_version_in_property_map() {
+		template.update("item", SimpleDbVersionedEntity.class, Collections.singletonMap("age", 5));
+
+		Map<String, Object> propertyMap = new HashMap<String, Object>();
+		propertyMap.put("age", 6);
+		propertyMap.put("version", 1L);
+		template.update("item", SimpleDbVersionedEntity.class, propertyMap);
+	}
+
+	@Test
+	public void stale_delete_should_fail_with_version_conflict() {
+		SimpleDbVersionedEntity stale = read();
+		template.createOrUpdate(read());
+
+		try {
+			template.delete(stale);
+			fail("Stale delete should fail");
+		} catch(OptimisticLockingFailureException e) {
+			assertNotNull(read());
+		}
+
+		template.delete(read());
+		assertNull(read());
+	}
+
+	@Test
+	public void update_with_callback_should_read_again_after_version_conflict() {
+		final AtomicInteger invocations = new AtomicInteger();
+
+		SimpleDbVersionedEntity updated = template.update("item", SimpleDbVersionedEntity.class,
+				new UpdateCallback<SimpleDbVersionedEntity>() {
+
+					@Override
+					public void doWith(SimpleDbVersionedEntity entity) {
+						if(invocations.incrementAndGet() == 1) {
+							/* concurrent writer */
+							SimpleDbVersionedEntity concurrent = read();
+							concurrent.setDescription("concurrent");
+							template.createOrUpdate(concurrent);
+						}
+						entity.setAge(entity.getAge() + 1);
+					}
+				});
+
+		assertEquals(2, invocations.get());
+		assertEquals(Long.valueOf(3), updated.getVersion());
+		assertEquals(2, read().getAge());
+		assertEquals("concurrent", read().getDescription());
+	}
+
+	@Test(expected = OptimisticLockingFailureException.class)
+	public void update_with_callback_should_give_up_after_attempts() {
+		simpleDb.setVersionConflictAttempts(2);
+
+		template.update("item", SimpleDbVersionedEntity.class, new UpdateCallback<SimpleDbVersionedEntity>() {
+
+			@Override
+			public void doWith(SimpleDbVersionedEntity entity) {
+				template.createOrUpdate(read());
+			}
+		});
+	}
+
+	@Test
+	public void update_with_callback_should_return_null_for_missing_item() {
+		assertNull(template.update("missing", SimpleDbVersionedEntity.class,
+				new UpdateCallback<SimpleDbVersionedEntity>() {
+
+					@Override
+					public void doWith(SimpleDbVersionedEntity entity) {
+						fail("Missing item should not be modified");
+					}
+				}));
+	}
+
+	@Test
+	public void createOrUpdateAll_should_save_versioned_entities_conditionally() {
+		SimpleDbVersionedEntity stale = read();
+		template.createOrUpdate(read());
+
+		List<SimpleDbVersionedEntity> saved = template.createOrUpdateAll(Arrays.asList(
+				new SimpleDbVersionedEntity("other", 1), new SimpleDbVersionedEntity("another", 2)));
+		assertEquals(Long.valueOf(1), saved.get(0).getVersion());
+		assertEquals(Long.valueOf(1), saved.get(1).getVersion());
+
+		try {
+			template.createOrUpdateAll(Arrays.asList(stale));
+			fail("Stale save should fail");
+		} catch(OptimisticLockingFailureException e) {
+			assertEquals(Long.valueOf(2), read().getVersion());
+		}
+	}
+
+	private SimpleDbVersionedEntity read() {
+		return template.read("item", SimpleDbVersionedEntity.class, true);
+	}
+}
@@ -0,0 +1,151 @@
+package org.springframework.data.simpledb.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+import org.springframework.data.simpledb.core.metrics.OperationStatistics;
+import org.springframework.data.simpledb.core.metrics.OperationType;
+import org.springframework.data.simpledb.core.metrics.SimpleDbMetrics;
+
+public class SimpleDbTemplateWriteBehindTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+
+	private SimpleDbMetrics metrics;
+	private SimpleDb simpleDb;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		metrics = new SimpleDbMetrics();
+
+		simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(new InMemorySimpleDb());
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.setWriteBehindDelay(60000);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		/* the domain is created */
+		template.createOrUpdate(createEntity("first", 0));
+		template.flush();
+		metrics.reset();
+	}
+
+	@After
+	public void tearDown() {
+		simpleDb.destroy();
+	}
+
+	@Test
+	public void repeated_saves_should_be_coalesced() {
+		for(int i = 1; i <= 10; i++) {
+			template.createOrUpdate(createEntity("item", i));
+		}
+
+		assertEquals(1, template.getPendingWriteCount());
+		assertEquals(10, template.read("item", SimpleDbSampleEntity.class).getAge());
+		assertEquals(0, getCalls(OperationType.PUT) + getCalls(OperationType.BATCH_PUT));
+		assertEquals(0, getCalls(OperationType.GET));
+
+		template.flush();
+
+		assertEquals(0, template.getPendingWriteCount());
+		assertEquals(1, getCalls(OperationType.BATCH_PUT));
+		assertEquals(10, template.read("item", SimpleDbSampleEntity.class, true).getAge());
+	}
+
+	@Test
+	public void delete_should_discard_pending_save() {
+		template.createOrUpdate(createEntity("item", 1));
+		template.delete(SimpleDbSampleEntity.class, Arrays.asList("item"));
+		template.flush();
+
+		assertEquals(0, template.getPendingWriteCount());
+		assertNull(template.read("item", SimpleDbSampleEntity.class, true));
+	}
+
+	@Test
+	public void full_buffer_should_be_flushed_by_saving_thread() {
+		simpleDb.setWriteBehindMaxItems(5);
+		simpleDb.destroy();
+
+		for(int i = 0; i < 12; i++) {
+			template.createOrUpdate(createEntity("item" + i, i));
+		}
+
+		assertTrue(template.getPendingWriteCount() <= 5);
+		assertTrue(getCalls(OperationType.BATCH_PUT) >= 2);
+
+		template.flush();
+		for(int i = 0; i < 12; i++) {
+			assertEquals(i, template.read("item" + i, SimpleDbSampleEntity.class, true).getAge());
+		}
+	}
+
+	@Test
+	public void flush_size_should_trigger_flush() throws InterruptedException {
+		simpleDb.setWriteBehindFlushSize(3);
+		simpleDb.destroy();
+
+		for(int i = 0; i < 3; i++) {
+			template.createOrUpdate(createEntity("item" + i, i));
+		}
+
+		for(int i = 0; i < 100 && template.getPendingWriteCount() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, template.getPendingWriteCount());
+	}
+
+	@Test
+	public void destroy_should_write_pending_saves() {
+		template.createOrUpdate(createEntity("item", 1));
+		template.destroy();
+
+		assertEquals(0, template.getPendingWriteCount());
+		assertEquals(1, template.read("item", SimpleDbSampleEntity.class, true).getAge());
+	}
+
+	@Test
+	public void templates_should_share_pending_saves() {
+		SimpleDbTemplate other = new SimpleDbTemplate(simpleDb);
+		other.createOrUpdate(createEntity("item", 1));
+
+		assertEquals(1, template.getPendingWriteCount());
+		assertEquals(1, template.read("item", SimpleDbSampleEntity.class).getAge());
+
+		template.delete(SimpleDbSampleEntity.class, Arrays.asList("item"));
+
+		assertEquals(0, other.getPendingWriteCount());
+	}
+
+	@Test
+	public void simpleDb_destroy_should_write_pending_saves() {
+		new SimpleDbTemplate(simpleDb).createOrUpdate(createEntity("item", 1));
+		simpleDb.destroy();
+
+		assertEquals(1, getCalls(OperationType.BATCH_PUT));
+		assertEquals(1, template.read("item", SimpleDbSampleEntity.class, true).getAge());
+	}
+
+	private SimpleDbSampleEntity createEntity(String itemName, int age) {
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName(itemName);
+		entity.setAge(age);
+		entity.setAtts(new HashMap<String, String>());
+		return entity;
+	}
+
+	private long getCalls(OperationType operationType) {
+		final OperationStatistics statistics = metrics.getOperationStatistics(DOMAIN, operationType);
+		return statistics == null ? 0 : statistics.getCalls();
+	}
+}
@@ -0,0 +1,35 @@
+package org.springframework.data.simpledb.core.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.annotation.Sharded;
+
+@Sharded(shards = 4)
+public class SimpleDbShardedEntity {
+
+	@Id
+	private String itemName;
+
+	private int age;
+
+	public SimpleDbShardedEntity() {
+	}
+
+	public SimpleDbShardedEntity(String itemName, int age) {
+		this.itemName = itemName;
+		this.age = age;
+	}
+
+	public void setItemName(String itemName) {
+		this.itemName = itemName;
+	}
+	public String getItemName() {
+		return itemName;
+	}
+
+	public int getAge() {
+		return age;
+	}
+	public void setAge(int age) {
+		this.age = age;
+	}
+}
@@ -0,0 +1,53 @@
+package org.springframework.data.simpledb.core.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.simpledb.annotation.Version;
+
+public class SimpleDbVersionedEntity {
+
+	@Id
+	private String itemName;
+
+	private int age;
+
+	private String description;
+
+	@Version
+	private Long version;
+
+	public SimpleDbVersionedEntity() {
+	}
+
+	public SimpleDbVersionedEntity(String itemName, int age) {
+		this.itemName = itemName;
+		this.age = age;
+	}
+
+	public void setItemName(String itemName) {
+		this.itemName = itemName;
+	}
+	public String getItemName() {
+		return itemName;
+	}
+
+	public int getAge() {
+		return age;
+	}
+	public void setAge(int age) {
+		this.age = age;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+}
@@ -10,6 +10,10 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -110,6 +114,34 @@ public class JsonMarshallerTest {
 
     }
 
+    @Test
+    public void marshall_should_be_thread_safe() throws Exception {
+        final List<String> strings = new ArrayList<String>(Arrays.asList("one", "two", "three"));
+        final String expected = marshaller.marshall(strings);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(new Callable<String>() {
+
+                    @Override
+                    public String call() {
+                        User user = marshaller.unmarshall(marshaller.marshall(createSampleUser()), User.class);
+                        assertEquals("Joe", user.getName().getFirst());
+                        return marshaller.marshall(strings);
+                    }
+                }));
+            }
+
+            for (Future<String> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void should_deserialize_without_serialization() throws Exception {
     	JsonMarshaller newMarshaller = JsonMarshaller.createNew();
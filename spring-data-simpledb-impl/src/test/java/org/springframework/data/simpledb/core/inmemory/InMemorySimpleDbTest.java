@@ -0,0 +1,171 @@
+package org.springframework.data.simpledb.core.inmemory;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ConditionalCheckFailedException;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.GetAttributesRequest;
+import com.amazonaws.services.simpledb.model.InvalidQueryExpressionException;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.NumberSubmittedItemsExceededException;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+import com.amazonaws.services.simpledb.model.UpdateCondition;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.simpledb.core.SimpleDb;
+import org.springframework.data.simpledb.core.SimpleDbTemplate;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InMemorySimpleDbTest {
+
+	private static final String DOMAIN = "testDomain";
+
+	private InMemorySimpleDb simpleDb;
+
+	@Before
+	public void setUp() {
+		simpleDb = new InMemorySimpleDb();
+		simpleDb.createDomain(new CreateDomainRequest(DOMAIN));
+	}
+
+	@Test
+	public void putAttributes_should_replace_values_and_keep_added_ones() {
+		put("item", "name", "first", true);
+		put("item", "tag", "a", false);
+		put("item", "tag", "b", false);
+		put("item", "name", "second", true);
+
+		List<Attribute> attributes = simpleDb.getAttributes(new GetAttributesRequest(DOMAIN, "item")).getAttributes();
+
+		assertEquals(3, attributes.size());
+		assertEquals(new Attribute("name", "second"), attributes.get(0));
+	}
+
+	@Test
+	public void select_should_evaluate_where_and_order_by() {
+		put("item1", "age", "03", true);
+		put("item2", "age", "01", true);
+		put("item3", "age", "02", true);
+
+		SelectResult result = simpleDb.select(new SelectRequest("select * from `" + DOMAIN
+				+ "` where age > '01' order by age desc"));
+
+		assertEquals(2, result.getItems().size());
+		assertEquals("item1", result.getItems().get(0).getName());
+		assertEquals("item3", result.getItems().get(1).getName());
+	}
+
+	@Test
+	public void select_should_page_with_next_token() {
+		for(int i = 0; i < 5; i++) {
+			put("item" + i, "age", "0" + i, true);
+		}
+
+		String query = "select * from `" + DOMAIN + "` limit 2";
+		List<String> itemNames = new ArrayList<String>();
+		String nextToken = null;
+		int pages = 0;
+		do {
+			SelectResult result = simpleDb.select(new SelectRequest(query).withNextToken(nextToken));
+			for(Item item : result.getItems()) {
+				itemNames.add(item.getName());
+			}
+			nextToken = result.getNextToken();
+			pages++;
+		} while(nextToken != null);
+
+		assertEquals(3, pages);
+		assertEquals(5, itemNames.size());
+		assertEquals("item4", itemNames.get(4));
+	}
+
+	@Test
+	public void select_should_return_partial_counts_with_next_token() {
+		for(int i = 0; i < 5; i++) {
+			put("item" + i, "age", "0" + i, true);
+		}
+		simpleDb.setCountPageSize(2);
+
+		SelectResult result = simpleDb.select(new SelectRequest("select count(*) from `" + DOMAIN + "`"));
+
+		assertEquals("2", result.getItems().get(0).getAttributes().get(0).getValue());
+		assertNotNull(result.getNextToken());
+	}
+
+	@Test(expected = InvalidQueryExpressionException.class)
+	public void select_should_reject_sort_attribute_without_predicate() {
+		simpleDb.select(new SelectRequest("select * from `" + DOMAIN + "` order by age"));
+	}
+
+	@Test(expected = NumberSubmittedItemsExceededException.class)
+	public void batchPutAttributes_should_enforce_batch_size_limit() {
+		List<ReplaceableItem> items = new ArrayList<ReplaceableItem>();
+		for(int i = 0; i <= InMemorySimpleDb.MAX_ITEMS_PER_BATCH; i++) {
+			items.add(new ReplaceableItem("item" + i).withAttributes(new ReplaceableAttribute("name", "value", true)));
+		}
+
+		simpleDb.batchPutAttributes(new BatchPutAttributesRequest(DOMAIN, items));
+	}
+
+	@Test(expected = ConditionalCheckFailedException.class)
+	public void putAttributes_should_check_expected_value() {
+		put("item", "version", "1", true);
+
+		simpleDb.putAttributes(new PutAttributesRequest(DOMAIN, "item", singleAttribute("version", "2", true),
+				new UpdateCondition("version", "0", true)));
+	}
+
+	@Test
+	public void requests_should_fail_with_service_unavailable_at_configured_rate() {
+		simpleDb.setServiceUnavailableRate(1);
+
+		try {
+			put("item", "name", "value", true);
+			fail("Service unavailable error expected");
+		} catch(AmazonServiceException e) {
+			assertEquals(503, e.getStatusCode());
+			assertEquals(AmazonServiceException.ErrorType.Service, e.getErrorType());
+		}
+	}
+
+	@Test
+	public void template_should_create_and_read_entities() {
+		SimpleDb config = new SimpleDb();
+		config.setSimpleDbClient(new InMemorySimpleDb());
+		config.afterPropertiesSet();
+		SimpleDbTemplate template = new SimpleDbTemplate(config);
+
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName("sample");
+		entity.setAge(42);
+		entity.setAtts(new HashMap<String, String>());
+		template.createOrUpdate(entity);
+
+		SimpleDbSampleEntity read = template.read("sample", SimpleDbSampleEntity.class);
+
+		assertNotNull(read);
+		assertEquals(42, read.getAge());
+		assertEquals(1, template.count(SimpleDbSampleEntity.class));
+	}
+
+	private void put(String itemName, String name, String value, boolean replace) {
+		simpleDb.putAttributes(new PutAttributesRequest(DOMAIN, itemName, singleAttribute(name, value, replace)));
+	}
+
+	private static List<ReplaceableAttribute> singleAttribute(String name, String value, boolean replace) {
+		List<ReplaceableAttribute> attributes = new ArrayList<ReplaceableAttribute>();
+		attributes.add(new ReplaceableAttribute(name, value, replace));
+		return attributes;
+	}
+}
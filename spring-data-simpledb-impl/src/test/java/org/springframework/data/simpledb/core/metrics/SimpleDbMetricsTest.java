@@ -0,0 +1,164 @@
+package org.springframework.data.simpledb.core.metrics;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.simpledb.core.RetryPolicy;
+import org.springframework.data.simpledb.core.SimpleDb;
+import org.springframework.data.simpledb.core.SimpleDbTemplate;
+import org.springframework.data.simpledb.core.domain.SimpleDbSampleEntity;
+import org.springframework.data.simpledb.core.inmemory.InMemorySimpleDb;
+
+import com.amazonaws.AmazonServiceException;
+
+public class SimpleDbMetricsTest {
+
+	private static final String DOMAIN = "simpleDbSampleEntity";
+
+	private InMemorySimpleDb simpleDbClient;
+	private SimpleDbMetrics metrics;
+	private SimpleDbTemplate template;
+
+	@Before
+	public void setUp() {
+		simpleDbClient = new InMemorySimpleDb();
+		metrics = new SimpleDbMetrics();
+
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+	}
+
+	@Test
+	public void template_requests_should_be_recorded_per_domain_and_operation() {
+		for(int i = 0; i < 3; i++) {
+			template.createOrUpdate(createEntity("item" + i));
+		}
+		List<SimpleDbSampleEntity> found = template.find(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "`");
+		long count = template.count(SimpleDbSampleEntity.class);
+
+		assertEquals(3, found.size());
+		assertEquals(3, count);
+
+		OperationStatistics puts = metrics.getOperationStatistics(DOMAIN, OperationType.PUT);
+		assertEquals(3, puts.getCalls());
+		assertEquals(3, puts.getItems());
+		assertTrue(puts.getBytesOut() > 0);
+		assertTrue(puts.getBoxUsage() > 0);
+
+		OperationStatistics selects = metrics.getOperationStatistics(DOMAIN, OperationType.SELECT);
+		assertEquals(1, selects.getCalls());
+		assertEquals(3, selects.getItems());
+		assertTrue(selects.getBytesIn() > 0);
+
+		assertEquals(1, metrics.getOperationStatistics(DOMAIN, OperationType.COUNT).getCalls());
+		assertEquals(1, metrics.getOperationStatistics(DOMAIN, OperationType.CREATE_DOMAIN).getCalls());
+		assertTrue(metrics.getTotalBoxUsage() >= puts.getBoxUsage() + selects.getBoxUsage());
+		assertEquals(0, metrics.getTotalErrors());
+	}
+
+	@Test
+	public void throttled_request_without_retry_should_be_recorded_as_error_only() {
+		template.createOrUpdate(createEntity("item"));
+		simpleDbClient.setServiceUnavailableRate(1);
+
+		try {
+			template.find(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "`");
+			fail("service should be unavailable");
+		} catch(DataAccessResourceFailureException e) {
+			/* expected */
+		}
+
+		OperationStatistics selects = metrics.getOperationStatistics(DOMAIN, OperationType.SELECT);
+		assertEquals(1, selects.getErrors());
+		assertEquals(0, selects.getRetries());
+	}
+
+	@Test
+	public void throttled_requests_should_count_scheduled_retries_only() {
+		SimpleDb simpleDb = new SimpleDb();
+		simpleDb.setSimpleDbClient(simpleDbClient);
+		simpleDb.setMetricsListener(metrics);
+		simpleDb.setRetryPolicy(new RetryPolicy() {
+
+			@Override
+			public long getRetryDelay(int retry, long totalDelay) {
+				return retry <= 2 ? 0 : NO_RETRY;
+			}
+		});
+		simpleDb.afterPropertiesSet();
+		template = new SimpleDbTemplate(simpleDb);
+
+		template.createOrUpdate(createEntity("item"));
+		simpleDbClient.setServiceUnavailableRate(1);
+
+		try {
+			template.find(SimpleDbSampleEntity.class, "select * from `" + DOMAIN + "`");
+			fail("service should be unavailable");
+		} catch(DataAccessResourceFailureException e) {
+			/* expected */
+		}
+
+		OperationStatistics selects = metrics.getOperationStatistics(DOMAIN, OperationType.SELECT);
+		assertEquals(3, selects.getCalls());
+		assertEquals(3, selects.getErrors());
+		assertEquals(2, selects.getRetries());
+	}
+
+	@Test
+	public void histogram_should_count_every_request() {
+		metrics.requestCompleted(DOMAIN, OperationType.GET, 500000, 1, 10, 20, 0.5);
+		metrics.requestCompleted(DOMAIN, OperationType.GET, 3000000, 1, 10, 20, 0.25);
+		metrics.requestFailed(DOMAIN, OperationType.GET, 60000000000L, new AmazonServiceException("failed"));
+
+		OperationStatistics gets = metrics.getOperationStatistics(DOMAIN, OperationType.GET);
+		long[] histogram = gets.getLatencyHistogram();
+		assertEquals(1, histogram[0]);
+		assertEquals(1, histogram[2]);
+		assertEquals(1, histogram[histogram.length - 1]);
+		assertEquals(3, gets.getCalls());
+		assertEquals(1, gets.getErrors());
+		assertEquals(0, gets.getRetries());
+		assertEquals(0.75, gets.getBoxUsage(), 0);
+		assertEquals(60000000, gets.getMaxLatencyMicros());
+		assertEquals(5000, gets.getMedianLatencyMicros());
+	}
+
+	@Test
+	public void metrics_should_be_exposed_over_jmx() throws Exception {
+		metrics.requestCompleted(DOMAIN, OperationType.PUT, 1000, 1, 10, 0, 0.5);
+		metrics.registerMBean();
+		try {
+			Object totalBoxUsage = ManagementFactory.getPlatformMBeanServer().getAttribute(
+					new ObjectName(SimpleDbMetrics.DEFAULT_OBJECT_NAME), "TotalBoxUsage");
+			assertEquals(0.5, (Double) totalBoxUsage, 0);
+		} finally {
+			metrics.unregisterMBean();
+		}
+	}
+
+	@Test
+	public void getSelectDomain_should_unquote_domain() {
+		assertEquals("a`b", InstrumentedAmazonSimpleDB.getSelectDomain("select * from `a``b` where x = '1'"));
+		assertEquals("plain", InstrumentedAmazonSimpleDB.getSelectDomain("select count(*) FROM plain"));
+		assertNull(InstrumentedAmazonSimpleDB.getSelectDomain("select"));
+	}
+
+	private SimpleDbSampleEntity createEntity(String itemName) {
+		SimpleDbSampleEntity entity = new SimpleDbSampleEntity();
+		entity.setItemName(itemName);
+		entity.setAge(1);
+		entity.setAtts(new HashMap<String, String>());
+		return entity;
+	}
+}
@@ -41,6 +41,17 @@ public class SimpleDbExceptionTranslatorTest {
 		assertThat(dataAccessException.getLocalizedMessage(), is("Attribute does not exist"));
 	}
 
+	@Test
+	public void translateExceptionIfPossible_should_translate_ConditionalCheckFailedException_into_OptimisticLockingFailureException() {
+		ConditionalCheckFailedException conditionalCheckFailedException = new ConditionalCheckFailedException(
+				"Conditional check failed");
+
+		DataAccessException dataAccessException = translator
+				.translateExceptionIfPossible(conditionalCheckFailedException);
+		assertThat(dataAccessException, is(instanceOf(OptimisticLockingFailureException.class)));
+		assertThat(dataAccessException.getLocalizedMessage(), StringContains.containsString("Conditional check failed"));
+	}
+
 	@Test
 	public void translateExceptionIfPossible_should_translate_ResourceNotFoundException_into_DataRetrievalFailureException() {
 		ResourceNotFoundException resourceNotFoundException = new ResourceNotFoundException("Resource Not Found");
@@ -0,0 +1,121 @@
+package org.springframework.data.simpledb.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.simpledb.attributeutil.SimpleDBAttributeConverter;
+
+public class QueryTemplateTest {
+
+	@Test
+	public void bind_should_double_single_quotes_of_values() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` where name = ?",
+				getMockParameters(false, String.class));
+
+		assertEquals("select * from `d` where name = 'o''hara'", template.bind("o'hara"));
+	}
+
+	@Test
+	public void bind_should_reuse_compiled_template() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` where a = :a and b like %:b%",
+				getMockParameters(true, String.class, String.class));
+
+		assertEquals("select * from `d` where a = 'x' and b like '%y%'", template.bind("x", "y"));
+		assertEquals("select * from `d` where a = '1' and b like '%2%'", template.bind("1", "2"));
+	}
+
+	@Test
+	public void compile_should_skip_placeholders_in_quoted_literals() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d?` where name = 'where?' and age = ?",
+				getMockParameters(false, String.class));
+
+		assertEquals("select * from `d?` where name = 'where?' and age = 'a'", template.bind("a"));
+	}
+
+	@Test
+	public void bind_should_not_rebind_placeholders_of_bound_values() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` where a = ? and b = ?",
+				getMockParameters(false, String.class, String.class));
+
+		assertEquals("select * from `d` where a = '?' and b = 'b'", template.bind("?", "b"));
+	}
+
+	@Test
+	public void bind_should_expand_arrays_of_in_operator() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` where name = :a and age IN :b",
+				getMockParameters(true, String.class, int[].class));
+
+		List<String> ages = SimpleDBAttributeConverter.encodeArray(new int[] { 1, 2 });
+		assertEquals("select * from `d` where name = 'n' and age IN ('" + ages.get(0) + "','" + ages.get(1) + "')",
+				template.bind("n", new int[] { 1, 2 }));
+	}
+
+	@Test
+	public void compile_should_not_bind_pageable_parameter() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` where a = ? ",
+				getMockParameters(false, String.class, Pageable.class));
+
+		assertEquals("select * from `d` where a = 'a'", template.bind("a", new PageRequest(0, 10)));
+	}
+
+	@Test
+	public void compile_should_keep_query_without_parameters() {
+		QueryTemplate template = QueryTemplate.compile("select * from `d` ", getMockParameters(false));
+
+		assertFalse(template.hasParameters());
+		assertEquals("select * from `d` ", template.bind());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void compile_should_fail_for_missing_placeholder() {
+		QueryTemplate.compile("select * from `d` where a = :a", getMockParameters(true, String.class, String.class));
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void unbind_should_empty_literals_of_bound_queries() {
+		List<String> literals = new ArrayList<String>();
+		String unbound = QueryTemplate.unbind("select * from `d'` where a = 'o''hara' and b in ('1','2')", literals);
+
+		assertEquals("select * from `d'` where a = '' and b in ('','')", unbound);
+		assertEquals(3, literals.size());
+		assertEquals("'o''hara'", literals.get(0));
+		assertEquals(unbound, QueryTemplate.unbind("select * from `d'` where a = 'x' and b in ('3','4')",
+				new ArrayList<String>()));
+	}
+
+	@Test
+	public void rebind_should_restore_literals_into_changed_query() {
+		List<String> literals = new ArrayList<String>();
+		String unbound = QueryTemplate.unbind("select * from `d` where id = 'it''s' and a = ' id '", literals);
+
+		assertEquals("select * from `d` where itemName() = 'it''s' and a = ' id '",
+				QueryTemplate.rebind(unbound.replace(" id ", " itemName() "), literals));
+	}
+
+	private Parameters getMockParameters(boolean named, Class... clazzes) {
+		Parameters mockParameters = Mockito.mock(Parameters.class);
+
+		List<Parameter> parameters = new ArrayList<Parameter>(clazzes.length);
+		for(int idx = 0; idx < clazzes.length; ++idx) {
+			Parameter mockParameter = Mockito.mock(Parameter.class);
+			Mockito.when(mockParameter.getPlaceholder()).thenReturn(":" + (char) ('a' + idx));
+			Mockito.when(mockParameter.isNamedParameter()).thenReturn(named && !Pageable.class.equals(clazzes[idx]));
+			Mockito.when(mockParameter.getIndex()).thenReturn(idx);
+			Mockito.when(mockParameter.getType()).thenReturn(clazzes[idx]);
+			parameters.add(mockParameter);
+		}
+
+		Mockito.when(mockParameters.iterator()).thenReturn(parameters.iterator());
+		return mockParameters;
+	}
+}
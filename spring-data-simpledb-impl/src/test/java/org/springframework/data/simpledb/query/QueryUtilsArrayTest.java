@@ -29,7 +29,7 @@ public class QueryUtilsArrayTest {
 		String expectedQuery = "select * from customer_all WHERE age in ('" + convertedFirstAge + "','"+convertedSecondAge+"') and x= 'name'";
 		final Parameters parameters = getMockParameters(new String[]{":name", ":age"}, new Class[]{String.class, int[].class});
 
-		String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, "name", new int[]{firstAge, secondAge});
+		String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind("name", new int[]{firstAge, secondAge});
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -46,7 +46,7 @@ public class QueryUtilsArrayTest {
         String expectedQuery = "select * from customer_all WHERE age in('" + convertedFirstAge + "','"+convertedSecondAge+"')";
         final Parameters parameters = getMockParameters(new String[]{":age"}, new Class[]{String.class});
 
-        String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, new int[]{firstAge, secondAge});
+        String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind(new int[]{firstAge, secondAge});
 
         assertThat(resultedQuery, is(expectedQuery));
     }
@@ -0,0 +1,38 @@
+package org.springframework.data.simpledb.query;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+public class QueryUtilsClausesTest {
+
+	@Test
+	public void getQueryOrder_should_return_attribute_and_direction() {
+		final Sort.Order order = QueryUtils.getQueryOrder("select * from `d` where a > '1' order by `a` desc limit 5");
+
+		assertThat(order.getProperty(), is("a"));
+		assertThat(order.getDirection(), is(Sort.Direction.DESC));
+	}
+
+	@Test
+	public void getQueryOrder_should_ignore_order_by_in_literals() {
+		assertNull(QueryUtils.getQueryOrder("select * from `d` where a = 'x order by b desc'"));
+
+		final Sort.Order order = QueryUtils.getQueryOrder("select * from `d` where a = ' order by b ' order by a");
+		assertThat(order.getProperty(), is("a"));
+		assertThat(order.getDirection(), is(Sort.Direction.ASC));
+	}
+
+	@Test
+	public void getQueryDomain_should_ignore_from_in_quoted_names() {
+		assertThat(QueryUtils.getQueryDomain("select `a from b` from `d` where c = ' from e'"), is("d"));
+	}
+
+	@Test
+	public void replaceQueryDomain_should_ignore_from_in_quoted_names() {
+		assertThat(QueryUtils.replaceQueryDomain("select `a from b` from `d` where c = ' from e'", "shard"),
+				is("select `a from b` from `shard` where c = ' from e'"));
+	}
+}
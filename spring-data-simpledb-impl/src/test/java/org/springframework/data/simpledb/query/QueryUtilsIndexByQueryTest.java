@@ -38,7 +38,7 @@ public class QueryUtilsIndexByQueryTest {
 				+ "' and balance = '" + convertedBalance + "'";
         final Parameters parameters = getMockParameters(new String[]{"?","?","?"}, new Class[]{int.class, String.class, float.class});
 
-		String resultedQuery = QueryUtils.buildQuery(BIND_QUERY, parameters, age, email, balance);
+		String resultedQuery = QueryTemplate.compile(BIND_QUERY, parameters).bind(age, email, balance);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -52,7 +52,7 @@ public class QueryUtilsIndexByQueryTest {
 
 		String expectedQuery = "select * from customer_all WHERE date = '" + convertedDate + "'";
         final Parameters parameters = getMockParameters(new String[]{"?"}, new Class[]{Date.class});
-		String resultedQuery = QueryUtils.buildQuery(bindQueryWithDate, parameters, date);
+		String resultedQuery = QueryTemplate.compile(bindQueryWithDate, parameters).bind(date);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -66,7 +66,7 @@ public class QueryUtilsIndexByQueryTest {
 
         String expectedQuery = "select * from customer_all WHERE byte_array = '" + convertedByteArray + "'";
         final Parameters parameters = getMockParameters(new String[]{"?"}, new Class[]{byte[].class});
-        String resultedQuery = QueryUtils.buildQuery(bindQueryWithDate, parameters, byteArray);
+        String resultedQuery = QueryTemplate.compile(bindQueryWithDate, parameters).bind(byteArray);
 
         assertThat(resultedQuery, is(expectedQuery));
     }
@@ -80,7 +80,7 @@ public class QueryUtilsIndexByQueryTest {
 
         String expectedQuery = "select * from customer_all WHERE byte_array = '" + convertedInt + "' and c = 4";
         final Parameters parameters = getMockParameters(new String[]{"?"}, new Class[]{int.class});
-        String resultedQuery = QueryUtils.buildQuery(bindQueryWithDate, parameters, intValue);
+        String resultedQuery = QueryTemplate.compile(bindQueryWithDate, parameters).bind(intValue);
 
         assertThat(resultedQuery, is(expectedQuery));
     }
@@ -98,7 +98,7 @@ public class QueryUtilsIndexByQueryTest {
 				+ convertedSecondAge + "')";
 
 		final Parameters parameters = getMockParameters(new String[] { "?" }, new Class[] { long[].class });
-		String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, new long[] { firstAge, secondAge });
+		String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind(new long[] { firstAge, secondAge });
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -113,7 +113,7 @@ public class QueryUtilsIndexByQueryTest {
 		String expectedQuery = "select * from customer_all WHERE age in ('1','2') and age='" + convertedFirstAge + "'";
 
 		final Parameters parameters = getMockParameters(new String[]{"?"}, new Class[]{long.class});
-		String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, firstAge);
+		String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind(firstAge);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -128,7 +128,7 @@ public class QueryUtilsIndexByQueryTest {
 	public void buildQueryConditionsWithParameters_should_fail_for_wrong_string() {
 		final String bind_query = "select * from customer_all WHERE name = 'where?' and age=?";
 		final Parameters parameters = getMockParameters("?");
-		System.out.println(QueryUtils.buildQuery(bind_query, parameters, 23));
+		System.out.println(QueryTemplate.compile(bind_query, parameters).bind(23));
 	}
 
 	/**
@@ -140,7 +140,7 @@ public class QueryUtilsIndexByQueryTest {
 		final String bind_query = "select * from customer_all WHERE name = '?'";
 
 		final Parameters parameters = getMockParameters("?");
-		QueryUtils.buildQuery(bind_query, parameters, 23);
+		QueryTemplate.compile(bind_query, parameters).bind(23);
 	}
 
 	/**
@@ -158,23 +158,17 @@ public class QueryUtilsIndexByQueryTest {
 		String expectedQuery = "select * from customer_all WHERE name = '" + convertedFirstAge + "'";
 
 		final Parameters parameters = getMockParameters("?", "?");
-		String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, "name", firstAge);
+		String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind("name", firstAge);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
 
 	@Test
-	public void replaceOneParameterInQuery_should_parse_positional_parameters() {
+	public void compile_should_bind_positional_parameters_by_count() {
 		
-		final String paramPlaceholder = "\\?";
 		final String rawQuery = "a = ? AND (`b.c` = ? OR d IN ?) ORDER BY x";
 		
-		String replacedQuery = QueryUtils.replaceOneParameterInQuery(rawQuery, 
-				paramPlaceholder, 0.01F);
-		replacedQuery = QueryUtils.replaceOneParameterInQuery(replacedQuery, 
-				paramPlaceholder, "baz");
-		replacedQuery = QueryUtils.replaceOneParameterInQuery( replacedQuery,
-				paramPlaceholder, new String[] {"foo", "bar"});
+		String replacedQuery = QueryTemplate.compile(rawQuery, 3).bind(0.01F, "baz", new String[] {"foo", "bar"});
 		
 		assertEquals("a = '" + SimpleDBAttributeConverter.encode(0.01F) + 
 				"' AND (`b.c` = 'baz' OR d IN ('foo','bar')) ORDER BY x", replacedQuery);
@@ -27,7 +27,7 @@ public class QueryUtilsNamedQueryTest {
 		final String rawQuery = "select * from spring_data where type = :type";
 		final Parameters parameters = getMockParameters(new String[]{":type"}, new Class[]{String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(rawQuery, parameters, "spring-type");
+		String resultedQuery = QueryTemplate.compile(rawQuery, parameters).bind("spring-type");
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -38,7 +38,7 @@ public class QueryUtilsNamedQueryTest {
 		final String rawQuery = "select * from spring_data where name = :name and type = :type or location = :location ";
 		final Parameters parameters = getMockParameters(new String[]{":name", ":type", ":location"}, new Class[]{String.class, String.class, String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(rawQuery, parameters, "spring-name",
+		String resultedQuery = QueryTemplate.compile(rawQuery, parameters).bind("spring-name",
 				"spring-type", "Timisoara");
 
 		assertThat(resultedQuery, is(expectedQuery));
@@ -60,7 +60,7 @@ public class QueryUtilsNamedQueryTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":age", ":email", ":balance"}, new Class[]{int.class, String.class, float.class});
 
-		String resultedQuery = QueryUtils.buildQuery(bind_query, parameters, age, email,
+		String resultedQuery = QueryTemplate.compile(bind_query, parameters).bind(age, email,
 				balance);
 
 		assertThat(resultedQuery, is(expectedQuery));
@@ -77,7 +77,7 @@ public class QueryUtilsNamedQueryTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":date"}, new Class[]{String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(bindQueryWithDate, parameters, date);
+		String resultedQuery = QueryTemplate.compile(bindQueryWithDate, parameters).bind(date);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -93,7 +93,7 @@ public class QueryUtilsNamedQueryTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":byte_array"}, new Class[]{String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(bindQueryWithDate, parameters, byteArray);
+		String resultedQuery = QueryTemplate.compile(bindQueryWithDate, parameters).bind(byteArray);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -143,7 +143,7 @@ public class QueryUtilsNamedQueryTest {
 		final String rawQuery = "select * from spring_data where name = ::name and type = :";
 		final Parameters parameters = getMockParameters(new String[]{"::name", ":"}, new Class[]{String.class, String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(rawQuery, parameters, "spring-name",
+		String resultedQuery = QueryTemplate.compile(rawQuery, parameters).bind("spring-name",
 				"spring-type");
 
 		assertThat(resultedQuery, is(expectedQuery));
@@ -155,7 +155,7 @@ public class QueryUtilsNamedQueryTest {
 		final String rawQuery = "select * from spring_data where first_name like %:fname and last_name like :lname% and middle_name like %:mname%";
 		final Parameters parameters = getMockParameters(new String[]{":fname", ":lname", ":mname"}, new Class[]{String.class, String.class, String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(rawQuery, parameters, "joe",
+		String resultedQuery = QueryTemplate.compile(rawQuery, parameters).bind("joe",
 				"dev", "o");
 
 		assertThat(resultedQuery, is(expectedQuery));
@@ -37,7 +37,7 @@ public class SimpleDbIndexByQueryMethodBindedTest {
 				+ convertedAge + "' and item_id = '" + email + "'";
 
         final Parameters parameters = getMockParameters(new String[]{"?","?"}, new Class[]{int.class, String.class, String.class});
-		final String resultedQuery = QueryUtils.buildQuery(toProcessParsedQuery, parameters, age, email);
+		final String resultedQuery = QueryTemplate.compile(toProcessParsedQuery, parameters).bind(age, email);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -53,7 +53,7 @@ public class SimpleDbIndexByQueryMethodBindedTest {
 
 		// @Query(select = {"item_id", "sampleAttribute"}, where = " item_id <= ? <= ? or sampleAttribute = ? ")
         final Parameters parameters = getMockParameters(new String[]{"?","?"}, new Class[]{int.class, String.class});
-        QueryUtils.buildQuery(toProcessParsedQuery, parameters, age, email);
+        QueryTemplate.compile(toProcessParsedQuery, parameters).bind(age, email);
 	}
 
 	public interface AnnotatedQueryRepository {
@@ -37,7 +37,7 @@ public class SimpleDbNamedQueryMethodBindedTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":sampleAttribute", ":item_id"}, new Class[]{String.class, String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(toProcessRawQuery, parameters, "3", "5");
+		String resultedQuery = QueryTemplate.compile(toProcessRawQuery, parameters).bind("3", "5");
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -55,7 +55,7 @@ public class SimpleDbNamedQueryMethodBindedTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":attribute", ":item"}, new Class[]{String.class, String.class});
 
-		String resultedQuery = QueryUtils.buildQuery(toProcessRawQuery, parameters, "3", "5");
+		String resultedQuery = QueryTemplate.compile(toProcessRawQuery, parameters).bind("3", "5");
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
@@ -76,7 +76,7 @@ public class SimpleDbNamedQueryMethodBindedTest {
 
 		final Parameters parameters = getMockParameters(new String[]{":attribute", ":item"}, new Class[]{String.class, int.class});
 
-		String resultedQuery = QueryUtils.buildQuery(toProcessRawQuery, parameters, "3", 5);
+		String resultedQuery = QueryTemplate.compile(toProcessRawQuery, parameters).bind("3", 5);
 
 		assertThat(resultedQuery, is(expectedQuery));
 	}
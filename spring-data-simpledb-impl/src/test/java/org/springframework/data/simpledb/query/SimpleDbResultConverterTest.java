@@ -5,7 +5,9 @@ import org.springframework.data.mapping.model.MappingException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -97,4 +99,85 @@ public class SimpleDbResultConverterTest {
 
 	}
 
+	@Test
+	public void projectionsAsListOfListOfObject_should_return_values_in_requested_order() {
+		List<List<Object>> rows = SimpleDbResultConverter.projectionsAsListOfListOfObject(
+				Arrays.asList(createProjection()), Arrays.asList("sampleList", "sampleAttribute"));
+
+		assertEquals(Arrays.asList(Arrays.asList(1, 2), SAMPLE_INT_VALUE), rows.get(0));
+	}
+
+	@Test
+	public void toProjections_should_create_interface_projections() {
+		SampleProjection projection = SimpleDbResultConverter.toProjections(Arrays.asList(createProjection()),
+				SampleProjection.class).get(0);
+
+		assertEquals(SAMPLE_INT_VALUE, projection.getSampleAttribute());
+		assertEquals(Arrays.asList(1, 2), projection.getSampleList());
+	}
+
+	@Test
+	public void toProjections_should_create_dto_projections_with_constructor() {
+		SampleConstructorDto projection = SimpleDbResultConverter.toProjections(Arrays.asList(createProjection()),
+				SampleConstructorDto.class).get(0);
+
+		assertEquals(SAMPLE_INT_VALUE, projection.sampleAttribute);
+		assertEquals(Arrays.asList(1, 2), projection.sampleList);
+	}
+
+	@Test
+	public void toProjections_should_create_dto_projections_with_setters() {
+		SampleSetterDto projection = SimpleDbResultConverter.toProjections(Arrays.asList(createProjection()),
+				SampleSetterDto.class).get(0);
+
+		assertEquals(SAMPLE_INT_VALUE, projection.getSampleAttribute());
+		assertEquals(Arrays.asList(1, 2), projection.getSampleList());
+	}
+
+	private Map<String, Object> createProjection() {
+		Map<String, Object> projection = new LinkedHashMap<String, Object>();
+		projection.put("sampleAttribute", SAMPLE_INT_VALUE);
+		projection.put("sampleList", new ArrayList<Integer>(Arrays.asList(1, 2)));
+		return projection;
+	}
+
+	public interface SampleProjection {
+
+		int getSampleAttribute();
+
+		List<Integer> getSampleList();
+	}
+
+	public static class SampleConstructorDto {
+
+		private final int sampleAttribute;
+		private final List<Integer> sampleList;
+
+		public SampleConstructorDto(int sampleAttribute, List<Integer> sampleList) {
+			this.sampleAttribute = sampleAttribute;
+			this.sampleList = sampleList;
+		}
+	}
+
+	public static class SampleSetterDto {
+
+		private int sampleAttribute;
+		private List<Integer> sampleList;
+
+		public int getSampleAttribute() {
+			return sampleAttribute;
+		}
+
+		public void setSampleAttribute(int sampleAttribute) {
+			this.sampleAttribute = sampleAttribute;
+		}
+
+		public List<Integer> getSampleList() {
+			return sampleList;
+		}
+
+		public void setSampleList(List<Integer> sampleList) {
+			this.sampleList = sampleList;
+		}
+	}
 }
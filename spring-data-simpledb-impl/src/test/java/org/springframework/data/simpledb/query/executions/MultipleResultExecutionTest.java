@@ -87,6 +87,15 @@ public class MultipleResultExecutionTest {
 				multipleResultExecution.detectResultType(repositoryMethod));
 	}
 
+	@Test
+	public void detectResultType_should_return_COLLECTION_OF_PROJECTIONS() throws Exception {
+		SimpleDbQueryMethod repositoryMethod = prepareQueryMethodToTest("projectionSelect", SampleEntity.class);
+		MultipleResultExecution multipleResultExecution = new MultipleResultExecution(null);
+		assertEquals(MultipleResultExecution.MultipleResultType.COLLECTION_OF_PROJECTIONS,
+				multipleResultExecution.detectResultType(repositoryMethod));
+		assertEquals(SampleProjection.class, repositoryMethod.getProjectionType());
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void detectResultType_should_return_error_for_inexisting_field() throws Exception {
 		SimpleDbQueryMethod repositoryMethod = prepareQueryMethodToTest("sampleWrongField", SampleEntity.class);
@@ -123,6 +132,16 @@ public class MultipleResultExecutionTest {
 		@Query(value = "select listOfListOfInteger from `testDB.simpleDbUser`")
 		List<List<Integer>> listOfListOfIntegerFieldSelect();
 
+		@Query(value = "select sampleAttribute, sampleList from `testDB.simpleDbUser`")
+		List<SampleProjection> projectionSelect();
+	}
+
+	public interface SampleProjection {
+
+		int getSampleAttribute();
+
+		List<Integer> getSampleList();
+
 	}
 
 	@SuppressWarnings({ "unchecked", "rawtypes" })
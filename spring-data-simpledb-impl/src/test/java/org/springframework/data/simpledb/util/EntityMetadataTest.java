@@ -0,0 +1,141 @@
+package org.springframework.data.simpledb.util;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Reference;
+import org.springframework.data.simpledb.reflection.EntityMetadata;
+import org.springframework.data.simpledb.reflection.FieldType;
+import org.springframework.data.simpledb.reflection.MetadataParser;
+import org.springframework.data.simpledb.repository.support.entityinformation.SimpleDbEntityInformationSupport;
+
+public class EntityMetadataTest {
+
+	@Test
+	public void forClass_should_return_shared_plan() {
+		assertSame(EntityMetadata.forClass(SampleEntity.class), EntityMetadata.forClass(SampleEntity.class));
+	}
+
+	@Test
+	public void plan_should_classify_supported_fields() throws Exception {
+		EntityMetadata metadata = EntityMetadata.forClass(SampleEntity.class);
+
+		List<Field> supportedFields = metadata.getSupportedFields();
+		assertEquals(MetadataParser.getSupportedFields(SampleEntity.class), supportedFields);
+		assertEquals(5, supportedFields.size());
+
+		Field idField = SampleEntity.class.getDeclaredField("itemName");
+		assertTrue(metadata.isIdField(idField));
+		assertEquals(idField, metadata.getIdField());
+		assertEquals(FieldType.CORE_TYPE, metadata.getFieldType(idField));
+
+		assertEquals(FieldType.PRIMITIVE, metadata.getFieldType(SampleEntity.class.getDeclaredField("age")));
+		assertEquals(FieldType.MAP, metadata.getFieldType(SampleEntity.class.getDeclaredField("values")));
+		assertEquals(FieldType.NESTED_ENTITY, metadata.getFieldType(SampleEntity.class.getDeclaredField("nested")));
+		assertEquals(FieldType.REFERENCE_ENTITY,
+				metadata.getFieldType(SampleEntity.class.getDeclaredField("reference")));
+
+		assertEquals(1, metadata.getNestedFields().size());
+		assertTrue(metadata.isReferenceField("reference"));
+		assertEquals(SampleReference.class, metadata.getReferenceField("reference").getType());
+	}
+
+	@Test
+	public void getMetadata_should_cache_entity_information_per_domain() {
+		assertSame(SimpleDbEntityInformationSupport.getMetadata(SampleEntity.class, "first"),
+				SimpleDbEntityInformationSupport.getMetadata(SampleEntity.class, "first"));
+		assertNotSame(SimpleDbEntityInformationSupport.getMetadata(SampleEntity.class, "first"),
+				SimpleDbEntityInformationSupport.getMetadata(SampleEntity.class, "second"));
+		assertEquals("second", SimpleDbEntityInformationSupport.getMetadata(SampleEntity.class, "second").getDomain());
+	}
+
+	public static class SampleEntity {
+
+		@Id
+		private String itemName;
+
+		private int age;
+
+		private Map<String, String> values;
+
+		private SampleNested nested;
+
+		@Reference
+		private SampleReference reference;
+
+		@SuppressWarnings("unused")
+		private String withoutAccessors;
+
+		public String getItemName() {
+			return itemName;
+		}
+
+		public void setItemName(String itemName) {
+			this.itemName = itemName;
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public Map<String, String> getValues() {
+			return values;
+		}
+
+		public void setValues(Map<String, String> values) {
+			this.values = values;
+		}
+
+		public SampleNested getNested() {
+			return nested;
+		}
+
+		public void setNested(SampleNested nested) {
+			this.nested = nested;
+		}
+
+		public SampleReference getReference() {
+			return reference;
+		}
+
+		public void setReference(SampleReference reference) {
+			this.reference = reference;
+		}
+	}
+
+	public static class SampleNested {
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+	}
+
+	public static class SampleReference {
+
+		@Id
+		private String id;
+
+		public String getId() {
+			return id;
+		}
+
+		public void setId(String id) {
+			this.id = id;
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package org.springframework.data.simpledb.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.springframework.data.annotation.Persistent;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.simpledb.reflection.PropertyAccessor;
+import org.springframework.data.simpledb.reflection.ReflectionUtils;
+
+public class PropertyAccessorTest {
+
+	@Test
+	public void forProperty_should_return_cached_accessor() {
+		assertSame(PropertyAccessor.forProperty(SampleBean.class, "name"),
+				PropertyAccessor.forProperty(SampleBean.class, "name"));
+	}
+
+	@Test
+	public void accessor_should_use_getter_and_setter() {
+		SampleBean bean = new SampleBean();
+		PropertyAccessor accessor = PropertyAccessor.forProperty(SampleBean.class, "name");
+
+		accessor.setValue(bean, "value");
+
+		assertEquals("setter:value", bean.name);
+		assertEquals("getter:setter:value", accessor.getValue(bean));
+	}
+
+	@Test
+	public void accessor_should_access_persistent_fields_directly() {
+		SampleBean bean = new SampleBean();
+		PropertyAccessor accessor = PropertyAccessor.forProperty(SampleBean.class, "counter");
+
+		accessor.setValue(bean, Long.valueOf(7));
+
+		assertEquals(7L, accessor.getValue(bean));
+		assertEquals(7L, ReflectionUtils.callGetter(bean, "counter"));
+	}
+
+	@Test(expected = MappingException.class)
+	public void callGetter_should_fail_for_unknown_property() {
+		ReflectionUtils.callGetter(new SampleBean(), "unknown");
+	}
+
+	@Test(expected = MappingException.class)
+	public void setValue_should_fail_for_wrong_value_type() {
+		PropertyAccessor.forProperty(SampleBean.class, "name").setValue(new SampleBean(), Integer.valueOf(1));
+	}
+
+	static class SampleBean {
+
+		private String name;
+
+		@Persistent
+		private long counter;
+
+		public String getName() {
+			return "getter:" + name;
+		}
+
+		public void setName(String name) {
+			this.name = "setter:" + name;
+		}
+	}
+}